@@ -1,5 +1,7 @@
 package top.daheizi.commons.fight.common;
 
+import java.util.SplittableRandom;
+
 /**
  * 战斗公式
  * @author daheizi
@@ -59,6 +61,43 @@ public class FightFormula {
     }
 
 
+    /**
+     * 计算概率事件是否触发
+     * @param random 战场的随机数
+     * @param prob
+     * @return
+     * @Date 2026年10月18日 上午9:01:00
+     */
+    public static boolean calcProb(SplittableRandom random, double prob){
+        return random.nextDouble() < prob;
+    }
+
+
+    /**
+     * 计算是否闪避
+     * @param random 战场的随机数
+     * @param dodge
+     * @param hit
+     * @return
+     * @Date 2026年10月18日 上午9:01:20
+     */
+    public static boolean calcDodge(SplittableRandom random, int dodge, int hit){
+        return calcProb(random, calcDodgeRatio(dodge, hit));
+    }
+
+
+    /**
+     * 计算是否暴击
+     * @param random 战场的随机数
+     * @param crip
+     * @return
+     * @Date 2026年10月18日 上午9:01:40
+     */
+    public static boolean calcCrit(SplittableRandom random, int crip){
+        return calcProb(random, calcCritRatio(crip));
+    }
+
+
     /**
      * 计算基础伤害
      * @param att 攻击力
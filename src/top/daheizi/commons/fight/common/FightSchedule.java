@@ -1,6 +1,14 @@
 package top.daheizi.commons.fight.common;
 
-import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -9,6 +17,14 @@ import top.daheizi.commons.fight.room.FightRoom;
 
 /**
  * 战斗调度器
+ * 战场分散到若干执行线程上，线程数默认等于cpu核数，可由系统属性fight.schedule.workers指定
+ * 每个战场同一时刻只归属一个执行线程，战场内部仍是单线程的
+ * 各执行线程统计每个战场的帧耗时，负载过高的线程在帧间隙把部分战场迁移给负载最低的线程
+ * 帧循环以固定步长推进，每帧传给战场的dt都是帧时长，落后时补帧，见FrameClock
+ * 各执行线程的时钟起点相同，迁入的战场按帧序号对齐，迁移前后不会漏帧或重复执行同一帧
+ * 也可由系统属性fight.schedule.mode=room选择每个战场一个线程的模式，
+ * 战场在自己的线程中循环执行帧运算并挂起到下一帧，空闲的战场不占用执行时间，帧运算中可以阻塞
+ * 运行于java 21及以上时使用虚拟线程，否则使用平台线程
  * @author daheizi
  * @Date 2016年3月30日 上午1:28:59
  */
@@ -17,25 +33,140 @@ public class FightSchedule {
     /** log */
     private static Logger log = LoggerFactory.getLogger(FightSchedule.class);
 
-    /** 实例 */
-    private static final FightSchedule instantce = new FightSchedule();
+    /** 调度器编号的生成器，用于区分各调度器的线程名 */
+    private static final AtomicInteger scheduleIds = new AtomicInteger();
 
     /** 每帧时长 */
     private static final long interval = 1000 / FightConstants.FRAME_RATE;
 
-    /** 执行线程 */
-    private Thread thread;
+    /** 每帧时长(纳秒) */
+    private static final long intervalNanos = interval * 1000000;
 
-    /** 战场列表 */
-    private CopyOnWriteArrayList<FightRoom> roomList;
+    /** 落后时一次最多执行的帧数 */
+    private static final int MAX_CATCH_UP_FRAMES = 5;
+
+    /** 执行线程在截止时间前改为让出cpu等待的时长(纳秒) */
+    private static final long SPIN_NANOS = 200000;
+
+    /** 每隔多少帧检查一次负载均衡 */
+    private static final int REBALANCE_FRAMES = FightConstants.FRAME_RATE * 5;
+
+    /** 负载超过平均值的比例达到该值时迁移战场 */
+    private static final double REBALANCE_THRESHOLD = 0.25;
+
+    /** 帧耗时滑动平均的平滑系数(右移位数) */
+    private static final int COST_SHIFT = 3;
+
+    /** 调度器编号 */
+    private final int id = scheduleIds.getAndIncrement();
+
+    /** 调度模式 */
+    private final Mode mode;
+
+    /** 执行线程，每个战场一个线程的模式下为空 */
+    private FightWorker[] workers;
+
+    /** 战场所在的槽位 */
+    private ConcurrentHashMap<FightRoom, RoomSlot> slotMap;
+
+    /** 创建战场线程的工厂，仅用于每个战场一个线程的模式 */
+    private ThreadFactory roomThreadFactory;
+
+    /** 所有战场线程的帧统计 */
+    private FrameClock.Stats roomStats;
+
+    /** 执行线程时钟的起点 */
+    private final long origin = System.nanoTime();
+
+    /** 是否运行中 */
+    private volatile boolean running = true;
+
+    /**
+     * 调度模式
+     * @author daheizi
+     * @Date 2026年10月18日 上午7:40:00
+     */
+    public enum Mode {
+        /** 固定数目的执行线程，每个线程轮流执行多个战场 */
+        WORKER,
+        /** 每个战场一个线程 */
+        ROOM,
+    }
 
     /**
      * 构造函数
      */
     private FightSchedule() {
-        roomList = new CopyOnWriteArrayList<>();
-        thread = new FightScheduleThread();
-        thread.start();
+        this(Mode.valueOf(System.getProperty("fight.schedule.mode", "worker").toUpperCase()),
+                Integer.getInteger("fight.schedule.workers", Runtime.getRuntime().availableProcessors()));
+    }
+
+    /**
+     * 构造函数
+     * @param mode 调度模式
+     * @param workerNum 执行线程数，仅用于WORKER模式
+     */
+    private FightSchedule(Mode mode, int workerNum) {
+        this.mode = mode;
+        slotMap = new ConcurrentHashMap<>();
+        if(mode == Mode.ROOM){
+            workers = new FightWorker[0];
+            roomThreadFactory = newRoomThreadFactory("FightRoom-" + id + "-");
+            roomStats = new FrameClock.Stats();
+            return;
+        }
+        workers = new FightWorker[Math.max(1, workerNum)];
+        for(int i = 0; i < workers.length; i++){
+            workers[i] = new FightWorker(id, i);
+        }
+        for(FightWorker worker : workers){
+            worker.start();
+        }
+    }
+
+    /**
+     * 创建一个独立的调度器，用于测试或与全局调度器隔离的战斗
+     * 不再使用时应调用shutdown
+     * @param mode 调度模式
+     * @param workerNum 执行线程数，仅用于WORKER模式
+     * @return
+     * @Date 2026年10月18日 上午7:40:30
+     */
+    public static FightSchedule newSchedule(Mode mode, int workerNum) {
+        return new FightSchedule(mode, workerNum);
+    }
+
+    /**
+     * 创建战场线程的工厂
+     * java 21及以上使用虚拟线程，以反射调用以保持对旧版本java的兼容
+     * @param prefix 线程名前缀
+     * @return
+     * @Date 2026年10月18日 上午7:41:00
+     */
+    private static ThreadFactory newRoomThreadFactory(String prefix) {
+        try {
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            builder = builderClass.getMethod("name", String.class, long.class).invoke(builder, prefix, 0L);
+            return (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException e) {
+            log.info("virtual thread unsupported, use platform thread per room");
+            AtomicLong threadId = new AtomicLong();
+            return r -> new Thread(r, prefix + threadId.getAndIncrement());
+        }
+    }
+
+    /**
+     * 全局实例的持有者
+     * 首次调用getInstance时才创建全局实例并启动其执行线程，
+     * 只使用newSchedule创建的独立调度器时不会启动全局的执行线程
+     * @author daheizi
+     * @Date 2026年10月18日 上午10:41:00
+     */
+    private static class InstanceHolder {
+
+        /** 实例 */
+        static final FightSchedule instance = new FightSchedule();
     }
 
     /**
@@ -44,40 +175,238 @@ public class FightSchedule {
      * @Date 2016年3月30日 上午1:07:45
      */
     public static FightSchedule getInstance() {
-        return instantce;
+        return InstanceHolder.instance;
     }
 
     /**
-     * 执行帧运算
-     * @param realFrameTime
-     * @Date 2016年3月30日 上午1:05:54
+     * 返回调度模式
+     * @return
+     * @Date 2026年10月18日 上午7:41:30
      */
-    private void runFrame(long realFrameTime) {
-        for(FightRoom room : roomList){
-            try{
-                room.update(realFrameTime);
-            }catch(Exception e){
-                log.error("runFrame error, roomId:{0}", e, room.getRoomId());
-            }
-        }
+    public Mode getMode() {
+        return mode;
     }
 
     /**
-     * 加入战斗
+     * 加入战斗，分配给负载最低的执行线程，或者为其启动一个线程
      * @param room
      * @Date 2016年3月30日 上午1:32:50
      */
     public void schedule(FightRoom room) {
-        roomList.add(room);
+        RoomSlot slot = new RoomSlot(room);
+        if(slotMap.putIfAbsent(room, slot) != null){
+            return;
+        }
+        if(mode == Mode.ROOM){
+            roomThreadFactory.newThread(new RoomLoop(slot)).start();
+        }else{
+            lightestWorker().inbox.add(slot);
+        }
     }
 
     /**
-     * 移除战斗
+     * 移除战斗，可在战场自身的帧运算中调用
+     * 战场在所属执行线程的下一帧被丢弃
      * @param room
      * @Date 2016年3月30日 上午1:32:47
      */
     public void unschedule(FightRoom room) {
-        roomList.remove(room);
+        RoomSlot slot = slotMap.remove(room);
+        if(slot != null){
+            slot.removed = true;
+        }
+    }
+
+    /**
+     * 返回战斗数
+     * @return
+     * @Date 2026年10月18日 上午7:42:00
+     */
+    public int getRoomNum() {
+        return slotMap.size();
+    }
+
+    /**
+     * 停止调度，所有线程在当前帧结束后退出
+     * 中断只用于唤醒等待下一帧的执行线程，是否退出由running决定
+     * @Date 2026年10月18日 上午7:42:30
+     */
+    public void shutdown() {
+        running = false;
+        for(FightWorker worker : workers){
+            worker.interrupt();
+        }
+    }
+
+    /**
+     * 返回各执行线程的统计
+     * 每个战场一个线程的模式下，返回所有战场线程的汇总
+     * @return
+     * @Date 2026年10月18日 上午7:21:10
+     */
+    public List<WorkerStats> getWorkerStats() {
+        List<WorkerStats> list = new ArrayList<>(Math.max(1, workers.length));
+        if(mode == Mode.ROOM){
+            long load = 0;
+            for(RoomSlot slot : slotMap.values()){
+                load += slot.cost;
+            }
+            list.add(new WorkerStats(0, slotMap.size(), load, 0, roomStats));
+            return list;
+        }
+        for(FightWorker worker : workers){
+            list.add(new WorkerStats(worker.index, worker.roomNum, worker.load, worker.migrated, worker.stats));
+        }
+        return list;
+    }
+
+    /**
+     * 返回估计负载(含待加入的)最低的执行线程，负载相同时选战场(含待加入的)较少的
+     * @return
+     * @Date 2026年10月18日 上午7:21:40
+     */
+    private FightWorker lightestWorker() {
+        FightWorker lightest = workers[0];
+        long lightestLoad = lightest.pendingLoad();
+        for(FightWorker worker : workers){
+            long load = worker.pendingLoad();
+            if(load < lightestLoad
+                    || (load == lightestLoad && worker.pendingRoomNum() < lightest.pendingRoomNum())){
+                lightest = worker;
+                lightestLoad = load;
+            }
+        }
+        return lightest;
+    }
+
+    /**
+     * 战场槽位，记录战场的帧耗时
+     * @author daheizi
+     * @Date 2026年10月18日 上午7:22:00
+     */
+    private static class RoomSlot {
+
+        /** 战场 */
+        final FightRoom room;
+
+        /** 是否已移除 */
+        volatile boolean removed;
+
+        /** 帧耗时的滑动平均(纳秒)，只由所属执行线程读写，迁移时经由队列交接 */
+        long cost;
+
+        /** 下一次应执行的帧序号，尚未执行过时为-1，读写规则同cost */
+        long frame = -1;
+
+        /**
+         * 构造函数
+         * @param room
+         */
+        RoomSlot(FightRoom room) {
+            this.room = room;
+        }
+
+        /**
+         * 执行帧运算
+         * @param dt
+         * @return 耗时(纳秒)
+         * @Date 2026年10月18日 上午7:43:00
+         */
+        long update(long dt) {
+            long start = System.nanoTime();
+            try{
+                room.update(dt);
+            }catch(Exception e){
+                log.error("runFrame error, roomId:{0}", e, room.getRoomId());
+            }
+            long execNanos = System.nanoTime() - start;
+            cost += (execNanos - cost) >> COST_SHIFT;
+            return execNanos;
+        }
+    }
+
+    /**
+     * 战场线程，循环执行一个战场的帧运算，两帧之间挂起
+     * @author daheizi
+     * @Date 2026年10月18日 上午7:44:00
+     */
+    private class RoomLoop implements Runnable {
+
+        /** 战场槽位 */
+        final RoomSlot slot;
+
+        /**
+         * 构造函数
+         * @param slot
+         */
+        RoomLoop(RoomSlot slot) {
+            this.slot = slot;
+        }
+
+        /**
+         * @see java.lang.Runnable#run()
+         */
+        @Override
+        public void run() {
+            // 战场线程数目可能很多，只挂起不让出cpu等待
+            FrameClock clock = new FrameClock(intervalNanos, MAX_CATCH_UP_FRAMES, 0, roomStats);
+            while(running && !slot.removed) {
+                // 挂起到下一帧，被中断时返回0，回到循环开头检查是否应退出
+                int steps = clock.awaitFrame();
+                for(int i = 0; i < steps && !slot.removed; i++){
+                    // 执行帧运算
+                    clock.record(slot.update(interval));
+                }
+            }
+        }
+    }
+
+    /**
+     * 执行线程统计
+     * @author daheizi
+     * @Date 2026年10月18日 上午7:22:30
+     */
+    public static class WorkerStats {
+
+        /** 线程编号 */
+        public final int index;
+
+        /** 战场数 */
+        public final int roomNum;
+
+        /** 估计的每帧负载(纳秒) */
+        public final long load;
+
+        /** 迁出的战场数 */
+        public final long migrated;
+
+        /** 帧统计，随执行线程实时更新 */
+        public final FrameClock.Stats frameStats;
+
+        /**
+         * 构造函数
+         * @param index
+         * @param roomNum
+         * @param load
+         * @param migrated
+         * @param frameStats
+         */
+        WorkerStats(int index, int roomNum, long load, long migrated, FrameClock.Stats frameStats) {
+            this.index = index;
+            this.roomNum = roomNum;
+            this.load = load;
+            this.migrated = migrated;
+            this.frameStats = frameStats;
+        }
+
+        /**
+         * @see java.lang.Object#toString()
+         */
+        @Override
+        public String toString() {
+            return "worker" + index + "{rooms=" + roomNum + ", load=" + load / 1000 + "us, migrated=" + migrated
+                    + ", " + frameStats + "}";
+        }
     }
 
     /**
@@ -85,33 +414,168 @@ public class FightSchedule {
      * @author daheizi
      * @Date 2016年3月30日 上午1:06:40
      */
-    private class FightScheduleThread extends Thread {
+    private class FightWorker extends Thread {
+
+        /** 线程编号 */
+        final int index;
+
+        /** 新加入或迁入的战场 */
+        final Queue<RoomSlot> inbox = new ConcurrentLinkedQueue<>();
+
+        /** 本线程的战场，只由本线程访问 */
+        final List<RoomSlot> slots = new ArrayList<>();
+
+        /** 估计的每帧负载(纳秒)，即各战场帧耗时之和，只由本线程写入 */
+        volatile long load;
+
+        /** 迁入队列中战场的帧耗时之和，迁出方加入队列前增加，本线程取出后减少 */
+        final AtomicLong inboxLoad = new AtomicLong();
+
+        /** 战场数 */
+        volatile int roomNum;
+
+        /** 迁出的战场数 */
+        volatile long migrated;
+
+        /** 帧统计 */
+        final FrameClock.Stats stats = new FrameClock.Stats();
+
+        /** 执行的帧数，用于定期检查负载均衡 */
+        int frameCount;
+
+        /**
+         * 构造函数
+         * @param scheduleId 所属调度器的编号
+         * @param index
+         */
+        FightWorker(int scheduleId, int index) {
+            super("FightSchedule-" + scheduleId + "-" + index);
+            this.index = index;
+        }
+
+        /**
+         * 返回战场数，包括尚未加入的
+         * @return
+         * @Date 2026年10月18日 上午7:23:20
+         */
+        int pendingRoomNum() {
+            return roomNum + inbox.size();
+        }
+
+        /**
+         * 返回估计的每帧负载，包括尚未加入的战场
+         * @return
+         * @Date 2026年10月18日 上午10:11:00
+         */
+        long pendingLoad() {
+            return load + inboxLoad.get();
+        }
 
         /**
          * @see java.lang.Thread#run()
          */
         @Override
         public void run() {
-            long currentTime = System.currentTimeMillis();
-            long realFrameTime = 0;
-            while(!this.isInterrupted()) {
-                // 一帧真正消耗的时间(也即两帧时间间隔 dt)
-                realFrameTime = System.currentTimeMillis() - currentTime;
-                // 每帧开始时间
-                currentTime = System.currentTimeMillis();
-                // 执行帧运算
-                runFrame(realFrameTime);
-                // 帧循环运算消耗时间
-                long execTime = System.currentTimeMillis() - currentTime;
-                // 计算休眠时间
-                if(execTime < interval) {
-                    try {
-                        sleep(interval - execTime);
-                    } catch (InterruptedException e) {
-                        // Ignore
+            FrameClock clock = new FrameClock(intervalNanos, MAX_CATCH_UP_FRAMES, SPIN_NANOS, stats, origin);
+            while(running) {
+                // 等待到下一帧的截止时间，落后时连续执行多帧；被中断时返回0，回到循环开头检查running
+                int steps = clock.awaitFrame();
+                long frame = clock.nextFrame() - steps;
+                for(int i = 0; i < steps && running; i++){
+                    long startNanos = System.nanoTime();
+                    // 执行帧运算
+                    runFrame(frame + i, interval);
+                    // 帧循环运算消耗时间
+                    clock.record(System.nanoTime() - startNanos);
+                    if(++frameCount % REBALANCE_FRAMES == 0){
+                        rebalance();
                     }
                 }
             }
         }
+
+        /**
+         * 执行帧运算
+         * 迁入的战场按帧序号对齐：迁出线程已执行过的帧跳过，迁出线程落后而未执行的帧补上
+         * @param frame 帧序号
+         * @param dt
+         * @Date 2016年3月30日 上午1:05:54
+         */
+        private void runFrame(long frame, long dt) {
+            RoomSlot slot;
+            long drained = 0;
+            while((slot = inbox.poll()) != null){
+                drained += slot.cost;
+                slots.add(slot);
+                if(slot.frame < 0){
+                    // 新加入的战场从本帧开始
+                    slot.frame = frame;
+                }
+                for(long f = Math.max(slot.frame, frame - MAX_CATCH_UP_FRAMES + 1); f < frame && !slot.removed; f++){
+                    slot.update(dt);
+                }
+            }
+            long load = 0;
+            for(int i = 0; i < slots.size(); i++){
+                slot = slots.get(i);
+                if(slot.removed){
+                    continue;
+                }
+                if(slot.frame <= frame){
+                    slot.update(dt);
+                    slot.frame = frame + 1;
+                }
+                load += slot.cost;
+            }
+            // 丢弃帧运算中结束的战场
+            slots.removeIf(s -> s.removed);
+            // 先发布包含迁入战场的负载，再扣除队列中的，其他线程读到的估计值只会偏高
+            this.load = load;
+            inboxLoad.addAndGet(-drained);
+            this.roomNum = slots.size();
+        }
+
+        /**
+         * 负载超过平均值一定比例时，把部分战场迁移给负载最低的线程
+         * 优先迁移能填补一半差值的最重的战场，避免来回迁移
+         * @Date 2026年10月18日 上午7:25:00
+         */
+        private void rebalance() {
+            if(workers.length < 2 || slots.size() < 2){
+                return;
+            }
+            long total = 0;
+            for(FightWorker worker : workers){
+                total += worker.pendingLoad();
+            }
+            long avg = total / workers.length;
+            if(load <= avg * (1 + REBALANCE_THRESHOLD)){
+                return;
+            }
+            FightWorker target = lightestWorker();
+            if(target == this){
+                return;
+            }
+            long gap = (load - target.pendingLoad()) / 2;
+            List<RoomSlot> sorted = new ArrayList<>(slots);
+            Collections.sort(sorted, (a, b) -> Long.compare(b.cost, a.cost));
+            long moved = 0;
+            for(RoomSlot slot : sorted){
+                if(moved >= gap || slots.size() <= 1){
+                    break;
+                }
+                if(slot.cost <= gap - moved){
+                    // 在帧间隙移出，本线程不会再执行该战场，目标线程在其下一帧开始时取出
+                    slots.remove(slot);
+                    target.inboxLoad.addAndGet(slot.cost);
+                    target.inbox.add(slot);
+                    moved += slot.cost;
+                    migrated++;
+                }
+            }
+            // 负载只由各线程自己发布，目标线程的估计值由inboxLoad体现，避免其他线程重复迁入
+            load -= moved;
+            roomNum = slots.size();
+        }
     }
 }
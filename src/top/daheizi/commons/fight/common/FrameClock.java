@@ -0,0 +1,233 @@
+package top.daheizi.commons.fight.common;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 固定步长的帧时钟
+ * 以System.nanoTime计时，每帧的截止时间按帧时长累加，不随执行耗时漂移
+ * 落后时连续补帧，一次最多补maxCatchUp帧，超出的帧直接丢弃
+ * 挂起到截止时间前spinNanos纳秒，之后让出cpu直到截止时间，以减小唤醒的抖动
+ * 非线程安全，每个执行线程使用自己的时钟，统计可由多个时钟共享
+ * 多个时钟使用相同的起点时，同一序号的帧截止时间相同，可据此在线程间对齐帧
+ * @author daheizi
+ * @Date 2026年10月18日 上午8:05:00
+ */
+public class FrameClock {
+
+    /** 帧时长(纳秒) */
+    private final long intervalNanos;
+
+    /** 一次最多执行的帧数 */
+    private final int maxCatchUp;
+
+    /** 截止时间前改为让出cpu等待的时长(纳秒) */
+    private final long spinNanos;
+
+    /** 统计 */
+    private final Stats stats;
+
+    /** 第0帧的截止时间 */
+    private final long origin;
+
+    /** 下一帧的截止时间 */
+    private long deadline;
+
+    /**
+     * 构造函数，第一帧立即执行
+     * @param intervalNanos 帧时长(纳秒)
+     * @param maxCatchUp 一次最多执行的帧数
+     * @param spinNanos 截止时间前改为让出cpu等待的时长(纳秒)，为0时只挂起
+     * @param stats 统计
+     */
+    public FrameClock(long intervalNanos, int maxCatchUp, long spinNanos, Stats stats) {
+        this(intervalNanos, maxCatchUp, spinNanos, stats, System.nanoTime());
+    }
+
+    /**
+     * 构造函数，从起点开始计算帧序号，已过去的帧按落后处理
+     * @param intervalNanos 帧时长(纳秒)
+     * @param maxCatchUp 一次最多执行的帧数
+     * @param spinNanos 截止时间前改为让出cpu等待的时长(纳秒)，为0时只挂起
+     * @param stats 统计
+     * @param origin 第0帧的截止时间，System.nanoTime的值
+     */
+    public FrameClock(long intervalNanos, int maxCatchUp, long spinNanos, Stats stats, long origin) {
+        if(intervalNanos <= 0 || maxCatchUp < 1 || spinNanos < 0) {
+            throw new IllegalArgumentException();
+        }
+        this.intervalNanos = intervalNanos;
+        this.maxCatchUp = maxCatchUp;
+        this.spinNanos = spinNanos;
+        this.stats = stats;
+        this.origin = origin;
+        this.deadline = origin;
+    }
+
+    /**
+     * 等待到下一帧的截止时间，返回应执行的帧数
+     * 线程被中断时清除中断状态并立即返回0，由调用方检查是否应退出；
+     * 中断状态不保留，下一次调用仍正常等待，不会因残留的中断而空转
+     * @return
+     * @Date 2026年10月18日 上午8:06:00
+     */
+    public int awaitFrame() {
+        long now;
+        while((now = System.nanoTime()) < deadline) {
+            if(Thread.interrupted()) {
+                return 0;
+            }
+            long remaining = deadline - now;
+            if(remaining > spinNanos) {
+                LockSupport.parkNanos(remaining - spinNanos);
+            }else{
+                Thread.yield();
+            }
+        }
+        long late = now - deadline;
+        long due = late / intervalNanos + 1;
+        if(due == 1) {
+            stats.recordJitter(late);
+        }else{
+            stats.catchUpFrames.add(Math.min(due, maxCatchUp) - 1);
+        }
+        if(due > maxCatchUp) {
+            // 落后太多，丢弃超出的帧
+            stats.droppedFrames.add(due - maxCatchUp);
+            deadline += (due - maxCatchUp) * intervalNanos;
+            due = maxCatchUp;
+        }
+        deadline += due * intervalNanos;
+        return (int) due;
+    }
+
+    /**
+     * 返回下一帧的序号，awaitFrame返回n时，应执行的帧序号为nextFrame() - n到nextFrame() - 1
+     * @return
+     * @Date 2026年10月18日 上午10:10:00
+     */
+    public long nextFrame() {
+        return (deadline - origin) / intervalNanos;
+    }
+
+    /**
+     * 记录一帧的执行耗时
+     * @param execNanos
+     * @Date 2026年10月18日 上午8:07:00
+     */
+    public void record(long execNanos) {
+        stats.frames.increment();
+        if(execNanos > intervalNanos) {
+            stats.overrunFrames.increment();
+        }
+        if(execNanos > stats.maxFrameNanos.get()) {
+            stats.maxFrameNanos.accumulateAndGet(execNanos, Math::max);
+        }
+    }
+
+    /**
+     * 帧统计，可由多个时钟共享
+     * @author daheizi
+     * @Date 2026年10月18日 上午8:08:00
+     */
+    public static class Stats {
+
+        /** 执行的帧数 */
+        final LongAdder frames = new LongAdder();
+
+        /** 耗时超过帧时长的帧数 */
+        final LongAdder overrunFrames = new LongAdder();
+
+        /** 落后时连续补执行的帧数 */
+        final LongAdder catchUpFrames = new LongAdder();
+
+        /** 落后太多而丢弃的帧数 */
+        final LongAdder droppedFrames = new LongAdder();
+
+        /** 最长的帧耗时(纳秒) */
+        final AtomicLong maxFrameNanos = new AtomicLong();
+
+        /** 按时唤醒的次数 */
+        final LongAdder wakeups = new LongAdder();
+
+        /** 按时唤醒时晚于截止时间的总时长(纳秒) */
+        final LongAdder jitterNanos = new LongAdder();
+
+        /** 按时唤醒时晚于截止时间的最长时长(纳秒) */
+        final AtomicLong maxJitterNanos = new AtomicLong();
+
+        /**
+         * 记录唤醒的抖动
+         * @param late
+         * @Date 2026年10月18日 上午8:08:30
+         */
+        private void recordJitter(long late) {
+            wakeups.increment();
+            jitterNanos.add(late);
+            if(late > maxJitterNanos.get()) {
+                maxJitterNanos.accumulateAndGet(late, Math::max);
+            }
+        }
+
+        /**
+         * @return 执行的帧数
+         */
+        public long getFrames() {
+            return frames.sum();
+        }
+
+        /**
+         * @return 耗时超过帧时长的帧数
+         */
+        public long getOverrunFrames() {
+            return overrunFrames.sum();
+        }
+
+        /**
+         * @return 落后时连续补执行的帧数
+         */
+        public long getCatchUpFrames() {
+            return catchUpFrames.sum();
+        }
+
+        /**
+         * @return 落后太多而丢弃的帧数
+         */
+        public long getDroppedFrames() {
+            return droppedFrames.sum();
+        }
+
+        /**
+         * @return 最长的帧耗时(纳秒)
+         */
+        public long getMaxFrameNanos() {
+            return maxFrameNanos.get();
+        }
+
+        /**
+         * @return 按时唤醒时的平均抖动(纳秒)
+         */
+        public long getAvgJitterNanos() {
+            long n = wakeups.sum();
+            return n == 0 ? 0 : jitterNanos.sum() / n;
+        }
+
+        /**
+         * @return 按时唤醒时的最大抖动(纳秒)
+         */
+        public long getMaxJitterNanos() {
+            return maxJitterNanos.get();
+        }
+
+        /**
+         * @see java.lang.Object#toString()
+         */
+        @Override
+        public String toString() {
+            return "frames=" + getFrames() + ", overrun=" + getOverrunFrames() + ", catchUp=" + getCatchUpFrames()
+                    + ", dropped=" + getDroppedFrames() + ", max=" + getMaxFrameNanos() / 1000 + "us, jitter="
+                    + getAvgJitterNanos() / 1000 + "us/" + getMaxJitterNanos() / 1000 + "us";
+        }
+    }
+}
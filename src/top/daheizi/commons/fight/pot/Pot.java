@@ -1,9 +1,9 @@
 package top.daheizi.commons.fight.pot;
 
+import top.daheizi.commons.fight.common.FightFormula;
 import top.daheizi.commons.fight.event.FightEvent;
 import top.daheizi.commons.fight.unit.DefaultAIUnit;
 import top.daheizi.commons.sdata.Potential;
-import top.daheizi.commons.util.RandomUtil;
 
 /**
  * 潜能
@@ -39,13 +39,13 @@ public abstract class Pot {
 
 
     /**
-     * 计算概率事件是否触发
+     * 计算概率事件是否触发，使用拥有者所在战场的随机数
      * @param prob
      * @return
      * @Date 2016年7月13日 下午10:29:58
      */
-    protected static boolean doRandom(double prob){
-        return RandomUtil.nextDouble() < prob;
+    protected boolean doRandom(double prob){
+        return FightFormula.calcProb(hero.room.getRandom(), prob);
     }
 
 
@@ -4,6 +4,9 @@ import java.util.Collections;
 import java.util.Comparator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
 
 import top.daheizi.commons.fight.common.FightConstants;
 import top.daheizi.commons.fight.common.FightFormula;
@@ -79,15 +82,41 @@ public class FightRoom extends Room implements EventHandler{
     /** 技能击杀获得能量 */
     public int skillKillMp;
 
+    /** 获胜方，战斗未结束时为0 */
+    protected int winSide;
+
+    /** 是否已加入战斗调度 */
+    protected boolean scheduled;
+
+    /** 战斗消息的接收者，为null时不记录消息 */
+    protected Consumer<String> msgConsumer = System.out::println;
+
+    /** 随机数种子 */
+    protected long seed;
+
+    /** 本战场的随机数，战斗中的所有随机事件都由它产生，相同的种子和输入得到相同的战斗过程 */
+    protected SplittableRandom random;
+
     /**
-     * 构造函数
+     * 构造函数，使用随机的种子
      * @Date 2016年6月10日 下午5:08:12
      */
     public FightRoom(List<DefaultAIUnit> attList, List<DefaultAIUnit> defList) {
+        this(attList, defList, ThreadLocalRandom.current().nextLong());
+    }
+
+    /**
+     * 构造函数
+     * @param attList
+     * @param defList
+     * @param seed 随机数种子
+     */
+    public FightRoom(List<DefaultAIUnit> attList, List<DefaultAIUnit> defList, long seed) {
         super();
         this.attList = attList;
         this.defList = defList;
         posArray = new int[FightConstants.ROOM_WIDTH + 2][FightConstants.ROOM_HEIGHT + 2];
+        setSeed(seed);
     }
 
     /**
@@ -182,6 +211,9 @@ public class FightRoom extends Room implements EventHandler{
      * @Date 2016年5月22日 下午6:29:44
      */
     public void notifyMsg(String msg) {
+        if (msgConsumer == null) {
+            return;
+        }
         msg += "|" + roomTime;
         msgList.add(msg);
     }
@@ -193,17 +225,37 @@ public class FightRoom extends Room implements EventHandler{
     public void startFight() {
         init();
         notifyMsg("0|fightStart");
+        scheduled = true;
         FightManager.getInstance().startFight(this);
     }
 
+    /**
+     * 不经过战斗调度，以固定的dt连续执行帧运算直到战斗结束或超时
+     * @param dt 每帧时长
+     * @param maxTime 最长战斗时长
+     * @return 获胜方，超时返回0
+     * @Date 2026年10月18日 上午8:30:00
+     */
+    public int simulate(long dt, long maxTime) {
+        init();
+        notifyMsg("0|fightStart");
+        while (winSide == 0 && roomTime < maxTime) {
+            update(dt);
+        }
+        return winSide;
+    }
+
     /**
      * 结束战斗
      * @param winSide
      * @Date 2016年7月10日 下午11:40:58
      */
     public void endFight(int winSide) {
+        this.winSide = winSide;
         notifyMsg(MessageFormatter.format("0|fightOver|{0}", winSide));
-        FightManager.getInstance().endFight(this);
+        if (scheduled) {
+            FightManager.getInstance().endFight(this);
+        }
     }
     
     /**
@@ -234,11 +286,83 @@ public class FightRoom extends Room implements EventHandler{
             }
             String msgs = sb.substring(0, sb.length() - 1);
             msgList.clear();
-            // TODO 可重定向战斗消息
-            System.out.println(msgs);
+            msgConsumer.accept(msgs);
         }
     }
 
+    /**
+     * 重置随机数种子，应在战斗开始前调用
+     * @param seed
+     * @Date 2026年10月18日 上午9:00:00
+     */
+    public void setSeed(long seed) {
+        this.seed = seed;
+        this.random = new SplittableRandom(seed);
+    }
+
+    /**
+     * 获取随机数种子，用于重现战斗
+     * @return
+     * @Date 2026年10月18日 上午9:00:20
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * 获取本战场的随机数，只能在战场的帧运算中使用
+     * @return
+     * @Date 2026年10月18日 上午9:00:40
+     */
+    public SplittableRandom getRandom() {
+        return random;
+    }
+
+    /**
+     * 设置战斗消息的接收者，为null时不记录消息
+     * @param msgConsumer
+     * @Date 2026年10月18日 上午8:31:00
+     */
+    public void setMsgConsumer(Consumer<String> msgConsumer) {
+        this.msgConsumer = msgConsumer;
+    }
+
+    /**
+     * 获取获胜方，战斗未结束时为0
+     * @return
+     * @Date 2026年10月18日 上午8:31:20
+     */
+    public int getWinSide() {
+        return winSide;
+    }
+
+    /**
+     * 获取战斗历时时长
+     * @return
+     * @Date 2026年10月18日 上午8:31:40
+     */
+    public long getRoomTime() {
+        return roomTime;
+    }
+
+    /**
+     * 获取攻击方
+     * @return
+     * @Date 2026年10月18日 上午8:32:00
+     */
+    public List<DefaultAIUnit> getAttList() {
+        return attList;
+    }
+
+    /**
+     * 获取防守方
+     * @return
+     * @Date 2026年10月18日 上午8:32:10
+     */
+    public List<DefaultAIUnit> getDefList() {
+        return defList;
+    }
+
     /**
      * 查找第一个敌人(敌方最前排的一个英雄)
      * @param hero
@@ -0,0 +1,322 @@
+package top.daheizi.commons.fight.room;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+import top.daheizi.commons.fight.common.FightConstants;
+import top.daheizi.commons.fight.unit.DefaultAIUnit;
+
+/**
+ * 无界面的战斗模拟器，用于批量测试数值平衡
+ * 以固定的dt连续执行帧运算，不休眠，不经过战斗调度，也不记录战斗消息
+ * 多场模拟以fork-join并行执行，汇总胜率和伤害统计
+ * 每场战斗的随机数种子由总种子和场次决定，与并行度和任务拆分无关，相同的总种子得到相同的结果
+ * @author daheizi
+ * @Date 2026年10月18日 上午8:35:00
+ */
+public class FightSimulator {
+
+    /** 默认的每帧时长 */
+    public static final long DEFAULT_DT = 1000 / FightConstants.FRAME_RATE;
+
+    /** 默认的最长战斗时长，超时记为平局 */
+    public static final long DEFAULT_MAX_TIME = 180 * 1000;
+
+    /** 每个子任务至少执行的模拟场数 */
+    private static final int MIN_BATCH = 8;
+
+    /** 场次种子的Weyl序列步长，即2^64除以黄金分割比后取奇数，使相邻场次的输入在64位上均匀分散 */
+    private static final long SEED_GAMMA = 0x9e3779b97f4a7c15L;
+
+    /**
+     * 构造函数
+     */
+    private FightSimulator() {
+
+    }
+
+    /**
+     * 以默认参数在公共fork-join池中模拟多场战斗
+     * @param factory 战场工厂，每次调用应创建全新的战场和战斗单元
+     * @param times 模拟场数
+     * @return
+     * @Date 2026年10月18日 上午8:36:00
+     */
+    public static Result simulate(Supplier<? extends FightRoom> factory, int times) {
+        return simulate(factory, times, DEFAULT_DT, DEFAULT_MAX_TIME, ThreadLocalRandom.current().nextLong(),
+                ForkJoinPool.commonPool());
+    }
+
+    /**
+     * 模拟多场战斗
+     * @param factory 战场工厂，每次调用应创建全新的战场和战斗单元，会被多个线程并发调用
+     * @param times 模拟场数
+     * @param dt 每帧时长
+     * @param maxTime 最长战斗时长
+     * @param seed 总种子，第i场战斗的种子为seedOf(seed, i)
+     * @param pool
+     * @return
+     * @Date 2026年10月18日 上午8:36:30
+     */
+    public static Result simulate(Supplier<? extends FightRoom> factory, int times, long dt, long maxTime,
+            long seed, ForkJoinPool pool) {
+        if (times <= 0 || dt <= 0) {
+            throw new IllegalArgumentException();
+        }
+        int batch = Math.max(MIN_BATCH, times / (pool.getParallelism() * 4));
+        return pool.invoke(new SimulateTask(factory, 0, times, batch, dt, maxTime, seed));
+    }
+
+    /**
+     * 返回第index场(从0开始)战斗的种子，只由总种子和场次决定
+     * 总种子按场次沿Weyl序列前进后经mix64混淆，相邻场次的种子互不相关
+     * 可据此单独重现批量模拟中的某一场战斗
+     * @param seed 总种子
+     * @param index 场次
+     * @return
+     * @Date 2026年10月18日 上午9:05:00
+     */
+    public static long seedOf(long seed, int index) {
+        return mix64(seed + (index + 1) * SEED_GAMMA);
+    }
+
+    /**
+     * 64位的混淆函数，采用MurmurHash3的fmix64终结函数，
+     * 是64位上的双射，输入的每一位都会影响输出的每一位
+     * @param z
+     * @return
+     * @Date 2026年10月18日 上午9:05:30
+     */
+    private static long mix64(long z) {
+        z = (z ^ (z >>> 33)) * 0xff51afd7ed558ccdL;
+        z = (z ^ (z >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return z ^ (z >>> 33);
+    }
+
+    /**
+     * 模拟一场战斗，战场不输出消息
+     * @param room
+     * @param dt 每帧时长
+     * @param maxTime 最长战斗时长
+     * @return 获胜方，超时返回0
+     * @Date 2026年10月18日 上午8:37:00
+     */
+    public static int simulate(FightRoom room, long dt, long maxTime) {
+        room.setMsgConsumer(null);
+        return room.simulate(dt, maxTime);
+    }
+
+    /**
+     * 模拟任务，场数超过batch时二分
+     * @author daheizi
+     * @Date 2026年10月18日 上午8:38:00
+     */
+    private static class SimulateTask extends RecursiveTask<Result> {
+
+        private static final long serialVersionUID = 1L;
+
+        /** 战场工厂 */
+        private final Supplier<? extends FightRoom> factory;
+
+        /** 起始场次 */
+        private final int from;
+
+        /** 结束场次(不含) */
+        private final int to;
+
+        /** 不再拆分的场数 */
+        private final int batch;
+
+        /** 每帧时长 */
+        private final long dt;
+
+        /** 最长战斗时长 */
+        private final long maxTime;
+
+        /** 总种子 */
+        private final long seed;
+
+        SimulateTask(Supplier<? extends FightRoom> factory, int from, int to, int batch, long dt, long maxTime,
+                long seed) {
+            this.factory = factory;
+            this.from = from;
+            this.to = to;
+            this.batch = batch;
+            this.dt = dt;
+            this.maxTime = maxTime;
+            this.seed = seed;
+        }
+
+        /**
+         * @see java.util.concurrent.RecursiveTask#compute()
+         */
+        @Override
+        protected Result compute() {
+            if (to - from <= batch) {
+                Result result = new Result();
+                for (int i = from; i < to; i++) {
+                    FightRoom room = factory.get();
+                    room.setSeed(seedOf(seed, i));
+                    simulate(room, dt, maxTime);
+                    result.add(room);
+                }
+                return result;
+            }
+            int mid = (from + to) >>> 1;
+            SimulateTask left = new SimulateTask(factory, from, mid, batch, dt, maxTime, seed);
+            left.fork();
+            Result right = new SimulateTask(factory, mid, to, batch, dt, maxTime, seed).compute();
+            return left.join().merge(right);
+        }
+    }
+
+    /**
+     * 模拟结果
+     * @author daheizi
+     * @Date 2026年10月18日 上午8:39:00
+     */
+    public static class Result {
+
+        /** 模拟场数 */
+        private int times;
+
+        /** 各方获胜场数，下标0为平局 */
+        private final int[] wins = new int[3];
+
+        /** 总战斗时长 */
+        private long totalTime;
+
+        /** 各方造成的总伤害，即对方受到的总伤害 */
+        private final long[] damage = new long[3];
+
+        /** 各成员的统计 <成员静态id, {出场次数, 造成伤害, 受到伤害}> */
+        private final Map<Integer, long[]> memberMap = new TreeMap<>();
+
+        /**
+         * 汇总一场结束的战斗
+         * @param room
+         * @Date 2026年10月18日 上午8:40:00
+         */
+        public void add(FightRoom room) {
+            times++;
+            wins[room.getWinSide()]++;
+            totalTime += room.getRoomTime();
+            damage[FightConstants.FORCE_DEF] += addMembers(room.getAttList());
+            damage[FightConstants.FORCE_ATT] += addMembers(room.getDefList());
+        }
+
+        /**
+         * 汇总一方的成员，返回该方受到的总伤害
+         * @param heroList
+         * @return
+         * @Date 2026年10月18日 上午8:40:30
+         */
+        private long addMembers(List<DefaultAIUnit> heroList) {
+            long taken = 0;
+            for (DefaultAIUnit hero : heroList) {
+                long[] stat = memberMap.computeIfAbsent(hero.memberId, k -> new long[3]);
+                stat[0]++;
+                stat[1] += hero.damDealt;
+                stat[2] += hero.damTaken;
+                taken += hero.damTaken;
+            }
+            return taken;
+        }
+
+        /**
+         * 合并另一个结果
+         * @param other
+         * @return this
+         * @Date 2026年10月18日 上午8:41:00
+         */
+        public Result merge(Result other) {
+            times += other.times;
+            totalTime += other.totalTime;
+            for (int i = 0; i < wins.length; i++) {
+                wins[i] += other.wins[i];
+                damage[i] += other.damage[i];
+            }
+            for (Map.Entry<Integer, long[]> entry : other.memberMap.entrySet()) {
+                long[] stat = memberMap.computeIfAbsent(entry.getKey(), k -> new long[3]);
+                for (int i = 0; i < stat.length; i++) {
+                    stat[i] += entry.getValue()[i];
+                }
+            }
+            return this;
+        }
+
+        /**
+         * 获取模拟场数
+         * @return
+         * @Date 2026年10月18日 上午8:41:30
+         */
+        public int getTimes() {
+            return times;
+        }
+
+        /**
+         * 获取胜率
+         * @param side 势力，为0时返回平局率
+         * @return
+         * @Date 2026年10月18日 上午8:42:00
+         */
+        public double getWinRate(int side) {
+            return times == 0 ? 0 : (double) wins[side] / times;
+        }
+
+        /**
+         * 获取平均战斗时长
+         * @return
+         * @Date 2026年10月18日 上午8:42:30
+         */
+        public double getAvgTime() {
+            return times == 0 ? 0 : (double) totalTime / times;
+        }
+
+        /**
+         * 获取一方每场的平均伤害
+         * @param side
+         * @return
+         * @Date 2026年10月18日 上午8:43:00
+         */
+        public double getAvgDamage(int side) {
+            return times == 0 ? 0 : (double) damage[side] / times;
+        }
+
+        /**
+         * 获取成员每场的平均伤害
+         * @param memberId
+         * @return {造成伤害, 受到伤害}，未出场时返回null
+         * @Date 2026年10月18日 上午8:43:30
+         */
+        public double[] getMemberDamage(int memberId) {
+            long[] stat = memberMap.get(memberId);
+            if (stat == null) {
+                return null;
+            }
+            return new double[]{(double) stat[1] / stat[0], (double) stat[2] / stat[0]};
+        }
+
+        /**
+         * @see java.lang.Object#toString()
+         */
+        @Override
+        public String toString() {
+            List<String> members = new ArrayList<>(memberMap.size());
+            for (Integer memberId : memberMap.keySet()) {
+                double[] dam = getMemberDamage(memberId);
+                members.add(String.format("%d:%.0f/%.0f", memberId, dam[0], dam[1]));
+            }
+            return String.format("times=%d, att=%.3f, def=%.3f, draw=%.3f, avgTime=%.0fms, attDam=%.0f, defDam=%.0f, "
+                    + "member(dealt/taken)=%s", times, getWinRate(FightConstants.FORCE_ATT),
+                    getWinRate(FightConstants.FORCE_DEF), getWinRate(0), getAvgTime(),
+                    getAvgDamage(FightConstants.FORCE_ATT), getAvgDamage(FightConstants.FORCE_DEF), members);
+        }
+    }
+}
@@ -25,7 +25,6 @@ import top.daheizi.commons.fight.skill.SkillAttribute;
 import top.daheizi.commons.fight.skill.SkillFactory;
 import top.daheizi.commons.stl.Tuple;
 import top.daheizi.commons.util.MessageFormatter;
-import top.daheizi.commons.util.RandomUtil;
 
 
 /**
@@ -130,6 +129,11 @@ public abstract class DefaultAIUnit implements EventHandler {
     /** 睡眠计数器 */
     public int sleepCounter = 0;
 
+    /** 对其他单元造成的总伤害 */
+    public long damDealt;
+    /** 受到的总伤害 */
+    public long damTaken;
+
 
 
     /**
@@ -259,7 +263,7 @@ public abstract class DefaultAIUnit implements EventHandler {
         // 闪避处理
         if(attType == FightConstants.ATT_TYPE_NORM 
                 && !isSleep()
-                && RandomUtil.nextDouble() < FightFormula.calcDodgeRatio(this.dodge, att.hit)){
+                && FightFormula.calcDodge(room.getRandom(), this.dodge, att.hit)){
             // 闪避了
             if(null != inner){
                 inner.append("dodge,");
@@ -269,7 +273,7 @@ public abstract class DefaultAIUnit implements EventHandler {
 
         // 暴击处理
         if(attType == FightConstants.ATT_TYPE_NORM){
-            if(RandomUtil.nextDouble() < FightFormula.calcCritRatio(att.crip)){
+            if(FightFormula.calcCrit(room.getRandom(), att.crip)){
                 // 暴击了
                 dam = (int) (dam * att.critRatio) + att.critDam;
                 if(null != inner){
@@ -304,6 +308,10 @@ public abstract class DefaultAIUnit implements EventHandler {
 
         // 造成伤害
         dam = reduceHp(dam, inner);
+        damTaken += dam;
+        if(att != null && att != this){
+            att.damDealt += dam;
+        }
 
         // 处理怒气
         handleHittedMp(dam, att, attType);
@@ -0,0 +1,194 @@
+package top.daheizi.commons.stl;
+
+import java.util.Arrays;
+
+/**
+ * 关键字为long、分值为基本类型的排行榜IChart
+ * 名次树与关键字索引见ScoreTree，数据全部存储于堆内的基本类型数组中，
+ * 因此每条数据不会产生任何对象，仅在调用IChart的接口时装箱
+ * 分值数组由子类按分值的类型提供，IntScoreChart使用int[]，LongScoreChart使用long[]
+ * 非线程安全
+ * @param <V> 分值的装箱类型
+ * @author daheizi
+ * @Date 2026年10月17日 下午11:05:12
+ */
+public abstract class AbstractScoreChart<V extends Number> extends ScoreTree<V> {
+
+    /** 默认的初始容量 */
+    private static final int DEFAULT_CAPACITY = 16;
+
+    /** 节点的关键字 */
+    private long[] keys;
+    /** 节点的序号，作为无符号数比较 */
+    private int[] seqs;
+    /** 左子树 */
+    private int[] lefts;
+    /** 右子树 */
+    private int[] rights;
+    /** 以自身为根的子树包含节点数目 */
+    private int[] sizes;
+
+    /** 关键字索引，存储节点下标，NIL表示空槽 */
+    private int[] table;
+
+    /**
+     * 构造函数
+     * @param descending 是否按分值降序排列
+     */
+    protected AbstractScoreChart(boolean descending) {
+        super(descending);
+        this.keys = new long[DEFAULT_CAPACITY];
+        this.seqs = new int[DEFAULT_CAPACITY];
+        this.lefts = new int[DEFAULT_CAPACITY];
+        this.rights = new int[DEFAULT_CAPACITY];
+        this.sizes = new int[DEFAULT_CAPACITY];
+        this.table = new int[DEFAULT_CAPACITY];
+    }
+
+    /****************** 节点与索引的存储 ***************************/
+
+    /**
+     * @see top.daheizi.commons.stl.ScoreTree#key(int)
+     */
+    @Override
+    final long key(int node) {
+        return keys[node];
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.ScoreTree#setKey(int, long)
+     */
+    @Override
+    final void setKey(int node, long key) {
+        keys[node] = key;
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.ScoreTree#seq(int)
+     */
+    @Override
+    final int seq(int node) {
+        return seqs[node];
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.ScoreTree#setSeq(int, int)
+     */
+    @Override
+    final void setSeq(int node, int seq) {
+        seqs[node] = seq;
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.ScoreTree#left(int)
+     */
+    @Override
+    final int left(int node) {
+        return lefts[node];
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.ScoreTree#setLeft(int, int)
+     */
+    @Override
+    final void setLeft(int node, int left) {
+        lefts[node] = left;
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.ScoreTree#right(int)
+     */
+    @Override
+    final int right(int node) {
+        return rights[node];
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.ScoreTree#setRight(int, int)
+     */
+    @Override
+    final void setRight(int node, int right) {
+        rights[node] = right;
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.ScoreTree#size(int)
+     */
+    @Override
+    final int size(int node) {
+        return sizes[node];
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.ScoreTree#setSize(int, int)
+     */
+    @Override
+    final void setSize(int node, int size) {
+        sizes[node] = size;
+    }
+
+    /**
+     * 返回节点数组的容量，子类据此在构造函数内分配分值数组
+     * @return
+     * @Date 2026年10月18日 上午10:47:00
+     */
+    final int nodeCapacity() {
+        return keys.length;
+    }
+
+    /**
+     * 把分值数组扩容到给定的容量
+     * @param capacity
+     * @Date 2026年10月18日 上午10:47:20
+     */
+    abstract void growScores(int capacity);
+
+    /**
+     * 容量不足时各数组扩容一倍
+     * @see top.daheizi.commons.stl.ScoreTree#ensureNode(int)
+     */
+    @Override
+    final void ensureNode(int node) {
+        if (node == keys.length) {
+            int capacity = keys.length << 1;
+            keys = Arrays.copyOf(keys, capacity);
+            growScores(capacity);
+            seqs = Arrays.copyOf(seqs, capacity);
+            lefts = Arrays.copyOf(lefts, capacity);
+            rights = Arrays.copyOf(rights, capacity);
+            sizes = Arrays.copyOf(sizes, capacity);
+        }
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.ScoreTree#indexCapacity()
+     */
+    @Override
+    final int indexCapacity() {
+        return table.length;
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.ScoreTree#slot(int)
+     */
+    @Override
+    final int slot(int slot) {
+        return table[slot];
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.ScoreTree#setSlot(int, int)
+     */
+    @Override
+    final void setSlot(int slot, int node) {
+        table[slot] = node;
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.ScoreTree#beginIndex(int)
+     */
+    @Override
+    final void beginIndex(int capacity) {
+        table = new int[capacity];
+    }
+}
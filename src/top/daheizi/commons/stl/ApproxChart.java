@@ -0,0 +1,401 @@
+package top.daheizi.commons.stl;
+
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * 近似名次的排行榜，用于"超过了97%的玩家"一类的展示
+ * 只精确保存前K名的数据，其余数据只记录在值分布的KLL草图中，内存占用与总数据量基本无关
+ * 由于草图不支持删除，另用一个草图记录被替换或移除的旧值，估计名次时两者相减，
+ * 误差为两个草图的误差之和，通过estimateRankInfo和getRankError返回
+ * 精确区间：所有被挤出前K名的数据中排名最靠前的值记为淘汰线，
+ * 排在淘汰线之前的数据一定是真实的前若干名，其名次精确；其余名次均为估计值
+ * 注意：前K名之外的关键字不保存旧值，更新这些关键字时应调用update并给出旧值，
+ * 否则旧值不会从分布中扣除，put会将其视为新的数据
+ * 非线程安全
+ * @param <K>
+ * @param <V>
+ * @author daheizi
+ * @Date 2026年10月18日 上午6:02:10
+ */
+public class ApproxChart<K, V> implements IChart<K, V> {
+
+    /** 精确保存的数据量K */
+    private final int limit;
+
+    /** 比较器 */
+    private final Comparator<V> comparator;
+
+    /** 前K名的精确排行榜 */
+    private final RBTreeChart<K, V> top;
+
+    /** 所有添加过的值的分布 */
+    private final KllSketch<V> inserted;
+
+    /** 所有被替换或移除的值的分布 */
+    private final KllSketch<V> deleted;
+
+    /** 被挤出前K名的值中排名最靠前的值，即淘汰线，null表示从未淘汰 */
+    private V evictedBest;
+
+    /** 排行榜内的数据量 */
+    private int size;
+
+    /**
+     * 构造函数
+     * @param limit 精确保存的数据量K
+     * @param comparator 为null时使用自然顺序
+     */
+    public ApproxChart(int limit, Comparator<V> comparator) {
+        this(limit, comparator, KllSketch.DEFAULT_K);
+    }
+
+    /**
+     * 构造函数
+     * @param limit 精确保存的数据量K
+     * @param comparator 为null时使用自然顺序
+     * @param sketchK 草图的精度参数
+     */
+    public ApproxChart(int limit, Comparator<V> comparator, int sketchK) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("limit: " + limit);
+        }
+        this.limit = limit;
+        this.comparator = comparator;
+        this.top = new RBTreeChart<>(comparator);
+        this.inserted = new KllSketch<>(sketchK, comparator);
+        this.deleted = new KllSketch<>(sketchK, comparator);
+    }
+
+    /**
+     * 比较两个值
+     * @param a
+     * @param b
+     * @return
+     * @Date 2026年10月18日 上午6:03:30
+     */
+    @SuppressWarnings("unchecked")
+    private int compare(V a, V b) {
+        return comparator == null ? ((Comparable<? super V>) a).compareTo(b) : comparator.compare(a, b);
+    }
+
+    /**
+     * 将超出K名的数据挤出精确排行榜，并更新淘汰线
+     * @Date 2026年10月18日 上午6:04:00
+     */
+    private void trim() {
+        while (top.size() > limit) {
+            Tuple<K, V> last = top.getKth(top.size());
+            top.remove(last.left);
+            if (evictedBest == null || compare(last.right, evictedBest) < 0) {
+                evictedBest = last.right;
+            }
+        }
+    }
+
+    /**
+     * 返回名次精确的数据量，即排在淘汰线之前的数据量
+     * @return
+     * @Date 2026年10月18日 上午6:04:40
+     */
+    public int getExactSize() {
+        return evictedBest == null ? top.size() : top.getRankInfo(evictedBest)[0];
+    }
+
+    /**
+     * 更新前K名之外的关键字
+     * @param key
+     * @param oldValue 旧值，新的关键字为null
+     * @param newValue 新值
+     * @return 旧值
+     * @Date 2026年10月18日 上午6:05:30
+     */
+    public V update(K key, V oldValue, V newValue) {
+        V old = top.get(key);
+        if (old == null) {
+            old = oldValue;
+        }
+        if (old != null) {
+            deleted.update(old);
+        } else {
+            size++;
+        }
+        inserted.update(newValue);
+        top.put(key, newValue);
+        trim();
+        return old;
+    }
+
+    /**
+     * 估计值在排行榜内应处的排名位置及其误差范围
+     * 排在淘汰线之前的值直接由精确排行榜给出，误差为0
+     * @param value
+     * @return {估计的值<value的数目，误差下限，误差上限}
+     * @Date 2026年10月18日 上午6:06:30
+     */
+    public int[] estimateRankInfo(V value) {
+        if (evictedBest == null || compare(value, evictedBest) < 0) {
+            int rank = top.getRankInfo(value)[0];
+            return new int[]{rank, rank, rank};
+        }
+        long estimate = inserted.rank(value, false) - deleted.rank(value, false);
+        int error = getRankError();
+        int rank = (int) Math.max(0, Math.min(size, estimate));
+        return new int[]{rank, Math.max(0, rank - error), Math.min(size, rank + error)};
+    }
+
+    /**
+     * 估计值排在前百分之多少
+     * @param value
+     * @return (0, 100]
+     * @Date 2026年10月18日 上午6:07:10
+     */
+    public double estimatePercentile(V value) {
+        if (size == 0) {
+            return 100;
+        }
+        return (estimateRankInfo(value)[0] + 1) * 100.0 / size;
+    }
+
+    /**
+     * 返回估计名次的最大误差(数据条数)，置信度约99%
+     * @return
+     * @Date 2026年10月18日 上午6:07:40
+     */
+    public int getRankError() {
+        return (int) Math.ceil(inserted.getNormalizedRankError() * inserted.getN()
+                + deleted.getNormalizedRankError() * deleted.getN());
+    }
+
+    /**
+     * 返回草图中保存的数据量，用于评估内存占用
+     * @return
+     * @Date 2026年10月18日 上午6:08:00
+     */
+    public int getSketchRetained() {
+        return inserted.getRetained() + deleted.getRetained();
+    }
+
+    /**
+     * 前K名之外的关键字被视为新的数据
+     * @see top.daheizi.commons.stl.IChart#put(java.lang.Object, java.lang.Object)
+     */
+    @Override
+    public V put(K key, V value) {
+        return update(key, null, value);
+    }
+
+    /**
+     * 只能移除前K名之内的关键字，其余关键字应调用remove(key, value)
+     * @see top.daheizi.commons.stl.IChart#remove(java.lang.Object)
+     */
+    @Override
+    public V remove(K key) {
+        V old = top.remove(key);
+        if (old != null) {
+            deleted.update(old);
+            size--;
+        }
+        return old;
+    }
+
+    /**
+     * 移除关键字
+     * @param key
+     * @param value 前K名之外的关键字需要给出其当前值
+     * @return 移除前的值
+     * @Date 2026年10月18日 上午6:09:00
+     */
+    public V remove(K key, V value) {
+        V old = remove(key);
+        if (old == null && value != null) {
+            deleted.update(value);
+            size--;
+            old = value;
+        }
+        return old;
+    }
+
+    /**
+     * 只能查询前K名之内的关键字
+     * @see top.daheizi.commons.stl.IChart#get(java.lang.Object)
+     */
+    @Override
+    public V get(K key) {
+        return top.get(key);
+    }
+
+    /**
+     * 只能查询前K名之内的关键字
+     * @see top.daheizi.commons.stl.IChart#containsKey(java.lang.Object)
+     */
+    @Override
+    public boolean containsKey(K key) {
+        return top.containsKey(key);
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.IChart#size()
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.IChart#clear()
+     */
+    @Override
+    public void clear() {
+        top.clear();
+        inserted.clear();
+        deleted.clear();
+        evictedBest = null;
+        size = 0;
+    }
+
+    /**
+     * 精确区间内返回精确名次，前K名之内的其余关键字返回估计名次，
+     * 前K名之外的关键字返回 -1，应通过estimateRankInfo查询
+     * @see top.daheizi.commons.stl.IChart#getRank(java.lang.Object)
+     */
+    @Override
+    public int getRank(K key) {
+        V value = top.get(key);
+        if (value == null) {
+            return -1;
+        }
+        int rank = top.getRank(key);
+        return rank <= getExactSize() ? rank : estimateRankInfo(value)[0] + 1;
+    }
+
+    /**
+     * 只能返回精确区间内的数据，否则返回null
+     * @see top.daheizi.commons.stl.IChart#getKth(int)
+     */
+    @Override
+    public Tuple<K, V> getKth(int kth) {
+        return kth <= getExactSize() ? top.getKth(kth) : null;
+    }
+
+    /**
+     * 精确区间内为精确值，否则为估计值
+     * @see top.daheizi.commons.stl.IChart#getRankInfo(java.lang.Object)
+     */
+    @Override
+    public int[] getRankInfo(V value) {
+        if (evictedBest == null || compare(value, evictedBest) < 0) {
+            return top.getRankInfo(value);
+        }
+        int[] info = estimateRankInfo(value);
+        long inclusive = inserted.rank(value, true) - deleted.rank(value, true);
+        return new int[]{info[0], (int) Math.max(info[0], Math.min(size, inclusive))};
+    }
+
+    /**
+     * 只遍历精确区间内的数据，不支持remove()
+     * @see top.daheizi.commons.stl.IChart#iterator()
+     */
+    @Override
+    public Iterator<Tuple<K, V>> iterator() {
+        return iterator(0);
+    }
+
+    /**
+     * 只遍历精确区间内的数据，不支持remove()
+     * @see top.daheizi.commons.stl.IChart#iterator(int)
+     */
+    @Override
+    public Iterator<Tuple<K, V>> iterator(int kth) {
+        return getSequenceList(kth + 1, getExactSize()).iterator();
+    }
+
+    /**
+     * 只返回精确区间内的数据
+     * @see top.daheizi.commons.stl.IChart#getSequenceList(int, int)
+     */
+    @Override
+    public List<Tuple<K, V>> getSequenceList(int start, int end) {
+        int exact = getExactSize();
+        return top.getSequenceList(start, end > exact ? exact : end);
+    }
+
+    /**
+     * 只访问精确区间内的数据
+     * @see top.daheizi.commons.stl.IChart#forEachInRange(int, int, top.daheizi.commons.stl.ChartVisitor)
+     */
+    @Override
+    public int forEachInRange(int start, int end, ChartVisitor<? super K, ? super V> visitor) {
+        int exact = getExactSize();
+        return top.forEachInRange(start, end > exact ? exact : end, visitor);
+    }
+
+    /**
+     * 只访问精确区间内的数据
+     * @see top.daheizi.commons.stl.IChart#forEachDescending(int, int, top.daheizi.commons.stl.ChartVisitor)
+     */
+    @Override
+    public int forEachDescending(int start, int end, ChartVisitor<? super K, ? super V> visitor) {
+        int exact = getExactSize();
+        return top.forEachDescending(start, end > exact ? exact : end, visitor);
+    }
+
+
+
+    /****************** 以下为一些非必需的辅助和测试方法 ***************************/
+
+    /**
+     * 单元测试
+     * @param args
+     * @Date 2026年10月18日 上午6:12:00
+     */
+    public static void main(String[] args) {
+        // *****与精确排行榜对比，分数只增不减，更新时给出旧值
+        int num = 200000;
+        int limit = 1000;
+        Comparator<Integer> desc = Comparator.reverseOrder();
+        ApproxChart<Integer, Integer> chart = new ApproxChart<>(limit, desc);
+        RBTreeChart<Integer, Integer> exact = new RBTreeChart<>(desc);
+        Random rnd = new Random();
+        for (int i = 0; i < num * 3; i++) {
+            int key = rnd.nextInt(num);
+            Integer old = exact.get(key);
+            int value = (old == null ? 0 : old) + rnd.nextInt(1000);
+            chart.update(key, old, value);
+            exact.put(key, value);
+        }
+        if (chart.size() != exact.size()) {
+            throw new RuntimeException("Size Not Equal !");
+        }
+        int exactSize = chart.getExactSize();
+        if (!chart.getSequenceList(1, limit).equals(exact.getSequenceList(1, exactSize))) {
+            throw new RuntimeException("Top Not Equal !");
+        }
+        for (int kth = 1; kth <= exactSize; kth += 17) {
+            Tuple<Integer, Integer> t = exact.getKth(kth);
+            if (chart.getRank(t.left) != kth) {
+                throw new RuntimeException("Rank Not Equal !");
+            }
+        }
+        int error = chart.getRankError();
+        int maxError = 0;
+        int outOfBound = 0;
+        for (int i = 0; i < 1000; i++) {
+            Tuple<Integer, Integer> t = exact.getKth(rnd.nextInt(exact.size()) + 1);
+            int rank = exact.getRankInfo(t.right)[0];
+            int[] info = chart.estimateRankInfo(t.right);
+            maxError = Math.max(maxError, Math.abs(info[0] - rank));
+            if (rank < info[1] || rank > info[2]) {
+                outOfBound++;
+            }
+        }
+        System.out.println("size=" + chart.size() + ", exact=" + exactSize + ", error bound=" + error
+                + ", max error=" + maxError + ", out of bound=" + outOfBound + "/1000, sketch retained="
+                + chart.getSketchRetained() + ", top 3.2%? " + chart.estimatePercentile(exact.getKth(exact.size() * 32 / 1000).right));
+        if (outOfBound > 10) {
+            throw new RuntimeException("Error Out Of Bound !");
+        }
+    }
+}
@@ -0,0 +1,920 @@
+package top.daheizi.commons.stl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+/**
+ * 基于计数B+树的排行榜IRank
+ * 关键字连续存储于叶子节点的数组中，叶子节点之间双向链接；
+ * 内部节点存储分隔关键字、子节点以及各子树包含的关键字数目，
+ * 因此getRank/getKth为O(log_B n)，且每层只访问少量连续的数组，顺序迭代只需沿叶子链表前进
+ * 排行榜内关键字互不相等
+ * 非线程安全
+ * @author daheizi
+ * @Date 2026年10月18日 上午1:02:15
+ */
+public class BTreeRank<K> implements IRank<K> {
+
+    /** 节点包含关键字或子节点的最大数目 */
+    private static final int MAX = 64;
+
+    /** 非根节点包含关键字或子节点的最小数目 */
+    private static final int MIN = MAX / 2;
+
+    /** 根 */
+    private Node root;
+
+    /** 第一个叶子节点 */
+    private Leaf head;
+
+    /** 最后一个叶子节点 */
+    private Leaf tail;
+
+    /** 关键字数目 */
+    private int size;
+
+    /** 比较器 */
+    private final Comparator<? super K> comparator;
+
+    /** 树结构修改的次数 */
+    private transient int modCount = 0;
+
+    /** 查找路径上的内部节点，用于自下而上修复计数和平衡 */
+    private Inner[] pathNodes = new Inner[8];
+
+    /** 查找路径上每层选择的子节点下标 */
+    private int[] pathIndexes = new int[8];
+
+    /**
+     * 节点
+     * @author daheizi
+     * @Date 2026年10月18日 上午1:03:02
+     */
+    private static abstract class Node {
+        /** 包含关键字或子节点的数目 */
+        int n;
+        /** 关键字，内部节点中keys[i]为子节点i的下界(i > 0) */
+        final Object[] keys = new Object[MAX + 1];
+    }
+
+    /**
+     * 叶子节点
+     * @author daheizi
+     * @Date 2026年10月18日 上午1:03:30
+     */
+    private static final class Leaf extends Node {
+        /** 前一个叶子节点 */
+        Leaf prev;
+        /** 后一个叶子节点 */
+        Leaf next;
+    }
+
+    /**
+     * 内部节点
+     * @author daheizi
+     * @Date 2026年10月18日 上午1:03:45
+     */
+    private static final class Inner extends Node {
+        /** 子节点 */
+        final Node[] children = new Node[MAX + 1];
+        /** 各子树包含的关键字数目 */
+        final int[] counts = new int[MAX + 1];
+    }
+
+    /**
+     * 构造函数
+     */
+    public BTreeRank() {
+        this(null);
+    }
+
+    /**
+     * @param comparator
+     */
+    public BTreeRank(Comparator<? super K> comparator) {
+        this.comparator = comparator;
+        clear();
+    }
+
+    /**
+     * 比较两个关键字的大小
+     * @param k1
+     * @param k2
+     * @return
+     * @Date 2026年10月18日 上午1:04:30
+     */
+    @SuppressWarnings("unchecked")
+    private int compare(Object k1, Object k2) {
+        return comparator == null ? ((Comparable<? super K>) k1).compareTo((K) k2)
+                : comparator.compare((K) k1, (K) k2);
+    }
+
+    /**
+     * 在叶子节点中二分查找关键字
+     * @param leaf
+     * @param key
+     * @return 如果找到，则返回关键字的下标，否则返回((-插入点) - 1)
+     * @Date 2026年10月18日 上午1:05:02
+     */
+    private int search(Node leaf, Object key) {
+        Object[] keys = leaf.keys;
+        int lo = 0, hi = leaf.n - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            int cmp = compare(keys[mid], key);
+            if (cmp < 0) {
+                lo = mid + 1;
+            } else if (cmp > 0) {
+                hi = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(lo + 1);
+    }
+
+    /**
+     * 返回内部节点中可能包含关键字的子节点下标，即下界不大于关键字的最后一个子节点
+     * @param inner
+     * @param key
+     * @return
+     * @Date 2026年10月18日 上午1:05:40
+     */
+    private int childIndex(Inner inner, Object key) {
+        Object[] keys = inner.keys;
+        int lo = 1, hi = inner.n - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            if (compare(keys[mid], key) <= 0) {
+                lo = mid + 1;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        return lo - 1;
+    }
+
+    /**
+     * 记录查找路径
+     * @param depth
+     * @param inner
+     * @param index
+     * @Date 2026年10月18日 上午1:06:10
+     */
+    private void pushPath(int depth, Inner inner, int index) {
+        if (depth == pathNodes.length) {
+            pathNodes = Arrays.copyOf(pathNodes, depth << 1);
+            pathIndexes = Arrays.copyOf(pathIndexes, depth << 1);
+        }
+        pathNodes[depth] = inner;
+        pathIndexes[depth] = index;
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.IRank#add(java.lang.Object)
+     */
+    @Override
+    public boolean add(K key) {
+        if (key == null) {
+            throw new NullPointerException();
+        }
+        int depth = 0;
+        Node node = root;
+        while (node instanceof Inner) {
+            Inner inner = (Inner) node;
+            int i = childIndex(inner, key);
+            pushPath(depth++, inner, i);
+            node = inner.children[i];
+        }
+        int pos = search(node, key);
+        if (pos >= 0) {
+            return false;
+        }
+        insertAt(node, -pos - 1, key);
+        size++;
+        modCount++;
+        // 自下而上修复计数，并分裂溢出的节点
+        while (depth > 0) {
+            Inner parent = pathNodes[--depth];
+            int i = pathIndexes[depth];
+            pathNodes[depth] = null;
+            parent.counts[i]++;
+            if (node.n > MAX) {
+                split(parent, i);
+            }
+            node = parent;
+        }
+        if (root.n > MAX) {
+            Inner newRoot = new Inner();
+            newRoot.children[0] = root;
+            newRoot.counts[0] = size;
+            newRoot.n = 1;
+            root = newRoot;
+            split(newRoot, 0);
+        }
+        return true;
+    }
+
+    /**
+     * 在节点的keys数组中插入关键字
+     * @param node
+     * @param index
+     * @param key
+     * @Date 2026年10月18日 上午1:07:05
+     */
+    private static void insertAt(Node node, int index, Object key) {
+        System.arraycopy(node.keys, index, node.keys, index + 1, node.n - index);
+        node.keys[index] = key;
+        node.n++;
+    }
+
+    /**
+     * 将内部节点的第i个子节点分裂为两个，新节点插入其后
+     * @param parent
+     * @param i
+     * @Date 2026年10月18日 上午1:07:40
+     */
+    private void split(Inner parent, int i) {
+        Node child = parent.children[i];
+        int mid = child.n >>> 1;
+        int moved = child.n - mid;
+        Node right;
+        int rightCount;
+        if (child instanceof Leaf) {
+            Leaf leaf = (Leaf) child;
+            Leaf r = new Leaf();
+            r.next = leaf.next;
+            r.prev = leaf;
+            if (leaf.next != null) {
+                leaf.next.prev = r;
+            } else {
+                tail = r;
+            }
+            leaf.next = r;
+            right = r;
+            rightCount = moved;
+        } else {
+            Inner inner = (Inner) child;
+            Inner r = new Inner();
+            System.arraycopy(inner.children, mid, r.children, 0, moved);
+            System.arraycopy(inner.counts, mid, r.counts, 0, moved);
+            Arrays.fill(inner.children, mid, inner.n, null);
+            rightCount = 0;
+            for (int j = 0; j < moved; j++) {
+                rightCount += r.counts[j];
+            }
+            right = r;
+        }
+        System.arraycopy(child.keys, mid, right.keys, 0, moved);
+        Arrays.fill(child.keys, mid, child.n, null);
+        child.n = mid;
+        right.n = moved;
+        // 在父节点中插入新的子节点
+        int n = parent.n;
+        System.arraycopy(parent.children, i + 1, parent.children, i + 2, n - i - 1);
+        System.arraycopy(parent.counts, i + 1, parent.counts, i + 2, n - i - 1);
+        System.arraycopy(parent.keys, i + 1, parent.keys, i + 2, n - i - 1);
+        parent.children[i + 1] = right;
+        parent.counts[i + 1] = rightCount;
+        parent.counts[i] -= rightCount;
+        parent.keys[i + 1] = right.keys[0];
+        parent.n++;
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.IRank#remove(java.lang.Object)
+     */
+    @Override
+    public boolean remove(K key) {
+        if (key == null) {
+            throw new NullPointerException();
+        }
+        int depth = 0;
+        Node node = root;
+        while (node instanceof Inner) {
+            Inner inner = (Inner) node;
+            int i = childIndex(inner, key);
+            pushPath(depth++, inner, i);
+            node = inner.children[i];
+        }
+        int pos = search(node, key);
+        if (pos < 0) {
+            while (depth > 0) {
+                pathNodes[--depth] = null;
+            }
+            return false;
+        }
+        removeAt(node, pos);
+        size--;
+        modCount++;
+        // 自下而上修复计数，并合并或借用不足的节点
+        while (depth > 0) {
+            Inner parent = pathNodes[--depth];
+            int i = pathIndexes[depth];
+            pathNodes[depth] = null;
+            parent.counts[i]--;
+            if (node.n < MIN) {
+                rebalance(parent, i);
+            }
+            node = parent;
+        }
+        while (root instanceof Inner && root.n == 1) {
+            root = ((Inner) root).children[0];
+        }
+        return true;
+    }
+
+    /**
+     * 从节点的keys数组中移除关键字
+     * @param node
+     * @param index
+     * @Date 2026年10月18日 上午1:08:50
+     */
+    private static void removeAt(Node node, int index) {
+        System.arraycopy(node.keys, index + 1, node.keys, index, node.n - index - 1);
+        node.keys[--node.n] = null;
+    }
+
+    /**
+     * 修复内部节点的第i个子节点数目不足，优先向兄弟节点借用，否则与兄弟节点合并
+     * @param parent
+     * @param i
+     * @Date 2026年10月18日 上午1:09:20
+     */
+    private void rebalance(Inner parent, int i) {
+        if (i > 0 && parent.children[i - 1].n > MIN) {
+            borrowFromLeft(parent, i);
+        } else if (i + 1 < parent.n && parent.children[i + 1].n > MIN) {
+            borrowFromRight(parent, i);
+        } else if (i > 0) {
+            merge(parent, i - 1);
+        } else if (i + 1 < parent.n) {
+            merge(parent, i);
+        }
+    }
+
+    /**
+     * 将左兄弟的最后一项移到第i个子节点的最前
+     * @param parent
+     * @param i
+     * @Date 2026年10月18日 上午1:09:55
+     */
+    private static void borrowFromLeft(Inner parent, int i) {
+        Node left = parent.children[i - 1], child = parent.children[i];
+        int last = left.n - 1;
+        int moved;
+        if (child instanceof Leaf) {
+            insertAt(child, 0, left.keys[last]);
+            moved = 1;
+        } else {
+            Inner l = (Inner) left, c = (Inner) child;
+            int n = c.n;
+            System.arraycopy(c.children, 0, c.children, 1, n);
+            System.arraycopy(c.counts, 0, c.counts, 1, n);
+            System.arraycopy(c.keys, 0, c.keys, 1, n);
+            // 原第一个子节点的下界即原来父节点中的分隔关键字
+            c.keys[1] = parent.keys[i];
+            c.children[0] = l.children[last];
+            c.counts[0] = moved = l.counts[last];
+            c.keys[0] = left.keys[last];
+            c.n++;
+            l.children[last] = null;
+        }
+        left.keys[last] = null;
+        left.n--;
+        parent.keys[i] = child.keys[0];
+        parent.counts[i - 1] -= moved;
+        parent.counts[i] += moved;
+    }
+
+    /**
+     * 将右兄弟的第一项移到第i个子节点的最后
+     * @param parent
+     * @param i
+     * @Date 2026年10月18日 上午1:10:30
+     */
+    private static void borrowFromRight(Inner parent, int i) {
+        Node child = parent.children[i], right = parent.children[i + 1];
+        int moved;
+        if (child instanceof Leaf) {
+            child.keys[child.n++] = right.keys[0];
+            removeAt(right, 0);
+            moved = 1;
+        } else {
+            Inner c = (Inner) child, r = (Inner) right;
+            int n = r.n;
+            c.children[c.n] = r.children[0];
+            c.counts[c.n] = moved = r.counts[0];
+            c.keys[c.n] = parent.keys[i + 1];
+            c.n++;
+            System.arraycopy(r.children, 1, r.children, 0, n - 1);
+            System.arraycopy(r.counts, 1, r.counts, 0, n - 1);
+            System.arraycopy(r.keys, 1, r.keys, 0, n - 1);
+            r.children[n - 1] = null;
+            r.keys[n - 1] = null;
+            r.n--;
+        }
+        parent.keys[i + 1] = right.keys[0];
+        parent.counts[i] += moved;
+        parent.counts[i + 1] -= moved;
+    }
+
+    /**
+     * 将第i+1个子节点合并到第i个子节点
+     * @param parent
+     * @param i
+     * @Date 2026年10月18日 上午1:11:05
+     */
+    private void merge(Inner parent, int i) {
+        Node left = parent.children[i], right = parent.children[i + 1];
+        int ln = left.n, rn = right.n;
+        System.arraycopy(right.keys, 0, left.keys, ln, rn);
+        if (left instanceof Leaf) {
+            Leaf l = (Leaf) left, r = (Leaf) right;
+            l.next = r.next;
+            if (r.next != null) {
+                r.next.prev = l;
+            } else {
+                tail = l;
+            }
+        } else {
+            Inner l = (Inner) left, r = (Inner) right;
+            System.arraycopy(r.children, 0, l.children, ln, rn);
+            System.arraycopy(r.counts, 0, l.counts, ln, rn);
+            left.keys[ln] = parent.keys[i + 1];
+        }
+        left.n = ln + rn;
+        parent.counts[i] += parent.counts[i + 1];
+        int n = parent.n;
+        System.arraycopy(parent.children, i + 2, parent.children, i + 1, n - i - 2);
+        System.arraycopy(parent.counts, i + 2, parent.counts, i + 1, n - i - 2);
+        System.arraycopy(parent.keys, i + 2, parent.keys, i + 1, n - i - 2);
+        parent.children[n - 1] = null;
+        parent.keys[n - 1] = null;
+        parent.n--;
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.IRank#contains(java.lang.Object)
+     */
+    @Override
+    public boolean contains(K key) {
+        return getRank(key) > 0;
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.IRank#getRank(java.lang.Object)
+     */
+    @Override
+    public int getRank(K key) {
+        if (key == null) {
+            throw new NullPointerException();
+        }
+        int rank = 0;
+        Node node = root;
+        while (node instanceof Inner) {
+            Inner inner = (Inner) node;
+            int i = childIndex(inner, key);
+            int[] counts = inner.counts;
+            for (int j = 0; j < i; j++) {
+                rank += counts[j];
+            }
+            node = inner.children[i];
+        }
+        int pos = search(node, key);
+        return pos >= 0 ? rank + pos + 1 : -(rank - pos);
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.IRank#getKth(int)
+     */
+    @SuppressWarnings("unchecked")
+    @Override
+    public K getKth(int kth) {
+        if (!(kth > 0 && kth <= size)) {
+            throw new IndexOutOfBoundsException(outOfBoundsMsg(kth));
+        }
+        Node node = root;
+        kth--;
+        while (node instanceof Inner) {
+            Inner inner = (Inner) node;
+            int[] counts = inner.counts;
+            int i = 0;
+            while (kth >= counts[i]) {
+                kth -= counts[i++];
+            }
+            node = inner.children[i];
+        }
+        return (K) node.keys[kth];
+    }
+
+    /**
+     * 生成越界信息
+     * @param rank
+     * @return
+     * @Date 2026年10月18日 上午1:12:10
+     */
+    private String outOfBoundsMsg(int rank) {
+        return "Rank: " + rank + ", Size: " + size;
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.IRank#size()
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.IRank#clear()
+     */
+    @Override
+    public void clear() {
+        modCount++;
+        head = tail = new Leaf();
+        root = head;
+        size = 0;
+    }
+
+    /**
+     * 内部的排行榜迭代器
+     * 以(叶子节点，下标)记录后一个关键字的位置，沿叶子链表移动
+     * @author daheizi
+     * @Date 2026年10月18日 上午1:13:00
+     */
+    private class RankItr implements RankIterator<K> {
+        /** 后一个关键字所在的叶子节点 */
+        private Leaf leaf;
+        /** 后一个关键字在叶子节点中的下标，可能等于叶子节点的关键字数目 */
+        private int index;
+        /** 前一个返回的关键字 */
+        private Object last;
+        /** 前一个返回的关键字是否由next()返回 */
+        private boolean lastByNext;
+        /** 前一个元素的名次 */
+        private int lastRank;
+        /** 期待的被修改次数 */
+        private int expectedModCount;
+
+        /**
+         * 构造函数
+         * @param kth 起始名次
+         */
+        RankItr(int kth) {
+            expectedModCount = modCount;
+            lastRank = kth;
+            seek(kth + 1);
+        }
+
+        /**
+         * 定位到名次为rank的关键字，rank为size + 1时定位到末尾
+         * @param rank
+         * @Date 2026年10月18日 上午1:13:40
+         */
+        private void seek(int rank) {
+            if (rank > size) {
+                leaf = tail;
+                index = tail.n;
+                return;
+            }
+            Node node = root;
+            rank--;
+            while (node instanceof Inner) {
+                Inner inner = (Inner) node;
+                int i = 0;
+                while (rank >= inner.counts[i]) {
+                    rank -= inner.counts[i++];
+                }
+                node = inner.children[i];
+            }
+            leaf = (Leaf) node;
+            index = rank;
+        }
+
+        /**
+         * @see java.util.Iterator#hasNext()
+         */
+        @Override
+        public final boolean hasNext() {
+            return lastRank < size;
+        }
+
+        /**
+         * @see java.util.Iterator#next()
+         */
+        @SuppressWarnings("unchecked")
+        @Override
+        public K next() {
+            checkForComodification();
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            if (index == leaf.n) {
+                leaf = leaf.next;
+                index = 0;
+            }
+            last = leaf.keys[index++];
+            lastByNext = true;
+            lastRank++;
+            return (K) last;
+        }
+
+        /**
+         * @see top.daheizi.commons.stl.RankIterator#hasPrevious()
+         */
+        @Override
+        public boolean hasPrevious() {
+            return lastRank > 0;
+        }
+
+        /**
+         * @see top.daheizi.commons.stl.RankIterator#previous()
+         */
+        @SuppressWarnings("unchecked")
+        @Override
+        public K previous() {
+            checkForComodification();
+            if (!hasPrevious()) {
+                throw new NoSuchElementException();
+            }
+            if (index == 0) {
+                leaf = leaf.prev;
+                index = leaf.n;
+            }
+            last = leaf.keys[--index];
+            lastByNext = false;
+            lastRank--;
+            return (K) last;
+        }
+
+        /**
+         * @see java.util.Iterator#remove()
+         */
+        @SuppressWarnings("unchecked")
+        @Override
+        public void remove() {
+            checkForComodification();
+            if (last == null) {
+                throw new IllegalStateException();
+            }
+            BTreeRank.this.remove((K) last);
+            if (lastByNext) {
+                lastRank--;
+            }
+            last = null;
+            // 节点可能已被合并或借用，重新定位
+            seek(lastRank + 1);
+            expectedModCount = modCount;
+        }
+
+        /**
+         * @see top.daheizi.commons.stl.RankIterator#nextRank()
+         */
+        @Override
+        public int nextRank() {
+            return lastRank + 1;
+        }
+
+        /**
+         * @see top.daheizi.commons.stl.RankIterator#previousRank()
+         */
+        @Override
+        public int previousRank() {
+            return lastRank;
+        }
+
+        /**
+         * 检查树结构是否被修改
+         * @Date 2026年10月18日 上午1:15:02
+         */
+        private final void checkForComodification() {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+        }
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.IRank#iterator()
+     */
+    @Override
+    public Iterator<K> iterator() {
+        return rankIterator();
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.IRank#rankIterator()
+     */
+    @Override
+    public RankIterator<K> rankIterator() {
+        return rankIterator(0);
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.IRank#rankIterator(int)
+     */
+    @Override
+    public RankIterator<K> rankIterator(int kth) {
+        if (!(kth >= 0 && kth <= size)) {
+            throw new IndexOutOfBoundsException(outOfBoundsMsg(kth));
+        }
+        return new RankItr(kth);
+    }
+
+
+
+    /****************** 以下为一些非必需的辅助和测试方法 ***************************/
+
+    /**
+     * 返回树高
+     * @return
+     * @Date 2026年10月18日 上午1:16:00
+     */
+    public int getHeight() {
+        int height = 1;
+        for (Node node = root; node instanceof Inner; node = ((Inner) node).children[0]) {
+            height++;
+        }
+        return height;
+    }
+
+    /**
+     * 验证B+树结构的正确性
+     * @Date 2026年10月18日 上午1:16:20
+     */
+    void check() {
+        List<Leaf> leaves = new ArrayList<>();
+        if (checkImpl(root, null, null, true, leaves) != size) {
+            throw new RuntimeException("Size Error !");
+        }
+        if (leaves.get(0) != head || leaves.get(leaves.size() - 1) != tail) {
+            throw new RuntimeException("Leaf Link Error !");
+        }
+        for (int i = 0; i < leaves.size(); i++) {
+            Leaf leaf = leaves.get(i);
+            if (leaf.prev != (i == 0 ? null : leaves.get(i - 1))
+                    || leaf.next != (i == leaves.size() - 1 ? null : leaves.get(i + 1))) {
+                throw new RuntimeException("Leaf Link Error !");
+            }
+        }
+    }
+
+    /**
+     * 验证子树，返回子树包含的关键字数目
+     * @param node
+     * @param low 下界(包含)
+     * @param high 上界(不包含)
+     * @param isRoot
+     * @param leaves 按序收集叶子节点
+     * @return
+     * @Date 2026年10月18日 上午1:16:50
+     */
+    private int checkImpl(Node node, Object low, Object high, boolean isRoot, List<Leaf> leaves) {
+        if (!isRoot && (node.n < MIN || node.n > MAX)) {
+            throw new RuntimeException("Not Balanced ! " + node.n);
+        }
+        if (node instanceof Leaf) {
+            for (int i = 0; i < node.n; i++) {
+                if (i > 0 && compare(node.keys[i - 1], node.keys[i]) >= 0
+                        || low != null && compare(node.keys[i], low) < 0
+                        || high != null && compare(node.keys[i], high) >= 0) {
+                    throw new RuntimeException("Not SortTree !");
+                }
+            }
+            leaves.add((Leaf) node);
+            return node.n;
+        }
+        Inner inner = (Inner) node;
+        if (isRoot && inner.n < 2) {
+            throw new RuntimeException("Root Error !");
+        }
+        int total = 0;
+        for (int i = 0; i < inner.n; i++) {
+            Object l = i == 0 ? low : inner.keys[i];
+            Object h = i == inner.n - 1 ? high : inner.keys[i + 1];
+            int count = checkImpl(inner.children[i], l, h, false, leaves);
+            if (count != inner.counts[i]) {
+                throw new RuntimeException("Count Error !");
+            }
+            total += count;
+        }
+        return total;
+    }
+
+    /**
+     * 单元测试
+     * @param args
+     * @Date 2026年10月18日 上午1:17:30
+     */
+    public static void main(String[] args) {
+        // *****测试正确性，与RBTreeRank对比
+        Random random = new Random();
+        BTreeRank<Integer> r = new BTreeRank<>();
+        IRank<Integer> ref = new RBTreeRank<>();
+        for (int i = 0; i < 300000; i++) {
+            int x = random.nextInt(20000);
+            if (random.nextInt(3) == 0) {
+                if (r.remove(x) != ref.remove(x)) {
+                    throw new RuntimeException("Remove Not Equal !");
+                }
+            } else if (r.add(x) != ref.add(x)) {
+                throw new RuntimeException("Add Not Equal !");
+            }
+            if (r.getRank(x) != ref.getRank(x)) {
+                throw new RuntimeException("Rank Not Equal !");
+            }
+            if (i % 10000 == 0) {
+                r.check();
+            }
+        }
+        r.check();
+        for (int i = 1; i <= ref.size(); i++) {
+            if (!r.getKth(i).equals(ref.getKth(i))) {
+                throw new RuntimeException("Kth Not Equal !");
+            }
+        }
+        System.out.println("size: " + r.size() + ", height: " + r.getHeight());
+
+        // 迭代器的前后移动与删除
+        RankIterator<Integer> it = r.rankIterator(100);
+        RankIterator<Integer> refIt = ref.rankIterator(100);
+        while (it.hasNext()) {
+            Integer x = it.next();
+            if (!x.equals(refIt.next()) || it.nextRank() != refIt.nextRank()) {
+                throw new RuntimeException("Iterator Not Equal !");
+            }
+            if (x % 3 == 0) {
+                it.remove();
+                refIt.remove();
+                if (it.hasPrevious()) {
+                    if (!it.previous().equals(refIt.previous())) {
+                        throw new RuntimeException("Previous Not Equal !");
+                    }
+                    if (x % 2 == 0) {
+                        it.remove();
+                        refIt.remove();
+                    } else {
+                        it.next();
+                        refIt.next();
+                    }
+                }
+            }
+        }
+        r.check();
+        if (!Arrays.equals(r.toArray(), ref.toArray())) {
+            throw new RuntimeException("Iterator Remove Not Equal !");
+        }
+        while (r.size() > 0) {
+            int x = r.getKth(random.nextInt(r.size()) + 1);
+            r.remove(x);
+            ref.remove(x);
+        }
+        r.check();
+        System.out.println("correctness OK");
+
+        // *****测试效率
+        int num = 2000000;
+        List<Integer> li = new ArrayList<>(num);
+        for (int i = 0; i < num; ++i) {
+            li.add(i * 2);
+        }
+        Collections.shuffle(li);
+        int times = num / 10;
+        System.out.println("****test speed, num :" + num + " ,time unit: (ns)");
+        for (IRank<Integer> rank : Arrays.<IRank<Integer>>asList(new BTreeRank<>(), new RBTreeRank<>())) {
+            long ns1 = System.nanoTime();
+            for (Integer x : li) {
+                rank.add(x);
+            }
+            long ns2 = System.nanoTime();
+            long sum = 0;
+            for (int i = 0; i < times; i++) {
+                sum += rank.getRank(random.nextInt(num * 2));
+            }
+            long ns3 = System.nanoTime();
+            for (int i = 0; i < times; i++) {
+                sum += rank.getKth(random.nextInt(num) + 1);
+            }
+            long ns4 = System.nanoTime();
+            for (Integer x : rank) {
+                sum += x;
+            }
+            long ns5 = System.nanoTime();
+            for (int i = 0; i < times; i++) {
+                rank.remove(random.nextInt(num * 2));
+            }
+            long ns6 = System.nanoTime();
+            System.out.println(rank.getClass().getSimpleName() + " add: " + (ns2 - ns1) / num
+                    + ", rank: " + (ns3 - ns2) / times + ", kth: " + (ns4 - ns3) / times
+                    + ", scan: " + (ns5 - ns4) / num + ", remove: " + (ns6 - ns5) / times + " " + (sum != 0));
+        }
+    }
+}
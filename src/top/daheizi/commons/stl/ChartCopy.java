@@ -0,0 +1,178 @@
+package top.daheizi.commons.stl;
+
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 排行榜的分段复制，供加锁的排行榜在复制期间允许写入
+ * 每段通过forEachInRange在锁内复制，不依赖内部排行榜的迭代器，段与段之间释放锁，写入可以进行；
+ * 复制期间被写入的关键字由写入方通过written记录，finish在锁内查询它们当前的名次和值，
+ * merge在锁外把它们按名次插回其余的数据中，结果与finish时的排行榜完全一致，包括相等数据的次序：
+ * 未被写入的数据值不变，相对次序也不变；每写入一个关键字，其余数据的名次最多偏移1，
+ * 因此每段从上一段的末尾回退期间写入的关键字数目开始复制，不会遗漏，重复的按关键字去除
+ * 使用方式：
+ *     复制方在锁内反复调用copyChunk，段与段之间释放锁，返回true后在锁内调用finish，再在锁外调用merge
+ *     写入方在写锁内对每个被写入的关键字调用written，清空排行榜时调用cancel，复制作废
+ * 非线程安全，各方法须在持有同一把锁时调用(merge除外)
+ * @param <K>
+ * @param <V>
+ * @author daheizi
+ * @Date 2026年10月18日 上午10:32:00
+ */
+final class ChartCopy<K, V> {
+
+    /** 每段复制的数据量 */
+    private static final int CHUNK = 1024;
+
+    /** 被复制的排行榜 */
+    private final IChart<K, V> chart;
+
+    /** 复制期间被写入的关键字 */
+    private final Set<K> dirty = new HashSet<>();
+
+    /** 被写入的关键字数目的累计 */
+    private long writes;
+
+    /** 上一段复制时的writes */
+    private long mark;
+
+    /** 下一个待复制的名次 */
+    private int next = 1;
+
+    /** 已复制的关键字 */
+    private final Set<K> seen = new HashSet<>();
+
+    /** 按复制顺序排列的关键字 */
+    private final List<K> keys = new ArrayList<>();
+
+    /** 按复制顺序排列的值 */
+    private final List<V> values = new ArrayList<>();
+
+    /** finish时被写入的关键字的<名次，<key，value>>，已被删除的除外 */
+    private final List<Tuple<Integer, Tuple<K, V>>> updated = new ArrayList<>();
+
+    /** finish时排行榜的数据量 */
+    private int size = -1;
+
+    /** 是否已作废 */
+    private boolean cancelled;
+
+    /**
+     * 构造函数
+     * @param chart 被复制的排行榜
+     */
+    ChartCopy(IChart<K, V> chart) {
+        this.chart = chart;
+    }
+
+    /**
+     * 记录被写入的关键字，写入方在写锁内调用
+     * @param key
+     * @Date 2026年10月18日 上午10:32:30
+     */
+    void written(K key) {
+        writes++;
+        dirty.add(key);
+    }
+
+    /**
+     * 作废本次复制，写入方清空排行榜时在写锁内调用
+     * @Date 2026年10月18日 上午10:32:50
+     */
+    void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * 是否已作废
+     * @return
+     * @Date 2026年10月18日 上午10:33:10
+     */
+    boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * 在锁内复制一段
+     * @return 是否已复制到末尾
+     * @Date 2026年10月18日 上午10:33:30
+     */
+    boolean copyChunk() {
+        int shift = (int) Math.min(writes - mark, next - 1);
+        mark = writes;
+        int start = next - shift;
+        int end = next + CHUNK - 1;
+        int count = chart.forEachInRange(start, end, (rank, key, value) -> {
+            if (seen.add(key)) {
+                keys.add(key);
+                values.add(value);
+            }
+        });
+        next = start + count;
+        return count < end - start + 1;
+    }
+
+    /**
+     * 在锁内复制上一段之后偏移和新增的数据，并查询被写入的关键字当前的名次和值
+     * 复制结果与此时的排行榜一致
+     * @Date 2026年10月18日 上午10:33:50
+     */
+    void finish() {
+        while (!copyChunk()) {
+            // 上一段之后写入较多时，剩余的数据可能不止一段
+        }
+        for (K key : dirty) {
+            Tuple<Integer, V> t = chart.search(key);
+            if (t.left > 0) {
+                updated.add(new Tuple<>(t.left, new Tuple<>(key, t.right)));
+            }
+        }
+        size = chart.size();
+    }
+
+    /**
+     * finish时排行榜的数据量
+     * @return
+     * @Date 2026年10月18日 上午10:34:10
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * 在锁外合并未被写入的数据和被写入的数据，按名次顺序访问复制结果
+     * @param visitor
+     * @throws ConcurrentModificationException 复制结果与排行榜的数据量不一致
+     * @Date 2026年10月18日 上午10:34:30
+     */
+    void merge(ChartVisitor<K, V> visitor) {
+        updated.sort((a, b) -> Integer.compare(a.left, b.left));
+        int i = 0;
+        int j = 0;
+        for (int rank = 1; rank <= size; rank++) {
+            if (j < updated.size() && updated.get(j).left == rank) {
+                Tuple<K, V> t = updated.get(j).right;
+                visitor.visit(rank, t.left, t.right);
+                j++;
+                continue;
+            }
+            while (i < keys.size() && dirty.contains(keys.get(i))) {
+                i++;
+            }
+            if (i == keys.size()) {
+                throw new ConcurrentModificationException();
+            }
+            visitor.visit(rank, keys.get(i), values.get(i));
+            i++;
+        }
+        while (i < keys.size() && dirty.contains(keys.get(i))) {
+            i++;
+        }
+        if (i != keys.size() || j != updated.size()) {
+            throw new ConcurrentModificationException();
+        }
+    }
+}
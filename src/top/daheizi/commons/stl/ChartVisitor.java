@@ -0,0 +1,24 @@
+package top.daheizi.commons.stl;
+
+/**
+ * 排行榜数据的访问者
+ * 用于IChart#forEachInRange等查询，按名次顺序逐个接收数据，
+ * 查询过程不需要为每个数据创建Tuple和列表
+ * 访问期间不允许修改被访问的排行榜
+ * @param <K>
+ * @param <V>
+ * @author daheizi
+ * @Date 2026年10月18日 上午3:05:10
+ */
+@FunctionalInterface
+public interface ChartVisitor<K, V> {
+
+    /**
+     * 访问一个数据
+     * @param rank 名次
+     * @param key
+     * @param value
+     * @Date 2026年10月18日 上午3:05:30
+     */
+    void visit(int rank, K key, V value);
+}
@@ -0,0 +1,622 @@
+package top.daheizi.commons.stl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.BinaryOperator;
+
+/**
+ * 排行榜之间的集合运算
+ * 利用排行榜按值有序的迭代器做线性的多路归并，归并结果直接流入RBTreeChart.fromSorted线性构建，
+ * 避免逐个put带来的O(n log n)查找与大量旋转，也不产生中间列表
+ * 同一关键字存在于多个排行榜中时由combiner决定结果的值，combiner为null时取后者的值(与putAll一致)，
+ * 合并后的值不再处于原来的位置，这部分数据单独排序后再归并，关键字互不相交时整个运算是线性的
+ * 值相等的数据，前一个排行榜的在前，后一个排行榜的在后，关键字冲突而合并的数据排在最后
+ * 运算期间输入的排行榜不能被修改
+ * 需要遍历的输入须支持IChart#iterator(int)，ConcurrentChart不提供迭代器，传入时抛出IllegalArgumentException，
+ * 可先通过getSequenceList取出全部数据，再由RBTreeChart.fromSorted构建副本
+ * @author daheizi
+ * @Date 2026年10月18日 上午7:00:10
+ */
+public final class Charts {
+
+    /** 排行榜不超过该数目时，通过各排行榜的containsKey查找冲突的关键字，否则建立关键字索引 */
+    private static final int LOOKUP_THRESHOLD = 4;
+
+    /** 多路归并的路数超过该数目时使用优先队列 */
+    private static final int QUEUE_THRESHOLD = 8;
+
+    /** 并行归并时，每个线程分到的值区间数目 */
+    private static final int SLICES_PER_THREAD = 4;
+
+    /** 并行归并时，每个值区间的最少数据量 */
+    private static final int MIN_SLICE_SIZE = 4096;
+
+    private Charts() {}
+
+    /**
+     * 并集，等同于mergeAll(a, b)
+     * @param a
+     * @param b
+     * @param comparator 结果的排序规则，须与a、b一致，为null时使用值的自身排序规则
+     * @param combiner 合并同一关键字的两个值(a的值, b的值)，为null时取b的值
+     * @return
+     * @Date 2026年10月18日 上午7:01:00
+     */
+    public static <K, V> RBTreeChart<K, V> union(IChart<K, V> a, IChart<K, V> b,
+            Comparator<V> comparator, BinaryOperator<V> combiner) {
+        return mergeAll(Arrays.asList(a, b), comparator, combiner, null);
+    }
+
+    /**
+     * 交集，只保留同时存在于两个排行榜中的关键字
+     * combiner为null时取b的值，结果的顺序即b中的顺序，无需排序
+     * @param a
+     * @param b 须支持迭代器
+     * @param comparator 结果的排序规则，须与a、b一致，为null时使用值的自身排序规则
+     * @param combiner 合并同一关键字的两个值(a的值, b的值)，为null时取b的值
+     * @return
+     * @Date 2026年10月18日 上午7:02:00
+     */
+    public static <K, V> RBTreeChart<K, V> intersection(IChart<K, V> a, IChart<K, V> b,
+            Comparator<V> comparator, BinaryOperator<V> combiner) {
+        checkIterable(b);
+        List<Tuple<K, V>> list = new ArrayList<>(Math.min(a.size(), b.size()));
+        for (Tuple<K, V> t : b) {
+            V va = a.get(t.left);
+            if (va != null) {
+                list.add(combiner == null ? t : new Tuple<>(t.left, combiner.apply(va, t.right)));
+            }
+        }
+        if (combiner != null) {
+            // 合并后的值大体仍然有序，TimSort对有序的段是线性的
+            list.sort((t1, t2) -> compare(comparator, t1.right, t2.right));
+        }
+        return RBTreeChart.fromSorted(list.iterator(), list.size(), comparator);
+    }
+
+    /**
+     * 差集，只保留a中存在且b中不存在的关键字，线性
+     * @param a 须支持迭代器
+     * @param b
+     * @param comparator 结果的排序规则，须与a一致，为null时使用值的自身排序规则
+     * @return
+     * @Date 2026年10月18日 上午7:03:00
+     */
+    public static <K, V> RBTreeChart<K, V> difference(IChart<K, V> a, IChart<K, ?> b,
+            Comparator<V> comparator) {
+        checkIterable(a);
+        List<Tuple<K, V>> list = new ArrayList<>(a.size());
+        for (Tuple<K, V> t : a) {
+            if (!b.containsKey(t.left)) {
+                list.add(t);
+            }
+        }
+        return RBTreeChart.fromSorted(list.iterator(), list.size(), comparator);
+    }
+
+    /**
+     * 合并多个排行榜，即依次求并集
+     * 先找出存在于多个排行榜中的关键字，合并其值后单独排序，其余数据经归并直接构建，只构建一次
+     * pool为null时，各排行榜的迭代器经多路归并后直接流入结果的构建；
+     * 否则以最大的排行榜的分位数将值域切分为若干区间，各区间在pool中并行归并后按序拼接
+     * 值相等的数据不会被切分到不同的区间，因此结果与顺序执行完全一致
+     * @param charts 均须支持迭代器
+     * @param comparator 结果的排序规则，须与各排行榜一致，为null时使用值的自身排序规则
+     * @param combiner 合并同一关键字的两个值(前者的值, 后者的值)，为null时取后者的值
+     * @param pool 为null时在调用线程中执行
+     * @return
+     * @Date 2026年10月18日 上午7:04:00
+     */
+    public static <K, V> RBTreeChart<K, V> mergeAll(List<? extends IChart<K, V>> charts,
+            Comparator<V> comparator, BinaryOperator<V> combiner, ForkJoinPool pool) {
+        for (IChart<K, V> chart : charts) {
+            checkIterable(chart);
+        }
+        Set<K> conflicts = conflicts(charts);
+        if (conflicts.isEmpty()) {
+            return build(charts, conflicts, Collections.emptyList(), comparator, pool);
+        }
+        // 冲突的关键字按排行榜的先后合并值
+        List<Tuple<K, V>> resolved = new ArrayList<>(conflicts.size());
+        for (K key : conflicts) {
+            V value = null;
+            for (IChart<K, V> chart : charts) {
+                V v = chart.get(key);
+                if (v != null) {
+                    value = value == null || combiner == null ? v : combiner.apply(value, v);
+                }
+            }
+            resolved.add(new Tuple<>(key, value));
+        }
+        resolved.sort((t1, t2) -> compare(comparator, t1.right, t2.right));
+        return build(charts, conflicts, resolved, comparator, pool);
+    }
+
+    /**
+     * 归并各排行榜中不冲突的数据与合并值后的冲突数据，构建结果
+     * @param charts
+     * @param conflicts 冲突的关键字
+     * @param resolved 合并值后按值排序的冲突数据
+     * @param comparator
+     * @param pool
+     * @return
+     * @Date 2026年10月18日 上午7:04:30
+     */
+    private static <K, V> RBTreeChart<K, V> build(List<? extends IChart<K, V>> charts, Set<K> conflicts,
+            List<Tuple<K, V>> resolved, Comparator<V> comparator, ForkJoinPool pool) {
+        int total = 0;
+        IChart<K, V> largest = null;
+        for (IChart<K, V> chart : charts) {
+            total += chart.size();
+            largest = largest == null || chart.size() > largest.size() ? chart : largest;
+        }
+        int slices = pool == null ? 1 : Math.min(pool.getParallelism() * SLICES_PER_THREAD, total / MIN_SLICE_SIZE);
+        Iterator<Tuple<K, V>> merged;
+        if (slices <= 1) {
+            merged = new MergeIterator<>(charts, null, null, conflicts, comparator);
+        } else {
+            merged = parallelMerge(charts, largest, slices, conflicts, comparator, pool);
+        }
+        if (!resolved.isEmpty()) {
+            merged = new MergeIterator<>(Arrays.asList(merged, resolved.iterator()), comparator);
+        }
+        return RBTreeChart.fromSorted(merged, total, comparator);
+    }
+
+    /**
+     * 按值区间并行归并，返回按序拼接各区间结果的迭代器
+     * @param charts
+     * @param largest 用于切分值域的排行榜
+     * @param slices 区间数目
+     * @param conflicts
+     * @param comparator
+     * @param pool
+     * @return
+     * @Date 2026年10月18日 上午7:05:00
+     */
+    private static <K, V> Iterator<Tuple<K, V>> parallelMerge(List<? extends IChart<K, V>> charts,
+            IChart<K, V> largest, int slices, Set<K> conflicts, Comparator<V> comparator, ForkJoinPool pool) {
+        // 区间的分界值，相同的分界值只保留一个
+        List<V> bounds = new ArrayList<>(slices - 1);
+        for (int s = 1; s < slices; s++) {
+            V v = largest.getKth((int) ((long) largest.size() * s / slices) + 1).right;
+            if (bounds.isEmpty() || compare(comparator, bounds.get(bounds.size() - 1), v) < 0) {
+                bounds.add(v);
+            }
+        }
+        List<ForkJoinTask<List<Tuple<K, V>>>> tasks = new ArrayList<>(bounds.size() + 1);
+        for (int s = 0; s <= bounds.size(); s++) {
+            // 每个区间为[low, high)，值相等的数据总在同一区间
+            int[] from = new int[charts.size()];
+            int[] to = new int[charts.size()];
+            for (int i = 0; i < charts.size(); i++) {
+                IChart<K, V> chart = charts.get(i);
+                from[i] = s == 0 ? 0 : chart.getRankInfo(bounds.get(s - 1))[0];
+                to[i] = s == bounds.size() ? chart.size() : chart.getRankInfo(bounds.get(s))[0];
+            }
+            tasks.add(pool.submit(() -> {
+                List<Tuple<K, V>> list = new ArrayList<>();
+                new MergeIterator<>(charts, from, to, conflicts, comparator).forEachRemaining(list::add);
+                return list;
+            }));
+        }
+        List<Iterator<Tuple<K, V>>> parts = new ArrayList<>(tasks.size());
+        for (ForkJoinTask<List<Tuple<K, V>>> task : tasks) {
+            parts.add(task.join().iterator());
+        }
+        return new Iterator<Tuple<K, V>>() {
+            private int index;
+
+            @Override
+            public boolean hasNext() {
+                while (index < parts.size() && !parts.get(index).hasNext()) {
+                    index++;
+                }
+                return index < parts.size();
+            }
+
+            @Override
+            public Tuple<K, V> next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return parts.get(index).next();
+            }
+        };
+    }
+
+    /**
+     * 找出存在于多个排行榜中的关键字
+     * 排行榜较少时对每个关键字查询排在其前面的排行榜，不必额外建立索引，否则以全部关键字建立索引
+     * @param charts
+     * @return
+     * @Date 2026年10月18日 上午7:06:00
+     */
+    private static <K, V> Set<K> conflicts(List<? extends IChart<K, V>> charts) {
+        Set<K> conflicts = new HashSet<>();
+        if (charts.size() <= LOOKUP_THRESHOLD) {
+            for (int i = 1; i < charts.size(); i++) {
+                for (Tuple<K, V> t : charts.get(i)) {
+                    for (int j = 0; j < i; j++) {
+                        if (charts.get(j).containsKey(t.left)) {
+                            conflicts.add(t.left);
+                            break;
+                        }
+                    }
+                }
+            }
+            return conflicts;
+        }
+        Set<K> keys = new HashSet<>();
+        for (IChart<K, V> chart : charts) {
+            for (Tuple<K, V> t : chart) {
+                if (!keys.add(t.left)) {
+                    conflicts.add(t.left);
+                }
+            }
+        }
+        return conflicts;
+    }
+
+    /**
+     * 检查排行榜支持IChart#iterator(int)
+     * ConcurrentChart无法在迭代期间持有读锁，不提供迭代器
+     * @param chart
+     * @throws IllegalArgumentException 不支持迭代器
+     * @Date 2026年10月18日 上午10:48:00
+     */
+    private static void checkIterable(IChart<?, ?> chart) {
+        if (chart instanceof ConcurrentChart) {
+            throw new IllegalArgumentException("iterator not supported: " + chart.getClass().getSimpleName());
+        }
+    }
+
+    /**
+     * 比较两个值的大小
+     * @param comparator
+     * @param v1
+     * @param v2
+     * @return
+     * @Date 2026年10月18日 上午7:06:30
+     */
+    @SuppressWarnings("unchecked")
+    private static <V> int compare(Comparator<V> comparator, V v1, V v2) {
+        return comparator == null ? ((Comparable<? super V>)v1).compareTo(v2)
+                : comparator.compare(v1, v2);
+    }
+
+    /**
+     * 多路归并的迭代器，值相等时序号较小的一路在前
+     * 路数较少时线性扫描各路的当前数据，较多时使用优先队列
+     * @param <K>
+     * @param <V>
+     * @author daheizi
+     * @Date 2026年10月18日 上午7:07:00
+     */
+    private static final class MergeIterator<K, V> implements Iterator<Tuple<K, V>> {
+
+        /** 各路的迭代器 */
+        private final List<Iterator<Tuple<K, V>>> its;
+
+        /** 各路剩余的数据量 */
+        private final int[] remain;
+
+        /** 各路的当前数据 */
+        private final List<Tuple<K, V>> heads;
+
+        /** 需跳过的关键字 */
+        private final Set<K> skipped;
+
+        /** 比较器 */
+        private final Comparator<V> comparator;
+
+        /** 路数较多时按当前数据排序的优先队列 */
+        private final PriorityQueue<Integer> queue;
+
+        /**
+         * 构造函数，归并各排行榜名次区间(from, to]内的数据
+         * 通过IChart#iterator(int)定位起始名次，各排行榜须支持迭代器，见checkIterable
+         * @param charts
+         * @param from 各排行榜的起始名次(不包含)，为null时从头开始
+         * @param to 各排行榜的终止名次(包含)，为null时直到末尾
+         * @param skipped 需跳过的关键字
+         * @param comparator
+         */
+        MergeIterator(List<? extends IChart<K, V>> charts, int[] from, int[] to,
+                Set<K> skipped, Comparator<V> comparator) {
+            this.its = new ArrayList<>(charts.size());
+            this.remain = new int[charts.size()];
+            for (int i = 0; i < charts.size(); i++) {
+                IChart<K, V> chart = charts.get(i);
+                its.add(chart.iterator(from == null ? 0 : from[i]));
+                remain[i] = (to == null ? chart.size() : to[i]) - (from == null ? 0 : from[i]);
+            }
+            this.skipped = skipped;
+            this.comparator = comparator;
+            this.heads = new ArrayList<>(its.size());
+            this.queue = its.size() > QUEUE_THRESHOLD ? new PriorityQueue<>(its.size(), (i, j) -> {
+                int cmp = compare(comparator, heads.get(i).right, heads.get(j).right);
+                return cmp != 0 ? cmp : Integer.compare(i, j);
+            }) : null;
+            init();
+        }
+
+        /**
+         * 构造函数，归并若干有序的迭代器
+         * @param its
+         * @param comparator
+         */
+        MergeIterator(List<Iterator<Tuple<K, V>>> its, Comparator<V> comparator) {
+            this.its = its;
+            this.remain = new int[its.size()];
+            Arrays.fill(remain, Integer.MAX_VALUE);
+            this.skipped = null;
+            this.comparator = comparator;
+            this.heads = new ArrayList<>(its.size());
+            this.queue = null;
+            init();
+        }
+
+        /**
+         * 读取各路的第一个数据
+         * @Date 2026年10月18日 上午7:08:00
+         */
+        private void init() {
+            for (int i = 0; i < its.size(); i++) {
+                heads.add(null);
+                advance(i);
+                if (queue != null && heads.get(i) != null) {
+                    queue.add(i);
+                }
+            }
+        }
+
+        /**
+         * 读取第i路的下一个数据，跳过需跳过的关键字
+         * @param i
+         * @Date 2026年10月18日 上午7:08:30
+         */
+        private void advance(int i) {
+            Iterator<Tuple<K, V>> it = its.get(i);
+            Tuple<K, V> next = null;
+            while (next == null && remain[i] > 0 && it.hasNext()) {
+                next = it.next();
+                remain[i]--;
+                if (skipped != null && skipped.contains(next.left)) {
+                    next = null;
+                }
+            }
+            heads.set(i, next);
+        }
+
+        /**
+         * @see java.util.Iterator#hasNext()
+         */
+        @Override
+        public boolean hasNext() {
+            if (queue != null) {
+                return !queue.isEmpty();
+            }
+            for (Tuple<K, V> head : heads) {
+                if (head != null) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * @see java.util.Iterator#next()
+         */
+        @Override
+        public Tuple<K, V> next() {
+            int min = -1;
+            if (queue != null) {
+                if (!queue.isEmpty()) {
+                    min = queue.poll();
+                }
+            } else {
+                for (int i = 0; i < heads.size(); i++) {
+                    Tuple<K, V> head = heads.get(i);
+                    if (head != null && (min == -1 || compare(comparator, head.right, heads.get(min).right) < 0)) {
+                        min = i;
+                    }
+                }
+            }
+            if (min == -1) {
+                throw new NoSuchElementException();
+            }
+            Tuple<K, V> t = heads.get(min);
+            advance(min);
+            if (queue != null && heads.get(min) != null) {
+                queue.add(min);
+            }
+            return t;
+        }
+    }
+
+
+
+    /****************** 以下为一些非必需的辅助和测试方法 ***************************/
+
+    /**
+     * 检查结果与逐个put得到的关键字和值一致，且按值有序
+     * @param name
+     * @param expected
+     * @param actual
+     * @Date 2026年10月18日 上午7:10:00
+     */
+    private static void assertSame(String name, Map<Integer, Integer> expected, IChart<Integer, Integer> actual) {
+        if (expected.size() != actual.size()) {
+            throw new RuntimeException(name + " Size Not Equal !");
+        }
+        Integer last = null;
+        for (Tuple<Integer, Integer> t : actual) {
+            if (!t.right.equals(expected.get(t.left)) || (last != null && last > t.right)) {
+                throw new RuntimeException(name + " Not Equal !");
+            }
+            last = t.right;
+        }
+        for (Integer key : expected.keySet()) {
+            if (!key.equals(actual.getKth(actual.getRank(key)).left)) {
+                throw new RuntimeException(name + " Rank Not Equal !");
+            }
+        }
+    }
+
+    /**
+     * 构造随机的排行榜，同时记录到map中
+     * @param random
+     * @param num
+     * @param keyRange
+     * @param map
+     * @return
+     * @Date 2026年10月18日 上午7:10:30
+     */
+    private static RBTreeChart<Integer, Integer> randomChart(Random random, int num, int keyRange,
+            Map<Integer, Integer> map) {
+        RBTreeChart<Integer, Integer> chart = new RBTreeChart<>();
+        for (int i = 0; i < num; i++) {
+            int key = random.nextInt(keyRange);
+            int value = random.nextInt(1000);
+            chart.put(key, value);
+            map.put(key, value);
+        }
+        return chart;
+    }
+
+    /**
+     * 单元测试
+     * @param args
+     * @Date 2026年10月18日 上午7:11:00
+     */
+    public static void main(String[] args) {
+        // *****测试正确性
+        Random random = new Random();
+        BinaryOperator<Integer> sum = Integer::sum;
+        for (int round = 0; round < 50; round++) {
+            Map<Integer, Integer> ma = new HashMap<>();
+            Map<Integer, Integer> mb = new HashMap<>();
+            RBTreeChart<Integer, Integer> a = randomChart(random, random.nextInt(3000), 5000, ma);
+            RBTreeChart<Integer, Integer> b = randomChart(random, random.nextInt(3000), 5000, mb);
+            Map<Integer, Integer> expected = new HashMap<>(ma);
+            expected.putAll(mb);
+            assertSame("union", expected, union(a, b, null, null));
+            expected = new HashMap<>(ma);
+            for (Map.Entry<Integer, Integer> e : mb.entrySet()) {
+                expected.merge(e.getKey(), e.getValue(), sum);
+            }
+            assertSame("union sum", expected, union(a, b, null, sum));
+            expected = new HashMap<>(mb);
+            expected.keySet().retainAll(ma.keySet());
+            assertSame("intersection", expected, intersection(a, b, null, null));
+            for (Map.Entry<Integer, Integer> e : expected.entrySet()) {
+                e.setValue(ma.get(e.getKey()) + e.getValue());
+            }
+            assertSame("intersection sum", expected, intersection(a, b, null, sum));
+            expected = new HashMap<>(ma);
+            expected.keySet().removeAll(mb.keySet());
+            assertSame("difference", expected, difference(a, b, null));
+            // 多个排行榜
+            List<RBTreeChart<Integer, Integer>> charts = new ArrayList<>();
+            expected = new HashMap<>();
+            int n = random.nextInt(10) + 1;
+            for (int i = 0; i < n; i++) {
+                Map<Integer, Integer> m = new HashMap<>();
+                charts.add(randomChart(random, random.nextInt(1000), 5000, m));
+                for (Map.Entry<Integer, Integer> e : m.entrySet()) {
+                    expected.merge(e.getKey(), e.getValue(), sum);
+                }
+            }
+            assertSame("mergeAll", expected, mergeAll(charts, null, sum, null));
+            assertSame("mergeAll parallel", expected, mergeAll(charts, null, sum, ForkJoinPool.commonPool()));
+        }
+        // 数据量较大时按值区间并行归并，结果须与顺序归并完全一致
+        List<RBTreeChart<Integer, Integer>> large = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            large.add(randomChart(random, 20000, 200000, new HashMap<>()));
+        }
+        RBTreeChart<Integer, Integer> c1 = mergeAll(large, null, sum, null);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        RBTreeChart<Integer, Integer> c2 = mergeAll(large, null, sum, pool);
+        pool.shutdown();
+        if (!c1.getSequenceList(1, c1.size()).equals(c2.getSequenceList(1, c2.size()))) {
+            throw new RuntimeException("Parallel Merge Not Equal !");
+        }
+        // 值相等时前一个排行榜在前
+        RBTreeChart<Integer, Integer> a = new RBTreeChart<>();
+        RBTreeChart<Integer, Integer> b = new RBTreeChart<>();
+        a.put(1, 5);
+        b.put(2, 5);
+        if (union(b, a, null, null).getRank(2) != 1 || union(a, b, null, null).getRank(1) != 1) {
+            throw new RuntimeException("Union Order Not Equal !");
+        }
+        // 不支持迭代器的排行榜在归并前被拒绝
+        try {
+            union(a, new ConcurrentChart<>(b), null, null);
+            throw new RuntimeException("ConcurrentChart Not Rejected !");
+        } catch (IllegalArgumentException e) {
+            // 预期的异常
+        }
+
+        // *****性能对比，8个服务器各10万玩家，关键字互不相交
+        int servers = 8;
+        int num = 100000;
+        List<RBTreeChart<Integer, Integer>> charts = new ArrayList<>();
+        for (int s = 0; s < servers; s++) {
+            RBTreeChart<Integer, Integer> c = new RBTreeChart<>();
+            Map<Integer, Integer> m = new HashMap<>();
+            for (int i = 0; i < num; i++) {
+                m.put(s * num + i, random.nextInt(1000000));
+            }
+            c.putAll(m);
+            charts.add(c);
+        }
+        for (int round = 0; round < 3; round++) {
+            System.gc();
+            long ns = System.nanoTime();
+            RBTreeChart<Integer, Integer> naive = new RBTreeChart<>();
+            for (RBTreeChart<Integer, Integer> c : charts) {
+                for (Tuple<Integer, Integer> t : c) {
+                    naive.put(t.left, t.right);
+                }
+            }
+            long naiveNs = System.nanoTime() - ns;
+            System.gc();
+            ns = System.nanoTime();
+            RBTreeChart<Integer, Integer> merged = mergeAll(charts, null, null, null);
+            long mergeNs = System.nanoTime() - ns;
+            System.gc();
+            ns = System.nanoTime();
+            RBTreeChart<Integer, Integer> parallel = mergeAll(charts, null, null, ForkJoinPool.commonPool());
+            long parallelNs = System.nanoTime() - ns;
+            if (merged.size() != naive.size() || parallel.size() != naive.size()) {
+                throw new RuntimeException("Merge Size Not Equal !");
+            }
+            for (int i = 0; i < 1000; i++) {
+                int kth = random.nextInt(naive.size()) + 1;
+                if (!naive.getKth(kth).right.equals(merged.getKth(kth).right)
+                        || !merged.getKth(kth).equals(parallel.getKth(kth))) {
+                    throw new RuntimeException("Merge Not Equal !");
+                }
+            }
+            System.out.println("合并" + servers + "个排行榜, 共" + merged.size() + "条数据: 逐个put耗时(ms): "
+                    + naiveNs / 1000000 + ", 线性归并耗时(ms): " + mergeNs / 1000000
+                    + ", 并行归并耗时(ms): " + parallelNs / 1000000
+                    + " (并行度: " + ForkJoinPool.getCommonPoolParallelism() + ")");
+        }
+    }
+}
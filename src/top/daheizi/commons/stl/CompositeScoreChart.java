@@ -0,0 +1,368 @@
+package top.daheizi.commons.stl;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * 关键字为long、按多个字段排序的排行榜
+ * 各字段按声明的优先级和方向编码到一个64位的分值中，优先级高的字段占据高位，
+ * 降序字段存储其取反后的值，因此分值的升序即为声明的排序，
+ * 名次树的每一步只需比较两个long，不需要组合对象和Comparator
+ * 值相等的数据按添加的先后排序
+ * 另外支持按前缀(前若干个字段)查询名次和范围，例如只给出分数查询同分的所有玩家
+ * IChart接口中的值V为编码后的分值，可通过pack/fieldOf互相转换
+ * 非线程安全
+ * @author daheizi
+ * @Date 2026年10月18日 上午4:31:20
+ */
+public class CompositeScoreChart extends LongScoreChart {
+
+    /** 各字段的位数 */
+    private final int[] bits;
+
+    /** 各字段是否降序 */
+    private final boolean[] descendings;
+
+    /** 各字段在分值中的偏移 */
+    private final int[] shifts;
+
+    /** 各字段的掩码，即字段的最大值 */
+    private final long[] masks;
+
+    /**
+     * 排序字段的声明
+     * @author daheizi
+     * @Date 2026年10月18日 上午4:32:10
+     */
+    public static final class Field {
+        /** 位数 */
+        final int bits;
+        /** 是否降序 */
+        final boolean descending;
+
+        /**
+         * 构造函数
+         * @param bits
+         * @param descending
+         */
+        private Field(int bits, boolean descending) {
+            if (bits <= 0 || bits > 64) {
+                throw new IllegalArgumentException("bits: " + bits);
+            }
+            this.bits = bits;
+            this.descending = descending;
+        }
+
+        /**
+         * 升序字段，取值范围[0, 2^bits)
+         * @param bits
+         * @return
+         * @Date 2026年10月18日 上午4:32:40
+         */
+        public static Field asc(int bits) {
+            return new Field(bits, false);
+        }
+
+        /**
+         * 降序字段，取值范围[0, 2^bits)
+         * @param bits
+         * @return
+         * @Date 2026年10月18日 上午4:32:55
+         */
+        public static Field desc(int bits) {
+            return new Field(bits, true);
+        }
+    }
+
+    /**
+     * 构造函数
+     * @param fields 按优先级从高到低声明的排序字段，总位数不超过64
+     */
+    public CompositeScoreChart(Field... fields) {
+        super(false);
+        int n = fields.length;
+        if (n == 0) {
+            throw new IllegalArgumentException("no fields");
+        }
+        bits = new int[n];
+        descendings = new boolean[n];
+        shifts = new int[n];
+        masks = new long[n];
+        int shift = 0;
+        for (int i = n - 1; i >= 0; i--) {
+            bits[i] = fields[i].bits;
+            descendings[i] = fields[i].descending;
+            shifts[i] = shift;
+            masks[i] = bits[i] == 64 ? -1L : (1L << bits[i]) - 1;
+            shift += bits[i];
+        }
+        if (shift > 64) {
+            throw new IllegalArgumentException("total bits: " + shift);
+        }
+    }
+
+    /****************** 编码 ***************************/
+
+    /**
+     * 返回字段数目
+     * @return
+     * @Date 2026年10月18日 上午4:34:00
+     */
+    public int fieldCount() {
+        return bits.length;
+    }
+
+    /**
+     * 将各字段的值编码为分值
+     * @param values 按声明顺序给出的全部字段的值
+     * @return
+     * @throws IllegalArgumentException 字段数目不符或字段值越界
+     * @Date 2026年10月18日 上午4:34:30
+     */
+    public long pack(long... values) {
+        if (values.length != bits.length) {
+            throw new IllegalArgumentException("Fields: " + values.length + ", Expected: " + bits.length);
+        }
+        return encode(values, 0L);
+    }
+
+    /**
+     * 从分值中解码第index个字段的值
+     * @param score
+     * @param index 字段下标，从0开始
+     * @return
+     * @Date 2026年10月18日 上午4:35:00
+     */
+    public long fieldOf(long score, int index) {
+        long code = ((score ^ Long.MIN_VALUE) >>> shifts[index]) & masks[index];
+        return descendings[index] ? masks[index] - code : code;
+    }
+
+    /**
+     * 编码前缀字段，其余字段的位以fill填充
+     * 分值以无符号数编码，最后翻转符号位，使得有符号的比较与无符号的顺序一致
+     * @param prefix 前若干个字段的值
+     * @param fill 其余字段的填充位，0L表示排在最前，-1L表示排在最后
+     * @return
+     * @Date 2026年10月18日 上午4:36:10
+     */
+    private long encode(long[] prefix, long fill) {
+        if (prefix.length > bits.length) {
+            throw new IllegalArgumentException("Fields: " + prefix.length + ", Expected: " + bits.length);
+        }
+        long code = 0L;
+        for (int i = 0; i < prefix.length; i++) {
+            long value = prefix[i];
+            long mask = masks[i];
+            if (mask != -1L && (value < 0 || value > mask)) {
+                throw new IllegalArgumentException("Field " + i + " out of range: " + value);
+            }
+            code |= (descendings[i] ? mask - value : value) << shifts[i];
+        }
+        if (prefix.length == 0) {
+            code = fill;
+        } else if (prefix.length < bits.length) {
+            // 其余字段共占据最后一个前缀字段以下的全部低位
+            code |= fill & ((1L << shifts[prefix.length - 1]) - 1);
+        }
+        return code ^ Long.MIN_VALUE;
+    }
+
+    /****************** 基本类型接口 ***************************/
+
+    /**
+     * 添加或更新关键字的各字段
+     * @param key
+     * @param values 按声明顺序给出的全部字段的值
+     * @return 是否为新添加的关键字
+     * @Date 2026年10月18日 上午4:37:20
+     */
+    public boolean putFields(long key, long... values) {
+        return putScore(key, pack(values));
+    }
+
+    /**
+     * 返回关键字第index个字段的值
+     * @param key
+     * @param index 字段下标，从0开始
+     * @param defaultValue 关键字不存在时返回的值
+     * @return
+     * @Date 2026年10月18日 上午4:37:50
+     */
+    public long getField(long key, int index, long defaultValue) {
+        if (!containsKey(key)) {
+            return defaultValue;
+        }
+        return fieldOf(getScore(key, 0L), index);
+    }
+
+    /**
+     * 返回以给定前缀开头的数据在排行榜内应处的排名位置
+     * @param prefix 前若干个字段的值，为空时匹配全部数据
+     * @return {排在前缀之前的数目，排在前缀之前或匹配前缀的数目}
+     * @Date 2026年10月18日 上午4:38:30
+     */
+    public int[] getPrefixRankInfo(long... prefix) {
+        return new int[]{countBefore(encode(prefix, 0L), false), countBefore(encode(prefix, -1L), true)};
+    }
+
+    /**
+     * 返回从匹配first的第一条数据到匹配last的最后一条数据之间的<key，value>数据列表
+     * first与last均为前缀，且按排行榜的顺序给出，即first对应的名次较小
+     * @param first 起始前缀
+     * @param last 终止前缀
+     * @return
+     * @Date 2026年10月18日 上午4:39:10
+     */
+    public List<Tuple<Long, Long>> getPrefixRangeList(long[] first, long[] last) {
+        int start = countBefore(encode(first, 0L), false) + 1;
+        int end = countBefore(encode(last, -1L), true);
+        return getSequenceList(start, end);
+    }
+
+    /**
+     * 访问以给定前缀开头的全部数据
+     * @param visitor
+     * @param prefix 前若干个字段的值
+     * @return 访问的数据数目
+     * @Date 2026年10月18日 上午4:39:40
+     */
+    public int forEachByPrefix(ChartVisitor<? super Long, ? super Long> visitor, long... prefix) {
+        int[] info = getPrefixRankInfo(prefix);
+        return forEachInRange(info[0] + 1, info[1], visitor);
+    }
+
+
+
+    /****************** 以下为一些非必需的辅助和测试方法 ***************************/
+
+    /**
+     * 按(分数降序, 等级降序, 更新时间升序)比较的组合值，作为对照
+     * @author daheizi
+     * @Date 2026年10月18日 上午4:40:20
+     */
+    private static final class Composite {
+        final long score;
+        final long level;
+        final long updateTime;
+
+        Composite(long score, long level, long updateTime) {
+            this.score = score;
+            this.level = level;
+            this.updateTime = updateTime;
+        }
+    }
+
+    /** 对照组合值的比较器 */
+    private static final Comparator<Composite> COMPOSITE_COMPARATOR = (a, b) -> {
+        int cmp = Long.compare(b.score, a.score);
+        if (cmp == 0) {
+            cmp = Long.compare(b.level, a.level);
+        }
+        return cmp != 0 ? cmp : Long.compare(a.updateTime, b.updateTime);
+    };
+
+    /**
+     * 单元测试
+     * @param args
+     * @Date 2026年10月18日 上午4:41:00
+     */
+    public static void main(String[] args) {
+        // *****测试与RBTreeChart + Comparator的一致性
+        CompositeScoreChart chart = new CompositeScoreChart(Field.desc(32), Field.desc(10), Field.asc(22));
+        RBTreeChart<Long, Composite> ref = new RBTreeChart<>(COMPOSITE_COMPARATOR);
+        Random rnd = new Random();
+        for (int i = 0; i < 200000; i++) {
+            long key = rnd.nextInt(5000);
+            if (rnd.nextInt(5) == 0) {
+                if (chart.removeKey(key) != (ref.remove(key) != null)) {
+                    throw new RuntimeException("Remove Not Equal !");
+                }
+            } else {
+                long score = rnd.nextInt(20);
+                long level = rnd.nextInt(3);
+                long updateTime = rnd.nextInt(4);
+                if (chart.putFields(key, score, level, updateTime) != (ref.put(key, new Composite(score, level, updateTime)) == null)) {
+                    throw new RuntimeException("Put Not Equal !");
+                }
+            }
+            if (chart.rankOf(key) != ref.getRank(key)) {
+                throw new RuntimeException("Rank Not Equal !");
+            }
+            if (i % 1000 == 0) {
+                long score = rnd.nextInt(22) - 1;
+                long level = rnd.nextInt(3);
+                int[] info = chart.getPrefixRankInfo(Math.max(score, 0), level);
+                int[] refInfo = ref.getRankInfo(new Composite(Math.max(score, 0), level, -1));
+                int[] refInfo2 = ref.getRankInfo(new Composite(Math.max(score, 0), level, Long.MAX_VALUE));
+                if (info[0] != refInfo[0] || info[1] != refInfo2[1]) {
+                    throw new RuntimeException("Prefix RankInfo Not Equal !");
+                }
+                int[] all = chart.getPrefixRankInfo();
+                if (all[0] != 0 || all[1] != chart.size()) {
+                    throw new RuntimeException("Empty Prefix RankInfo Error !");
+                }
+            }
+        }
+        chart.check();
+        int kth = 1;
+        for (Tuple<Long, Composite> t : ref) {
+            long score = chart.getKthScore(kth);
+            if (chart.getKthKey(kth++) != t.left || chart.fieldOf(score, 0) != t.right.score
+                    || chart.fieldOf(score, 1) != t.right.level || chart.fieldOf(score, 2) != t.right.updateTime) {
+                throw new RuntimeException("Sequence Not Equal !");
+            }
+        }
+        int[] visited = {0};
+        chart.forEachByPrefix((rank, key, value) -> {
+            if (chart.fieldOf(value, 0) != 10) {
+                throw new RuntimeException("forEachByPrefix Out Of Range !");
+            }
+            visited[0]++;
+        }, 10);
+        List<Tuple<Long, Long>> list = chart.getPrefixRangeList(new long[]{12}, new long[]{10, 1});
+        for (Tuple<Long, Long> t : list) {
+            long score = chart.fieldOf(t.right, 0);
+            if (score > 12 || score < 10 || score == 10 && chart.fieldOf(t.right, 1) < 1) {
+                throw new RuntimeException("getPrefixRangeList Out Of Range !");
+            }
+        }
+        System.out.println("size=" + chart.size() + ", score=10: " + visited[0] + ", [12, (10, 1)]: " + list.size() + " OK");
+
+        // *****测试性能
+        int num = 1000000;
+        long[][] fields = new long[num][];
+        for (int i = 0; i < num; i++) {
+            fields[i] = new long[]{rnd.nextInt(100000), rnd.nextInt(1000), rnd.nextInt(1 << 22)};
+        }
+        for (int round = 0; round < 3; round++) {
+            CompositeScoreChart c = new CompositeScoreChart(Field.desc(32), Field.desc(10), Field.asc(22));
+            RBTreeChart<Long, Composite> r = new RBTreeChart<>(COMPOSITE_COMPARATOR);
+            long t1 = System.nanoTime();
+            for (int i = 0; i < num; i++) {
+                c.putFields(i, fields[i]);
+            }
+            long t2 = System.nanoTime();
+            for (int i = 0; i < num; i++) {
+                r.put((long) i, new Composite(fields[i][0], fields[i][1], fields[i][2]));
+            }
+            long t3 = System.nanoTime();
+            System.out.println("put CompositeScoreChart: " + (t2 - t1) / num + " ns, RBTreeChart: " + (t3 - t2) / num + " ns");
+            long sum = 0;
+            t1 = System.nanoTime();
+            for (int i = 0; i < num; i++) {
+                sum += c.getPrefixRankInfo(fields[i][0], fields[i][1])[0];
+            }
+            t2 = System.nanoTime();
+            for (int i = 0; i < num; i++) {
+                sum -= r.getRankInfo(new Composite(fields[i][0], fields[i][1], -1))[0];
+            }
+            t3 = System.nanoTime();
+            if (sum != 0) {
+                throw new RuntimeException("RankInfo Not Equal !");
+            }
+            System.out.println("getRankInfo CompositeScoreChart: " + (t2 - t1) / num + " ns, RBTreeChart: " + (t3 - t2) / num + " ns");
+        }
+    }
+}
@@ -1,7 +1,9 @@
 package top.daheizi.commons.stl;
 
+import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Random;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.locks.Lock;
@@ -57,6 +59,34 @@ public class ConcurrentChart<K, V> implements IChart<K, V> {
         }
     }
 
+    /**
+     * 整个批量操作只获取一次写锁
+     * @see top.daheizi.commons.stl.IChart#putAll(java.util.Map)
+     */
+    @Override
+    public void putAll(Map<? extends K, ? extends V> map) {
+        wl.lock();
+        try {
+            chart.putAll(map);
+        } finally {
+            wl.unlock();
+        }
+    }
+
+    /**
+     * 整个批量操作只获取一次写锁
+     * @see top.daheizi.commons.stl.IChart#removeAll(java.util.Collection)
+     */
+    @Override
+    public int removeAll(Collection<? extends K> keys) {
+        wl.lock();
+        try {
+            return chart.removeAll(keys);
+        } finally {
+            wl.unlock();
+        }
+    }
+
     /**
      * @see top.daheizi.commons.stl.IChart#get(java.lang.Object)
      */
@@ -101,11 +131,11 @@ public class ConcurrentChart<K, V> implements IChart<K, V> {
      */
     @Override
     public void clear() {
-        rl.lock();
+        wl.lock();
         try {
             chart.clear();
         } finally {
-            rl.unlock();
+            wl.unlock();
         }
     }
 
@@ -228,7 +258,89 @@ public class ConcurrentChart<K, V> implements IChart<K, V> {
             rl.unlock();
         }
     }
-    
+
+    /**
+     * 访问者在读锁内执行，不能修改本排行榜
+     * @see top.daheizi.commons.stl.IChart#forEachInRange(int, int, top.daheizi.commons.stl.ChartVisitor)
+     */
+    @Override
+    public int forEachInRange(int start, int end, ChartVisitor<? super K, ? super V> visitor) {
+        rl.lock();
+        try {
+            return chart.forEachInRange(start, end, visitor);
+        } finally {
+            rl.unlock();
+        }
+    }
+
+    /**
+     * 访问者在读锁内执行，不能修改本排行榜
+     * @see top.daheizi.commons.stl.IChart#forEachInValueRange(java.lang.Object, java.lang.Object, top.daheizi.commons.stl.ChartVisitor)
+     */
+    @Override
+    public int forEachInValueRange(V low, V high, ChartVisitor<? super K, ? super V> visitor) {
+        rl.lock();
+        try {
+            return chart.forEachInValueRange(low, high, visitor);
+        } finally {
+            rl.unlock();
+        }
+    }
+
+    /**
+     * 访问者在读锁内执行，不能修改本排行榜
+     * @see top.daheizi.commons.stl.IChart#forEachSurrounded(java.lang.Object, int, int, top.daheizi.commons.stl.ChartVisitor)
+     */
+    @Override
+    public int forEachSurrounded(K key, int left, int right, ChartVisitor<? super K, ? super V> visitor) {
+        rl.lock();
+        try {
+            return chart.forEachSurrounded(key, left, right, visitor);
+        } finally {
+            rl.unlock();
+        }
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.IChart#getDescendingList(int, int)
+     */
+    @Override
+    public List<Tuple<K, V>> getDescendingList(int start, int end) {
+        rl.lock();
+        try {
+            return chart.getDescendingList(start, end);
+        } finally {
+            rl.unlock();
+        }
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.IChart#getDescendingRangeList(java.lang.Object, java.lang.Object)
+     */
+    @Override
+    public List<Tuple<K, V>> getDescendingRangeList(V low, V high) {
+        rl.lock();
+        try {
+            return chart.getDescendingRangeList(low, high);
+        } finally {
+            rl.unlock();
+        }
+    }
+
+    /**
+     * 访问者在读锁内执行，不能修改本排行榜
+     * @see top.daheizi.commons.stl.IChart#forEachDescending(int, int, top.daheizi.commons.stl.ChartVisitor)
+     */
+    @Override
+    public int forEachDescending(int start, int end, ChartVisitor<? super K, ? super V> visitor) {
+        rl.lock();
+        try {
+            return chart.forEachDescending(start, end, visitor);
+        } finally {
+            rl.unlock();
+        }
+    }
+
     /**
      * 单元测试
      * @param args
@@ -0,0 +1,237 @@
+package top.daheizi.commons.stl;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Supplier;
+
+/**
+ * 分数随时间指数衰减的排行榜，如热度榜
+ * 采用前向衰减(forward decay)：以固定的基准时间landmark为起点，
+ * t时刻增加的分数d按 d * e^(λ(t - landmark)) 存储，查询时刻now的真实分数为 存储值 * e^(-λ(now - landmark))
+ * 所有数据在同一时刻乘以相同的衰减系数，因此名次只取决于存储值，时间流逝时不需要改写任何数据
+ * 存储值随时间指数增长，当指数超过REBASE_EXPONENT时将基准时间移到当前并整体重建一次，
+ * 以半衰期1天计，约每两年发生一次
+ * 非线程安全
+ * @param <K>
+ * @author daheizi
+ * @Date 2026年10月18日 上午5:20:30
+ */
+public class DecayChart<K> {
+
+    /** 触发重建的指数上限，e^512约为1e222，为单次增加的分数保留了足够的余量 */
+    private static final double REBASE_EXPONENT = 512;
+
+    /** 衰减率λ(每毫秒) */
+    private final double lambda;
+
+    /** 创建排行榜的工厂 */
+    private final Supplier<IChart<K, Double>> factory;
+
+    /** 以存储值排序的排行榜 */
+    private IChart<K, Double> chart;
+
+    /** 基准时间(毫秒) */
+    private long landmark;
+
+    /** 重建次数 */
+    private int rebaseCount;
+
+    /**
+     * 构造函数，按分数降序排列
+     * @param halfLifeMillis 半衰期(毫秒)
+     * @param landmark 基准时间(毫秒)，一般为当前时间
+     */
+    public DecayChart(long halfLifeMillis, long landmark) {
+        this(halfLifeMillis, landmark, () -> new RBTreeChart<>(Collections.reverseOrder()));
+    }
+
+    /**
+     * 构造函数
+     * @param halfLifeMillis 半衰期(毫秒)
+     * @param landmark 基准时间(毫秒)
+     * @param factory 创建排行榜的工厂，创建的排行榜须支持iterator()
+     */
+    public DecayChart(long halfLifeMillis, long landmark, Supplier<IChart<K, Double>> factory) {
+        if (halfLifeMillis <= 0) {
+            throw new IllegalArgumentException("halfLifeMillis: " + halfLifeMillis);
+        }
+        this.lambda = Math.log(2) / halfLifeMillis;
+        this.landmark = landmark;
+        this.factory = factory;
+        this.chart = factory.get();
+    }
+
+    /**
+     * 返回时刻timeMillis相对于基准时间的增长系数
+     * @param timeMillis
+     * @return
+     * @Date 2026年10月18日 上午5:22:10
+     */
+    private double growth(long timeMillis) {
+        return Math.exp(lambda * (timeMillis - landmark));
+    }
+
+    /**
+     * 将基准时间移到timeMillis，所有存储值乘以相同的系数后按原顺序重建
+     * @param timeMillis
+     * @Date 2026年10月18日 上午5:23:00
+     */
+    private void rebase(long timeMillis) {
+        double factor = 1 / growth(timeMillis);
+        Map<K, Double> map = new LinkedHashMap<>(chart.size() * 2);
+        for (Tuple<K, Double> t : chart) {
+            map.put(t.left, t.right * factor);
+        }
+        IChart<K, Double> newChart = factory.get();
+        newChart.putAll(map);
+        chart = newChart;
+        landmark = timeMillis;
+        rebaseCount++;
+    }
+
+    /**
+     * 为关键字增加分数
+     * @param key
+     * @param delta 增加的分数
+     * @param timeMillis 发生时间
+     * @return 增加后在timeMillis时刻的分数
+     * @Date 2026年10月18日 上午5:24:00
+     */
+    public double addScore(K key, double delta, long timeMillis) {
+        if (lambda * (timeMillis - landmark) > REBASE_EXPONENT) {
+            rebase(timeMillis);
+        }
+        double g = growth(timeMillis);
+        Double stored = chart.get(key);
+        double newStored = (stored == null ? 0 : stored) + delta * g;
+        chart.put(key, newStored);
+        return newStored / g;
+    }
+
+    /**
+     * 返回关键字在timeMillis时刻的分数
+     * @param key
+     * @param timeMillis
+     * @return 不在排行榜内时返回0
+     * @Date 2026年10月18日 上午5:24:40
+     */
+    public double getScore(K key, long timeMillis) {
+        Double stored = chart.get(key);
+        return stored == null ? 0 : stored / growth(timeMillis);
+    }
+
+    /**
+     * 查询关键字的排名，与查询时刻无关
+     * @param key
+     * @return 不在排行榜内时返回 -1
+     * @Date 2026年10月18日 上午5:25:00
+     */
+    public int getRank(K key) {
+        return chart.getRank(key);
+    }
+
+    /**
+     * 返回一段连续的<key，timeMillis时刻的分数>数据列表，[start, end]
+     * @param start 起始名次(包含)
+     * @param end 终止名次(包含)
+     * @param timeMillis
+     * @return
+     * @Date 2026年10月18日 上午5:25:30
+     */
+    public List<Tuple<K, Double>> getSequenceList(int start, int end, long timeMillis) {
+        double factor = 1 / growth(timeMillis);
+        List<Tuple<K, Double>> list = new ArrayList<>();
+        chart.forEachInRange(start, end, (rank, key, value) -> list.add(new Tuple<>(key, value * factor)));
+        return list;
+    }
+
+    /**
+     * 移除关键字
+     * @param key
+     * @return 是否找到并移除
+     * @Date 2026年10月18日 上午5:26:00
+     */
+    public boolean remove(K key) {
+        return chart.remove(key) != null;
+    }
+
+    /**
+     * 返回当前排行榜内数据量
+     * @return
+     * @Date 2026年10月18日 上午5:26:10
+     */
+    public int size() {
+        return chart.size();
+    }
+
+    /**
+     * 清空排行榜
+     * @Date 2026年10月18日 上午5:26:20
+     */
+    public void clear() {
+        chart.clear();
+    }
+
+    /**
+     * 返回重建次数
+     * @return
+     * @Date 2026年10月18日 上午5:26:30
+     */
+    public int getRebaseCount() {
+        return rebaseCount;
+    }
+
+
+
+    /****************** 以下为一些非必需的辅助和测试方法 ***************************/
+
+    /**
+     * 单元测试
+     * @param args
+     * @Date 2026年10月18日 上午5:27:00
+     */
+    public static void main(String[] args) {
+        // *****与按事件重新计算的结果对比，半衰期很短以触发重建
+        long halfLife = 60000L;
+        long now = System.currentTimeMillis();
+        DecayChart<Integer> chart = new DecayChart<>(halfLife, now);
+        Map<Integer, List<long[]>> events = new HashMap<>();
+        Random rnd = new Random();
+        for (int i = 0; i < 200000; i++) {
+            now += rnd.nextInt(2000);
+            int key = rnd.nextInt(500);
+            long delta = rnd.nextInt(100) + 1;
+            chart.addScore(key, delta, now);
+            events.computeIfAbsent(key, k -> new ArrayList<>()).add(new long[]{now, delta});
+            if (i % 20000 == 19999) {
+                for (Map.Entry<Integer, List<long[]>> e : events.entrySet()) {
+                    double expected = 0;
+                    for (long[] ev : e.getValue()) {
+                        expected += ev[1] * Math.pow(0.5, (double) (now - ev[0]) / halfLife);
+                    }
+                    double actual = chart.getScore(e.getKey(), now);
+                    if (Math.abs(actual - expected) > 1e-9 * Math.max(1, expected)) {
+                        throw new RuntimeException("Score Not Equal ! " + expected + " " + actual);
+                    }
+                }
+                double last = Double.MAX_VALUE;
+                for (Tuple<Integer, Double> t : chart.getSequenceList(1, chart.size(), now)) {
+                    if (t.right > last) {
+                        throw new RuntimeException("Order Error !");
+                    }
+                    last = t.right;
+                }
+            }
+        }
+        if (chart.getRebaseCount() == 0) {
+            throw new RuntimeException("Rebase Not Triggered !");
+        }
+        System.out.println("size=" + chart.size() + ", rebase=" + chart.getRebaseCount()
+                + ", top3=" + chart.getSequenceList(1, 3, now) + " OK");
+    }
+}
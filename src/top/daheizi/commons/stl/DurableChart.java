@@ -0,0 +1,1559 @@
+package top.daheizi.commons.stl;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.zip.CRC32;
+
+/**
+ * 可持久化的排行榜
+ * 使用读写锁保护内部排行榜IChart，并将每次修改追加到预写日志(WAL)中：
+ * 日志先写入内存缓冲区，由后台线程成组写入文件并刷盘(group commit)；
+ * 同步提交模式下，修改操作等待所在的批次刷盘后才返回，否则最多丢失一个提交间隔内的修改
+ * 日志增长超过阈值时，按名次分段复制数据(见ChartCopy)，每段只短暂持有读锁，复制期间写入照常进行，
+ * 最后在写锁内补齐复制期间的写入并切换到新的日志段，快照与切换时的排行榜完全一致(包括相等数据的次序)，
+ * 之后在锁外写入快照文件，再删除旧的快照和日志段
+ * 启动时加载最新的快照(通过putAll批量构建)，再重放其后的日志段，恢复时间由快照阈值限定
+ * 目录结构：
+ *     snapshot-<lsn>.dat   包含序号lsn之前的全部修改
+ *     wal-<lsn>.log        从序号lsn开始的日志记录，每条为[长度][CRC32][操作，关键字，值]
+ * 末尾不完整或校验失败的日志记录视为崩溃时未写完，恢复时截断
+ * 写日志文件失败后进入失败状态：已刷盘的序号不再推进，之后的修改操作和刷盘都抛出异常，
+ * 等待刷盘的同步提交抛出UncheckedIOException(此时内存中的排行榜已修改，但修改未持久化)
+ * @author daheizi
+ * @Date 2026年10月18日 上午12:31:05
+ */
+public class DurableChart<K, V> implements IChart<K, V>, Closeable {
+
+    /**
+     * 关键字或值的序列化方式
+     * @param <T>
+     * @author daheizi
+     * @Date 2026年10月18日 上午12:31:40
+     */
+    public interface Codec<T> {
+
+        /**
+         * 写入
+         * @param out
+         * @param t
+         * @throws IOException
+         * @Date 2026年10月18日 上午12:31:52
+         */
+        void write(DataOutput out, T t) throws IOException;
+
+        /**
+         * 读取
+         * @param in
+         * @return
+         * @throws IOException
+         * @Date 2026年10月18日 上午12:32:03
+         */
+        T read(DataInput in) throws IOException;
+    }
+
+    /** Long的序列化方式 */
+    public static final Codec<Long> LONG = new Codec<Long>() {
+        @Override
+        public void write(DataOutput out, Long t) throws IOException {
+            out.writeLong(t);
+        }
+
+        @Override
+        public Long read(DataInput in) throws IOException {
+            return in.readLong();
+        }
+    };
+
+    /** Integer的序列化方式 */
+    public static final Codec<Integer> INTEGER = new Codec<Integer>() {
+        @Override
+        public void write(DataOutput out, Integer t) throws IOException {
+            out.writeInt(t);
+        }
+
+        @Override
+        public Integer read(DataInput in) throws IOException {
+            return in.readInt();
+        }
+    };
+
+    /** String的序列化方式 */
+    public static final Codec<String> STRING = new Codec<String>() {
+        @Override
+        public void write(DataOutput out, String t) throws IOException {
+            out.writeUTF(t);
+        }
+
+        @Override
+        public String read(DataInput in) throws IOException {
+            return in.readUTF();
+        }
+    };
+
+    /** 日志操作：put */
+    private static final byte OP_PUT = 1;
+    /** 日志操作：remove */
+    private static final byte OP_REMOVE = 2;
+    /** 日志操作：clear */
+    private static final byte OP_CLEAR = 3;
+
+    /** 快照文件标识 */
+    private static final long SNAPSHOT_MAGIC = 0x4448_5A53_4E41_5053L;
+    /** 快照文件前缀 */
+    private static final String SNAPSHOT_PREFIX = "snapshot-";
+    /** 快照文件后缀 */
+    private static final String SNAPSHOT_SUFFIX = ".dat";
+    /** 日志段文件前缀 */
+    private static final String LOG_PREFIX = "wal-";
+    /** 日志段文件后缀 */
+    private static final String LOG_SUFFIX = ".log";
+
+    /** 默认的提交间隔(毫秒) */
+    private static final long DEFAULT_COMMIT_INTERVAL = 10;
+    /** 默认的快照阈值(日志字节数) */
+    private static final long DEFAULT_SNAPSHOT_THRESHOLD = 64L << 20;
+    /** 迭代器每批读取的数据量 */
+    private static final int ITERATOR_PAGE_SIZE = 128;
+
+    /** 内部排行榜Chart */
+    private final IChart<K, V> chart;
+    /** 数据目录 */
+    private final File dir;
+    /** 关键字的序列化方式 */
+    private final Codec<K> keyCodec;
+    /** 值的序列化方式 */
+    private final Codec<V> valueCodec;
+    /** 是否同步提交 */
+    private final boolean syncCommit;
+    /** 提交间隔(毫秒) */
+    private final long commitInterval;
+    /** 快照阈值，上次快照后的日志字节数超过该值时生成快照 */
+    private final long snapshotThreshold;
+
+    /** 读写锁 */
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Lock rl = lock.readLock();
+    private final Lock wl = lock.writeLock();
+
+    /** 单条记录的编码缓冲区 */
+    private final ByteArrayOutputStream record = new ByteArrayOutputStream();
+    private final DataOutputStream recordOut = new DataOutputStream(record);
+    /** 待写入文件的日志 */
+    private final LogBuffer pending = new LogBuffer();
+    private final DataOutputStream pendingOut = new DataOutputStream(pending);
+    /** 校验和 */
+    private final CRC32 crc = new CRC32();
+    /** 下一条日志的序号，即已执行的修改数 */
+    private long lsn;
+
+    /** 生成快照的锁，同一时间只生成一个快照 */
+    private final Object snapshotLock = new Object();
+    /** 正在进行的快照复制，不在生成快照时为null，仅在持有锁时读写 */
+    private ChartCopy<K, V> copying;
+
+    /** 写日志文件的锁 */
+    private final Object flushLock = new Object();
+    /** 当前日志段 */
+    private FileChannel log;
+
+    /** 等待刷盘的锁 */
+    private final Object syncLock = new Object();
+    /** 已刷盘的日志序号 */
+    private long syncedLsn;
+    /** 等待刷盘的线程数 */
+    private int waiters;
+
+    /** 是否已关闭 */
+    private volatile boolean closed;
+    /** 写日志文件失败的异常，非null时进入失败状态 */
+    private volatile IOException failure;
+    /** 后台生成快照失败的异常，关闭时抛出 */
+    private volatile IOException snapshotFailure;
+    /** 后台刷盘线程 */
+    private final Thread flusher;
+    /** 后台生成快照的线程，只由后台刷盘线程创建，关闭时等待其结束 */
+    private volatile Thread snapshotter;
+
+    /** 统计：日志记录中的操作、关键字和值的字节数 */
+    private final AtomicLong payloadBytes = new AtomicLong();
+    /** 统计：写入日志文件的字节数 */
+    private final AtomicLong logBytes = new AtomicLong();
+    /** 统计：写入快照文件的字节数 */
+    private final AtomicLong snapshotBytes = new AtomicLong();
+    /** 上次快照后写入日志文件的字节数 */
+    private final AtomicLong logBytesSinceSnapshot = new AtomicLong();
+    /** 统计：启动时恢复数据的耗时(纳秒) */
+    private long recoveryNanos;
+
+    /**
+     * 构造函数，异步提交
+     * @param chart 空的排行榜
+     * @param dir 数据目录
+     * @param keyCodec
+     * @param valueCodec
+     * @throws IOException
+     */
+    public DurableChart(IChart<K, V> chart, File dir, Codec<K> keyCodec, Codec<V> valueCodec) throws IOException {
+        this(chart, dir, keyCodec, valueCodec, false, DEFAULT_COMMIT_INTERVAL, DEFAULT_SNAPSHOT_THRESHOLD);
+    }
+
+    /**
+     * 构造函数，从数据目录中恢复数据
+     * @param chart 空的排行榜
+     * @param dir 数据目录
+     * @param keyCodec
+     * @param valueCodec
+     * @param syncCommit 是否同步提交
+     * @param commitInterval 提交间隔(毫秒)
+     * @param snapshotThreshold 快照阈值(日志字节数)
+     * @throws IOException
+     */
+    public DurableChart(IChart<K, V> chart, File dir, Codec<K> keyCodec, Codec<V> valueCodec,
+            boolean syncCommit, long commitInterval, long snapshotThreshold) throws IOException {
+        if (!chart.isEmpty()) {
+            throw new IllegalArgumentException("Chart not empty");
+        }
+        this.chart = chart;
+        this.dir = dir;
+        this.keyCodec = keyCodec;
+        this.valueCodec = valueCodec;
+        this.syncCommit = syncCommit;
+        this.commitInterval = commitInterval;
+        this.snapshotThreshold = snapshotThreshold;
+        dir.mkdirs();
+        long start = System.nanoTime();
+        recover();
+        recoveryNanos = System.nanoTime() - start;
+        syncedLsn = lsn;
+        flusher = new Thread(this::runFlusher, "DurableChart-flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    /****************** 修改操作 ***************************/
+
+    /**
+     * @see top.daheizi.commons.stl.IChart#put(java.lang.Object, java.lang.Object)
+     */
+    @Override
+    public V put(K key, V value) {
+        long target;
+        V preValue;
+        wl.lock();
+        try {
+            encode(OP_PUT, key, value);
+            written(key);
+            preValue = chart.put(key, value);
+            target = commit();
+        } finally {
+            wl.unlock();
+        }
+        awaitSync(target);
+        return preValue;
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.IChart#remove(java.lang.Object)
+     */
+    @Override
+    public V remove(K key) {
+        long target;
+        V preValue;
+        wl.lock();
+        try {
+            encode(OP_REMOVE, key, null);
+            written(key);
+            preValue = chart.remove(key);
+            target = commit();
+        } finally {
+            wl.unlock();
+        }
+        awaitSync(target);
+        return preValue;
+    }
+
+    /**
+     * 整个批量操作只获取一次写锁，只等待一次刷盘
+     * 与put相同，每条数据先修改排行榜再记入日志，某条修改抛出异常时，
+     * 之前的修改已生效并记入日志，该条及之后的修改不生效，日志与排行榜保持一致
+     * @see top.daheizi.commons.stl.IChart#putAll(java.util.Map)
+     */
+    @Override
+    public void putAll(Map<? extends K, ? extends V> map) {
+        long target;
+        wl.lock();
+        try {
+            for (Map.Entry<? extends K, ? extends V> e : map.entrySet()) {
+                encode(OP_PUT, e.getKey(), e.getValue());
+                written(e.getKey());
+                chart.put(e.getKey(), e.getValue());
+                commit();
+            }
+            target = lsn;
+        } finally {
+            wl.unlock();
+        }
+        awaitSync(target);
+    }
+
+    /**
+     * 整个批量操作只获取一次写锁，只等待一次刷盘，逐条修改的方式同putAll
+     * @see top.daheizi.commons.stl.IChart#removeAll(java.util.Collection)
+     */
+    @Override
+    public int removeAll(Collection<? extends K> keys) {
+        long target;
+        int count = 0;
+        wl.lock();
+        try {
+            for (K key : keys) {
+                encode(OP_REMOVE, key, null);
+                written(key);
+                if (chart.remove(key) != null) {
+                    count++;
+                }
+                commit();
+            }
+            target = lsn;
+        } finally {
+            wl.unlock();
+        }
+        awaitSync(target);
+        return count;
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.IChart#clear()
+     */
+    @Override
+    public void clear() {
+        long target;
+        wl.lock();
+        try {
+            encode(OP_CLEAR, null, null);
+            if (copying != null) {
+                // 正在进行的快照复制作废
+                copying.cancel();
+            }
+            chart.clear();
+            target = commit();
+        } finally {
+            wl.unlock();
+        }
+        awaitSync(target);
+    }
+
+    /****************** 查询操作 ***************************/
+
+    /**
+     * @see top.daheizi.commons.stl.IChart#get(java.lang.Object)
+     */
+    @Override
+    public V get(K key) {
+        rl.lock();
+        try {
+            return chart.get(key);
+        } finally {
+            rl.unlock();
+        }
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.IChart#containsKey(java.lang.Object)
+     */
+    @Override
+    public boolean containsKey(K key) {
+        rl.lock();
+        try {
+            return chart.containsKey(key);
+        } finally {
+            rl.unlock();
+        }
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.IChart#size()
+     */
+    @Override
+    public int size() {
+        rl.lock();
+        try {
+            return chart.size();
+        } finally {
+            rl.unlock();
+        }
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.IChart#getRank(java.lang.Object)
+     */
+    @Override
+    public int getRank(K key) {
+        rl.lock();
+        try {
+            return chart.getRank(key);
+        } finally {
+            rl.unlock();
+        }
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.IChart#search(java.lang.Object)
+     */
+    @Override
+    public Tuple<Integer, V> search(K key) {
+        rl.lock();
+        try {
+            return chart.search(key);
+        } finally {
+            rl.unlock();
+        }
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.IChart#getKth(int)
+     */
+    @Override
+    public Tuple<K, V> getKth(int kth) {
+        rl.lock();
+        try {
+            return chart.getKth(kth);
+        } finally {
+            rl.unlock();
+        }
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.IChart#getRankInfo(java.lang.Object)
+     */
+    @Override
+    public int[] getRankInfo(V value) {
+        rl.lock();
+        try {
+            return chart.getRankInfo(value);
+        } finally {
+            rl.unlock();
+        }
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.IChart#iterator()
+     */
+    @Override
+    public Iterator<Tuple<K, V>> iterator() {
+        return iterator(0);
+    }
+
+    /**
+     * 弱一致性的排行榜数据迭代器
+     * 按名次分批读取，每一批在读锁内读取，因此每一批内部是一致的，
+     * 批与批之间若发生写入，则可能重复或遗漏名次发生变化的数据
+     * 不支持remove
+     * @author daheizi
+     * @Date 2026年10月18日 上午10:30:00
+     */
+    private class Itr implements Iterator<Tuple<K, V>> {
+        /** 当前批次的数据 */
+        private List<Tuple<K, V>> page;
+        /** 当前批次内下一个数据的下标 */
+        private int index;
+        /** 前一个元素的名次 */
+        private int lastRank;
+
+        /**
+         * 构造函数
+         * @param kth 起始名次
+         */
+        Itr(int kth) {
+            lastRank = kth;
+        }
+
+        /**
+         * @see java.util.Iterator#hasNext()
+         */
+        @Override
+        public boolean hasNext() {
+            if (page == null || index == page.size()) {
+                page = getSequenceList(lastRank + 1, lastRank + ITERATOR_PAGE_SIZE);
+                index = 0;
+            }
+            return index < page.size();
+        }
+
+        /**
+         * @see java.util.Iterator#next()
+         */
+        @Override
+        public Tuple<K, V> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            lastRank++;
+            return page.get(index++);
+        }
+    }
+
+    /**
+     * 返回弱一致性的迭代器，不依赖内部排行榜的迭代器
+     * @see top.daheizi.commons.stl.IChart#iterator(int)
+     */
+    @Override
+    public Iterator<Tuple<K, V>> iterator(int kth) {
+        if (kth < 0) {
+            throw new IndexOutOfBoundsException("Rank: " + kth);
+        }
+        return new Itr(kth);
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.IChart#getSequenceList(int, int)
+     */
+    @Override
+    public List<Tuple<K, V>> getSequenceList(int start, int end) {
+        rl.lock();
+        try {
+            return chart.getSequenceList(start, end);
+        } finally {
+            rl.unlock();
+        }
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.IChart#getListByPage(int, int)
+     */
+    @Override
+    public List<Tuple<K, V>> getListByPage(int pageSize, int page) {
+        rl.lock();
+        try {
+            return chart.getListByPage(pageSize, page);
+        } finally {
+            rl.unlock();
+        }
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.IChart#getRangeList(java.lang.Object, java.lang.Object)
+     */
+    @Override
+    public List<Tuple<K, V>> getRangeList(V low, V high) {
+        rl.lock();
+        try {
+            return chart.getRangeList(low, high);
+        } finally {
+            rl.unlock();
+        }
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.IChart#getSurroundedByKey(java.lang.Object, int, int)
+     */
+    @Override
+    public List<Tuple<K, V>> getSurroundedByKey(K key, int left, int right) {
+        rl.lock();
+        try {
+            return chart.getSurroundedByKey(key, left, right);
+        } finally {
+            rl.unlock();
+        }
+    }
+
+    /**
+     * 访问者在读锁内执行，不能修改本排行榜
+     * @see top.daheizi.commons.stl.IChart#forEachInRange(int, int, top.daheizi.commons.stl.ChartVisitor)
+     */
+    @Override
+    public int forEachInRange(int start, int end, ChartVisitor<? super K, ? super V> visitor) {
+        rl.lock();
+        try {
+            return chart.forEachInRange(start, end, visitor);
+        } finally {
+            rl.unlock();
+        }
+    }
+
+    /**
+     * 访问者在读锁内执行，不能修改本排行榜
+     * @see top.daheizi.commons.stl.IChart#forEachInValueRange(java.lang.Object, java.lang.Object, top.daheizi.commons.stl.ChartVisitor)
+     */
+    @Override
+    public int forEachInValueRange(V low, V high, ChartVisitor<? super K, ? super V> visitor) {
+        rl.lock();
+        try {
+            return chart.forEachInValueRange(low, high, visitor);
+        } finally {
+            rl.unlock();
+        }
+    }
+
+    /**
+     * 访问者在读锁内执行，不能修改本排行榜
+     * @see top.daheizi.commons.stl.IChart#forEachSurrounded(java.lang.Object, int, int, top.daheizi.commons.stl.ChartVisitor)
+     */
+    @Override
+    public int forEachSurrounded(K key, int left, int right, ChartVisitor<? super K, ? super V> visitor) {
+        rl.lock();
+        try {
+            return chart.forEachSurrounded(key, left, right, visitor);
+        } finally {
+            rl.unlock();
+        }
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.IChart#getDescendingList(int, int)
+     */
+    @Override
+    public List<Tuple<K, V>> getDescendingList(int start, int end) {
+        rl.lock();
+        try {
+            return chart.getDescendingList(start, end);
+        } finally {
+            rl.unlock();
+        }
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.IChart#getDescendingRangeList(java.lang.Object, java.lang.Object)
+     */
+    @Override
+    public List<Tuple<K, V>> getDescendingRangeList(V low, V high) {
+        rl.lock();
+        try {
+            return chart.getDescendingRangeList(low, high);
+        } finally {
+            rl.unlock();
+        }
+    }
+
+    /**
+     * 访问者在读锁内执行，不能修改本排行榜
+     * @see top.daheizi.commons.stl.IChart#forEachDescending(int, int, top.daheizi.commons.stl.ChartVisitor)
+     */
+    @Override
+    public int forEachDescending(int start, int end, ChartVisitor<? super K, ? super V> visitor) {
+        rl.lock();
+        try {
+            return chart.forEachDescending(start, end, visitor);
+        } finally {
+            rl.unlock();
+        }
+    }
+
+    /****************** 日志 ***************************/
+
+    /**
+     * 将一条日志编码到记录缓冲区，持有写锁时调用
+     * 先编码再修改排行榜，编码失败时排行榜保持不变
+     * @param op
+     * @param key
+     * @param value
+     * @Date 2026年10月18日 上午12:34:10
+     */
+    private void encode(byte op, K key, V value) {
+        if (closed) {
+            throw new IllegalStateException("Chart closed");
+        }
+        if (failure != null) {
+            throw new UncheckedIOException("Log failed", failure);
+        }
+        record.reset();
+        try {
+            recordOut.writeByte(op);
+            if (op != OP_CLEAR) {
+                keyCodec.write(recordOut, key);
+            }
+            if (op == OP_PUT) {
+                valueCodec.write(recordOut, value);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * 记录被写入的关键字，持有写锁时调用
+     * @param key
+     * @Date 2026年10月18日 上午10:35:00
+     */
+    private void written(K key) {
+        if (copying != null) {
+            copying.written(key);
+        }
+    }
+
+    /**
+     * 将记录缓冲区追加到待写入的日志，持有写锁时调用
+     * @return 该条日志之后的序号
+     * @Date 2026年10月18日 上午12:34:40
+     */
+    private long commit() {
+        byte[] bytes = record.toByteArray();
+        crc.reset();
+        crc.update(bytes, 0, bytes.length);
+        try {
+            pendingOut.writeInt(bytes.length);
+            pendingOut.writeInt((int) crc.getValue());
+            pendingOut.write(bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        payloadBytes.addAndGet(bytes.length);
+        return ++lsn;
+    }
+
+    /**
+     * 同步提交时，等待日志刷盘
+     * 关闭时由close完成最后一次刷盘，写日志失败或等待被中断时抛出UncheckedIOException
+     * @param target 需要刷盘的日志序号
+     * @Date 2026年10月18日 上午12:35:05
+     */
+    private void awaitSync(long target) {
+        if (!syncCommit) {
+            return;
+        }
+        synchronized (syncLock) {
+            waiters++;
+            syncLock.notifyAll();
+            try {
+                while (syncedLsn < target) {
+                    if (failure != null) {
+                        throw new UncheckedIOException("Log failed", failure);
+                    }
+                    syncLock.wait();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new UncheckedIOException(new InterruptedIOException("Interrupted before log synced"));
+            } finally {
+                waiters--;
+            }
+        }
+    }
+
+    /**
+     * 后台刷盘线程
+     * 每个提交间隔刷盘一次，有线程等待时立即刷盘，期间到达的修改在下一批刷盘
+     * 关闭或失败时退出，关闭时的最后一次刷盘由close完成
+     * 不通过中断停止，以免中断正在进行的文件读写而关闭日志文件
+     * @Date 2026年10月18日 上午12:35:40
+     */
+    private void runFlusher() {
+        while (true) {
+            synchronized (syncLock) {
+                if (waiters == 0 && !closed) {
+                    try {
+                        syncLock.wait(commitInterval);
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                if (closed) {
+                    return;
+                }
+            }
+            try {
+                flush();
+            } catch (IOException e) {
+                // 已进入失败状态，异常由修改操作、flush和close抛出
+                return;
+            }
+            if (logBytesSinceSnapshot.get() > snapshotThreshold && (snapshotter == null || !snapshotter.isAlive())) {
+                Thread t = new Thread(() -> {
+                    try {
+                        snapshot();
+                    } catch (IOException e) {
+                        snapshotFailure = e;
+                    }
+                }, "DurableChart-snapshot");
+                t.setDaemon(true);
+                snapshotter = t;
+                t.start();
+            }
+        }
+    }
+
+    /**
+     * 将待写入的日志写入当前日志段并刷盘
+     * 写入和刷盘都成功后才从缓冲区移除这部分日志并推进已刷盘的序号，
+     * 失败时进入失败状态，因为日志段末尾可能已写入部分数据，不能再追加
+     * @throws IOException 写日志失败，或已处于失败状态
+     * @Date 2026年10月18日 上午12:36:20
+     */
+    public void flush() throws IOException {
+        synchronized (flushLock) {
+            if (failure != null) {
+                throw new IOException("Log failed", failure);
+            }
+            byte[] data;
+            int length;
+            long end;
+            wl.lock();
+            try {
+                // 修改操作只在count之后追加，且缓冲区只在下面的drop中改动，写入期间无需复制
+                data = pending.array();
+                length = pending.size();
+                end = lsn;
+            } finally {
+                wl.unlock();
+            }
+            if (length > 0) {
+                try {
+                    ByteBuffer buffer = ByteBuffer.wrap(data, 0, length);
+                    while (buffer.hasRemaining()) {
+                        log.write(buffer);
+                    }
+                    log.force(false);
+                } catch (IOException e) {
+                    fail(e);
+                    throw e;
+                }
+                wl.lock();
+                try {
+                    pending.drop(length);
+                } finally {
+                    wl.unlock();
+                }
+                logBytes.addAndGet(length);
+                logBytesSinceSnapshot.addAndGet(length);
+            }
+            synchronized (syncLock) {
+                syncedLsn = end;
+                syncLock.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * 进入失败状态，唤醒等待刷盘的线程
+     * @param e
+     * @Date 2026年10月18日 上午9:20:00
+     */
+    private void fail(IOException e) {
+        synchronized (syncLock) {
+            if (failure == null) {
+                failure = e;
+            }
+            syncLock.notifyAll();
+        }
+    }
+
+    /**
+     * 生成快照
+     * 在读锁内分段复制全部数据，之后在写锁内补齐复制期间的写入并切换日志段，
+     * 持有写锁的时间与复制期间的写入量有关，与数据量无关；在锁外写入快照文件，完成后删除旧的快照和日志段
+     * @throws IOException
+     * @Date 2026年10月18日 上午12:37:05
+     */
+    public void snapshot() throws IOException {
+        synchronized (snapshotLock) {
+            ChartCopy<K, V> c;
+            long snapshotLsn;
+            do {
+                if (closed) {
+                    return;
+                }
+                c = copy();
+                synchronized (flushLock) {
+                    wl.lock();
+                    try {
+                        copying = null;
+                        if (closed || c.isCancelled()) {
+                            // 已关闭，或复制期间排行榜被清空，后者重新复制
+                            continue;
+                        }
+                        flush();
+                        c.finish();
+                        snapshotLsn = lsn;
+                        try {
+                            log.close();
+                            openLog(snapshotLsn);
+                        } catch (IOException e) {
+                            fail(e);
+                            throw e;
+                        }
+                        logBytesSinceSnapshot.set(0);
+                        break;
+                    } finally {
+                        wl.unlock();
+                    }
+                }
+            } while (true);
+            writeSnapshot(c, snapshotLsn);
+        }
+    }
+
+    /**
+     * 在读锁内分段复制全部数据，段与段之间写入照常进行，最后一段之后的写入由调用方补齐
+     * @return
+     * @Date 2026年10月18日 上午10:31:00
+     */
+    private ChartCopy<K, V> copy() {
+        ChartCopy<K, V> c = new ChartCopy<>(chart);
+        rl.lock();
+        try {
+            copying = c;
+            while (!c.copyChunk() && !c.isCancelled()) {
+                rl.unlock();
+                rl.lock();
+            }
+        } catch (RuntimeException e) {
+            copying = null;
+            throw e;
+        } finally {
+            rl.unlock();
+        }
+        return c;
+    }
+
+    /**
+     * 写入快照文件，删除旧的快照和日志段
+     * @param c 已完成的复制
+     * @param snapshotLsn 切换日志段时的序号
+     * @throws IOException
+     * @Date 2026年10月18日 上午10:36:00
+     */
+    private void writeSnapshot(ChartCopy<K, V> c, long snapshotLsn) throws IOException {
+        List<Tuple<K, V>> entries = new ArrayList<>(c.size());
+        c.merge((rank, key, value) -> entries.add(new Tuple<>(key, value)));
+        File file = file(SNAPSHOT_PREFIX, snapshotLsn, SNAPSHOT_SUFFIX);
+        File tmp = new File(file.getPath() + ".tmp");
+        try (FileOutputStream fos = new FileOutputStream(tmp)) {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(fos, 1 << 16));
+            out.writeLong(SNAPSHOT_MAGIC);
+            out.writeLong(snapshotLsn);
+            out.writeInt(entries.size());
+            for (Tuple<K, V> t : entries) {
+                keyCodec.write(out, t.left);
+                valueCodec.write(out, t.right);
+            }
+            out.flush();
+            fos.getFD().sync();
+        }
+        snapshotBytes.addAndGet(tmp.length());
+        Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE);
+        for (File f : list(SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX)) {
+            if (lsnOf(f, SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX) < snapshotLsn) {
+                f.delete();
+            }
+        }
+        for (File f : list(LOG_PREFIX, LOG_SUFFIX)) {
+            if (lsnOf(f, LOG_PREFIX, LOG_SUFFIX) < snapshotLsn) {
+                f.delete();
+            }
+        }
+    }
+
+    /**
+     * 刷盘并关闭，之后的修改操作将抛出异常
+     * 通过关闭标记和通知停止后台刷盘线程，再由本线程完成最后一次刷盘
+     * @throws IOException 最后一次刷盘失败、此前已写日志失败或后台生成快照失败
+     * @see java.io.Closeable#close()
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (syncLock) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            syncLock.notifyAll();
+        }
+        boolean interrupted = false;
+        // 刷盘线程结束后不会再创建快照线程，快照写完之前不能返回，以免与重新打开时的恢复冲突
+        for (int i = 0; i < 2; i++) {
+            Thread t = i == 0 ? flusher : snapshotter;
+            while (t != null && t.isAlive()) {
+                try {
+                    t.join();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        }
+        IOException error = null;
+        synchronized (flushLock) {
+            try {
+                flush();
+            } catch (IOException e) {
+                error = e;
+            }
+            try {
+                log.close();
+            } catch (IOException e) {
+                if (error == null) {
+                    error = e;
+                } else {
+                    error.addSuppressed(e);
+                }
+            }
+        }
+        if (snapshotFailure != null) {
+            if (error == null) {
+                error = snapshotFailure;
+            } else {
+                error.addSuppressed(snapshotFailure);
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        if (error != null) {
+            throw error;
+        }
+    }
+
+    /**
+     * 日志缓冲区，可直接访问内部数组并移除已写入文件的前缀
+     * @author daheizi
+     * @Date 2026年10月18日 上午9:21:00
+     */
+    private static class LogBuffer extends ByteArrayOutputStream {
+
+        /**
+         * 返回内部数组，有效数据为[0, size())
+         * @return
+         * @Date 2026年10月18日 上午9:21:20
+         */
+        byte[] array() {
+            return buf;
+        }
+
+        /**
+         * 移除前length个字节
+         * @param length
+         * @Date 2026年10月18日 上午9:21:40
+         */
+        void drop(int length) {
+            System.arraycopy(buf, length, buf, 0, count - length);
+            count -= length;
+        }
+    }
+
+    /****************** 恢复 ***************************/
+
+    /**
+     * 加载最新的快照，并重放其后的日志段
+     * @throws IOException
+     * @Date 2026年10月18日 上午12:38:10
+     */
+    private void recover() throws IOException {
+        long snapshotLsn = -1;
+        File snapshot = null;
+        for (File f : list(SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX)) {
+            long l = lsnOf(f, SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX);
+            if (l > snapshotLsn) {
+                snapshotLsn = l;
+                snapshot = f;
+            }
+        }
+        lsn = 0;
+        if (snapshot != null) {
+            loadSnapshot(snapshot);
+        }
+        List<File> logs = new ArrayList<>();
+        for (File f : list(LOG_PREFIX, LOG_SUFFIX)) {
+            if (lsnOf(f, LOG_PREFIX, LOG_SUFFIX) >= lsn) {
+                logs.add(f);
+            }
+        }
+        logs.sort((f1, f2) -> Long.compare(lsnOf(f1, LOG_PREFIX, LOG_SUFFIX), lsnOf(f2, LOG_PREFIX, LOG_SUFFIX)));
+        for (int i = 0; i < logs.size(); i++) {
+            File f = logs.get(i);
+            if (lsnOf(f, LOG_PREFIX, LOG_SUFFIX) != lsn) {
+                throw new IOException("Missing log before: " + f);
+            }
+            replay(f, i == logs.size() - 1);
+        }
+        if (logs.isEmpty()) {
+            openLog(lsn);
+        } else {
+            log = FileChannel.open(logs.get(logs.size() - 1).toPath(), StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        }
+    }
+
+    /**
+     * 加载快照，按名次顺序通过putAll批量构建
+     * @param file
+     * @throws IOException
+     * @Date 2026年10月18日 上午12:38:50
+     */
+    private void loadSnapshot(File file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), 1 << 16))) {
+            if (in.readLong() != SNAPSHOT_MAGIC) {
+                throw new IOException("Not a snapshot file: " + file);
+            }
+            lsn = in.readLong();
+            int count = in.readInt();
+            Map<K, V> map = new LinkedHashMap<>(count * 4 / 3 + 1);
+            for (int i = 0; i < count; i++) {
+                K key = keyCodec.read(in);
+                map.put(key, valueCodec.read(in));
+            }
+            chart.putAll(map);
+        }
+    }
+
+    /**
+     * 重放日志段
+     * @param file
+     * @param last 是否为最后一个日志段，是则截断末尾不完整的记录
+     * @throws IOException
+     * @Date 2026年10月18日 上午12:39:30
+     */
+    private void replay(File file, boolean last) throws IOException {
+        long valid = 0;
+        boolean torn = false;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), 1 << 16))) {
+            CRC32 crc = new CRC32();
+            while (true) {
+                int length;
+                try {
+                    length = in.readInt();
+                } catch (EOFException e) {
+                    break;
+                }
+                byte[] bytes;
+                try {
+                    int checksum = in.readInt();
+                    if (length <= 0 || length > file.length()) {
+                        torn = true;
+                        break;
+                    }
+                    bytes = new byte[length];
+                    in.readFully(bytes);
+                    crc.reset();
+                    crc.update(bytes, 0, length);
+                    if ((int) crc.getValue() != checksum) {
+                        torn = true;
+                        break;
+                    }
+                } catch (EOFException e) {
+                    torn = true;
+                    break;
+                }
+                apply(new DataInputStream(new ByteArrayInputStream(bytes)));
+                valid += 8 + length;
+                lsn++;
+            }
+        }
+        if (torn) {
+            if (!last) {
+                throw new IOException("Corrupted log: " + file);
+            }
+            try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+                raf.setLength(valid);
+            }
+        }
+    }
+
+    /**
+     * 执行一条日志记录
+     * @param in
+     * @throws IOException
+     * @Date 2026年10月18日 上午12:40:10
+     */
+    private void apply(DataInput in) throws IOException {
+        byte op = in.readByte();
+        switch (op) {
+        case OP_PUT:
+            K key = keyCodec.read(in);
+            chart.put(key, valueCodec.read(in));
+            break;
+        case OP_REMOVE:
+            chart.remove(keyCodec.read(in));
+            break;
+        case OP_CLEAR:
+            chart.clear();
+            break;
+        default:
+            throw new IOException("Unknown op: " + op);
+        }
+    }
+
+    /**
+     * 创建并打开新的日志段
+     * @param start 日志段的起始序号
+     * @throws IOException
+     * @Date 2026年10月18日 上午12:40:40
+     */
+    private void openLog(long start) throws IOException {
+        log = FileChannel.open(file(LOG_PREFIX, start, LOG_SUFFIX).toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    /**
+     * 数据目录中的文件
+     * @param prefix
+     * @param lsn
+     * @param suffix
+     * @return
+     * @Date 2026年10月18日 上午12:41:00
+     */
+    private File file(String prefix, long lsn, String suffix) {
+        return new File(dir, String.format("%s%020d%s", prefix, lsn, suffix));
+    }
+
+    /**
+     * 列出数据目录中指定类型的文件
+     * @param prefix
+     * @param suffix
+     * @return
+     * @Date 2026年10月18日 上午12:41:20
+     */
+    private List<File> list(String prefix, String suffix) {
+        File[] files = dir.listFiles((d, name) -> name.startsWith(prefix) && name.endsWith(suffix));
+        return files == null ? new ArrayList<>() : Arrays.asList(files);
+    }
+
+    /**
+     * 从文件名中解析序号
+     * @param file
+     * @param prefix
+     * @param suffix
+     * @return
+     * @Date 2026年10月18日 上午12:41:40
+     */
+    private static long lsnOf(File file, String prefix, String suffix) {
+        String name = file.getName();
+        return Long.parseLong(name.substring(prefix.length(), name.length() - suffix.length()));
+    }
+
+    /****************** 统计 ***************************/
+
+    /**
+     * @return 日志记录中的操作、关键字和值的字节数
+     */
+    public long getPayloadBytes() {
+        return payloadBytes.get();
+    }
+
+    /**
+     * @return 写入日志文件的字节数
+     */
+    public long getLogBytes() {
+        return logBytes.get();
+    }
+
+    /**
+     * @return 写入快照文件的字节数
+     */
+    public long getSnapshotBytes() {
+        return snapshotBytes.get();
+    }
+
+    /**
+     * 写放大：写入文件的总字节数与日志记录有效字节数之比
+     * @return
+     * @Date 2026年10月18日 上午12:42:10
+     */
+    public double getWriteAmplification() {
+        long payload = payloadBytes.get();
+        return payload == 0 ? 0 : (double) (logBytes.get() + snapshotBytes.get()) / payload;
+    }
+
+    /**
+     * @return 启动时恢复数据的耗时(纳秒)
+     */
+    public long getRecoveryNanos() {
+        return recoveryNanos;
+    }
+
+
+
+    /****************** 以下为一些非必需的辅助和测试方法 ***************************/
+
+    /**
+     * 单元测试
+     * @param args
+     * @throws Exception
+     * @Date 2026年10月18日 上午12:43:00
+     */
+    public static void main(String[] args) throws Exception {
+        File dir = Files.createTempDirectory("durable").toFile();
+        RBTreeChart<Long, Integer> ref = new RBTreeChart<>();
+        Random rnd = new Random();
+
+        // *****同步提交，随机修改并中途生成快照，不关闭直接重新打开(模拟崩溃)
+        DurableChart<Long, Integer> chart = new DurableChart<>(new RBTreeChart<>(), dir, LONG, INTEGER,
+                true, 5, 1 << 16);
+        for (int i = 0; i < 50000; i++) {
+            long key = rnd.nextInt(5000);
+            int op = rnd.nextInt(100);
+            if (op < 70) {
+                int value = rnd.nextInt(1000);
+                chart.put(key, value);
+                ref.put(key, value);
+            } else if (op < 98) {
+                chart.remove(key);
+                ref.remove(key);
+            } else {
+                Map<Long, Integer> batch = new LinkedHashMap<>();
+                for (int j = 0; j < 100; j++) {
+                    batch.put((long) rnd.nextInt(5000), rnd.nextInt(1000));
+                }
+                chart.putAll(batch);
+                ref.putAll(batch);
+            }
+            if (i == 25000) {
+                chart.clear();
+                ref.clear();
+            }
+            if (i == 30000) {
+                chart.snapshot();
+            }
+        }
+        DurableChart<Long, Integer> recovered = new DurableChart<>(new RBTreeChart<>(), dir, LONG, INTEGER);
+        check(recovered, ref, "Crash Recovery");
+        recovered.close();
+        chart.close();
+
+        // *****末尾写入不完整的记录，恢复时截断
+        File[] logs = dir.listFiles((d, name) -> name.startsWith(LOG_PREFIX));
+        Arrays.sort(logs);
+        try (FileOutputStream out = new FileOutputStream(logs[logs.length - 1], true)) {
+            out.write(new byte[]{0, 0, 0, 20, 1, 2, 3});
+        }
+        recovered = new DurableChart<>(new RBTreeChart<>(), dir, LONG, INTEGER);
+        check(recovered, ref, "Torn Recovery");
+        recovered.put(-1L, 1);
+        ref.put(-1L, 1);
+        recovered.close();
+        recovered = new DurableChart<>(new RBTreeChart<>(), dir, LONG, INTEGER);
+        check(recovered, ref, "Append After Torn");
+        recovered.close();
+        System.out.println("recovery OK, files: " + Arrays.toString(dir.list()));
+
+        // *****测试性能
+        int num = 1000000;
+        for (long threshold : new long[]{Long.MAX_VALUE, 16L << 20}) {
+            File perfDir = Files.createTempDirectory("durable").toFile();
+            chart = new DurableChart<>(new RBTreeChart<>(), perfDir, LONG, INTEGER, false, 10, threshold);
+            long t1 = System.nanoTime();
+            for (int i = 0; i < 3 * num; i++) {
+                chart.put((long) rnd.nextInt(num), rnd.nextInt(num));
+            }
+            long t2 = System.nanoTime();
+            chart.close();
+            recovered = new DurableChart<>(new RBTreeChart<>(), perfDir, LONG, INTEGER);
+            System.out.println(String.format("threshold=%d put: %d ns, write amplification: %.2f, "
+                    + "recovery of %d entries: %d ms", threshold, (t2 - t1) / (3 * num),
+                    chart.getWriteAmplification(), recovered.size(), recovered.getRecoveryNanos() / 1000000));
+            recovered.close();
+            for (File f : perfDir.listFiles()) {
+                f.delete();
+            }
+            perfDir.delete();
+        }
+
+        // *****同步提交的成组刷盘
+        File syncDir = Files.createTempDirectory("durable").toFile();
+        DurableChart<Long, Integer> syncChart = new DurableChart<>(new RBTreeChart<>(), syncDir, LONG, INTEGER,
+                true, 10, Long.MAX_VALUE);
+        int threadNum = 8, perThread = 2000;
+        Thread[] threads = new Thread[threadNum];
+        long t1 = System.nanoTime();
+        for (int i = 0; i < threadNum; i++) {
+            final int base = i * perThread;
+            threads[i] = new Thread(() -> {
+                for (int j = 0; j < perThread; j++) {
+                    syncChart.put((long) (base + j), j);
+                }
+            });
+            threads[i].start();
+        }
+        for (Thread t : threads) {
+            t.join();
+        }
+        long t2 = System.nanoTime();
+        syncChart.close();
+        System.out.println("sync commit " + threadNum + " threads: " + (t2 - t1) / (threadNum * perThread)
+                + " ns/put, size=" + syncChart.chart.size());
+
+        // *****异步提交，写入后立即关闭，已返回的修改不能丢失(后台刷盘和快照可能正在进行)
+        File closeDir = Files.createTempDirectory("durable").toFile();
+        ref.clear();
+        for (int round = 0; round < 20; round++) {
+            chart = new DurableChart<>(new RBTreeChart<>(), closeDir, LONG, INTEGER, false, 1, 1 << 12);
+            for (int i = 0; i < 5000; i++) {
+                long key = rnd.nextInt(2000);
+                int value = rnd.nextInt(1000);
+                chart.put(key, value);
+                ref.put(key, value);
+            }
+            chart.close();
+            recovered = new DurableChart<>(new RBTreeChart<>(), closeDir, LONG, INTEGER);
+            check(recovered, ref, "Close After Writes");
+            recovered.close();
+        }
+
+        // *****写日志失败后进入失败状态，同步提交抛出异常，已刷盘的修改仍可恢复
+        File failDir = Files.createTempDirectory("durable").toFile();
+        ref.clear();
+        DurableChart<Long, Integer> failChart = new DurableChart<>(new RBTreeChart<>(), failDir, LONG, INTEGER,
+                true, 5, Long.MAX_VALUE);
+        failChart.put(1L, 1);
+        ref.put(1L, 1);
+        synchronized (failChart.flushLock) {
+            failChart.log.close();
+        }
+        boolean failed = false;
+        try {
+            failChart.put(2L, 2);
+        } catch (UncheckedIOException e) {
+            failed = true;
+        }
+        try {
+            failChart.put(3L, 3);
+            failed = false;
+        } catch (UncheckedIOException e) {
+            // 失败状态下拒绝修改
+        }
+        try {
+            failChart.close();
+            failed = false;
+        } catch (IOException e) {
+            // 关闭时抛出写日志失败的异常
+        }
+        if (!failed || failChart.syncedLsn != 1) {
+            throw new RuntimeException("Log Failure Not Equal !");
+        }
+        recovered = new DurableChart<>(new RBTreeChart<>(), failDir, LONG, INTEGER);
+        check(recovered, ref, "Log Failure");
+        recovered.close();
+        System.out.println("close and failure OK");
+
+        // *****批量修改中途失败，之前的修改生效并记入日志，之后的不生效
+        File batchDir = Files.createTempDirectory("durable").toFile();
+        Comparator<Integer> strict = (a, b) -> {
+            if (a < 0 || b < 0) {
+                throw new IllegalArgumentException("Negative");
+            }
+            return Integer.compare(a, b);
+        };
+        DurableChart<Long, Integer> batchChart = new DurableChart<>(new RBTreeChart<>(strict), batchDir, LONG,
+                INTEGER);
+        Map<Long, Integer> batch = new LinkedHashMap<>();
+        batch.put(1L, 1);
+        batch.put(2L, 2);
+        batch.put(3L, -1);
+        batch.put(4L, 4);
+        try {
+            batchChart.putAll(batch);
+            throw new RuntimeException("Batch Failure Not Equal !");
+        } catch (IllegalArgumentException e) {
+            // 第3条修改失败
+        }
+        ref.clear();
+        ref.put(1L, 1);
+        ref.put(2L, 2);
+        check(batchChart, ref, "Batch Failure");
+        batchChart.close();
+        recovered = new DurableChart<>(new RBTreeChart<>(strict), batchDir, LONG, INTEGER);
+        check(recovered, ref, "Batch Failure Recovery");
+        recovered.close();
+
+        // *****生成快照期间持续写入，快照不阻塞写入，重放其后的日志得到一致的数据；
+        // 内部排行榜不支持迭代器时也能生成快照和迭代
+        File liveDir = Files.createTempDirectory("durable").toFile();
+        ref.clear();
+        DurableChart<Long, Integer> liveChart = new DurableChart<>(
+                new ConcurrentChart<>(new RBTreeChart<Long, Integer>()), liveDir, LONG, INTEGER,
+                false, 5, Long.MAX_VALUE);
+        for (int i = 0; i < 20000; i++) {
+            long key = rnd.nextInt(20000);
+            int value = rnd.nextInt(1000);
+            liveChart.put(key, value);
+            ref.put(key, value);
+        }
+        AtomicBoolean stop = new AtomicBoolean();
+        Thread writer = new Thread(() -> {
+            Random wrnd = new Random();
+            while (!stop.get()) {
+                long key = wrnd.nextInt(20000);
+                if (wrnd.nextInt(10) == 0) {
+                    liveChart.remove(key);
+                    ref.remove(key);
+                } else {
+                    int value = wrnd.nextInt(1000);
+                    liveChart.put(key, value);
+                    ref.put(key, value);
+                }
+            }
+        });
+        writer.start();
+        for (int i = 0; i < 20; i++) {
+            liveChart.snapshot();
+        }
+        stop.set(true);
+        writer.join();
+        liveChart.flush();
+        List<Tuple<Long, Integer>> iterated = new ArrayList<>();
+        for (Iterator<Tuple<Long, Integer>> it = liveChart.iterator(); it.hasNext();) {
+            iterated.add(it.next());
+        }
+        if (!iterated.equals(ref.getSequenceList(0, ref.size()))) {
+            throw new RuntimeException("Iterator Not Equal !");
+        }
+        recovered = new DurableChart<>(new ConcurrentChart<>(new RBTreeChart<Long, Integer>()), liveDir, LONG,
+                INTEGER);
+        check(recovered, ref, "Snapshot Under Writes");
+        recovered.close();
+        liveChart.close();
+        System.out.println("batch failure and snapshot under writes OK");
+
+        for (File d : new File[]{dir, syncDir, closeDir, failDir, batchDir, liveDir}) {
+            for (File f : d.listFiles()) {
+                f.delete();
+            }
+            d.delete();
+        }
+    }
+
+    /**
+     * 验证恢复后的数据与参照一致
+     * @param chart
+     * @param ref
+     * @param name
+     * @Date 2026年10月18日 上午12:43:40
+     */
+    private static void check(IChart<Long, Integer> chart, IChart<Long, Integer> ref, String name) {
+        if (chart.size() != ref.size()
+                || !chart.getSequenceList(0, ref.size()).equals(ref.getSequenceList(0, ref.size()))) {
+            throw new RuntimeException(name + " Not Equal !");
+        }
+    }
+}
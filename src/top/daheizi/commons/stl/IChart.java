@@ -1,8 +1,10 @@
 package top.daheizi.commons.stl;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 
 /**
  * 带有索引的排行榜接口
@@ -33,6 +35,34 @@ public interface IChart<K, V> extends Iterable<Tuple<K, V>> {
      */
     V remove(K key);
 
+    /**
+     * 批量添加键值对
+     * 结果与按map的迭代顺序依次调用put(key, value)一致
+     * @param map
+     * @Date 2026年10月17日 下午9:48:05
+     */
+    default void putAll(Map<? extends K, ? extends V> map) {
+        for (Map.Entry<? extends K, ? extends V> e : map.entrySet()) {
+            put(e.getKey(), e.getValue());
+        }
+    }
+
+    /**
+     * 批量移除键值对
+     * @param keys
+     * @return 实际被移除的数据量
+     * @Date 2026年10月17日 下午9:48:37
+     */
+    default int removeAll(Collection<? extends K> keys) {
+        int count = 0;
+        for (K key : keys) {
+            if (remove(key) != null) {
+                count++;
+            }
+        }
+        return count;
+    }
+
     /**
      * 查找关键字对应的值
      * @param key
@@ -134,7 +164,7 @@ public interface IChart<K, V> extends Iterable<Tuple<K, V>> {
      */
     default List<Tuple<K, V>> getSequenceList(int start, int end) {
         List<Tuple<K, V>> list = new ArrayList<>();
-        if (start < end) {
+        if (start <= end) {
             int size = size();
             start--;
             start = start < 0 ? 0 : (start > size ? size : start);
@@ -187,4 +217,122 @@ public interface IChart<K, V> extends Iterable<Tuple<K, V>> {
         }
         return getSequenceList(rank - left, rank + right);
     }
+
+    /**
+     * 按名次从后向前返回一段连续的<key，value>数据列表，即名次为end, end-1, ..., start的数据
+     * 超出[1, size]的部分被忽略
+     * @param start 起始名次(包含)
+     * @param end 终止名次(包含)
+     * @return
+     * @Date 2026年10月18日 上午3:32:00
+     */
+    default List<Tuple<K, V>> getDescendingList(int start, int end) {
+        List<Tuple<K, V>> list = new ArrayList<>();
+        forEachDescending(start, end, (rank, key, value) -> list.add(new Tuple<>(key, value)));
+        return list;
+    }
+
+    /**
+     * 按值从大到小返回指定范围内的<key，value>数据列表，[low, high]
+     * 值相等的数据按名次从后向前排列
+     * @param low 低值(>=low)
+     * @param high 高值(<=high)
+     * @return
+     * @Date 2026年10月18日 上午3:32:30
+     */
+    default List<Tuple<K, V>> getDescendingRangeList(V low, V high) {
+        int[] info1 = getRankInfo(low);
+        int[] info2 = getRankInfo(high);
+        return getDescendingList(info1[0] + 1, info2[1]);
+    }
+
+    /**
+     * 按名次从后向前访问一段连续的数据，即名次为end, end-1, ..., start的数据
+     * 超出[1, size]的部分被忽略
+     * 默认实现先正向读取再反向访问，实现类可以直接反向遍历内部结构
+     * @param start 起始名次(包含)
+     * @param end 终止名次(包含)
+     * @param visitor
+     * @return 访问的数据数目
+     * @Date 2026年10月18日 上午3:33:00
+     */
+    default int forEachDescending(int start, int end, ChartVisitor<? super K, ? super V> visitor) {
+        List<Tuple<K, V>> list = new ArrayList<>();
+        int first = Math.max(start, 1);
+        forEachInRange(start, end, (rank, key, value) -> list.add(new Tuple<>(key, value)));
+        for (int i = list.size() - 1; i >= 0; i--) {
+            Tuple<K, V> t = list.get(i);
+            visitor.visit(first + i, t.left, t.right);
+        }
+        return list.size();
+    }
+
+    /**
+     * 按名次顺序访问一段连续的数据，[start, end]，超出[1, size]的部分被忽略
+     * 默认实现基于iterator，实现类可以直接遍历内部结构，避免为每个数据创建对象
+     * @param start 起始名次(包含)
+     * @param end 终止名次(包含)
+     * @param visitor
+     * @return 访问的数据数目
+     * @Date 2026年10月18日 上午3:06:10
+     */
+    default int forEachInRange(int start, int end, ChartVisitor<? super K, ? super V> visitor) {
+        int size = size();
+        start = start < 1 ? 1 : start;
+        end = end > size ? size : end;
+        if (start > end) {
+            return 0;
+        }
+        Iterator<Tuple<K, V>> it = iterator(start - 1);
+        int rank = start;
+        for (; rank <= end && it.hasNext(); rank++) {
+            Tuple<K, V> t = it.next();
+            visitor.visit(rank, t.left, t.right);
+        }
+        return rank - start;
+    }
+
+    /**
+     * 分页访问数据
+     * @param pageSize 分页大小
+     * @param page 页数
+     * @param visitor
+     * @return 访问的数据数目
+     * @Date 2026年10月18日 上午3:06:40
+     */
+    default int forEachByPage(int pageSize, int page, ChartVisitor<? super K, ? super V> visitor) {
+        int end = pageSize * page;
+        return forEachInRange(end - pageSize + 1, end, visitor);
+    }
+
+    /**
+     * 访问指定范围内的数据，[low, high]
+     * @param low 低值(>=low)
+     * @param high 高值(<=high)
+     * @param visitor
+     * @return 访问的数据数目
+     * @Date 2026年10月18日 上午3:07:00
+     */
+    default int forEachInValueRange(V low, V high, ChartVisitor<? super K, ? super V> visitor) {
+        int[] info1 = getRankInfo(low);
+        int[] info2 = getRankInfo(high);
+        return forEachInRange(info1[0] + 1, info2[1], visitor);
+    }
+
+    /**
+     * 访问指定关键字周围的一段数据
+     * @param key
+     * @param left 左偏移名次
+     * @param right 右偏移名次
+     * @param visitor
+     * @return 访问的数据数目，关键字不在排行榜内时返回0
+     * @Date 2026年10月18日 上午3:07:20
+     */
+    default int forEachSurrounded(K key, int left, int right, ChartVisitor<? super K, ? super V> visitor) {
+        int rank = getRank(key);
+        if (rank == -1) {
+            return 0;
+        }
+        return forEachInRange(rank - left, rank + right, visitor);
+    }
 }
@@ -129,6 +129,19 @@ public interface IRank<K> extends Iterable<K> {
      */
     RankIterator<K> rankIterator(int kth);
 
+    /**
+     * 返回一个从第一个不小于key的关键字开始的RankIterator
+     * 调用next()时返回排行榜内不小于key的最小关键字，调用previous()时返回小于key的最大关键字
+     * 默认实现先查询名次再定位，共两次查找，实现类可以在一次查找中完成定位
+     * @param key
+     * @return
+     * @Date 2026年10月18日 上午3:30:10
+     */
+    default RankIterator<K> ceilingIterator(K key) {
+        int rank = getRank(key);
+        return rankIterator(rank > 0 ? rank - 1 : -rank - 1);
+    }
+
     /**
      * 返回一个包含所有元素的有序数组
      * @return
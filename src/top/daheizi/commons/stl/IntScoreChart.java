@@ -0,0 +1,223 @@
+package top.daheizi.commons.stl;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Random;
+
+/**
+ * 关键字为long、分值为int的排行榜
+ * 分值以int[]存储，每条数据比LongScoreChart少4字节，约占36字节，且不产生任何对象
+ * @author daheizi
+ * @Date 2026年10月17日 下午11:32:05
+ */
+public class IntScoreChart extends AbstractScoreChart<Integer> {
+
+    /** 节点的分值 */
+    private int[] scores;
+
+    /**
+     * 构造函数，按分值升序排列
+     */
+    public IntScoreChart() {
+        this(false);
+    }
+
+    /**
+     * @param descending 是否按分值降序排列
+     */
+    public IntScoreChart(boolean descending) {
+        super(descending);
+        this.scores = new int[nodeCapacity()];
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.ScoreTree#score(int)
+     */
+    @Override
+    final long score(int node) {
+        return scores[node];
+    }
+
+    /**
+     * 只在putScore检查过范围后调用
+     * @see top.daheizi.commons.stl.ScoreTree#setScore(int, long)
+     */
+    @Override
+    final void setScore(int node, long score) {
+        scores[node] = (int) score;
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.AbstractScoreChart#growScores(int)
+     */
+    @Override
+    final void growScores(int capacity) {
+        scores = Arrays.copyOf(scores, capacity);
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.AbstractScoreChart#valueOf(long)
+     */
+    @Override
+    protected Integer valueOf(long score) {
+        return (int) score;
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.AbstractScoreChart#scoreOf(java.lang.Number)
+     */
+    @Override
+    protected long scoreOf(Integer value) {
+        return value;
+    }
+
+    /**
+     * 添加或更新关键字的分值
+     * @param key
+     * @param score
+     * @return 是否为新添加的关键字
+     * @Date 2026年10月17日 下午11:33:10
+     */
+    public boolean putScore(long key, int score) {
+        return super.putScore(key, score);
+    }
+
+    /**
+     * 分值超出int的范围时抛出IllegalArgumentException
+     * @see top.daheizi.commons.stl.ScoreTree#putScore(long, long)
+     */
+    @Override
+    public boolean putScore(long key, long score) {
+        if (score != (int) score) {
+            throw new IllegalArgumentException("score: " + score);
+        }
+        return super.putScore(key, score);
+    }
+
+
+
+    /****************** 以下为一些非必需的辅助和测试方法 ***************************/
+
+    /**
+     * 单元测试
+     * 内存占用的比较见 top.daheizi.commons.test.TestChartFootprint
+     * @param args
+     * @Date 2026年10月17日 下午11:33:45
+     */
+    public static void main(String[] args) {
+        // *****测试与RBTreeChart的一致性
+        for (boolean descending : new boolean[]{false, true}) {
+            IntScoreChart chart = new IntScoreChart(descending);
+            IChart<Long, Integer> ref = new RBTreeChart<>(descending ? Collections.reverseOrder() : null);
+            Random rnd = new Random();
+            for (int i = 0; i < 200000; i++) {
+                long key = rnd.nextInt(5000);
+                int op = rnd.nextInt(10);
+                if (op < 6) {
+                    Integer value = rnd.nextInt(200) - 100;
+                    if (!objEquals(chart.put(key, value), ref.put(key, value))) {
+                        throw new RuntimeException("Put Not Equal !");
+                    }
+                } else if (op < 8) {
+                    if (!objEquals(chart.remove(key), ref.remove(key))) {
+                        throw new RuntimeException("Remove Not Equal !");
+                    }
+                } else if (op < 9) {
+                    if (chart.getRank(key) != ref.getRank(key)) {
+                        throw new RuntimeException("Rank Not Equal !");
+                    }
+                    int kth = rnd.nextInt(ref.size() + 2);
+                    if (!objEquals(chart.getKth(kth), ref.getKth(kth))) {
+                        throw new RuntimeException("Kth Not Equal !");
+                    }
+                    Integer value = rnd.nextInt(200) - 100;
+                    int[] info = chart.getRankInfo(value);
+                    int[] refInfo = ref.getRankInfo(value);
+                    if (info[0] != refInfo[0] || info[1] != refInfo[1]) {
+                        throw new RuntimeException("RankInfo Not Equal !");
+                    }
+                } else {
+                    int start = rnd.nextInt(ref.size() + 2);
+                    if (!chart.getSequenceList(start, start + 20).equals(ref.getSequenceList(start, start + 20))) {
+                        throw new RuntimeException("Sequence Not Equal !");
+                    }
+                }
+            }
+            // 迭代删除
+            Iterator<Tuple<Long, Integer>> it = chart.iterator(10);
+            Iterator<Tuple<Long, Integer>> refIt = ref.iterator(10);
+            while (it.hasNext()) {
+                Tuple<Long, Integer> t = it.next();
+                if (!objEquals(t, refIt.next())) {
+                    throw new RuntimeException("Iterator Not Equal !");
+                }
+                if ((t.left & 1) == 0) {
+                    it.remove();
+                    refIt.remove();
+                }
+            }
+            if (refIt.hasNext() || !chart.getSequenceList(0, ref.size()).equals(ref.getSequenceList(0, ref.size()))) {
+                throw new RuntimeException("Iterator Remove Not Equal !");
+            }
+            chart.check();
+            System.out.println("descending=" + descending + " size=" + chart.size() + " OK");
+        }
+
+        // *****超出int范围的分值被拒绝
+        IntScoreChart small = new IntScoreChart();
+        try {
+            small.putScore(1L, 1L << 40);
+            throw new RuntimeException("Range Not Checked !");
+        } catch (IllegalArgumentException e) {
+            if (small.size() != 0) {
+                throw new RuntimeException("Range Not Checked !");
+            }
+        }
+
+        // *****测试性能
+        int num = 1000000;
+        int[] scores = new int[num];
+        Random rnd = new Random();
+        for (int i = 0; i < num; i++) {
+            scores[i] = rnd.nextInt(num);
+        }
+        IntScoreChart chart = new IntScoreChart();
+        RBTreeChart<Long, Integer> ref = new RBTreeChart<>();
+        long t1 = System.nanoTime();
+        for (int i = 0; i < num; i++) {
+            chart.putScore(i, scores[i]);
+        }
+        long t2 = System.nanoTime();
+        for (int i = 0; i < num; i++) {
+            ref.put((long) i, scores[i]);
+        }
+        long t3 = System.nanoTime();
+        System.out.println("put IntScoreChart: " + (t2 - t1) / num + " ns, RBTreeChart: " + (t3 - t2) / num + " ns");
+        long sum = 0;
+        t1 = System.nanoTime();
+        for (int i = 0; i < num; i++) {
+            sum += chart.rankOf(i);
+        }
+        t2 = System.nanoTime();
+        for (int i = 0; i < num; i++) {
+            sum -= ref.getRank((long) i);
+        }
+        t3 = System.nanoTime();
+        if (sum != 0) {
+            throw new RuntimeException("Rank Not Equal !");
+        }
+        System.out.println("getRank IntScoreChart: " + (t2 - t1) / num + " ns, RBTreeChart: " + (t3 - t2) / num + " ns");
+    }
+
+    /**
+     * 判断两个对象是否相等
+     * @param o1
+     * @param o2
+     * @return
+     * @Date 2026年10月17日 下午11:34:20
+     */
+    private static final boolean objEquals(Object o1, Object o2) {
+        return o1 == null ? o2 == null : o1.equals(o2);
+    }
+}
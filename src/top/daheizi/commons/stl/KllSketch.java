@@ -0,0 +1,325 @@
+package top.daheizi.commons.stl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * KLL分位数草图(Karnin, Lang, Liberty 2016)
+ * 以O(k log(n/k))的空间近似记录n个数据的分布，可估计任意值的名次，且多个草图可以合并
+ * 数据分为若干层，第h层的每个数据代表2^h个原始数据，
+ * 某一层满时排序后随机保留奇数位或偶数位的一半数据提升到上一层
+ * 各层容量自顶向下按2/3递减，最高层容量为k
+ * 只支持添加，不支持删除
+ * 非线程安全
+ * @param <T>
+ * @author daheizi
+ * @Date 2026年10月18日 上午5:40:10
+ */
+public class KllSketch<T> {
+
+    /** 默认的精度参数，约对应1.3%的名次误差 */
+    public static final int DEFAULT_K = 200;
+
+    /** 每层的最小容量 */
+    private static final int MIN_CAPACITY = 8;
+
+    /** 层容量的递减系数 */
+    private static final double CAPACITY_RATIO = 2.0 / 3;
+
+    /** 精度参数 */
+    private final int k;
+
+    /** 比较器 */
+    private final Comparator<? super T> comparator;
+
+    /** 各层的数据，第h层的每个数据权重为2^h */
+    private final List<List<T>> levels = new ArrayList<>();
+
+    /** 已添加的原始数据量 */
+    private long n;
+
+    /** 当前保存的数据量 */
+    private int retained;
+
+    /** 所有层的总容量 */
+    private int maxRetained;
+
+    /** 随机数，决定每次压缩保留奇数位还是偶数位 */
+    private final Random random;
+
+    /**
+     * 构造函数
+     * @param k 精度参数，越大越精确
+     * @param comparator 为null时使用自然顺序
+     */
+    public KllSketch(int k, Comparator<? super T> comparator) {
+        this(k, comparator, new Random());
+    }
+
+    /**
+     * 构造函数
+     * @param k 精度参数，越大越精确
+     * @param comparator 为null时使用自然顺序
+     * @param random 指定随机数，便于复现
+     */
+    public KllSketch(int k, Comparator<? super T> comparator, Random random) {
+        if (k < MIN_CAPACITY) {
+            throw new IllegalArgumentException("k: " + k);
+        }
+        this.k = k;
+        this.comparator = comparator;
+        this.random = random;
+        levels.add(new ArrayList<>());
+        maxRetained = capacity(0);
+    }
+
+    /**
+     * 比较两个数据
+     * @param a
+     * @param b
+     * @return
+     * @Date 2026年10月18日 上午5:41:30
+     */
+    @SuppressWarnings("unchecked")
+    private int compare(T a, T b) {
+        return comparator == null ? ((Comparable<? super T>) a).compareTo(b) : comparator.compare(a, b);
+    }
+
+    /**
+     * 返回第h层的容量
+     * @param h
+     * @return
+     * @Date 2026年10月18日 上午5:42:00
+     */
+    private int capacity(int h) {
+        int depth = levels.size() - 1 - h;
+        return Math.max(MIN_CAPACITY, (int) Math.ceil(k * Math.pow(CAPACITY_RATIO, depth)));
+    }
+
+    /**
+     * 重新计算总容量
+     * @Date 2026年10月18日 上午5:42:20
+     */
+    private void updateMaxRetained() {
+        int sum = 0;
+        for (int h = 0; h < levels.size(); h++) {
+            sum += capacity(h);
+        }
+        maxRetained = sum;
+    }
+
+    /**
+     * 添加数据
+     * @param item
+     * @Date 2026年10月18日 上午5:42:40
+     */
+    public void update(T item) {
+        levels.get(0).add(item);
+        n++;
+        retained++;
+        while (retained > maxRetained) {
+            compress();
+        }
+    }
+
+    /**
+     * 合并另一个草图，合并后的误差与直接添加所有数据时相同量级
+     * 两个草图应使用相同的比较器
+     * @param other
+     * @Date 2026年10月18日 上午5:43:00
+     */
+    public void merge(KllSketch<? extends T> other) {
+        while (levels.size() < other.levels.size()) {
+            levels.add(new ArrayList<>());
+        }
+        updateMaxRetained();
+        for (int h = 0; h < other.levels.size(); h++) {
+            levels.get(h).addAll(other.levels.get(h));
+        }
+        n += other.n;
+        retained += other.retained;
+        while (retained > maxRetained) {
+            compress();
+        }
+    }
+
+    /**
+     * 压缩最低的已满层，将其一半数据提升到上一层
+     * @Date 2026年10月18日 上午5:44:10
+     */
+    private void compress() {
+        for (int h = 0; h < levels.size(); h++) {
+            List<T> level = levels.get(h);
+            if (level.size() < capacity(h)) {
+                continue;
+            }
+            if (h + 1 == levels.size()) {
+                levels.add(new ArrayList<>());
+                updateMaxRetained();
+            }
+            List<T> upper = levels.get(h + 1);
+            Collections.sort(level, this::compare);
+            // 数量为奇数时第一个数据留在本层
+            int from = level.size() & 1;
+            T kept = from == 1 ? level.get(0) : null;
+            for (int i = from + (random.nextBoolean() ? 1 : 0); i < level.size(); i += 2) {
+                upper.add(level.get(i));
+            }
+            int removed = level.size() - from;
+            level.clear();
+            if (kept != null) {
+                level.add(kept);
+            }
+            retained -= removed / 2;
+            return;
+        }
+    }
+
+    /**
+     * 估计排在item之前的原始数据量
+     * @param item
+     * @param inclusive 是否包含与item相等的数据
+     * @return
+     * @Date 2026年10月18日 上午5:45:00
+     */
+    public long rank(T item, boolean inclusive) {
+        long rank = 0;
+        for (int h = 0; h < levels.size(); h++) {
+            long weight = 1L << h;
+            for (T t : levels.get(h)) {
+                int cmp = compare(t, item);
+                if (cmp < 0 || (inclusive && cmp == 0)) {
+                    rank += weight;
+                }
+            }
+        }
+        return rank;
+    }
+
+    /**
+     * 估计分位数为fraction的数据，即排在它之前的数据约占 fraction
+     * @param fraction [0, 1]
+     * @return 草图为空时返回null
+     * @Date 2026年10月18日 上午5:45:40
+     */
+    public T quantile(double fraction) {
+        if (n == 0) {
+            return null;
+        }
+        List<Tuple<T, Long>> weighted = new ArrayList<>(retained);
+        for (int h = 0; h < levels.size(); h++) {
+            for (T t : levels.get(h)) {
+                weighted.add(new Tuple<>(t, 1L << h));
+            }
+        }
+        Collections.sort(weighted, (a, b) -> compare(a.left, b.left));
+        long target = (long) (fraction * n);
+        long sum = 0;
+        for (Tuple<T, Long> t : weighted) {
+            sum += t.right;
+            if (sum > target) {
+                return t.left;
+            }
+        }
+        return weighted.get(weighted.size() - 1).left;
+    }
+
+    /**
+     * 返回名次估计的归一化误差(相对于n)，置信度约99%
+     * 采用KLL草图常用的经验公式 2.296 / k^0.9723
+     * @return
+     * @Date 2026年10月18日 上午5:46:20
+     */
+    public double getNormalizedRankError() {
+        return 2.296 / Math.pow(k, 0.9723);
+    }
+
+    /**
+     * 返回已添加的原始数据量
+     * @return
+     * @Date 2026年10月18日 上午5:46:40
+     */
+    public long getN() {
+        return n;
+    }
+
+    /**
+     * 返回当前保存的数据量
+     * @return
+     * @Date 2026年10月18日 上午5:46:50
+     */
+    public int getRetained() {
+        return retained;
+    }
+
+    /**
+     * 清空草图
+     * @Date 2026年10月18日 上午5:47:00
+     */
+    public void clear() {
+        levels.clear();
+        levels.add(new ArrayList<>());
+        n = 0;
+        retained = 0;
+        updateMaxRetained();
+    }
+
+
+
+    /****************** 以下为一些非必需的辅助和测试方法 ***************************/
+
+    /**
+     * 单元测试
+     * @param args
+     * @Date 2026年10月18日 上午5:47:30
+     */
+    public static void main(String[] args) {
+        int num = 1000000;
+        Random rnd = new Random();
+        KllSketch<Integer> a = new KllSketch<>(DEFAULT_K, null);
+        KllSketch<Integer> b = new KllSketch<>(DEFAULT_K, null);
+        int[] sorted = new int[num];
+        for (int i = 0; i < num; i++) {
+            int x = rnd.nextInt(num);
+            sorted[i] = x;
+            (i % 3 == 0 ? a : b).update(x);
+        }
+        a.merge(b);
+        Arrays.sort(sorted);
+        double maxError = 0;
+        for (int i = 0; i < 1000; i++) {
+            int x = rnd.nextInt(num);
+            int exact = lowerBound(sorted, x);
+            maxError = Math.max(maxError, Math.abs(a.rank(x, false) - exact) / (double) num);
+        }
+        System.out.println("n=" + a.getN() + ", retained=" + a.getRetained() + ", max error=" + maxError
+                + ", bound=" + a.getNormalizedRankError() + ", median=" + a.quantile(0.5));
+        if (a.getN() != num || maxError > a.getNormalizedRankError()) {
+            throw new RuntimeException("Error Out Of Bound !");
+        }
+    }
+
+    /**
+     * 返回有序数组中小于x的数目
+     * @param sorted
+     * @param x
+     * @return
+     * @Date 2026年10月18日 上午5:48:00
+     */
+    private static int lowerBound(int[] sorted, int x) {
+        int lo = 0, hi = sorted.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (sorted[mid] < x) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+}
@@ -0,0 +1,113 @@
+package top.daheizi.commons.stl;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * 关键字为long、分值为long的排行榜
+ * 每条数据约占40字节，且不产生任何对象
+ * @author daheizi
+ * @Date 2026年10月17日 下午11:36:12
+ */
+public class LongScoreChart extends AbstractScoreChart<Long> {
+
+    /** 节点的分值 */
+    private long[] scores;
+
+    /**
+     * 构造函数，按分值升序排列
+     */
+    public LongScoreChart() {
+        this(false);
+    }
+
+    /**
+     * @param descending 是否按分值降序排列
+     */
+    public LongScoreChart(boolean descending) {
+        super(descending);
+        this.scores = new long[nodeCapacity()];
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.ScoreTree#score(int)
+     */
+    @Override
+    final long score(int node) {
+        return scores[node];
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.ScoreTree#setScore(int, long)
+     */
+    @Override
+    final void setScore(int node, long score) {
+        scores[node] = score;
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.AbstractScoreChart#growScores(int)
+     */
+    @Override
+    final void growScores(int capacity) {
+        scores = Arrays.copyOf(scores, capacity);
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.AbstractScoreChart#valueOf(long)
+     */
+    @Override
+    protected Long valueOf(long score) {
+        return score;
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.AbstractScoreChart#scoreOf(java.lang.Number)
+     */
+    @Override
+    protected long scoreOf(Long value) {
+        return value;
+    }
+
+
+
+    /****************** 以下为一些非必需的辅助和测试方法 ***************************/
+
+    /**
+     * 单元测试
+     * @param args
+     * @Date 2026年10月17日 下午11:37:02
+     */
+    public static void main(String[] args) {
+        LongScoreChart chart = new LongScoreChart(true);
+        RBTreeChart<Long, Long> ref = new RBTreeChart<>((a, b) -> Long.compare(b, a));
+        Random rnd = new Random();
+        for (int i = 0; i < 100000; i++) {
+            long key = rnd.nextInt(3000);
+            long score = rnd.nextBoolean() ? rnd.nextLong() : rnd.nextInt(50);
+            if (i == 50000) {
+                // 序号即将用尽，触发重新编号
+                chart.skipSeq(-16);
+            }
+            if (rnd.nextInt(4) == 0) {
+                chart.removeKey(key);
+                ref.remove(key);
+            } else {
+                chart.putScore(key, score);
+                ref.put(key, score);
+            }
+        }
+        chart.check();
+        if (!chart.getSequenceList(0, ref.size()).equals(ref.getSequenceList(0, ref.size()))) {
+            throw new RuntimeException("Sequence Not Equal !");
+        }
+        for (long key = 0; key < 3000; key++) {
+            if (chart.rankOf(key) != ref.getRank(key)
+                    || chart.getScore(key, -1L) != (ref.containsKey(key) ? ref.get(key) : -1L)) {
+                throw new RuntimeException("Rank Not Equal !");
+            }
+        }
+        System.out.println(chart.getSequenceList(0, 5));
+        System.out.println("size=" + chart.size() + " OK");
+    }
+}
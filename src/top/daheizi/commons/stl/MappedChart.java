@@ -0,0 +1,628 @@
+package top.daheizi.commons.stl;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Random;
+
+/**
+ * 堆外的内存映射排行榜，关键字与分值均为long
+ * 名次树与关键字索引(见ScoreTree，与AbstractScoreChart相同)全部存储于内存映射文件中，
+ * 堆内只有少量的映射缓冲区对象：
+ * 节点文件由定长32字节的节点记录组成，按块分段映射，扩容时只需追加映射新的块；
+ * 索引文件为线性探测的开放寻址哈希表，每个槽位存储4字节的节点下标，
+ * 扩容时在临时文件中建好新索引后再原子地替换原索引文件
+ * 重新打开正常关闭的文件时直接映射，无需重建；
+ * 打开期间文件头中的正常关闭标记被清除，未正常关闭(崩溃)或索引文件缺失、损坏时，从节点文件重建索引
+ * 每次修改后的数据都已写入映射区域，进程退出后由操作系统写回；
+ * 只有调用force()或close()之后，才能保证在系统崩溃时不丢失数据
+ * 非线程安全
+ * @author daheizi
+ * @Date 2026年10月17日 下午11:52:10
+ */
+public class MappedChart extends ScoreTree<Long> implements Closeable {
+
+    /** 文件标识 */
+    private static final long MAGIC = 0x4448_5A43_4841_5254L;
+
+    /** 节点记录的字段偏移：关键字 */
+    private static final int KEY = 0;
+    /** 节点记录的字段偏移：分值 */
+    private static final int SCORE = 8;
+    /** 节点记录的字段偏移：序号 */
+    private static final int SEQ = 16;
+    /** 节点记录的字段偏移：左子树 */
+    private static final int LEFT = 20;
+    /** 节点记录的字段偏移：右子树 */
+    private static final int RIGHT = 24;
+    /** 节点记录的字段偏移：子树大小，空节点的该字段恒为0 */
+    private static final int SIZE = 28;
+    /** 节点记录长度的位移，即32字节 */
+    private static final int RECORD_SHIFT = 5;
+
+    /** 文件头(空节点的记录位置)的字段偏移：标识 */
+    private static final int H_MAGIC = 0;
+    /** 文件头的字段偏移：根 */
+    private static final int H_ROOT = 8;
+    /** 文件头的字段偏移：已分配过的最大节点下标 */
+    private static final int H_TOP = 12;
+    /** 文件头的字段偏移：空闲节点链表的头 */
+    private static final int H_FREE = 16;
+    /** 文件头的字段偏移：下一个序号 */
+    private static final int H_SEQ = 20;
+    /** 文件头的字段偏移：是否降序 */
+    private static final int H_DESCENDING = 24;
+    /** 文件头的字段偏移：是否正常关闭 */
+    private static final int H_CLEAN = 28;
+
+    /** 每个节点块包含的记录数的位移，即每块32MB */
+    private static final int NODE_SHIFT = 20;
+    /** 节点块内的下标掩码 */
+    private static final int NODE_MASK = (1 << NODE_SHIFT) - 1;
+
+    /** 每个索引块包含的槽位数的位移，即每块16MB */
+    private static final int INDEX_SHIFT = 22;
+    /** 索引块内的槽位掩码 */
+    private static final int INDEX_MASK = (1 << INDEX_SHIFT) - 1;
+    /** 索引的初始容量 */
+    private static final int INITIAL_INDEX_CAPACITY = 1 << 10;
+
+    /** 节点文件 */
+    private final File nodeFile;
+    /** 索引文件 */
+    private final File indexFile;
+    /** 节点文件通道 */
+    private final FileChannel nodeChannel;
+    /** 索引文件通道 */
+    private FileChannel indexChannel;
+    /** 重建中的索引的临时文件通道，不在重建时为null */
+    private FileChannel tmpIndexChannel;
+    /** 节点块 */
+    private MappedByteBuffer[] nodes;
+    /** 索引块 */
+    private MappedByteBuffer[] index;
+    /** 索引容量 */
+    private int indexCapacity;
+
+    /**
+     * 构造函数，按分值升序排列
+     * @param file 节点文件，索引文件为同目录下追加.idx后缀的文件
+     * @throws IOException
+     */
+    public MappedChart(File file) throws IOException {
+        this(file, false);
+    }
+
+    /**
+     * 构造函数
+     * 文件已存在时直接映射，此时排列顺序须与创建时一致
+     * @param file 节点文件，索引文件为同目录下追加.idx后缀的文件
+     * @param descending 是否按分值降序排列
+     * @throws IOException
+     * @throws IllegalArgumentException 文件格式或排列顺序不符
+     */
+    @SuppressWarnings("resource")
+    public MappedChart(File file, boolean descending) throws IOException {
+        super(descending);
+        this.nodeFile = file;
+        this.indexFile = new File(file.getPath() + ".idx");
+        boolean exists = file.length() > 0;
+        this.nodeChannel = new RandomAccessFile(file, "rw").getChannel();
+        this.nodes = new MappedByteBuffer[0];
+        int chunks = (int) Math.max(1, (nodeChannel.size() + (1L << NODE_SHIFT + RECORD_SHIFT) - 1)
+                >>> NODE_SHIFT + RECORD_SHIFT);
+        for (int i = 0; i < chunks; i++) {
+            mapNodeChunk();
+        }
+        MappedByteBuffer header = nodes[0];
+        if (exists) {
+            if (header.getLong(H_MAGIC) != MAGIC) {
+                throw new IllegalArgumentException("Not a chart file: " + file);
+            }
+            if ((header.getInt(H_DESCENDING) != 0) != descending) {
+                throw new IllegalArgumentException("Order mismatch: " + file);
+            }
+            restoreState(header.getInt(H_ROOT), header.getInt(H_TOP), header.getInt(H_FREE), header.getInt(H_SEQ));
+            boolean clean = header.getInt(H_CLEAN) != 0;
+            markClean(false);
+            if (!clean || !openIndex()) {
+                int capacity = INITIAL_INDEX_CAPACITY;
+                while (size() + 1 > capacity * LOAD_FACTOR) {
+                    capacity <<= 1;
+                }
+                rebuildIndex(capacity);
+            }
+        } else {
+            header.putLong(H_MAGIC, MAGIC);
+            header.putInt(H_DESCENDING, descending ? 1 : 0);
+            saveState(NIL, NIL, NIL, 0);
+            markClean(false);
+            rebuildIndex(INITIAL_INDEX_CAPACITY);
+        }
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.ScoreTree#valueOf(long)
+     */
+    @Override
+    protected Long valueOf(long score) {
+        return score;
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.ScoreTree#scoreOf(java.lang.Number)
+     */
+    @Override
+    protected long scoreOf(Long value) {
+        return value;
+    }
+
+    /**
+     * 将映射区域的修改写回文件
+     * @Date 2026年10月17日 下午11:55:05
+     */
+    public void force() {
+        for (MappedByteBuffer buffer : nodes) {
+            buffer.force();
+        }
+        for (MappedByteBuffer buffer : index) {
+            buffer.force();
+        }
+    }
+
+    /**
+     * 写回全部修改后设置正常关闭标记
+     * @see java.io.Closeable#close()
+     */
+    @Override
+    public void close() throws IOException {
+        force();
+        markClean(true);
+        nodeChannel.close();
+        indexChannel.close();
+    }
+
+    /****************** 节点记录 ***************************/
+
+    /**
+     * 读取节点的long字段
+     * @param node
+     * @param field
+     * @return
+     * @Date 2026年10月17日 下午11:56:10
+     */
+    private long getLong(int node, int field) {
+        return nodes[node >>> NODE_SHIFT].getLong(((node & NODE_MASK) << RECORD_SHIFT) + field);
+    }
+
+    /**
+     * 写入节点的long字段
+     * @param node
+     * @param field
+     * @param value
+     * @Date 2026年10月17日 下午11:56:25
+     */
+    private void putLong(int node, int field, long value) {
+        nodes[node >>> NODE_SHIFT].putLong(((node & NODE_MASK) << RECORD_SHIFT) + field, value);
+    }
+
+    /**
+     * 读取节点的int字段
+     * @param node
+     * @param field
+     * @return
+     * @Date 2026年10月17日 下午11:56:40
+     */
+    private int getInt(int node, int field) {
+        return nodes[node >>> NODE_SHIFT].getInt(((node & NODE_MASK) << RECORD_SHIFT) + field);
+    }
+
+    /**
+     * 写入节点的int字段
+     * @param node
+     * @param field
+     * @param value
+     * @Date 2026年10月17日 下午11:56:55
+     */
+    private void putInt(int node, int field, int value) {
+        nodes[node >>> NODE_SHIFT].putInt(((node & NODE_MASK) << RECORD_SHIFT) + field, value);
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.ScoreTree#key(int)
+     */
+    @Override
+    long key(int node) {
+        return getLong(node, KEY);
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.ScoreTree#setKey(int, long)
+     */
+    @Override
+    void setKey(int node, long key) {
+        putLong(node, KEY, key);
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.ScoreTree#score(int)
+     */
+    @Override
+    long score(int node) {
+        return getLong(node, SCORE);
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.ScoreTree#setScore(int, long)
+     */
+    @Override
+    void setScore(int node, long score) {
+        putLong(node, SCORE, score);
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.ScoreTree#seq(int)
+     */
+    @Override
+    int seq(int node) {
+        return getInt(node, SEQ);
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.ScoreTree#setSeq(int, int)
+     */
+    @Override
+    void setSeq(int node, int seq) {
+        putInt(node, SEQ, seq);
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.ScoreTree#left(int)
+     */
+    @Override
+    int left(int node) {
+        return getInt(node, LEFT);
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.ScoreTree#setLeft(int, int)
+     */
+    @Override
+    void setLeft(int node, int left) {
+        putInt(node, LEFT, left);
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.ScoreTree#right(int)
+     */
+    @Override
+    int right(int node) {
+        return getInt(node, RIGHT);
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.ScoreTree#setRight(int, int)
+     */
+    @Override
+    void setRight(int node, int right) {
+        putInt(node, RIGHT, right);
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.ScoreTree#size(int)
+     */
+    @Override
+    int size(int node) {
+        return getInt(node, SIZE);
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.ScoreTree#setSize(int, int)
+     */
+    @Override
+    void setSize(int node, int size) {
+        putInt(node, SIZE, size);
+    }
+
+    /**
+     * 下标超出已映射的节点块时追加映射一块
+     * @see top.daheizi.commons.stl.ScoreTree#ensureNode(int)
+     */
+    @Override
+    void ensureNode(int node) {
+        if (node >>> NODE_SHIFT == nodes.length) {
+            try {
+                mapNodeChunk();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * 将树的状态写入文件头
+     * @see top.daheizi.commons.stl.ScoreTree#saveState(int, int, int, int)
+     */
+    @Override
+    void saveState(int root, int top, int free, int nextSeq) {
+        MappedByteBuffer header = nodes[0];
+        header.putInt(H_ROOT, root);
+        header.putInt(H_TOP, top);
+        header.putInt(H_FREE, free);
+        header.putInt(H_SEQ, nextSeq);
+    }
+
+    /**
+     * 设置或清除文件头中的正常关闭标记，并写回文件头所在的节点块
+     * @param clean
+     * @Date 2026年10月18日 上午10:40:00
+     */
+    private void markClean(boolean clean) {
+        nodes[0].putInt(H_CLEAN, clean ? 1 : 0);
+        nodes[0].force();
+    }
+
+    /**
+     * 追加映射一个节点块
+     * @throws IOException
+     * @Date 2026年10月17日 下午11:57:45
+     */
+    private void mapNodeChunk() throws IOException {
+        int i = nodes.length;
+        MappedByteBuffer buffer = nodeChannel.map(MapMode.READ_WRITE,
+                (long) i << NODE_SHIFT + RECORD_SHIFT, 1L << NODE_SHIFT + RECORD_SHIFT);
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        nodes = Arrays.copyOf(nodes, i + 1);
+        nodes[i] = buffer;
+    }
+
+    /****************** 关键字索引 ***************************/
+
+    /**
+     * @see top.daheizi.commons.stl.ScoreTree#indexCapacity()
+     */
+    @Override
+    int indexCapacity() {
+        return indexCapacity;
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.ScoreTree#slot(int)
+     */
+    @Override
+    int slot(int slot) {
+        return index[slot >>> INDEX_SHIFT].getInt((slot & INDEX_MASK) << 2);
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.ScoreTree#setSlot(int, int)
+     */
+    @Override
+    void setSlot(int slot, int node) {
+        index[slot >>> INDEX_SHIFT].putInt((slot & INDEX_MASK) << 2, node);
+    }
+
+    /**
+     * 在临时文件中创建空索引，原索引文件保持不变，直到endIndex替换
+     * @see top.daheizi.commons.stl.ScoreTree#beginIndex(int)
+     */
+    @Override
+    @SuppressWarnings("resource")
+    void beginIndex(int capacity) {
+        File tmp = new File(indexFile.getPath() + ".tmp");
+        try {
+            Files.deleteIfExists(tmp.toPath());
+            FileChannel channel = new RandomAccessFile(tmp, "rw").getChannel();
+            index = mapIndex(channel, capacity);
+            tmpIndexChannel = channel;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        indexCapacity = capacity;
+    }
+
+    /**
+     * 以填充完毕的临时文件替换原索引文件
+     * @see top.daheizi.commons.stl.ScoreTree#endIndex()
+     */
+    @Override
+    void endIndex() {
+        File tmp = new File(indexFile.getPath() + ".tmp");
+        try {
+            Files.move(tmp.toPath(), indexFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            if (indexChannel != null) {
+                indexChannel.close();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        indexChannel = tmpIndexChannel;
+        tmpIndexChannel = null;
+    }
+
+    /**
+     * 映射已存在的索引文件
+     * 文件不存在、容量不是2的幂或不足以容纳全部节点时视为损坏
+     * @return 是否可用，不可用时需重建
+     * @throws IOException
+     * @Date 2026年10月18日 上午12:07:10
+     */
+    @SuppressWarnings("resource")
+    private boolean openIndex() throws IOException {
+        if (!indexFile.isFile()) {
+            return false;
+        }
+        FileChannel channel = new RandomAccessFile(indexFile, "rw").getChannel();
+        long capacity = channel.size() >>> 2;
+        if (capacity == 0 || capacity > 1 << 30 || Long.bitCount(capacity) != 1 || size() >= capacity) {
+            channel.close();
+            return false;
+        }
+        indexChannel = channel;
+        indexCapacity = (int) capacity;
+        index = mapIndex(channel, indexCapacity);
+        return true;
+    }
+
+    /**
+     * 分块映射索引文件
+     * @param channel
+     * @param capacity
+     * @return
+     * @throws IOException
+     * @Date 2026年10月18日 上午12:08:00
+     */
+    private static MappedByteBuffer[] mapIndex(FileChannel channel, int capacity) throws IOException {
+        int chunkSlots = Math.min(capacity, 1 << INDEX_SHIFT);
+        MappedByteBuffer[] buffers = new MappedByteBuffer[capacity / chunkSlots];
+        for (int i = 0; i < buffers.length; i++) {
+            buffers[i] = channel.map(MapMode.READ_WRITE, (long) i * chunkSlots << 2, (long) chunkSlots << 2);
+            buffers[i].order(ByteOrder.LITTLE_ENDIAN);
+        }
+        return buffers;
+    }
+
+
+
+    /****************** 以下为一些非必需的辅助和测试方法 ***************************/
+
+    /**
+     * 单元测试
+     * @param args
+     * @throws IOException
+     * @Date 2026年10月18日 上午12:10:00
+     */
+    public static void main(String[] args) throws IOException {
+        File file = File.createTempFile("chart", ".dat");
+        file.delete();
+        RBTreeChart<Long, Long> ref = new RBTreeChart<>();
+        Random rnd = new Random();
+        // *****测试与RBTreeChart的一致性，以及重新打开后数据不变
+        for (int round = 0; round < 3; round++) {
+            try (MappedChart chart = new MappedChart(file)) {
+                if (!chart.getSequenceList(0, ref.size()).equals(ref.getSequenceList(0, ref.size()))) {
+                    throw new RuntimeException("Reopen Not Equal !");
+                }
+                for (int i = 0; i < 100000; i++) {
+                    long key = rnd.nextInt(20000);
+                    long score = rnd.nextInt(1000);
+                    if (rnd.nextInt(4) == 0) {
+                        if (!objEquals(chart.remove(key), ref.remove(key))) {
+                            throw new RuntimeException("Remove Not Equal !");
+                        }
+                    } else if (!objEquals(chart.put(key, score), ref.put(key, score))) {
+                        throw new RuntimeException("Put Not Equal !");
+                    }
+                }
+                for (long key = 0; key < 20000; key++) {
+                    if (chart.getRank(key) != ref.getRank(key)) {
+                        throw new RuntimeException("Rank Not Equal !");
+                    }
+                }
+                int[] info = chart.getRankInfo(500L), refInfo = ref.getRankInfo(500L);
+                if (info[0] != refInfo[0] || info[1] != refInfo[1]) {
+                    throw new RuntimeException("RankInfo Not Equal !");
+                }
+                Iterator<Tuple<Long, Long>> it = chart.iterator(100);
+                Iterator<Tuple<Long, Long>> refIt = ref.iterator(100);
+                for (int i = 0; i < 1000 && it.hasNext(); i++) {
+                    if (!objEquals(it.next(), refIt.next())) {
+                        throw new RuntimeException("Iterator Not Equal !");
+                    }
+                    if (i % 3 == 0) {
+                        it.remove();
+                        refIt.remove();
+                    }
+                }
+                chart.check();
+                System.out.println("round " + round + " size=" + chart.size() + " OK");
+            }
+        }
+
+        // *****索引文件缺失、为空，或未正常关闭而索引内容失效时，从节点文件重建索引
+        File idx = new File(file.getPath() + ".idx");
+        for (int round = 0; round < 3; round++) {
+            if (round == 0) {
+                idx.delete();
+            } else if (round == 1) {
+                Files.write(idx.toPath(), new byte[0]);
+            } else {
+                MappedChart crashed = new MappedChart(file);
+                for (int i = 0; i < 10000; i++) {
+                    long key = rnd.nextInt(20000);
+                    long score = rnd.nextInt(1000);
+                    crashed.put(key, score);
+                    ref.put(key, score);
+                }
+                // 节点已写回，但未关闭，且索引内容丢失
+                crashed.force();
+                Files.write(idx.toPath(), new byte[4 << 16]);
+            }
+            try (MappedChart chart = new MappedChart(file)) {
+                if (!chart.getSequenceList(0, ref.size()).equals(ref.getSequenceList(0, ref.size()))) {
+                    throw new RuntimeException("Rebuild Index Not Equal !");
+                }
+                for (long key = 0; key < 20000; key++) {
+                    if (chart.getRank(key) != ref.getRank(key)) {
+                        throw new RuntimeException("Rebuild Index Rank Not Equal !");
+                    }
+                }
+                chart.check();
+            }
+        }
+        System.out.println("rebuild index OK");
+
+        // *****测试性能
+        int num = 2000000;
+        File bigFile = File.createTempFile("chart", ".dat");
+        bigFile.delete();
+        try (MappedChart chart = new MappedChart(bigFile, true)) {
+            long t1 = System.nanoTime();
+            for (int i = 0; i < num; i++) {
+                chart.putScore(i, rnd.nextInt(num));
+            }
+            long t2 = System.nanoTime();
+            long sum = 0;
+            for (int i = 0; i < num; i++) {
+                sum += chart.rankOf(rnd.nextInt(num));
+            }
+            long t3 = System.nanoTime();
+            for (int i = 0; i < num; i++) {
+                sum += chart.getKth(rnd.nextInt(num) + 1).left;
+            }
+            long t4 = System.nanoTime();
+            System.out.println("put: " + (t2 - t1) / num + " ns, getRank: " + (t3 - t2) / num
+                    + " ns, getKth: " + (t4 - t3) / num + " ns " + (sum > 0));
+        }
+        long t1 = System.nanoTime();
+        try (MappedChart chart = new MappedChart(bigFile, true)) {
+            long t2 = System.nanoTime();
+            System.out.println("reopen " + chart.size() + " entries: " + (t2 - t1) / 1000 + " us");
+        }
+        for (File f : new File[]{file, bigFile}) {
+            f.delete();
+            new File(f.getPath() + ".idx").delete();
+        }
+    }
+
+    /**
+     * 判断两个对象是否相等
+     * @param o1
+     * @param o2
+     * @return
+     * @Date 2026年10月18日 上午12:10:30
+     */
+    private static final boolean objEquals(Object o1, Object o2) {
+        return o1 == null ? o2 == null : o1.equals(o2);
+    }
+}
@@ -0,0 +1,719 @@
+package top.daheizi.commons.stl;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 可订阅名次变化的排行榜
+ * 客户端不必反复调用getRank轮询"是否被超越"，而是按关键字集合或名次区间订阅，
+ * 由持有者每个tick调用一次flush()，每个订阅者至多收到一批合并后的变化
+ * 同一tick内的多次put只产生一条变化，变化的旧值为订阅者上次收到的状态，新值为flush时的状态
+ * 写入时只记录本tick内被修改的最小名次，名次小于它的数据不会发生变化，flush时据此跳过不受影响的订阅
+ * 注意：内部排行榜须是线程安全的(如ConcurrentChart)，且只能通过本类修改，
+ * 监听器在调用flush()的线程中执行，且不持有任何锁
+ * @param <K>
+ * @param <V>
+ * @author daheizi
+ * @Date 2026年10月18日 上午6:40:10
+ */
+public class ObservableChart<K, V> implements IChart<K, V> {
+
+    /**
+     * 一条名次变化
+     * @param <K>
+     * @param <V>
+     * @author daheizi
+     * @Date 2026年10月18日 上午6:40:40
+     */
+    public static final class Change<K, V> {
+        /** 关键字 */
+        public final K key;
+        /** 订阅者上次收到的名次，此前不在订阅范围内时为-1 */
+        public final int oldRank;
+        /** 当前名次，已不在排行榜内时为-1 */
+        public final int newRank;
+        /** 订阅者上次收到的值，此前不在订阅范围内时为null */
+        public final V oldValue;
+        /** 当前值，已不在排行榜内时为null */
+        public final V newValue;
+
+        /**
+         * 构造函数
+         * @param key
+         * @param oldRank
+         * @param newRank
+         * @param oldValue
+         * @param newValue
+         */
+        Change(K key, int oldRank, int newRank, V oldValue, V newValue) {
+            this.key = key;
+            this.oldRank = oldRank;
+            this.newRank = newRank;
+            this.oldValue = oldValue;
+            this.newValue = newValue;
+        }
+
+        /**
+         * @see java.lang.Object#toString()
+         */
+        @Override
+        public String toString() {
+            return "[key=" + key + ", rank=" + oldRank + "->" + newRank
+                    + ", value=" + oldValue + "->" + newValue + "]";
+        }
+    }
+
+    /**
+     * 名次变化的监听器
+     * @param <K>
+     * @param <V>
+     * @author daheizi
+     * @Date 2026年10月18日 上午6:41:20
+     */
+    @FunctionalInterface
+    public interface Listener<K, V> {
+
+        /**
+         * 接收一个tick内合并后的变化，每个关键字至多一条
+         * @param changes 非空
+         * @Date 2026年10月18日 上午6:41:40
+         */
+        void onChange(List<Change<K, V>> changes);
+    }
+
+    /**
+     * 订阅
+     * @author daheizi
+     * @Date 2026年10月18日 上午6:42:00
+     */
+    public abstract class Subscription {
+
+        /** 监听器 */
+        final Listener<K, V> listener;
+
+        /**
+         * 构造函数
+         * @param listener
+         */
+        Subscription(Listener<K, V> listener) {
+            this.listener = listener;
+        }
+
+        /**
+         * 根据本tick的修改收集变化，持有写锁时调用
+         * @param minRank 本tick内被修改的最小名次
+         * @param keys 本tick内被修改的关键字
+         * @param changes
+         * @Date 2026年10月18日 上午6:42:30
+         */
+        abstract void collect(int minRank, Set<K> keys, List<Change<K, V>> changes);
+
+        /**
+         * 取消订阅，之后不再收到通知
+         * @Date 2026年10月18日 上午6:43:00
+         */
+        public void cancel() {
+            wl.lock();
+            try {
+                subscriptions.remove(this);
+            } finally {
+                wl.unlock();
+            }
+        }
+    }
+
+    /**
+     * 按关键字集合订阅，关注的关键字名次或值变化时通知
+     * @author daheizi
+     * @Date 2026年10月18日 上午6:43:30
+     */
+    private final class KeySubscription extends Subscription {
+
+        /** 关注的关键字及上次通知的<名次，值> */
+        private final Map<K, Tuple<Integer, V>> known = new LinkedHashMap<>();
+
+        /**
+         * 构造函数
+         * @param keys
+         * @param listener
+         */
+        KeySubscription(Collection<? extends K> keys, Listener<K, V> listener) {
+            super(listener);
+            for (K key : keys) {
+                known.put(key, chart.search(key));
+            }
+        }
+
+        /**
+         * 名次小于minRank且未被修改的关键字保持不变
+         * @see top.daheizi.commons.stl.ObservableChart.Subscription#collect(int, java.util.Set, java.util.List)
+         */
+        @Override
+        void collect(int minRank, Set<K> keys, List<Change<K, V>> changes) {
+            for (Map.Entry<K, Tuple<Integer, V>> e : known.entrySet()) {
+                Tuple<Integer, V> old = e.getValue();
+                if (old.left == -1 ? !keys.contains(e.getKey()) : old.left < minRank) {
+                    continue;
+                }
+                Tuple<Integer, V> now = chart.search(e.getKey());
+                if (!now.left.equals(old.left) || !Objects.equals(now.right, old.right)) {
+                    changes.add(new Change<>(e.getKey(), old.left, now.left, old.right, now.right));
+                    e.setValue(now);
+                }
+            }
+        }
+    }
+
+    /**
+     * 按名次区间订阅，区间内任一名次上的数据变化时通知，包括进入和离开区间的数据
+     * @author daheizi
+     * @Date 2026年10月18日 上午6:44:30
+     */
+    private final class RangeSubscription extends Subscription {
+
+        /** 起始名次(包含) */
+        private final int start;
+
+        /** 终止名次(包含) */
+        private final int end;
+
+        /** 上次通知时区间内的数据 */
+        private List<Tuple<K, V>> window;
+
+        /**
+         * 构造函数
+         * @param start
+         * @param end
+         * @param listener
+         */
+        RangeSubscription(int start, int end, Listener<K, V> listener) {
+            super(listener);
+            this.start = start < 1 ? 1 : start;
+            this.end = end;
+            this.window = chart.getSequenceList(this.start, end);
+        }
+
+        /**
+         * 被修改的最小名次超过区间时区间不变
+         * @see top.daheizi.commons.stl.ObservableChart.Subscription#collect(int, java.util.Set, java.util.List)
+         */
+        @Override
+        void collect(int minRank, Set<K> keys, List<Change<K, V>> changes) {
+            if (minRank > end) {
+                return;
+            }
+            List<Tuple<K, V>> now = chart.getSequenceList(start, end);
+            Map<K, Integer> oldIndex = new HashMap<>(window.size() * 2);
+            for (int i = 0; i < window.size(); i++) {
+                oldIndex.put(window.get(i).left, i);
+            }
+            Set<K> stay = new HashSet<>(now.size() * 2);
+            for (int i = 0; i < now.size(); i++) {
+                Tuple<K, V> t = now.get(i);
+                stay.add(t.left);
+                Integer j = oldIndex.get(t.left);
+                if (j == null) {
+                    changes.add(new Change<>(t.left, -1, start + i, null, t.right));
+                } else if (j != i || !Objects.equals(window.get(j).right, t.right)) {
+                    changes.add(new Change<>(t.left, start + j, start + i, window.get(j).right, t.right));
+                }
+            }
+            for (int j = 0; j < window.size(); j++) {
+                Tuple<K, V> t = window.get(j);
+                if (!stay.contains(t.left)) {
+                    Tuple<Integer, V> s = chart.search(t.left);
+                    changes.add(new Change<>(t.left, start + j, s.left, t.right, s.right));
+                }
+            }
+            window = now;
+        }
+    }
+
+    /** 内部排行榜Chart */
+    private final IChart<K, V> chart;
+
+    /** 写锁，保证修改记录与内部排行榜一致 */
+    private final ReentrantLock wl = new ReentrantLock();
+
+    /** 订阅，仅在持有写锁时访问 */
+    private final List<Subscription> subscriptions = new ArrayList<>();
+
+    /** 本tick内被修改的最小名次，仅在持有写锁时访问 */
+    private int minRank = Integer.MAX_VALUE;
+
+    /** 本tick内被修改的关键字，仅在持有写锁时访问 */
+    private final Set<K> dirtyKeys = new HashSet<>();
+
+    /**
+     * 构造函数
+     * @param chart 线程安全的内部排行榜
+     */
+    public ObservableChart(IChart<K, V> chart) {
+        this.chart = chart;
+    }
+
+    /**
+     * 按关键字集合订阅
+     * @param keys
+     * @param listener
+     * @return
+     * @Date 2026年10月18日 上午6:46:00
+     */
+    public Subscription subscribeKeys(Collection<? extends K> keys, Listener<K, V> listener) {
+        wl.lock();
+        try {
+            Subscription s = new KeySubscription(keys, listener);
+            subscriptions.add(s);
+            return s;
+        } finally {
+            wl.unlock();
+        }
+    }
+
+    /**
+     * 按名次区间订阅，如前10名的变化
+     * @param start 起始名次(包含)
+     * @param end 终止名次(包含)
+     * @param listener
+     * @return
+     * @Date 2026年10月18日 上午6:46:30
+     */
+    public Subscription subscribeRange(int start, int end, Listener<K, V> listener) {
+        wl.lock();
+        try {
+            Subscription s = new RangeSubscription(start, end, listener);
+            subscriptions.add(s);
+            return s;
+        } finally {
+            wl.unlock();
+        }
+    }
+
+    /**
+     * 收集本tick内的变化并通知订阅者，一般每个tick调用一次
+     * @return 通知的变化数目
+     * @Date 2026年10月18日 上午6:47:00
+     */
+    public int flush() {
+        List<Subscription> notified = new ArrayList<>();
+        List<List<Change<K, V>>> batches = new ArrayList<>();
+        wl.lock();
+        try {
+            if (minRank == Integer.MAX_VALUE) {
+                return 0;
+            }
+            for (Subscription s : subscriptions) {
+                List<Change<K, V>> changes = new ArrayList<>();
+                s.collect(minRank, dirtyKeys, changes);
+                if (!changes.isEmpty()) {
+                    notified.add(s);
+                    batches.add(changes);
+                }
+            }
+            minRank = Integer.MAX_VALUE;
+            dirtyKeys.clear();
+        } finally {
+            wl.unlock();
+        }
+        int count = 0;
+        for (int i = 0; i < notified.size(); i++) {
+            notified.get(i).listener.onChange(batches.get(i));
+            count += batches.get(i).size();
+        }
+        return count;
+    }
+
+    /**
+     * 记录一次修改，持有写锁时调用
+     * @param key
+     * @param rank 修改前或修改后的名次，-1时忽略
+     * @Date 2026年10月18日 上午6:48:00
+     */
+    private void touch(K key, int rank) {
+        if (rank != -1 && rank < minRank) {
+            minRank = rank;
+        }
+        dirtyKeys.add(key);
+    }
+
+    /**
+     * 没有订阅时不记录修改，否则需额外查询修改前后的名次
+     * @see top.daheizi.commons.stl.IChart#put(java.lang.Object, java.lang.Object)
+     */
+    @Override
+    public V put(K key, V value) {
+        wl.lock();
+        try {
+            if (subscriptions.isEmpty()) {
+                return chart.put(key, value);
+            }
+            touch(key, chart.getRank(key));
+            V old = chart.put(key, value);
+            touch(key, chart.getRank(key));
+            return old;
+        } finally {
+            wl.unlock();
+        }
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.IChart#remove(java.lang.Object)
+     */
+    @Override
+    public V remove(K key) {
+        wl.lock();
+        try {
+            if (subscriptions.isEmpty()) {
+                return chart.remove(key);
+            }
+            touch(key, chart.getRank(key));
+            return chart.remove(key);
+        } finally {
+            wl.unlock();
+        }
+    }
+
+    /**
+     * 批量修改后所有订阅都需要重新检查
+     * @see top.daheizi.commons.stl.IChart#putAll(java.util.Map)
+     */
+    @Override
+    public void putAll(Map<? extends K, ? extends V> map) {
+        wl.lock();
+        try {
+            chart.putAll(map);
+            if (!subscriptions.isEmpty()) {
+                minRank = 1;
+                dirtyKeys.addAll(map.keySet());
+            }
+        } finally {
+            wl.unlock();
+        }
+    }
+
+    /**
+     * 批量修改后所有订阅都需要重新检查
+     * @see top.daheizi.commons.stl.IChart#removeAll(java.util.Collection)
+     */
+    @Override
+    public int removeAll(Collection<? extends K> keys) {
+        wl.lock();
+        try {
+            int count = chart.removeAll(keys);
+            if (!subscriptions.isEmpty()) {
+                minRank = 1;
+                dirtyKeys.addAll(keys);
+            }
+            return count;
+        } finally {
+            wl.unlock();
+        }
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.IChart#clear()
+     */
+    @Override
+    public void clear() {
+        wl.lock();
+        try {
+            chart.clear();
+            if (!subscriptions.isEmpty()) {
+                minRank = 1;
+            }
+        } finally {
+            wl.unlock();
+        }
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.IChart#get(java.lang.Object)
+     */
+    @Override
+    public V get(K key) {
+        return chart.get(key);
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.IChart#containsKey(java.lang.Object)
+     */
+    @Override
+    public boolean containsKey(K key) {
+        return chart.containsKey(key);
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.IChart#size()
+     */
+    @Override
+    public int size() {
+        return chart.size();
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.IChart#getRank(java.lang.Object)
+     */
+    @Override
+    public int getRank(K key) {
+        return chart.getRank(key);
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.IChart#search(java.lang.Object)
+     */
+    @Override
+    public Tuple<Integer, V> search(K key) {
+        return chart.search(key);
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.IChart#getKth(int)
+     */
+    @Override
+    public Tuple<K, V> getKth(int kth) {
+        return chart.getKth(kth);
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.IChart#getRankInfo(java.lang.Object)
+     */
+    @Override
+    public int[] getRankInfo(V value) {
+        return chart.getRankInfo(value);
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.IChart#iterator()
+     */
+    @Override
+    public Iterator<Tuple<K, V>> iterator() {
+        return chart.iterator();
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.IChart#iterator(int)
+     */
+    @Override
+    public Iterator<Tuple<K, V>> iterator(int kth) {
+        return chart.iterator(kth);
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.IChart#getSequenceList(int, int)
+     */
+    @Override
+    public List<Tuple<K, V>> getSequenceList(int start, int end) {
+        return chart.getSequenceList(start, end);
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.IChart#getListByPage(int, int)
+     */
+    @Override
+    public List<Tuple<K, V>> getListByPage(int pageSize, int page) {
+        return chart.getListByPage(pageSize, page);
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.IChart#getRangeList(java.lang.Object, java.lang.Object)
+     */
+    @Override
+    public List<Tuple<K, V>> getRangeList(V low, V high) {
+        return chart.getRangeList(low, high);
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.IChart#getSurroundedByKey(java.lang.Object, int, int)
+     */
+    @Override
+    public List<Tuple<K, V>> getSurroundedByKey(K key, int left, int right) {
+        return chart.getSurroundedByKey(key, left, right);
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.IChart#getDescendingList(int, int)
+     */
+    @Override
+    public List<Tuple<K, V>> getDescendingList(int start, int end) {
+        return chart.getDescendingList(start, end);
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.IChart#getDescendingRangeList(java.lang.Object, java.lang.Object)
+     */
+    @Override
+    public List<Tuple<K, V>> getDescendingRangeList(V low, V high) {
+        return chart.getDescendingRangeList(low, high);
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.IChart#forEachDescending(int, int, top.daheizi.commons.stl.ChartVisitor)
+     */
+    @Override
+    public int forEachDescending(int start, int end, ChartVisitor<? super K, ? super V> visitor) {
+        return chart.forEachDescending(start, end, visitor);
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.IChart#forEachInRange(int, int, top.daheizi.commons.stl.ChartVisitor)
+     */
+    @Override
+    public int forEachInRange(int start, int end, ChartVisitor<? super K, ? super V> visitor) {
+        return chart.forEachInRange(start, end, visitor);
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.IChart#forEachInValueRange(java.lang.Object, java.lang.Object, top.daheizi.commons.stl.ChartVisitor)
+     */
+    @Override
+    public int forEachInValueRange(V low, V high, ChartVisitor<? super K, ? super V> visitor) {
+        return chart.forEachInValueRange(low, high, visitor);
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.IChart#forEachSurrounded(java.lang.Object, int, int, top.daheizi.commons.stl.ChartVisitor)
+     */
+    @Override
+    public int forEachSurrounded(K key, int left, int right, ChartVisitor<? super K, ? super V> visitor) {
+        return chart.forEachSurrounded(key, left, right, visitor);
+    }
+
+
+
+    /****************** 以下为一些非必需的辅助和测试方法 ***************************/
+
+    /**
+     * 单元测试
+     * @param args
+     * @Date 2026年10月18日 上午6:50:00
+     */
+    public static void main(String[] args) {
+        // *****测试正确性，订阅者按收到的变化维护的视图须与排行榜一致
+        ObservableChart<Integer, Integer> chart = new ObservableChart<>(
+                new ConcurrentChart<>(new RBTreeChart<Integer, Integer>()));
+        Random random = new Random();
+        int num = 20000;
+        for (int i = 0; i < num; i++) {
+            chart.put(i, random.nextInt(100000));
+        }
+        Set<Integer> watched = new HashSet<>();
+        for (int i = 0; i < 100; i++) {
+            watched.add(random.nextInt(num + 100));
+        }
+        Map<Integer, Tuple<Integer, Integer>> keyView = new HashMap<>();
+        for (Integer key : watched) {
+            keyView.put(key, chart.search(key));
+        }
+        Map<Integer, Tuple<Integer, Integer>> topView = new HashMap<>();
+        for (Tuple<Integer, Integer> t : chart.getSequenceList(1, 10)) {
+            topView.put(t.left, new Tuple<>(chart.getRank(t.left), t.right));
+        }
+        int[] calls = new int[2];
+        ObservableChart<Integer, Integer>.Subscription s1 = chart.subscribeKeys(watched, changes -> {
+            calls[0]++;
+            Set<Integer> seen = new HashSet<>();
+            for (Change<Integer, Integer> c : changes) {
+                Tuple<Integer, Integer> old = keyView.get(c.key);
+                if (!seen.add(c.key) || old.left != c.oldRank || !Objects.equals(old.right, c.oldValue)) {
+                    throw new RuntimeException("Key Change Not Equal ! " + c);
+                }
+                keyView.put(c.key, new Tuple<>(c.newRank, c.newValue));
+            }
+        });
+        ObservableChart<Integer, Integer>.Subscription s2 = chart.subscribeRange(1, 10, changes -> {
+            calls[1]++;
+            for (Change<Integer, Integer> c : changes) {
+                topView.remove(c.key);
+                if (c.newRank != -1 && c.newRank <= 10) {
+                    topView.put(c.key, new Tuple<>(c.newRank, c.newValue));
+                }
+            }
+        });
+        int ticks = 2000;
+        int events = 0;
+        for (int tick = 0; tick < ticks; tick++) {
+            // 每个tick一批写入，部分tick提高前几名的分数
+            int writes = random.nextInt(50);
+            for (int i = 0; i < writes; i++) {
+                int key = random.nextInt(num + 100);
+                int r = random.nextInt(100);
+                if (r < 5) {
+                    chart.remove(key);
+                } else if (r < 10) {
+                    chart.put(key, random.nextInt(100));
+                } else {
+                    chart.put(key, random.nextInt(100000));
+                }
+            }
+            if (tick % 500 == 499) {
+                Map<Integer, Integer> batch = new HashMap<>();
+                for (int i = 0; i < 100; i++) {
+                    batch.put(random.nextInt(num + 100), random.nextInt(100000));
+                }
+                chart.putAll(batch);
+            }
+            events += chart.flush();
+            for (Integer key : watched) {
+                if (!keyView.get(key).equals(chart.search(key))) {
+                    throw new RuntimeException("Key View Not Equal ! " + key);
+                }
+            }
+            List<Tuple<Integer, Integer>> top = chart.getSequenceList(1, 10);
+            if (top.size() != topView.size()) {
+                throw new RuntimeException("Top View Size Not Equal ! " + tick);
+            }
+            for (int i = 0; i < top.size(); i++) {
+                Tuple<Integer, Integer> t = topView.get(top.get(i).left);
+                if (t == null || t.left != i + 1 || !t.right.equals(top.get(i).right)) {
+                    throw new RuntimeException("Top View Not Equal ! " + tick);
+                }
+            }
+        }
+        if (calls[0] > ticks || calls[1] > ticks) {
+            throw new RuntimeException("Not Coalesced !");
+        }
+        System.out.println("ticks=" + ticks + ", events=" + events + ", key notifications=" + calls[0]
+                + ", top10 notifications=" + calls[1] + " OK");
+
+        s1.cancel();
+        s2.cancel();
+
+        // *****订阅与轮询的对比，100个客户端各自关注前10名
+        int clients = 100;
+        long ns = System.nanoTime();
+        long polls = 0;
+        for (int tick = 0; tick < ticks; tick++) {
+            for (int i = 0; i < 20; i++) {
+                chart.put(random.nextInt(num), random.nextInt(100000));
+            }
+            for (int c = 0; c < clients; c++) {
+                polls += chart.getSequenceList(1, 10).size();
+            }
+        }
+        long pollNs = System.nanoTime() - ns;
+        long[] pushed = new long[1];
+        for (int c = 0; c < clients; c++) {
+            chart.subscribeRange(1, 10, changes -> pushed[0] += changes.size());
+        }
+        ns = System.nanoTime();
+        for (int tick = 0; tick < ticks; tick++) {
+            for (int i = 0; i < 20; i++) {
+                chart.put(random.nextInt(num), random.nextInt(100000));
+            }
+            chart.flush();
+        }
+        long pushNs = System.nanoTime() - ns;
+        System.out.println("轮询: " + polls + "条数据, 耗时(ms): " + pollNs / 1000000
+                + "; 订阅: 推送" + pushed[0] + "条变化, 耗时(ms): " + pushNs / 1000000);
+    }
+}
@@ -0,0 +1,850 @@
+package top.daheizi.commons.stl;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * 分区排行榜
+ * 数据按关键字的hash分布在多个分区中，每个分区可以是本进程内的排行榜，也可以是其他节点上排行榜的代理，
+ * 对外表现为一个逻辑上的IChart
+ * put/remove只发往关键字所在的分区，跨分区的查询以分散-收集(scatter-gather)的方式并行请求所有分区：
+ * getRank 由所在分区返回值后，累加其他分区中排在该值之前的数据量
+ * getKth/分页 先以多路选择确定各分区的起始名次，再一轮并行取回各分区的数据后归并
+ * 值相等的数据，先按分区序号排序，同一分区内再按分区自身的规则排序
+ * 跨分区的查询不是快照，查询期间若有写入，结果可能少量重复或遗漏，写入停止后结果精确
+ * 线程安全性取决于各分区
+ * @param <K>
+ * @param <V>
+ * @author daheizi
+ * @Date 2026年10月18日 上午6:20:10
+ */
+public class PartitionedChart<K, V> implements IChart<K, V> {
+
+    /**
+     * 分区，即一个节点上的局部排行榜
+     * 远程实现中每个方法对应一次请求，因此批量接口应在一次请求内完成
+     * @param <K>
+     * @param <V>
+     * @author daheizi
+     * @Date 2026年10月18日 上午6:20:40
+     */
+    public interface Partition<K, V> {
+
+        /**
+         * @see top.daheizi.commons.stl.IChart#put(java.lang.Object, java.lang.Object)
+         */
+        V put(K key, V value);
+
+        /**
+         * @see top.daheizi.commons.stl.IChart#remove(java.lang.Object)
+         */
+        V remove(K key);
+
+        /**
+         * @see top.daheizi.commons.stl.IChart#putAll(java.util.Map)
+         */
+        void putAll(Map<? extends K, ? extends V> map);
+
+        /**
+         * @see top.daheizi.commons.stl.IChart#removeAll(java.util.Collection)
+         */
+        int removeAll(Collection<? extends K> keys);
+
+        /**
+         * @see top.daheizi.commons.stl.IChart#get(java.lang.Object)
+         */
+        V get(K key);
+
+        /**
+         * @see top.daheizi.commons.stl.IChart#size()
+         */
+        int size();
+
+        /**
+         * @see top.daheizi.commons.stl.IChart#clear()
+         */
+        void clear();
+
+        /**
+         * @see top.daheizi.commons.stl.IChart#search(java.lang.Object)
+         */
+        Tuple<Integer, V> search(K key);
+
+        /**
+         * 批量查询名次信息
+         * @param values
+         * @return 与values一一对应的 {值<value的数目，值<=value的数目}
+         * @Date 2026年10月18日 上午6:21:20
+         */
+        int[][] getRankInfos(List<V> values);
+
+        /**
+         * @see top.daheizi.commons.stl.IChart#getSequenceList(int, int)
+         */
+        List<Tuple<K, V>> getSequenceList(int start, int end);
+    }
+
+    /**
+     * 将本进程内的排行榜包装为分区
+     * @param chart 多线程访问时应使用线程安全的排行榜
+     * @return
+     * @Date 2026年10月18日 上午6:22:00
+     */
+    public static <K, V> Partition<K, V> local(IChart<K, V> chart) {
+        return new Partition<K, V>() {
+            @Override
+            public V put(K key, V value) {
+                return chart.put(key, value);
+            }
+
+            @Override
+            public V remove(K key) {
+                return chart.remove(key);
+            }
+
+            @Override
+            public void putAll(Map<? extends K, ? extends V> map) {
+                chart.putAll(map);
+            }
+
+            @Override
+            public int removeAll(Collection<? extends K> keys) {
+                return chart.removeAll(keys);
+            }
+
+            @Override
+            public V get(K key) {
+                return chart.get(key);
+            }
+
+            @Override
+            public int size() {
+                return chart.size();
+            }
+
+            @Override
+            public void clear() {
+                chart.clear();
+            }
+
+            @Override
+            public Tuple<Integer, V> search(K key) {
+                return chart.search(key);
+            }
+
+            @Override
+            public int[][] getRankInfos(List<V> values) {
+                int[][] infos = new int[values.size()][];
+                for (int i = 0; i < infos.length; i++) {
+                    infos[i] = chart.getRankInfo(values.get(i));
+                }
+                return infos;
+            }
+
+            @Override
+            public List<Tuple<K, V>> getSequenceList(int start, int end) {
+                return chart.getSequenceList(start, end);
+            }
+        };
+    }
+
+    /** 迭代器每次从各分区取回的数据量 */
+    private static final int ITERATOR_BATCH = 256;
+
+    /** 分区 */
+    private final List<Partition<K, V>> partitions;
+
+    /** 比较器 */
+    private final Comparator<? super V> comparator;
+
+    /** 并行请求各分区的线程池，为null时在调用线程中依次请求 */
+    private final ExecutorService executor;
+
+    /**
+     * 构造函数
+     * @param partitions 分区，顺序决定关键字的路由，各节点上须保持一致
+     * @param comparator 须与各分区的排序规则一致，为null时使用值的自身排序规则
+     * @param executor 并行请求各分区的线程池，为null时在调用线程中依次请求
+     */
+    public PartitionedChart(List<? extends Partition<K, V>> partitions, Comparator<? super V> comparator,
+            ExecutorService executor) {
+        if (partitions.isEmpty()) {
+            throw new IllegalArgumentException("partitions is empty");
+        }
+        this.partitions = new ArrayList<>(partitions);
+        this.comparator = comparator;
+        this.executor = executor;
+    }
+
+    /**
+     * 比较两个值的大小
+     * @param v1
+     * @param v2
+     * @return
+     * @Date 2026年10月18日 上午6:23:10
+     */
+    @SuppressWarnings("unchecked")
+    private int compare(V v1, V v2) {
+        return comparator == null ? ((Comparable<? super V>)v1).compareTo(v2)
+                : comparator.compare(v1, v2);
+    }
+
+    /**
+     * 返回关键字所在的分区序号
+     * @param key
+     * @return
+     * @Date 2026年10月18日 上午6:23:30
+     */
+    private int partitionOf(K key) {
+        int h = key.hashCode();
+        h ^= h >>> 16;
+        return (h & 0x7fffffff) % partitions.size();
+    }
+
+    /**
+     * 向所有分区并行发出请求，等待全部返回
+     * @param request 参数为分区序号
+     * @return 与分区一一对应的结果
+     * @Date 2026年10月18日 上午6:24:00
+     */
+    private <T> List<T> scatter(Function<Integer, T> request) {
+        int n = partitions.size();
+        List<T> results = new ArrayList<>(n);
+        if (executor == null || n == 1) {
+            for (int i = 0; i < n; i++) {
+                results.add(request.apply(i));
+            }
+            return results;
+        }
+        List<CompletableFuture<T>> futures = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            int index = i;
+            futures.add(CompletableFuture.supplyAsync(() -> request.apply(index), executor));
+        }
+        try {
+            for (CompletableFuture<T> f : futures) {
+                results.add(f.join());
+            }
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+        return results;
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.IChart#put(java.lang.Object, java.lang.Object)
+     */
+    @Override
+    public V put(K key, V value) {
+        return partitions.get(partitionOf(key)).put(key, value);
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.IChart#remove(java.lang.Object)
+     */
+    @Override
+    public V remove(K key) {
+        return partitions.get(partitionOf(key)).remove(key);
+    }
+
+    /**
+     * 按分区拆分批量数据，每个分区只请求一次
+     * @see top.daheizi.commons.stl.IChart#putAll(java.util.Map)
+     */
+    @Override
+    public void putAll(Map<? extends K, ? extends V> map) {
+        List<Map<K, V>> parts = new ArrayList<>(partitions.size());
+        for (int i = 0; i < partitions.size(); i++) {
+            parts.add(new LinkedHashMap<>());
+        }
+        for (Map.Entry<? extends K, ? extends V> e : map.entrySet()) {
+            parts.get(partitionOf(e.getKey())).put(e.getKey(), e.getValue());
+        }
+        scatter(i -> {
+            if (!parts.get(i).isEmpty()) {
+                partitions.get(i).putAll(parts.get(i));
+            }
+            return null;
+        });
+    }
+
+    /**
+     * 按分区拆分批量数据，每个分区只请求一次
+     * @see top.daheizi.commons.stl.IChart#removeAll(java.util.Collection)
+     */
+    @Override
+    public int removeAll(Collection<? extends K> keys) {
+        List<List<K>> parts = new ArrayList<>(partitions.size());
+        for (int i = 0; i < partitions.size(); i++) {
+            parts.add(new ArrayList<>());
+        }
+        for (K key : keys) {
+            parts.get(partitionOf(key)).add(key);
+        }
+        int count = 0;
+        for (int c : scatter(i -> parts.get(i).isEmpty() ? 0 : partitions.get(i).removeAll(parts.get(i)))) {
+            count += c;
+        }
+        return count;
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.IChart#get(java.lang.Object)
+     */
+    @Override
+    public V get(K key) {
+        return partitions.get(partitionOf(key)).get(key);
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.IChart#containsKey(java.lang.Object)
+     */
+    @Override
+    public boolean containsKey(K key) {
+        return get(key) != null;
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.IChart#size()
+     */
+    @Override
+    public int size() {
+        int size = 0;
+        for (int s : scatter(i -> partitions.get(i).size())) {
+            size += s;
+        }
+        return size;
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.IChart#clear()
+     */
+    @Override
+    public void clear() {
+        scatter(i -> {
+            partitions.get(i).clear();
+            return null;
+        });
+    }
+
+    /**
+     * 所在分区返回局部名次和值后，累加其他分区中排在该值之前的数据量
+     * @see top.daheizi.commons.stl.IChart#getRank(java.lang.Object)
+     */
+    @Override
+    public int getRank(K key) {
+        return search(key).left;
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.IChart#search(java.lang.Object)
+     */
+    @Override
+    public Tuple<Integer, V> search(K key) {
+        int index = partitionOf(key);
+        Tuple<Integer, V> local = partitions.get(index).search(key);
+        if (local.left == -1) {
+            return local;
+        }
+        List<V> values = Collections.singletonList(local.right);
+        List<int[][]> infos = scatter(i -> i == index ? null : partitions.get(i).getRankInfos(values));
+        int rank = local.left;
+        for (int i = 0; i < infos.size(); i++) {
+            if (i != index) {
+                // 值相等时，序号较小的分区排在前面
+                rank += i < index ? infos.get(i)[0][1] : infos.get(i)[0][0];
+            }
+        }
+        return new Tuple<>(rank, local.right);
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.IChart#getRankInfo(java.lang.Object)
+     */
+    @Override
+    public int[] getRankInfo(V value) {
+        List<V> values = Collections.singletonList(value);
+        int[] info = new int[]{0, 0};
+        for (int[][] pi : scatter(i -> partitions.get(i).getRankInfos(values))) {
+            info[0] += pi[0][0];
+            info[1] += pi[0][1];
+        }
+        return info;
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.IChart#getKth(int)
+     */
+    @Override
+    public Tuple<K, V> getKth(int kth) {
+        List<Tuple<K, V>> list = getSequenceList(kth, kth);
+        return list.isEmpty() ? null : list.get(0);
+    }
+
+    /**
+     * 多路选择，将全局的前k个数据按分区划分
+     * 与ShardedChart每轮只取一个候选数据不同，每轮在所有分区的候选窗口中各取一个候选数据，
+     * 由各分区一次性返回这些候选数据的名次信息，以减少请求的轮数
+     * 每个候选数据的全局名次 = 其在所在分区的名次 + 其他分区中排在其之前的数据量，再据此收缩所有分区的候选窗口
+     * @param sizes 各分区的数据量
+     * @param k [0, 数据总量]
+     * @return 各分区中属于全局前k个的数据量，总和为k
+     * @Date 2026年10月18日 上午6:26:00
+     */
+    private int[] split(int[] sizes, int k) {
+        int n = sizes.length;
+        int[] lo = new int[n];
+        int[] hi = sizes.clone();
+        int total = 0;
+        for (int size : sizes) {
+            total += size;
+        }
+        if (k <= 0) {
+            return lo;
+        } else if (k >= total) {
+            return hi;
+        }
+        for (int round = 0; ; round++) {
+            long sumLo = 0, sumHi = 0;
+            for (int i = 0; i < n; i++) {
+                sumLo += lo[i];
+                sumHi += hi[i];
+            }
+            // 数据按hash分布，各分区中的目标位置大致在窗口的同一比例处，偶数轮按比例插值，奇数轮取中位数保证收敛
+            double ratio = sumHi > sumLo ? (double) (k - sumLo) / (sumHi - sumLo) : 0.5;
+            List<Integer> owners = new ArrayList<>();
+            List<Integer> mids = new ArrayList<>();
+            for (int i = 0; i < n; i++) {
+                if (lo[i] < hi[i]) {
+                    owners.add(i);
+                    int mid = (round & 1) == 0 ? lo[i] + (int) ((hi[i] - lo[i]) * ratio) : (lo[i] + hi[i]) >>> 1;
+                    mids.add(Math.min(mid, hi[i] - 1));
+                }
+            }
+            if (owners.isEmpty()) {
+                // 查询期间有写入时可能无法精确收敛
+                return lo;
+            }
+            List<List<Tuple<K, V>>> pivots = scatter(i -> {
+                int c = owners.indexOf(i);
+                if (c == -1) {
+                    return Collections.emptyList();
+                }
+                int mid = mids.get(c);
+                return partitions.get(i).getSequenceList(mid + 1, mid + 1);
+            });
+            List<V> values = new ArrayList<>(owners.size());
+            for (int c = 0; c < owners.size(); c++) {
+                List<Tuple<K, V>> pivot = pivots.get(owners.get(c));
+                if (pivot.isEmpty()) {
+                    // 查询期间分区缩小了
+                    return lo;
+                }
+                values.add(pivot.get(0).right);
+            }
+            List<int[][]> infos = scatter(i -> partitions.get(i).getRankInfos(values));
+            boolean changed = false;
+            for (int c = 0; c < owners.size(); c++) {
+                int j = owners.get(c);
+                int mid = mids.get(c);
+                // 计算各分区中排在候选数据之前(包括其自身)的数据量
+                int[] cut = new int[n];
+                int pos = 0;
+                for (int i = 0; i < n; i++) {
+                    int[] info = infos.get(i)[c];
+                    cut[i] = i == j ? mid + 1 : (i < j ? info[1] : info[0]);
+                    cut[i] = Math.max(0, Math.min(sizes[i], cut[i]));
+                    pos += cut[i];
+                }
+                if (pos == k) {
+                    return cut;
+                } else if (pos > k) {
+                    // 第k个数据位于候选数据之前
+                    for (int i = 0; i < n; i++) {
+                        int h = i == j ? mid : cut[i];
+                        if (h < hi[i]) {
+                            hi[i] = h;
+                            changed = true;
+                        }
+                    }
+                } else {
+                    // 第k个数据位于候选数据之后
+                    for (int i = 0; i < n; i++) {
+                        if (cut[i] > lo[i]) {
+                            lo[i] = cut[i];
+                            changed = true;
+                        }
+                    }
+                }
+            }
+            for (int i = 0; i < n; i++) {
+                if (lo[i] > hi[i]) {
+                    // 查询期间有写入，各分区的名次信息相互矛盾
+                    return lo;
+                }
+            }
+            if (!changed) {
+                return lo;
+            }
+        }
+    }
+
+    /**
+     * 从给定的划分位置开始，各分区并行取回至多count个数据，再多路归并
+     * @param cut 各分区的起始名次
+     * @param count
+     * @return
+     * @Date 2026年10月18日 上午6:28:30
+     */
+    private List<Tuple<K, V>> merge(int[] cut, int count) {
+        int n = partitions.size();
+        List<List<Tuple<K, V>>> parts = scatter(i -> partitions.get(i).getSequenceList(cut[i] + 1, cut[i] + count));
+        List<Tuple<K, V>> list = new ArrayList<>(count);
+        int[] pos = new int[n];
+        while (list.size() < count) {
+            int min = -1;
+            for (int i = 0; i < n; i++) {
+                if (pos[i] < parts.get(i).size() && (min == -1
+                        // 值相等时取序号较小的分区
+                        || compare(parts.get(i).get(pos[i]).right, parts.get(min).get(pos[min]).right) < 0)) {
+                    min = i;
+                }
+            }
+            if (min == -1) {
+                break;
+            }
+            list.add(parts.get(min).get(pos[min]++));
+        }
+        return list;
+    }
+
+    /**
+     * 返回各分区的数据量
+     * @return
+     * @Date 2026年10月18日 上午6:29:00
+     */
+    private int[] sizes() {
+        List<Integer> list = scatter(i -> partitions.get(i).size());
+        int[] sizes = new int[list.size()];
+        for (int i = 0; i < sizes.length; i++) {
+            sizes[i] = list.get(i);
+        }
+        return sizes;
+    }
+
+    /**
+     * 分批从各分区取回数据
+     * @see top.daheizi.commons.stl.IChart#iterator()
+     */
+    @Override
+    public Iterator<Tuple<K, V>> iterator() {
+        return iterator(0);
+    }
+
+    /**
+     * 分批从各分区取回数据，迭代器不支持remove
+     * @see top.daheizi.commons.stl.IChart#iterator(int)
+     */
+    @Override
+    public Iterator<Tuple<K, V>> iterator(int kth) {
+        return new Iterator<Tuple<K, V>>() {
+            private int next = kth + 1;
+            private List<Tuple<K, V>> batch = Collections.emptyList();
+            private int pos;
+            private boolean end;
+
+            @Override
+            public boolean hasNext() {
+                if (pos < batch.size()) {
+                    return true;
+                }
+                if (end) {
+                    return false;
+                }
+                batch = getSequenceList(next, next + ITERATOR_BATCH - 1);
+                pos = 0;
+                next += batch.size();
+                end = batch.size() < ITERATOR_BATCH;
+                return !batch.isEmpty();
+            }
+
+            @Override
+            public Tuple<K, V> next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return batch.get(pos++);
+            }
+        };
+    }
+
+    /**
+     * 一轮多路选择后，再一轮并行取回各分区的数据
+     * @see top.daheizi.commons.stl.IChart#getSequenceList(int, int)
+     */
+    @Override
+    public List<Tuple<K, V>> getSequenceList(int start, int end) {
+        if (start <= end) {
+            int[] sizes = sizes();
+            int size = 0;
+            for (int s : sizes) {
+                size += s;
+            }
+            start--;
+            start = start < 0 ? 0 : (start > size ? size : start);
+            end = end > size ? size : end;
+            if (start < end) {
+                return merge(split(sizes, start), end - start);
+            }
+        }
+        return new ArrayList<>();
+    }
+
+    /**
+     * 跨分区的数据需要多路归并，先取回列表再访问
+     * @see top.daheizi.commons.stl.IChart#forEachInRange(int, int, top.daheizi.commons.stl.ChartVisitor)
+     */
+    @Override
+    public int forEachInRange(int start, int end, ChartVisitor<? super K, ? super V> visitor) {
+        start = start < 1 ? 1 : start;
+        int kth = start;
+        for (Tuple<K, V> t : getSequenceList(start, end)) {
+            visitor.visit(kth++, t.left, t.right);
+        }
+        return kth - start;
+    }
+
+
+
+    /****************** 以下为一些非必需的辅助和测试方法 ***************************/
+
+    /**
+     * 模拟远程节点的分区，记录请求次数，并可为每次请求附加固定的延迟
+     * @param <K>
+     * @param <V>
+     * @author daheizi
+     * @Date 2026年10月18日 上午6:30:00
+     */
+    private static class LoopbackPartition<K, V> implements Partition<K, V> {
+
+        /** 本地的排行榜 */
+        private final Partition<K, V> target;
+
+        /** 每次请求的延迟(毫秒) */
+        private final long latencyMillis;
+
+        /** 请求次数 */
+        private final AtomicLong requests;
+
+        LoopbackPartition(IChart<K, V> chart, long latencyMillis, AtomicLong requests) {
+            this.target = local(new ConcurrentChart<>(chart));
+            this.latencyMillis = latencyMillis;
+            this.requests = requests;
+        }
+
+        /**
+         * 模拟一次网络往返
+         * @Date 2026年10月18日 上午6:30:30
+         */
+        private void roundTrip() {
+            requests.incrementAndGet();
+            if (latencyMillis > 0) {
+                try {
+                    Thread.sleep(latencyMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+
+        @Override
+        public V put(K key, V value) {
+            roundTrip();
+            return target.put(key, value);
+        }
+
+        @Override
+        public V remove(K key) {
+            roundTrip();
+            return target.remove(key);
+        }
+
+        @Override
+        public void putAll(Map<? extends K, ? extends V> map) {
+            roundTrip();
+            target.putAll(map);
+        }
+
+        @Override
+        public int removeAll(Collection<? extends K> keys) {
+            roundTrip();
+            return target.removeAll(keys);
+        }
+
+        @Override
+        public V get(K key) {
+            roundTrip();
+            return target.get(key);
+        }
+
+        @Override
+        public int size() {
+            roundTrip();
+            return target.size();
+        }
+
+        @Override
+        public void clear() {
+            roundTrip();
+            target.clear();
+        }
+
+        @Override
+        public Tuple<Integer, V> search(K key) {
+            roundTrip();
+            return target.search(key);
+        }
+
+        @Override
+        public int[][] getRankInfos(List<V> values) {
+            roundTrip();
+            return target.getRankInfos(values);
+        }
+
+        @Override
+        public List<Tuple<K, V>> getSequenceList(int start, int end) {
+            roundTrip();
+            return target.getSequenceList(start, end);
+        }
+    }
+
+    /**
+     * 单元测试
+     * @param args
+     * @Date 2026年10月18日 上午6:31:00
+     */
+    public static void main(String[] args) {
+        // *****测试正确性，与单一排行榜对比
+        int n = 5;
+        AtomicLong requests = new AtomicLong();
+        List<Partition<Integer, Integer>> nodes = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            nodes.add(new LoopbackPartition<>(new RBTreeChart<Integer, Integer>(), 0, requests));
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(n);
+        PartitionedChart<Integer, Integer> r = new PartitionedChart<>(nodes, null, executor);
+        IChart<Integer, Integer> expected = new RBTreeChart<>();
+        Random random = new Random();
+        Map<Integer, Integer> batch = new LinkedHashMap<>();
+        for (int i = 0; i < 5000; i++) {
+            int key = random.nextInt(3000);
+            batch.put(key, random.nextInt(1000));
+        }
+        expected.putAll(batch);
+        r.putAll(batch);
+        for (int i = 0; i < 5000; i++) {
+            int key = random.nextInt(3000);
+            if (random.nextInt(10) == 0) {
+                expected.remove(key);
+                r.remove(key);
+            } else {
+                int value = random.nextInt(1000);
+                expected.put(key, value);
+                r.put(key, value);
+            }
+            if (i % 10 != 0) {
+                continue;
+            }
+            if (expected.size() != r.size()) {
+                throw new RuntimeException("Size Not Equal ! " + i);
+            }
+            // 值相等时的次序与单一排行榜不同，因此只比较值与名次信息
+            int kth = random.nextInt(expected.size() + 2);
+            Tuple<Integer, Integer> t = r.getKth(kth);
+            Tuple<Integer, Integer> e = expected.getKth(kth);
+            if (t == null ? e != null : (!t.right.equals(e.right) || r.getRank(t.left) != kth)) {
+                throw new RuntimeException("Kth Not Equal ! " + i);
+            }
+            List<Tuple<Integer, Integer>> l1 = expected.getSequenceList(kth, kth + 30);
+            List<Tuple<Integer, Integer>> l2 = r.getSequenceList(kth, kth + 30);
+            if (l1.size() != l2.size()) {
+                throw new RuntimeException("List Size Not Equal ! " + i);
+            }
+            for (int j = 0; j < l1.size(); j++) {
+                if (!l1.get(j).right.equals(l2.get(j).right) || r.getRank(l2.get(j).left) != Math.max(kth, 1) + j) {
+                    throw new RuntimeException("List Not Equal ! " + i);
+                }
+            }
+            int[] info1 = expected.getRankInfo(key % 1000);
+            int[] info2 = r.getRankInfo(key % 1000);
+            if (info1[0] != info2[0] || info1[1] != info2[1]) {
+                throw new RuntimeException("RankInfo Not Equal ! " + i);
+            }
+        }
+        int count = 0;
+        Integer last = null;
+        for (Tuple<Integer, Integer> t : r) {
+            if (last != null && last > t.right) {
+                throw new RuntimeException("Iterator Order Error !");
+            }
+            last = t.right;
+            count++;
+        }
+        if (count != expected.size()) {
+            throw new RuntimeException("Iterator Size Not Equal !");
+        }
+        System.out.println(r.getListByPage(10, 1));
+        System.out.println(r.getRangeList(10, 11));
+        System.out.println(r.getSurroundedByKey(r.getKth(50).left, 2, 2));
+
+        // *****请求轮数与延迟，每次请求1ms
+        requests.set(0);
+        nodes.clear();
+        for (int i = 0; i < 8; i++) {
+            nodes.add(new LoopbackPartition<>(new RBTreeChart<Integer, Integer>(), 1, requests));
+        }
+        executor.shutdown();
+        executor = Executors.newFixedThreadPool(8);
+        r = new PartitionedChart<>(nodes, null, executor);
+        batch.clear();
+        for (int i = 0; i < 400000; i++) {
+            batch.put(i, random.nextInt(1000000));
+        }
+        r.putAll(batch);
+        int times = 50;
+        requests.set(0);
+        long ns = System.nanoTime();
+        for (int i = 0; i < times; i++) {
+            r.getListByPage(20, random.nextInt(20000) + 1);
+        }
+        long cost = System.nanoTime() - ns;
+        System.out.println("8个分区, 40万数据, 分页查询平均请求数: " + requests.get() / times
+                + ", 平均耗时(ms): " + cost / times / 1000000);
+        requests.set(0);
+        ns = System.nanoTime();
+        for (int i = 0; i < times; i++) {
+            r.getRank(random.nextInt(400000));
+        }
+        cost = System.nanoTime() - ns;
+        System.out.println("8个分区, 40万数据, getRank平均请求数: " + requests.get() / times
+                + ", 平均耗时(ms): " + cost / times / 1000000);
+        executor.shutdown();
+    }
+}
@@ -1,10 +1,14 @@
 package top.daheizi.commons.stl;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Comparator;
 import java.util.ConcurrentModificationException;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Random;
@@ -13,7 +17,8 @@ import java.util.Random;
  * 基于红黑树的带索引的排行榜IChart
  * 对于相等的数据通过双向循环链表的形式存储与于红黑树的同一节点
  * 因此当排行榜内存在大量相等数据时，查找效率会有所下降
- * 非线程安全
+ * 非线程安全，但查询中的循环都有步数上限，被并发修改时只会返回错误的结果或抛出异常，
+ * 不会陷入死循环，因此可以在StampedChart中乐观读
  * @author daheizi
  * @Date 2017年3月3日 下午5:35:04
  */
@@ -29,6 +34,22 @@ public class RBTreeChart<K, V> implements IChart<K, V> {
     /** 比较器 */
     private final Comparator<? super V> comparator;
 
+    /**
+     * 批量数据量 * BULK_PUT_FACTOR >= 当前数据量时，putAll采用整体重建，
+     * 批量数据量 * BULK_REMOVE_FACTOR >= 当前数据量时，removeAll采用整体重建
+     * 重建需遍历全部数据并重新映射nodeMap，代价与当前数据量成正比，
+     * 由TestBulkBench测得：putAll在批量数据量约为当前数据量的0.5~1倍以上时快于逐个put，
+     * removeAll约在0.5倍以上时快于逐个remove
+     */
+    private static final int BULK_PUT_FACTOR = 1;
+    private static final int BULK_REMOVE_FACTOR = 2;
+
+    /**
+     * 树高的上界，节点数不超过int范围时红黑树的高度不超过2log(n+1) < 64
+     * 沿树下降或上溯的循环超过该步数即说明读取期间树被并发修改
+     */
+    private static final int MAX_HEIGHT = 2 * Integer.SIZE;
+
     /** 树结构的修改次数 */
     private transient int modCount = 0;
 
@@ -89,15 +110,14 @@ public class RBTreeChart<K, V> implements IChart<K, V> {
          * @Date 2017年3月29日 上午12:58:44
          */
         Entry<K, V> getEntry(K key) {
-            if (first != null) {
-                Entry<K, V> e = first;
-                do {
-                    // 考虑到局部性原理，所以反向查找，后同
-                    e = e.prev;
-                    if (objEquals(e.key, key)) {
-                        return e;
-                    }
-                } while (e != first);
+            Entry<K, V> e = first;
+            // 以amount限定步数而非判断是否回到表头，以保证并发的乐观读(StampedChart)不会陷入死循环，后同
+            for (int i = amount; i > 0; i--) {
+                // 考虑到局部性原理，所以反向查找，后同
+                e = e.prev;
+                if (objEquals(e.key, key)) {
+                    return e;
+                }
             }
             return null;
         }
@@ -148,16 +168,12 @@ public class RBTreeChart<K, V> implements IChart<K, V> {
          * @Date 2017年3月29日 上午1:01:21
          */
         int getRank(K key) {
-            int rank = amount;
-            if (first != null) {
-                Entry<K, V> e = first;
-                do {
-                    e = e.prev;
-                    if (objEquals(e.key, key)) {
-                        return rank;
-                    }
-                    rank--;
-                } while (e != first);
+            Entry<K, V> e = first;
+            for (int rank = amount; rank > 0; rank--) {
+                e = e.prev;
+                if (objEquals(e.key, key)) {
+                    return rank;
+                }
             }
             return -1;
         }
@@ -175,15 +191,16 @@ public class RBTreeChart<K, V> implements IChart<K, V> {
                 return null;
             } else if (kth > amount >> 1) {
                 // kth > amount/2 逆向查找
+                // 使用>=而非==，以保证并发的乐观读(StampedChart)不会陷入死循环，后同
                 for (Entry<K, V> e = first.prev; ; e = e.prev) {
-                    if (kth++ == amount) {
+                    if (kth++ >= amount) {
                         return e;
                     }
                 }
             } else {
                 // kth <= amount/2 正向查找
                 for (Entry<K, V> e = first; ; e = e.next) {
-                    if (--kth == 0) {
+                    if (--kth <= 0) {
                         return e;
                     }
                 }
@@ -293,6 +310,81 @@ public class RBTreeChart<K, V> implements IChart<K, V> {
         this.nodeMap = new HashMap<>();
     }
 
+    /**
+     * 由按值有序(非递减)的<key，value>序列批量构建排行榜，O(n)
+     * 使用值的自身排序规则，需要 V implements Comparable<V>
+     * 值相等的数据按序列中的先后排序
+     * @param it
+     * @return
+     * @throws IllegalArgumentException 序列无序或存在重复的关键字
+     * @Date 2026年10月17日 下午10:41:20
+     */
+    public static <K, V> RBTreeChart<K, V> fromSorted(Iterator<? extends Tuple<K, V>> it) {
+        return fromSorted(it, 0, null);
+    }
+
+    /**
+     * 由按值有序(非递减)的<key，value>序列批量构建排行榜，O(n)
+     * 使用值的自身排序规则，需要 V implements Comparable<V>
+     * 值相等的数据按序列中的先后排序
+     * @param it
+     * @param expectedSize 预估的序列长度，用于预分配nodeMap，避免构建过程中反复扩容
+     * @return
+     * @throws IllegalArgumentException 序列无序或存在重复的关键字
+     * @Date 2026年10月18日 上午9:50:00
+     */
+    public static <K, V> RBTreeChart<K, V> fromSorted(Iterator<? extends Tuple<K, V>> it, int expectedSize) {
+        return fromSorted(it, expectedSize, null);
+    }
+
+    /**
+     * 由按值有序(非递减)的<key，value>序列批量构建排行榜，O(n)
+     * 使用给定比较器的排序规则
+     * 值相等的数据按序列中的先后排序
+     * @param it
+     * @param comparator
+     * @return
+     * @throws IllegalArgumentException 序列无序或存在重复的关键字
+     * @Date 2026年10月17日 下午10:42:03
+     */
+    public static <K, V> RBTreeChart<K, V> fromSorted(Iterator<? extends Tuple<K, V>> it,
+            Comparator<V> comparator) {
+        return fromSorted(it, 0, comparator);
+    }
+
+    /**
+     * 由按值有序(非递减)的<key，value>序列批量构建排行榜，O(n)
+     * 使用给定比较器的排序规则
+     * 值相等的数据按序列中的先后排序
+     * 节点、Entry及nodeMap的映射在同一次遍历中生成
+     * @param it
+     * @param expectedSize 预估的序列长度，用于预分配nodeMap，避免构建过程中反复扩容
+     * @param comparator
+     * @return
+     * @throws IllegalArgumentException 序列无序或存在重复的关键字
+     * @Date 2026年10月18日 上午9:50:30
+     */
+    public static <K, V> RBTreeChart<K, V> fromSorted(Iterator<? extends Tuple<K, V>> it, int expectedSize,
+            Comparator<V> comparator) {
+        RBTreeChart<K, V> chart = new RBTreeChart<>(comparator);
+        if (expectedSize > 0) {
+            chart.nodeMap = new HashMap<>((int) (expectedSize / 0.75f) + 1);
+        }
+        chart.buildFromSorted(new Iterator<Entry<K, V>>() {
+            @Override
+            public boolean hasNext() {
+                return it.hasNext();
+            }
+
+            @Override
+            public Entry<K, V> next() {
+                Tuple<K, V> t = it.next();
+                return new Entry<>(t.left, t.right);
+            }
+        }, expectedSize, false);
+        return chart;
+    }
+
     /**
      * 比较两个节点值的大小
      * @param v1
@@ -326,7 +418,8 @@ public class RBTreeChart<K, V> implements IChart<K, V> {
         if (node != null) {
             int rank = sizeOf(node.left) + node.getRank(key);
             Node<K, V> p = node;
-            while (p != root) {
+            for (int h = 0; p != root; h++) {
+                checkHeight(h);
                 if (p == p.parent.right) {
                     rank += sizeOf(p.parent.left) + p.parent.amount;
                 }
@@ -337,6 +430,17 @@ public class RBTreeChart<K, V> implements IChart<K, V> {
         return -1;
     }
 
+    /**
+     * 检查沿树下降或上溯的步数，超过树高的上界则说明树被并发修改
+     * @param h 已经走过的步数
+     * @Date 2026年10月18日 上午10:20:00
+     */
+    private static void checkHeight(int h) {
+        if (h > MAX_HEIGHT) {
+            throw new ConcurrentModificationException();
+        }
+    }
+
     /**
      * 返回子树中值最小的节点
      * @param p
@@ -347,7 +451,8 @@ public class RBTreeChart<K, V> implements IChart<K, V> {
         if (p == null) {
             return null;
         }
-        while (p.left != null) {
+        for (int h = 0; p.left != null; h++) {
+            checkHeight(h);
             p = p.left;
         }
         return p;
@@ -363,7 +468,8 @@ public class RBTreeChart<K, V> implements IChart<K, V> {
         if (p == null) {
             return null;
         }
-        while (p.right != null) {
+        for (int h = 0; p.right != null; h++) {
+            checkHeight(h);
             p = p.right;
         }
         return p;
@@ -375,7 +481,6 @@ public class RBTreeChart<K, V> implements IChart<K, V> {
      * @return
      * @Date 2017年3月11日 上午12:20:39
      */
-    @SuppressWarnings("unused")
     private static <K, V> Node<K, V> predecessor(Node<K, V> x) {
         if (x == null) {
             return null;
@@ -383,7 +488,8 @@ public class RBTreeChart<K, V> implements IChart<K, V> {
             return maximum(x.left);
         } else {
             Node<K, V> y = x.parent;
-            while (y != null && x == y.left) {
+            for (int h = 0; y != null && x == y.left; h++) {
+                checkHeight(h);
                 x = y;
                 y = y.parent;
             }
@@ -404,7 +510,8 @@ public class RBTreeChart<K, V> implements IChart<K, V> {
             return minimum(x.right);
         } else {
             Node<K, V> y = x.parent;
-            while (y != null && x == y.right) {
+            for (int h = 0; y != null && x == y.right; h++) {
+                checkHeight(h);
                 x = y;
                 y = y.parent;
             }
@@ -839,12 +946,13 @@ public class RBTreeChart<K, V> implements IChart<K, V> {
         int[] info = new int[]{0, 0};
         int cmp;
         Node<K, V> p = root;
-        while (p != null) {
+        for (int h = 0; p != null; h++) {
+            checkHeight(h);
             cmp = compare(value, p.first.value);
             if (cmp == 0) {
                 info[0] += sizeOf(p.left);
                 info[1] = info[0] + p.amount;
-                break;
+                return info;
             } else if (cmp < 0) {
                 p = p.left;
             } else {
@@ -852,6 +960,8 @@ public class RBTreeChart<K, V> implements IChart<K, V> {
                 p = p.right;
             }
         }
+        // 不存在与value相等的数据
+        info[1] = info[0];
         return info;
     }
 
@@ -875,7 +985,8 @@ public class RBTreeChart<K, V> implements IChart<K, V> {
     private Entry<K, V> getKthEntry(int kth) {
         Node<K, V> p = root;
         int ls;
-        while (p != null) {
+        for (int h = 0; p != null; h++) {
+            checkHeight(h);
             ls = sizeOf(p.left);
             if (kth <= ls) {
                 p = p.left;
@@ -933,6 +1044,433 @@ public class RBTreeChart<K, V> implements IChart<K, V> {
         nodeMap.clear();
     }
 
+    /**
+     * 批量数据量较大时，将现有数据与批量数据合并后整体重建红黑树
+     * @see top.daheizi.commons.stl.IChart#putAll(java.util.Map)
+     */
+    @Override
+    public void putAll(Map<? extends K, ? extends V> map) {
+        if (map.isEmpty()) {
+            return;
+        } else if (map.size() * BULK_PUT_FACTOR < size()) {
+            IChart.super.putAll(map);
+            return;
+        }
+        modCount++;
+        // 按序遍历现有数据，与新值相等的原位替换，与新值不等的移出
+        List<Entry<K, V>> olds = new ArrayList<>(size());
+        Map<K, Entry<K, V>> movedEntries = new HashMap<>();
+        for (Node<K, V> p = minimum(root); p != null; p = successor(p)) {
+            Entry<K, V> e = p.first;
+            do {
+                if (map.containsKey(e.key)) {
+                    V value = map.get(e.key);
+                    if (compare(value, e.value) == 0) {
+                        e.value = value;
+                        olds.add(e);
+                    } else {
+                        movedEntries.put(e.key, e);
+                    }
+                } else {
+                    olds.add(e);
+                }
+                e = e.next;
+            } while (e != p.first);
+        }
+        // 需要(重新)插入的数据，按值稳定排序以保持批量数据的迭代顺序
+        List<Entry<K, V>> news = new ArrayList<>(map.size());
+        for (Map.Entry<? extends K, ? extends V> me : map.entrySet()) {
+            K key = me.getKey();
+            Entry<K, V> e = movedEntries.get(key);
+            if (e != null) {
+                e.value = me.getValue();
+                news.add(e);
+            } else if (!nodeMap.containsKey(key)) {
+                news.add(new Entry<>(key, me.getValue()));
+            }
+        }
+        news.sort((e1, e2) -> compare(e1.value, e2.value));
+        // 合并，值相等时现有数据在前
+        List<Entry<K, V>> entries = new ArrayList<>(olds.size() + news.size());
+        int i = 0, j = 0;
+        while (i < olds.size() && j < news.size()) {
+            if (compare(olds.get(i).value, news.get(j).value) <= 0) {
+                entries.add(olds.get(i++));
+            } else {
+                entries.add(news.get(j++));
+            }
+        }
+        entries.addAll(olds.subList(i, olds.size()));
+        entries.addAll(news.subList(j, news.size()));
+        buildFromSorted(entries.iterator(), entries.size(), true);
+    }
+
+    /**
+     * 批量数据量较大时，过滤现有数据后整体重建红黑树
+     * @see top.daheizi.commons.stl.IChart#removeAll(java.util.Collection)
+     */
+    @Override
+    public int removeAll(Collection<? extends K> keys) {
+        if (keys.size() * BULK_REMOVE_FACTOR < size()) {
+            return IChart.super.removeAll(keys);
+        }
+        int size = size();
+        for (K key : keys) {
+            nodeMap.remove(key);
+        }
+        if (nodeMap.size() == size) {
+            return 0;
+        }
+        modCount++;
+        List<Entry<K, V>> entries = new ArrayList<>(nodeMap.size());
+        for (Node<K, V> p = minimum(root); p != null; p = successor(p)) {
+            Entry<K, V> e = p.first;
+            do {
+                if (nodeMap.containsKey(e.key)) {
+                    entries.add(e);
+                }
+                e = e.next;
+            } while (e != p.first);
+        }
+        buildFromSorted(entries.iterator(), entries.size(), true);
+        return size - entries.size();
+    }
+
+    /**
+     * 由按值有序的Entry序列重建红黑树，并将nodeMap中各关键字指向新的节点，O(n)
+     * 值相等的Entry按序合并到同一节点
+     * 重建时沿用nodeMap中已有的映射，只替换其值，不重新分配映射表
+     * @param it
+     * @param size 预估的序列长度，用于预分配节点列表
+     * @param rebuild 是否为重建现有数据，重建时序列中的关键字互不相同且均已在nodeMap中(或为新增)，
+     *                不再检查重复；否则nodeMap应为空
+     * @throws IllegalArgumentException 序列无序或存在重复的关键字
+     * @Date 2026年10月17日 下午9:56:14
+     */
+    private void buildFromSorted(Iterator<Entry<K, V>> it, int size, boolean rebuild) {
+        List<Node<K, V>> nodes = new ArrayList<>(size);
+        Node<K, V> node = null;
+        while (it.hasNext()) {
+            Entry<K, V> e = it.next();
+            int cmp = node == null ? 1 : compare(e.value, node.first.value);
+            if (cmp < 0) {
+                throw new IllegalArgumentException("Not sorted: " + e);
+            } else if (cmp > 0) {
+                node = new Node<>(null);
+                nodes.add(node);
+            }
+            node.addEntry(e);
+            if (nodeMap.put(e.key, node) != null && !rebuild) {
+                throw new IllegalArgumentException("Duplicate key: " + e.key);
+            }
+        }
+        root = buildTree(nodes, 0, nodes.size() - 1, 0, computeRedLevel(nodes.size()));
+        setParent(root, null);
+    }
+
+    /**
+     * 由有序的节点序列[lo, hi]递归构建平衡的子树，并修复size属性
+     * 除最底层(不满的一层)染为红色以外，其余节点均为黑色
+     * @param nodes
+     * @param lo
+     * @param hi
+     * @param level 当前深度
+     * @param redLevel 需要染为红色的深度
+     * @return 子树的根
+     * @Date 2026年10月17日 下午9:57:40
+     */
+    private static <K, V> Node<K, V> buildTree(List<Node<K, V>> nodes, int lo, int hi,
+            int level, int redLevel) {
+        if (lo > hi) {
+            return null;
+        }
+        int mid = (lo + hi) >>> 1;
+        Node<K, V> middle = nodes.get(mid);
+        middle.left = buildTree(nodes, lo, mid - 1, level + 1, redLevel);
+        setParent(middle.left, middle);
+        middle.right = buildTree(nodes, mid + 1, hi, level + 1, redLevel);
+        setParent(middle.right, middle);
+        middle.color = level == redLevel ? RED : BLACK;
+        middle.maintain();
+        return middle;
+    }
+
+    /**
+     * 计算构建n个节点的平衡树时需要染为红色的深度
+     * 即完全二叉树中最底层(可能不满)的深度
+     * @param n
+     * @return
+     * @Date 2026年10月17日 下午9:58:22
+     */
+    private static int computeRedLevel(int n) {
+        int level = 0;
+        for (int m = n - 1; m >= 0; m = m / 2 - 1) {
+            level++;
+        }
+        return level;
+    }
+
+    /**
+     * 一次下降定位起始名次所在的节点，之后沿节点内的链表和后继节点遍历，
+     * 不创建任何对象
+     * @see top.daheizi.commons.stl.IChart#forEachInRange(int, int, top.daheizi.commons.stl.ChartVisitor)
+     */
+    @Override
+    public int forEachInRange(int start, int end, ChartVisitor<? super K, ? super V> visitor) {
+        int size = size();
+        start = start < 1 ? 1 : start;
+        end = end > size ? size : end;
+        if (start > end) {
+            return 0;
+        }
+        Entry<K, V> e = getKthEntry(start);
+        Node<K, V> node = nodeMap.get(e.key);
+        int expectedModCount = modCount;
+        for (int rank = start; ; rank++) {
+            visitor.visit(rank, e.key, e.value);
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            if (rank == end) {
+                break;
+            }
+            if (e.next == node.first) {
+                // 当前Node中最后一个entry
+                node = successor(node);
+                e = node.first;
+            } else {
+                e = e.next;
+            }
+        }
+        return end - start + 1;
+    }
+
+    /**
+     * 从名次为end的数据开始，沿节点内的链表和前驱节点反向遍历
+     * @see top.daheizi.commons.stl.IChart#forEachDescending(int, int, top.daheizi.commons.stl.ChartVisitor)
+     */
+    @Override
+    public int forEachDescending(int start, int end, ChartVisitor<? super K, ? super V> visitor) {
+        int size = size();
+        start = start < 1 ? 1 : start;
+        end = end > size ? size : end;
+        if (start > end) {
+            return 0;
+        }
+        Entry<K, V> e = getKthEntry(end);
+        Node<K, V> node = nodeMap.get(e.key);
+        int expectedModCount = modCount;
+        for (int rank = end; ; rank--) {
+            visitor.visit(rank, e.key, e.value);
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            if (rank == start) {
+                break;
+            }
+            if (e == node.first) {
+                // 当前Node中第一个entry
+                node = predecessor(node);
+                e = node.first.prev;
+            } else {
+                e = e.prev;
+            }
+        }
+        return end - start + 1;
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.IChart#getDescendingList(int, int)
+     */
+    @Override
+    public List<Tuple<K, V>> getDescendingList(int start, int end) {
+        List<Tuple<K, V>> list = new ArrayList<>();
+        int size = size();
+        start = start < 1 ? 1 : start;
+        end = end > size ? size : end;
+        if (start <= end) {
+            Entry<K, V> e = getKthEntry(end);
+            Node<K, V> node = nodeMap.get(e.key);
+            for (int count = end - start; ; count--) {
+                list.add(e.tuple());
+                if (count <= 0) {
+                    break;
+                }
+                if (e == node.first) {
+                    node = predecessor(node);
+                    e = node.first.prev;
+                } else {
+                    e = e.prev;
+                }
+            }
+        }
+        return list;
+    }
+
+    /**
+     * 返回值不小于value的最小节点
+     * @param value
+     * @return 不存在则返回null
+     * @Date 2026年10月18日 上午3:36:10
+     */
+    private Node<K, V> ceilingNode(V value) {
+        Node<K, V> ceiling = null;
+        Node<K, V> p = root;
+        for (int h = 0; p != null; h++) {
+            checkHeight(h);
+            if (compare(value, p.first.value) <= 0) {
+                ceiling = p;
+                p = p.left;
+            } else {
+                p = p.right;
+            }
+        }
+        return ceiling;
+    }
+
+    /**
+     * 返回值不大于value的最大节点
+     * @param value
+     * @return 不存在则返回null
+     * @Date 2026年10月18日 上午3:36:40
+     */
+    private Node<K, V> floorNode(V value) {
+        Node<K, V> floor = null;
+        Node<K, V> p = root;
+        for (int h = 0; p != null; h++) {
+            checkHeight(h);
+            if (compare(value, p.first.value) >= 0) {
+                floor = p;
+                p = p.right;
+            } else {
+                p = p.left;
+            }
+        }
+        return floor;
+    }
+
+    /**
+     * 返回排在节点之前的数据量
+     * @param node
+     * @return
+     * @Date 2026年10月18日 上午3:37:00
+     */
+    private int countBefore(Node<K, V> node) {
+        int count = sizeOf(node.left);
+        int h = 0;
+        for (Node<K, V> p = node; p != root; p = p.parent) {
+            checkHeight(h++);
+            if (p == p.parent.right) {
+                count += sizeOf(p.parent.left) + p.parent.amount;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 一次下降定位不小于low的最小节点，之后沿后继节点遍历，遇到大于high的节点即停止
+     * @see top.daheizi.commons.stl.IChart#getRangeList(java.lang.Object, java.lang.Object)
+     */
+    @Override
+    public List<Tuple<K, V>> getRangeList(V low, V high) {
+        List<Tuple<K, V>> list = new ArrayList<>();
+        for (Node<K, V> p = ceilingNode(low); p != null && compare(p.first.value, high) <= 0; p = successor(p)) {
+            Entry<K, V> e = p.first;
+            do {
+                list.add(e.tuple());
+                e = e.next;
+            } while (e != p.first);
+        }
+        return list;
+    }
+
+    /**
+     * 一次下降定位不大于high的最大节点，之后沿前驱节点遍历，遇到小于low的节点即停止
+     * @see top.daheizi.commons.stl.IChart#getDescendingRangeList(java.lang.Object, java.lang.Object)
+     */
+    @Override
+    public List<Tuple<K, V>> getDescendingRangeList(V low, V high) {
+        List<Tuple<K, V>> list = new ArrayList<>();
+        for (Node<K, V> p = floorNode(high); p != null && compare(p.first.value, low) >= 0; p = predecessor(p)) {
+            Entry<K, V> last = p.first.prev;
+            Entry<K, V> e = last;
+            do {
+                list.add(e.tuple());
+                e = e.prev;
+            } while (e != last);
+        }
+        return list;
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.IChart#forEachInValueRange(java.lang.Object, java.lang.Object, top.daheizi.commons.stl.ChartVisitor)
+     */
+    @Override
+    public int forEachInValueRange(V low, V high, ChartVisitor<? super K, ? super V> visitor) {
+        Node<K, V> p = ceilingNode(low);
+        if (p == null) {
+            return 0;
+        }
+        int start = countBefore(p);
+        int rank = start;
+        int expectedModCount = modCount;
+        for (; p != null && compare(p.first.value, high) <= 0; p = successor(p)) {
+            Entry<K, V> e = p.first;
+            do {
+                visitor.visit(++rank, e.key, e.value);
+                if (modCount != expectedModCount) {
+                    throw new ConcurrentModificationException();
+                }
+                e = e.next;
+            } while (e != p.first);
+        }
+        return rank - start;
+    }
+
+    /**
+     * 从关键字所在的Entry出发，先反向移动至多left个，再正向收集，
+     * 不需要计算名次，也不需要再次按名次下降
+     * @see top.daheizi.commons.stl.IChart#getSurroundedByKey(java.lang.Object, int, int)
+     */
+    @Override
+    public List<Tuple<K, V>> getSurroundedByKey(K key, int left, int right) {
+        List<Tuple<K, V>> list = new ArrayList<>();
+        Node<K, V> node = nodeMap.get(key);
+        if (node == null || left < 0 || right < 0) {
+            return node == null ? list : IChart.super.getSurroundedByKey(key, left, right);
+        }
+        Entry<K, V> e = node.getEntry(key);
+        int count = right + 1;
+        for (; count <= left + right; count++) {
+            if (e == node.first) {
+                Node<K, V> pre = predecessor(node);
+                if (pre == null) {
+                    break;
+                }
+                node = pre;
+                e = node.first.prev;
+            } else {
+                e = e.prev;
+            }
+        }
+        while (true) {
+            list.add(e.tuple());
+            if (--count == 0) {
+                break;
+            }
+            if (e.next == node.first) {
+                node = successor(node);
+                if (node == null) {
+                    break;
+                }
+                e = node.first;
+            } else {
+                e = e.next;
+            }
+        }
+        return list;
+    }
+
     /**
      * @see top.daheizi.commons.stl.IChart#iterator()
      */
@@ -1207,6 +1745,62 @@ public class RBTreeChart<K, V> implements IChart<K, V> {
         return bh;
     }
 
+    /**
+     * 测试批量构建的边界情况：空序列、单个数据、相等的值、预估长度不准、无序以及重复的关键字
+     * @Date 2026年10月18日 上午9:52:00
+     */
+    private static void testFromSortedEdgeCases() {
+        List<Tuple<Integer, Integer>> list = new ArrayList<>();
+        RBTreeChart<Integer, Integer> chart = RBTreeChart.fromSorted(list.iterator());
+        chart.check();
+        if (chart.size() != 0 || !chart.isEmpty() || chart.getKth(1) != null || chart.iterator().hasNext()) {
+            throw new RuntimeException("fromSorted Empty Not Equal !");
+        }
+        chart.put(1, 1);
+        list.add(new Tuple<>(7, 3));
+        chart = RBTreeChart.fromSorted(list.iterator(), 1);
+        chart.check();
+        if (chart.size() != 1 || chart.getRank(7) != 1 || !list.get(0).equals(chart.getKth(1))) {
+            throw new RuntimeException("fromSorted Single Not Equal !");
+        }
+        // 值相等的数据按序列中的先后排序，预估长度偏大或偏小均不影响结果
+        list.clear();
+        for (int i = 0; i < 100; i++) {
+            list.add(new Tuple<>(100 - i, i / 10));
+        }
+        for (int expectedSize : new int[]{0, 1, list.size(), list.size() * 10}) {
+            chart = RBTreeChart.fromSorted(list.iterator(), expectedSize);
+            chart.check();
+            if (!chart.getSequenceList(0, chart.size()).equals(list) || chart.getRank(91) != 10) {
+                throw new RuntimeException("fromSorted Ties Not Equal !");
+            }
+            chart.put(0, -1);
+            chart.remove(100);
+            chart.check();
+        }
+        // 无序的序列
+        list.add(new Tuple<>(0, 0));
+        try {
+            RBTreeChart.fromSorted(list.iterator());
+            throw new RuntimeException("fromSorted Unsorted Not Equal !");
+        } catch (IllegalArgumentException e) {
+            // 期望的异常
+        }
+        // 重复的关键字，包括值相等与不等两种情况
+        for (int value : new int[]{9, 10}) {
+            list.clear();
+            list.add(new Tuple<>(1, 9));
+            list.add(new Tuple<>(2, 9));
+            list.add(new Tuple<>(1, value));
+            try {
+                RBTreeChart.fromSorted(list.iterator(), list.size());
+                throw new RuntimeException("fromSorted Duplicate Not Equal !");
+            } catch (IllegalArgumentException e) {
+                // 期望的异常
+            }
+        }
+    }
+
     /**
      * 单元测试
      * @param args
@@ -1259,6 +1853,75 @@ public class RBTreeChart<K, V> implements IChart<K, V> {
         }
         System.out.println(r2.outputTree());
 
+        // *****测试批量操作，结果需与逐个操作一致
+        RBTreeChart<Integer, Integer> r3 = new RBTreeChart<>();
+        IChart<Integer, Integer> r4 = new RBTreeChart<>();
+        Random rnd = new Random();
+        for (int round = 0; round < 50; round++) {
+            Map<Integer, Integer> batch = new LinkedHashMap<>();
+            int batchSize = rnd.nextInt(2000);
+            for (int i = 0; i < batchSize; i++) {
+                batch.put(rnd.nextInt(3000), rnd.nextInt(100));
+            }
+            r3.putAll(batch);
+            for (Map.Entry<Integer, Integer> e : batch.entrySet()) {
+                r4.put(e.getKey(), e.getValue());
+            }
+            List<Integer> keys = new ArrayList<>();
+            int removeSize = rnd.nextInt(1500);
+            for (int i = 0; i < removeSize; i++) {
+                keys.add(rnd.nextInt(3000));
+            }
+            int count = 0;
+            for (Integer key : keys) {
+                if (r4.remove(key) != null) {
+                    count++;
+                }
+            }
+            if (r3.removeAll(keys) != count) {
+                throw new RuntimeException("removeAll Not Equal !");
+            }
+            r3.check();
+            if (!r3.getSequenceList(0, r3.size()).equals(r4.getSequenceList(0, r4.size()))) {
+                throw new RuntimeException("putAll Not Equal !");
+            }
+        }
+        System.out.println("putAll/removeAll: " + r3.size());
+
+        // *****测试批量构建
+        RBTreeChart<Integer, Integer> r5 = RBTreeChart.fromSorted(r3.iterator());
+        r5.check();
+        if (!r5.getSequenceList(0, r5.size()).equals(r3.getSequenceList(0, r3.size()))) {
+            throw new RuntimeException("fromSorted Not Equal !");
+        }
+        testFromSortedEdgeCases();
+        List<Tuple<Integer, Integer>> sorted = new ArrayList<>();
+        for (int i = 0; i < 1000000; i++) {
+            sorted.add(new Tuple<>(i, i / 4));
+        }
+        // 首轮包含JIT编译和堆扩展的开销，取多轮中的最短耗时
+        long fromSortedNs = Long.MAX_VALUE, presizedNs = Long.MAX_VALUE, putNs = Long.MAX_VALUE;
+        for (int round = 0; round < 5; round++) {
+            System.gc();
+            long ns0 = System.nanoTime();
+            r5 = RBTreeChart.fromSorted(sorted.iterator());
+            fromSortedNs = Math.min(fromSortedNs, System.nanoTime() - ns0);
+            System.gc();
+            ns0 = System.nanoTime();
+            r5 = RBTreeChart.fromSorted(sorted.iterator(), sorted.size());
+            presizedNs = Math.min(presizedNs, System.nanoTime() - ns0);
+            System.gc();
+            ns0 = System.nanoTime();
+            r5 = new RBTreeChart<>();
+            for (Tuple<Integer, Integer> t : sorted) {
+                r5.put(t.left, t.right);
+            }
+            putNs = Math.min(putNs, System.nanoTime() - ns0);
+        }
+        r5.check();
+        System.out.println("fromSorted: " + fromSortedNs / sorted.size() + ", presized: "
+                + presizedNs / sorted.size() + ", put one by one: " + putNs / sorted.size());
+
         //        System.exit(0);
 
         // *****测试效率
@@ -1306,6 +1969,16 @@ public class RBTreeChart<K, V> implements IChart<K, V> {
         ns2 = System.nanoTime();
         System.out.println("delete:" + (ns2 - ns1) / times);
 
+        // 批量添加
+        Map<Integer, Integer> batch = new HashMap<>();
+        for (int i = 0; i < num / 2; i++) {
+            batch.put(random.nextInt(num), random.nextInt(num));
+        }
+        ns1 = System.nanoTime();
+        r.putAll(batch);
+        ns2 = System.nanoTime();
+        System.out.println("putAll:" + (ns2 - ns1) / batch.size());
+
         System.exit(0);
     }
 }
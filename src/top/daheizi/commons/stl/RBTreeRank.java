@@ -1,5 +1,6 @@
 package top.daheizi.commons.stl;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
@@ -122,6 +123,62 @@ public class RBTreeRank<K> implements IRank<K> {
         this.comparator = comparator;
     }
 
+    /**
+     * 由严格递增的关键字序列批量构建排行榜，O(n)
+     * 使用关键字自身的排序规则，需要 K implements Comparable<K>
+     * @param it
+     * @param size 序列的长度
+     * @return
+     * @throws IllegalArgumentException 序列不是严格递增的
+     * @throws NoSuchElementException 序列的长度小于size
+     * @throws NullPointerException 不接受关键字为null
+     * @Date 2026年10月17日 下午10:35:46
+     */
+    public static <K> RBTreeRank<K> fromSorted(Iterator<? extends K> it, int size) {
+        return fromSorted(it, size, null);
+    }
+
+    /**
+     * 由严格递增的关键字序列批量构建排行榜，O(n)
+     * 使用给定比较器的排序规则
+     * @param it
+     * @param size 序列的长度
+     * @param comparator
+     * @return
+     * @throws IllegalArgumentException 序列不是严格递增的
+     * @throws NoSuchElementException 序列的长度小于size
+     * @throws NullPointerException 不接受关键字为null
+     * @Date 2026年10月17日 下午10:36:30
+     */
+    public static <K> RBTreeRank<K> fromSorted(Iterator<? extends K> it, int size,
+            Comparator<K> comparator) {
+        RBTreeRank<K> rank = new RBTreeRank<>(comparator);
+        // 构建的同时校验序列的有序性
+        rank.buildFromSorted(new Iterator<K>() {
+            /** 前一个关键字 */
+            private K last;
+
+            @Override
+            public boolean hasNext() {
+                return it.hasNext();
+            }
+
+            @Override
+            public K next() {
+                K key = it.next();
+                if (key == null) {
+                    throw new NullPointerException();
+                }
+                if (last != null && rank.compare(last, key) >= 0) {
+                    throw new IllegalArgumentException("Not sorted: " + last + ", " + key);
+                }
+                last = key;
+                return key;
+            }
+        }, size);
+        return rank;
+    }
+
     /**
      * 比较两个关键字的大小
      * @param k1
@@ -737,6 +794,67 @@ public class RBTreeRank<K> implements IRank<K> {
         root = null;
     }
 
+    /**
+     * 由有序且互不相等的关键字序列重建红黑树，O(n)
+     * 调用方需保证序列的有序性
+     * @param it
+     * @param size 序列的长度
+     * @throws NullPointerException 不接受关键字为null
+     * @Date 2026年10月17日 下午10:12:05
+     */
+    void buildFromSorted(Iterator<? extends K> it, int size) {
+        modCount++;
+        root = buildTree(it, 0, size - 1, 0, computeRedLevel(size));
+    }
+
+    /**
+     * 由有序的关键字序列递归构建平衡的子树，并修复size属性
+     * 按中序依次消费迭代器中的关键字，
+     * 除最底层(不满的一层)染为红色以外，其余节点均为黑色
+     * @param it
+     * @param lo
+     * @param hi
+     * @param level 当前深度
+     * @param redLevel 需要染为红色的深度
+     * @return 子树的根
+     * @Date 2026年10月17日 下午10:13:28
+     */
+    private static <K> Node<K> buildTree(Iterator<? extends K> it, int lo, int hi,
+            int level, int redLevel) {
+        if (lo > hi) {
+            return null;
+        }
+        int mid = (lo + hi) >>> 1;
+        Node<K> left = buildTree(it, lo, mid - 1, level + 1, redLevel);
+        K key = it.next();
+        if (key == null) {
+            throw new NullPointerException();
+        }
+        Node<K> middle = new Node<>(key, null);
+        middle.left = left;
+        setParent(left, middle);
+        middle.right = buildTree(it, mid + 1, hi, level + 1, redLevel);
+        setParent(middle.right, middle);
+        middle.color = level == redLevel ? RED : BLACK;
+        middle.maintain();
+        return middle;
+    }
+
+    /**
+     * 计算构建n个节点的平衡树时需要染为红色的深度
+     * 即完全二叉树中最底层(可能不满)的深度
+     * @param n
+     * @return
+     * @Date 2026年10月17日 下午10:14:02
+     */
+    private static int computeRedLevel(int n) {
+        int level = 0;
+        for (int m = n - 1; m >= 0; m = m / 2 - 1) {
+            level++;
+        }
+        return level;
+    }
+
     /**
      * 内部的排行榜迭代器
      * @author daheizi
@@ -757,9 +875,18 @@ public class RBTreeRank<K> implements IRank<K> {
          * @param 起始名次
          */
         RankItr(int kth) {
+            this(kth == size() ? null : getKthNode(kth + 1), kth);
+        }
+
+        /**
+         * 构造函数
+         * @param next 后一个节点
+         * @param lastRank 前一个元素的名次
+         */
+        RankItr(Node<K> next, int lastRank) {
             expectedModCount = modCount;
-            next = kth == size() ? null : getKthNode(kth + 1);
-            lastRank = kth;
+            this.next = next;
+            this.lastRank = lastRank;
         }
 
         /**
@@ -904,6 +1031,30 @@ public class RBTreeRank<K> implements IRank<K> {
         return new RankItr(kth);
     }
 
+    /**
+     * 在一次查找中定位不小于key的最小关键字
+     * @see top.daheizi.commons.stl.IRank#ceilingIterator(java.lang.Object)
+     */
+    @Override
+    public RankIterator<K> ceilingIterator(K key) {
+        if (key == null) {
+            throw new NullPointerException();
+        }
+        Node<K> ceiling = null;
+        int rank = 0;
+        Node<K> p = root;
+        while (p != null) {
+            if (compare(key, p.key) <= 0) {
+                ceiling = p;
+                p = p.left;
+            } else {
+                rank += sizeOf(p.left) + 1;
+                p = p.right;
+            }
+        }
+        return new RankItr(ceiling, rank);
+    }
+
     /**
      * 返回节点的颜色
      * 空节点为黑色
@@ -1193,6 +1344,25 @@ public class RBTreeRank<K> implements IRank<K> {
             r.check();
         }
 
+        // *****测试批量构建
+        RBTreeRank<Integer> r3 = RBTreeRank.fromSorted(li2.stream().sorted().iterator(), li2.size());
+        r3.check();
+        System.out.println(Arrays.toString(r3.toArray()));
+        List<Integer> sorted = new ArrayList<>(li);
+        Collections.sort(sorted);
+        long ns0 = System.nanoTime();
+        r3 = RBTreeRank.fromSorted(sorted.iterator(), sorted.size());
+        System.out.println("fromSorted: " + (System.nanoTime() - ns0) / sorted.size()
+                + ", height: " + r3.getHeight());
+        r3.check();
+        ns0 = System.nanoTime();
+        RBTreeRank<Integer> r4 = new RBTreeRank<>();
+        for (Integer i : sorted) {
+            r4.add(i);
+        }
+        System.out.println("add one by one: " + (System.nanoTime() - ns0) / sorted.size()
+                + ", height: " + r4.getHeight());
+
         // *****测试效率
         // 准备数据
         Collections.shuffle(li);
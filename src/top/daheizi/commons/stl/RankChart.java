@@ -1,9 +1,12 @@
 package top.daheizi.commons.stl;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Random;
@@ -12,6 +15,7 @@ import java.util.Random;
  * 底层为IRank支持的带有索引的排行榜
  * 通过对相等数据附加不同orderId封装成UnequalValue，
  * 以保证存入IRank内的数据互不相等
+ * orderId取自单调递增的64位序号，值相等的数据按存入的先后排序，无需查询或重新编号
  * 因此更加适用于可能存入大量相等的数据于排行榜内时
  * 非线程安全
  * @param <K>
@@ -30,9 +34,22 @@ public class RankChart<K, V> implements IChart<K, V> {
     /** 比较器 */
     private Comparator<? super V> comparator;
 
-    /** 顺序id的最值 */
-    private static final int MIN_ORDER_ID = 1 << 31;
-    private static final int MAX_ORDER_ID = ~ (1 << 31);
+    /**
+     * 批量数据量 * BULK_PUT_FACTOR >= 当前数据量时，putAll采用整体重建，
+     * 批量数据量 * BULK_REMOVE_FACTOR >= 当前数据量时，removeAll采用整体重建
+     * 重建只需重新构建内部的红黑树，映射表和UnequalValue均沿用，
+     * 由TestBulkBench测得：putAll在批量数据量约为当前数据量的0.25~0.5倍以上时快于逐个put，
+     * removeAll约在0.25倍以上时快于逐个remove
+     */
+    private static final int BULK_PUT_FACTOR = 2;
+    private static final int BULK_REMOVE_FACTOR = 4;
+
+    /** 顺序id的最值，仅用于查询，不会分配给实际数据 */
+    private static final long MIN_ORDER_ID = Long.MIN_VALUE;
+    private static final long MAX_ORDER_ID = Long.MAX_VALUE;
+
+    /** 下一个顺序id，单调递增，即使每秒分配10亿次也需数百年才会用尽 */
+    private long nextOrderId = MIN_ORDER_ID + 1;
 
     /**
      * 构造函数
@@ -77,7 +94,7 @@ public class RankChart<K, V> implements IChart<K, V> {
         /** 真值 */
         V value;
         /** 唯一id */
-        int orderId;
+        long orderId;
 
         /**
          * 构造函数
@@ -94,7 +111,7 @@ public class RankChart<K, V> implements IChart<K, V> {
          * @param value
          * @param orderId
          */
-        public UnequalValue(K key, V value, int orderId) {
+        public UnequalValue(K key, V value, long orderId) {
             this.key = key;
             this.value = value;
             this.orderId = orderId;
@@ -143,27 +160,8 @@ public class RankChart<K, V> implements IChart<K, V> {
             uneValue = new UnequalValue(key, value);
             map.put(key, uneValue);
         }
-        // 设置合适的orderId，以保证排行榜内不存在相等的uneValue
-        // 这里存在一些冗余的查询可能会影响效率
-        uneValue.orderId = MAX_ORDER_ID;
-        int lastPos = rank.getRank(uneValue);
-        uneValue.orderId = MIN_ORDER_ID;
-        if (lastPos > 0) {
-            // orderId已达上限，需要重新按序调整
-            int firstPos = rank.getRank(uneValue);
-            RankIterator<UnequalValue> it = rank.rankIterator(Math.abs(firstPos) - 1);
-            int newOrderId = MIN_ORDER_ID;
-            while (it.nextRank() <= lastPos) {
-                it.next().orderId = newOrderId++;
-            }
-            uneValue.orderId = newOrderId;
-        } else if (lastPos < -1) {
-            // 将orderId设置为现有与value值相等的所有数据中(最大的orderId) + 1
-            UnequalValue preUniValue = rank.getKth(-lastPos - 1);
-            if (compare(preUniValue.value, value) == 0) {
-                uneValue.orderId = preUniValue.orderId + 1;
-            }
-        }
+        // 分配新的orderId，大于排行榜内所有数据的orderId，因此排在与value值相等的数据之后
+        uneValue.orderId = nextOrderId++;
         rank.add(uneValue);
         return preValue;
     }
@@ -181,6 +179,100 @@ public class RankChart<K, V> implements IChart<K, V> {
         return null;
     }
 
+    /**
+     * 批量数据量较大时，将现有数据与批量数据合并后整体重建内部排行榜
+     * @see top.daheizi.commons.stl.IChart#putAll(java.util.Map)
+     */
+    @Override
+    public void putAll(Map<? extends K, ? extends V> map) {
+        if (map.isEmpty()) {
+            return;
+        } else if (!(rank instanceof RBTreeRank) || map.size() * BULK_PUT_FACTOR < size()) {
+            IChart.super.putAll(map);
+            return;
+        }
+        // 按序遍历现有数据，与新值相等的原位替换，与新值不等的移出
+        List<UnequalValue> olds = new ArrayList<>(size());
+        for (UnequalValue uneValue : rank) {
+            if (map.containsKey(uneValue.key)) {
+                V value = map.get(uneValue.key);
+                if (compare(value, uneValue.value) == 0) {
+                    uneValue.value = value;
+                    olds.add(uneValue);
+                }
+            } else {
+                olds.add(uneValue);
+            }
+        }
+        // 需要(重新)插入的数据，按批量数据的迭代顺序分配orderId，再按值稳定排序
+        List<UnequalValue> news = new ArrayList<>(map.size());
+        for (Map.Entry<? extends K, ? extends V> e : map.entrySet()) {
+            K key = e.getKey();
+            if (key == null) {
+                throw new NullPointerException();
+            }
+            UnequalValue uneValue = this.map.get(key);
+            if (uneValue == null) {
+                uneValue = new UnequalValue(key, e.getValue(), nextOrderId++);
+                this.map.put(key, uneValue);
+                news.add(uneValue);
+            } else if (compare(e.getValue(), uneValue.value) != 0) {
+                uneValue.value = e.getValue();
+                uneValue.orderId = nextOrderId++;
+                news.add(uneValue);
+            }
+        }
+        news.sort((u1, u2) -> compare(u1.value, u2.value));
+        // 合并，值相等时现有数据的orderId更小，在前
+        List<UnequalValue> values = new ArrayList<>(olds.size() + news.size());
+        int i = 0, j = 0;
+        while (i < olds.size() && j < news.size()) {
+            if (compare(olds.get(i).value, news.get(j).value) <= 0) {
+                values.add(olds.get(i++));
+            } else {
+                values.add(news.get(j++));
+            }
+        }
+        values.addAll(olds.subList(i, olds.size()));
+        values.addAll(news.subList(j, news.size()));
+        rebuild(values);
+    }
+
+    /**
+     * 批量数据量较大时，过滤现有数据后整体重建内部排行榜
+     * @see top.daheizi.commons.stl.IChart#removeAll(java.util.Collection)
+     */
+    @Override
+    public int removeAll(Collection<? extends K> keys) {
+        if (!(rank instanceof RBTreeRank) || keys.size() * BULK_REMOVE_FACTOR < size()) {
+            return IChart.super.removeAll(keys);
+        }
+        int size = size();
+        for (K key : keys) {
+            map.remove(key);
+        }
+        if (map.size() == size) {
+            return 0;
+        }
+        List<UnequalValue> values = new ArrayList<>(map.size());
+        for (UnequalValue uneValue : rank) {
+            if (map.get(uneValue.key) == uneValue) {
+                values.add(uneValue);
+            }
+        }
+        rebuild(values);
+        return size - values.size();
+    }
+
+    /**
+     * 由有序的数据整体重建内部排行榜
+     * @param values
+     * @Date 2026年10月17日 下午10:21:47
+     */
+    private void rebuild(List<UnequalValue> values) {
+        ((RBTreeRank<UnequalValue>) rank).buildFromSorted(values.iterator(), values.size());
+    }
+
     /**
      * @see top.daheizi.commons.stl.IChart#get(java.lang.Object)
      */
@@ -294,15 +386,142 @@ public class RankChart<K, V> implements IChart<K, V> {
     }
 
     /**
+     * 一次查找定位不小于low的第一个数据，之后顺序遍历直到超过high
      * @see top.daheizi.commons.stl.IChart#getRangeList(java.lang.Object, java.lang.Object)
      */
     @Override
     public List<Tuple<K, V>> getRangeList(V low, V high) {
-        int start = rank.getRank(new UnequalValue(null, low, MIN_ORDER_ID));
-        start = start > 0 ? start : -start;
-        int end = rank.getRank(new UnequalValue(null, high, MAX_ORDER_ID));
-        end = end > 0 ? end : -end - 1;
-        return getSequenceList(start, end);
+        List<Tuple<K, V>> list = new ArrayList<>();
+        RankIterator<UnequalValue> it = rank.ceilingIterator(new UnequalValue(null, low, MIN_ORDER_ID));
+        while (it.hasNext()) {
+            UnequalValue uneValue = it.next();
+            if (compare(uneValue.value, high) > 0) {
+                break;
+            }
+            list.add(new Tuple<>(uneValue.key, uneValue.value));
+        }
+        return list;
+    }
+
+    /**
+     * 一次查找定位大于high的第一个数据，之后反向遍历直到小于low
+     * @see top.daheizi.commons.stl.IChart#getDescendingRangeList(java.lang.Object, java.lang.Object)
+     */
+    @Override
+    public List<Tuple<K, V>> getDescendingRangeList(V low, V high) {
+        List<Tuple<K, V>> list = new ArrayList<>();
+        RankIterator<UnequalValue> it = rank.ceilingIterator(new UnequalValue(null, high, MAX_ORDER_ID));
+        while (it.hasPrevious()) {
+            UnequalValue uneValue = it.previous();
+            if (compare(uneValue.value, low) < 0) {
+                break;
+            }
+            list.add(new Tuple<>(uneValue.key, uneValue.value));
+        }
+        return list;
+    }
+
+    /**
+     * 从关键字所在位置先反向移动至多left个，再正向收集
+     * @see top.daheizi.commons.stl.IChart#getSurroundedByKey(java.lang.Object, int, int)
+     */
+    @Override
+    public List<Tuple<K, V>> getSurroundedByKey(K key, int left, int right) {
+        UnequalValue target = map.get(key);
+        if (target == null || left < 0 || right < 0) {
+            return target == null ? new ArrayList<>() : IChart.super.getSurroundedByKey(key, left, right);
+        }
+        RankIterator<UnequalValue> it = rank.ceilingIterator(target);
+        int count = right + 1;
+        for (int i = 0; i < left && it.hasPrevious(); i++) {
+            it.previous();
+            count++;
+        }
+        List<Tuple<K, V>> list = new ArrayList<>(count);
+        for (; count > 0 && it.hasNext(); count--) {
+            UnequalValue uneValue = it.next();
+            list.add(new Tuple<>(uneValue.key, uneValue.value));
+        }
+        return list;
+    }
+
+    /**
+     * 直接遍历内部排行榜，不为每个数据创建Tuple
+     * @see top.daheizi.commons.stl.IChart#forEachInRange(int, int, top.daheizi.commons.stl.ChartVisitor)
+     */
+    @Override
+    public int forEachInRange(int start, int end, ChartVisitor<? super K, ? super V> visitor) {
+        int size = size();
+        start = start < 1 ? 1 : start;
+        end = end > size ? size : end;
+        if (start > end) {
+            return 0;
+        }
+        RankIterator<UnequalValue> it = rank.rankIterator(start - 1);
+        for (int kth = start; kth <= end; kth++) {
+            UnequalValue uneValue = it.next();
+            visitor.visit(kth, uneValue.key, uneValue.value);
+        }
+        return end - start + 1;
+    }
+
+    /**
+     * 从名次为end的数据开始反向遍历内部排行榜
+     * @see top.daheizi.commons.stl.IChart#forEachDescending(int, int, top.daheizi.commons.stl.ChartVisitor)
+     */
+    @Override
+    public int forEachDescending(int start, int end, ChartVisitor<? super K, ? super V> visitor) {
+        int size = size();
+        start = start < 1 ? 1 : start;
+        end = end > size ? size : end;
+        if (start > end) {
+            return 0;
+        }
+        RankIterator<UnequalValue> it = rank.rankIterator(end);
+        for (int kth = end; kth >= start; kth--) {
+            UnequalValue uneValue = it.previous();
+            visitor.visit(kth, uneValue.key, uneValue.value);
+        }
+        return end - start + 1;
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.IChart#getDescendingList(int, int)
+     */
+    @Override
+    public List<Tuple<K, V>> getDescendingList(int start, int end) {
+        List<Tuple<K, V>> list = new ArrayList<>();
+        int size = size();
+        start = start < 1 ? 1 : start;
+        end = end > size ? size : end;
+        if (start <= end) {
+            RankIterator<UnequalValue> it = rank.rankIterator(end);
+            for (int kth = end; kth >= start; kth--) {
+                UnequalValue uneValue = it.previous();
+                list.add(new Tuple<>(uneValue.key, uneValue.value));
+            }
+        }
+        return list;
+    }
+
+    /**
+     * 一次查找定位起始位置，之后顺序遍历直到超过high
+     * @see top.daheizi.commons.stl.IChart#forEachInValueRange(java.lang.Object, java.lang.Object, top.daheizi.commons.stl.ChartVisitor)
+     */
+    @Override
+    public int forEachInValueRange(V low, V high, ChartVisitor<? super K, ? super V> visitor) {
+        RankIterator<UnequalValue> it = rank.ceilingIterator(new UnequalValue(null, low, MIN_ORDER_ID));
+        int count = 0;
+        while (it.hasNext()) {
+            int kth = it.nextRank();
+            UnequalValue uneValue = it.next();
+            if (compare(uneValue.value, high) > 0) {
+                break;
+            }
+            visitor.visit(kth, uneValue.key, uneValue.value);
+            count++;
+        }
+        return count;
     }
 
     /**
@@ -381,6 +600,72 @@ public class RankChart<K, V> implements IChart<K, V> {
             r2.put(i, new Tuple<>(i, i * 10 - i));
         }
 
+        // *****测试批量操作，结果需与逐个操作一致
+        IChart<Integer, Integer> r3 = new RankChart<>();
+        IChart<Integer, Integer> r4 = new RankChart<>();
+        Random rnd = new Random();
+        for (int round = 0; round < 50; round++) {
+            Map<Integer, Integer> batch = new LinkedHashMap<>();
+            int batchSize = rnd.nextInt(2000);
+            for (int i = 0; i < batchSize; i++) {
+                batch.put(rnd.nextInt(3000), rnd.nextInt(100));
+            }
+            r3.putAll(batch);
+            for (Map.Entry<Integer, Integer> e : batch.entrySet()) {
+                r4.put(e.getKey(), e.getValue());
+            }
+            List<Integer> keys = new ArrayList<>();
+            int removeSize = rnd.nextInt(1500);
+            for (int i = 0; i < removeSize; i++) {
+                keys.add(rnd.nextInt(3000));
+            }
+            int count = 0;
+            for (Integer key : keys) {
+                if (r4.remove(key) != null) {
+                    count++;
+                }
+            }
+            if (r3.removeAll(keys) != count) {
+                throw new RuntimeException("removeAll Not Equal !");
+            }
+            if (!r3.getSequenceList(0, r3.size()).equals(r4.getSequenceList(0, r4.size()))) {
+                throw new RuntimeException("putAll Not Equal !");
+            }
+        }
+        System.out.println("putAll/removeAll: " + r3.size());
+
+        // *****测试相等数据的先后顺序，需与RBTreeChart一致
+        IChart<Integer, Integer> r5 = new RankChart<>();
+        IChart<Integer, Integer> r6 = new RBTreeChart<>();
+        for (int i = 0; i < 200000; i++) {
+            int key = rnd.nextInt(5000);
+            if (rnd.nextInt(5) == 0) {
+                r5.remove(key);
+                r6.remove(key);
+            } else {
+                int value = rnd.nextInt(10);
+                r5.put(key, value);
+                r6.put(key, value);
+            }
+        }
+        if (!r5.getSequenceList(0, r5.size()).equals(r6.getSequenceList(0, r6.size()))) {
+            throw new RuntimeException("Tie Order Not Equal !");
+        }
+
+        // *****大量相等数据时的插入效率
+        IChart<Integer, Integer> r7 = new RankChart<>();
+        int tieNum = 1000000;
+        long t1 = System.nanoTime();
+        for (int i = 0; i < tieNum; i++) {
+            r7.put(i, 0);
+        }
+        long t2 = System.nanoTime();
+        for (int i = 0; i < tieNum; i++) {
+            r7.put(i, i & 1);
+        }
+        long t3 = System.nanoTime();
+        System.out.println("tie put: " + (t2 - t1) / tieNum + " ns, tie update: " + (t3 - t2) / tieNum + " ns");
+
         //        System.exit(0);
 
         // *****测试效率
@@ -428,6 +713,16 @@ public class RankChart<K, V> implements IChart<K, V> {
         ns2 = System.nanoTime();
         System.out.println("delete:" + (ns2 - ns1) / times);
 
+        // 批量添加
+        Map<Integer, Integer> batch = new HashMap<>();
+        for (int i = 0; i < num / 2; i++) {
+            batch.put(random.nextInt(num), random.nextInt(num));
+        }
+        ns1 = System.nanoTime();
+        r.putAll(batch);
+        ns2 = System.nanoTime();
+        System.out.println("putAll:" + (ns2 - ns1) / batch.size());
+
         System.exit(0);
     }
 }
@@ -0,0 +1,1017 @@
+package top.daheizi.commons.stl;
+
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * 关键字为long、分值为基本类型的排行榜的名次树与关键字索引
+ * 名次树为以子树大小维持平衡的加权平衡树(weight-balanced tree)，节点以下标相互引用；
+ * 关键字索引为线性探测的开放寻址哈希表，只存储节点下标
+ * 节点的各字段和索引的槽位由子类存储，可以是堆内的基本类型数组(AbstractScoreChart)，
+ * 也可以是堆外的内存映射文件(MappedChart)，下标0为空节点，其各字段恒为0
+ * 值相等的数据按添加的先后排序(与RBTreeChart一致)，通过递增的序号seq区分
+ * 非线程安全
+ * @param <V> 分值的装箱类型
+ * @author daheizi
+ * @Date 2026年10月18日 上午10:37:00
+ */
+abstract class ScoreTree<V extends Number> implements IChart<Long, V> {
+
+    /** 空节点 */
+    static final int NIL = 0;
+
+    /** 加权平衡树的参数：一侧子树大小超过另一侧的DELTA倍时旋转 */
+    private static final int DELTA = 3;
+
+    /** 加权平衡树的参数：决定单旋还是双旋 */
+    private static final int RATIO = 2;
+
+    /** 索引的最大负载因子 */
+    static final float LOAD_FACTOR = 0.75f;
+
+    /** 是否按分值降序排列 */
+    private final boolean descending;
+
+    /** 根 */
+    private int root = NIL;
+    /** 已分配过的最大节点下标 */
+    private int top = NIL;
+    /** 空闲节点链表的头，通过左子树串联 */
+    private int free = NIL;
+    /** 下一个序号 */
+    private int nextSeq = 0;
+
+    /** 树结构的修改次数 */
+    private int modCount = 0;
+
+    /** deleteMin/deleteMax中被摘下的节点 */
+    private int extracted;
+
+    /**
+     * 构造函数
+     * @param descending 是否按分值降序排列
+     */
+    ScoreTree(boolean descending) {
+        this.descending = descending;
+    }
+
+    /**
+     * 将分值装箱
+     * @param score
+     * @return
+     * @Date 2026年10月17日 下午11:06:20
+     */
+    protected abstract V valueOf(long score);
+
+    /**
+     * 将装箱的值转换为分值
+     * @param value
+     * @return
+     * @Date 2026年10月17日 下午11:06:41
+     */
+    protected abstract long scoreOf(V value);
+
+    /****************** 节点与索引的存储 ***************************/
+
+    /**
+     * @param node
+     * @return 关键字
+     */
+    abstract long key(int node);
+
+    /**
+     * @param node
+     * @param key 关键字
+     */
+    abstract void setKey(int node, long key);
+
+    /**
+     * @param node
+     * @return 分值
+     */
+    abstract long score(int node);
+
+    /**
+     * @param node
+     * @param score 分值
+     */
+    abstract void setScore(int node, long score);
+
+    /**
+     * @param node
+     * @return 序号
+     */
+    abstract int seq(int node);
+
+    /**
+     * @param node
+     * @param seq 序号
+     */
+    abstract void setSeq(int node, int seq);
+
+    /**
+     * @param node
+     * @return 左子树
+     */
+    abstract int left(int node);
+
+    /**
+     * @param node
+     * @param left 左子树
+     */
+    abstract void setLeft(int node, int left);
+
+    /**
+     * @param node
+     * @return 右子树
+     */
+    abstract int right(int node);
+
+    /**
+     * @param node
+     * @param right 右子树
+     */
+    abstract void setRight(int node, int right);
+
+    /**
+     * @param node
+     * @return 子树大小
+     */
+    abstract int size(int node);
+
+    /**
+     * @param node
+     * @param size 子树大小
+     */
+    abstract void setSize(int node, int size);
+
+    /**
+     * 确保下标为node的节点可以读写，分配新的节点下标时调用
+     * @param node
+     * @Date 2026年10月18日 上午10:37:30
+     */
+    abstract void ensureNode(int node);
+
+    /**
+     * @return 索引容量，2的幂
+     */
+    abstract int indexCapacity();
+
+    /**
+     * @param slot
+     * @return 索引槽位中的节点
+     */
+    abstract int slot(int slot);
+
+    /**
+     * @param slot
+     * @param node 写入索引槽位的节点
+     */
+    abstract void setSlot(int slot, int node);
+
+    /**
+     * 开始重建索引：创建指定容量的空索引，之后的槽位读写都作用于新索引，
+     * 全部节点重新加入后调用endIndex
+     * @param capacity 2的幂
+     * @Date 2026年10月18日 上午10:37:50
+     */
+    abstract void beginIndex(int capacity);
+
+    /**
+     * 完成重建索引，默认无需处理
+     * @Date 2026年10月18日 上午10:38:10
+     */
+    void endIndex() {}
+
+    /**
+     * 树的状态改变后调用，默认不保存
+     * @param root 根
+     * @param top 已分配过的最大节点下标
+     * @param free 空闲节点链表的头
+     * @param nextSeq 下一个序号
+     * @Date 2026年10月18日 上午10:38:30
+     */
+    void saveState(int root, int top, int free, int nextSeq) {}
+
+    /**
+     * 恢复已保存的树的状态，用于打开已存在的数据，之后须重建或打开已有的索引
+     * @param root
+     * @param top
+     * @param free
+     * @param nextSeq
+     * @Date 2026年10月18日 上午10:38:50
+     */
+    final void restoreState(int root, int top, int free, int nextSeq) {
+        this.root = root;
+        this.top = top;
+        this.free = free;
+        this.nextSeq = nextSeq;
+    }
+
+    /****************** 基本类型接口 ***************************/
+
+    /**
+     * 添加或更新关键字的分值
+     * 若分值未变，则结构不变；否则移除后再添加
+     * @param key
+     * @param score
+     * @return 是否为新添加的关键字
+     * @Date 2026年10月17日 下午11:08:02
+     */
+    public boolean putScore(long key, long score) {
+        int node = findNode(key);
+        update(node, key, score);
+        return node == NIL;
+    }
+
+    /**
+     * 移除关键字
+     * @param key
+     * @return 是否找到并移除
+     * @Date 2026年10月17日 下午11:08:35
+     */
+    public boolean removeKey(long key) {
+        int node = findNode(key);
+        if (node == NIL) {
+            return false;
+        }
+        removeNode(node);
+        return true;
+    }
+
+    /**
+     * 返回关键字的分值
+     * @param key
+     * @param defaultScore 关键字不存在时返回的分值
+     * @return
+     * @Date 2026年10月17日 下午11:09:03
+     */
+    public long getScore(long key, long defaultScore) {
+        int node = findNode(key);
+        return node == NIL ? defaultScore : score(node);
+    }
+
+    /**
+     * 查询关键字的排名
+     * @param key
+     * @return 不在排行榜内时返回 -1
+     * @Date 2026年10月17日 下午11:09:31
+     */
+    public int rankOf(long key) {
+        int node = findNode(key);
+        return node == NIL ? -1 : rankOfNode(node);
+    }
+
+    /**
+     * 返回第kth名的关键字
+     * @param kth
+     * @return
+     * @throws IndexOutOfBoundsException 名次越界
+     * @Date 2026年10月17日 下午11:10:02
+     */
+    public long getKthKey(int kth) {
+        return key(kthNode(kth));
+    }
+
+    /**
+     * 返回第kth名的分值
+     * @param kth
+     * @return
+     * @throws IndexOutOfBoundsException 名次越界
+     * @Date 2026年10月17日 下午11:10:20
+     */
+    public long getKthScore(int kth) {
+        return score(kthNode(kth));
+    }
+
+    /**
+     * 返回分值排在给定分值之前(不包含相等)的数据量
+     * @param score
+     * @return
+     * @Date 2026年10月17日 下午11:11:05
+     */
+    public int countBefore(long score) {
+        return countBefore(score, false);
+    }
+
+    /****************** IChart接口 ***************************/
+
+    /**
+     * @see top.daheizi.commons.stl.IChart#put(java.lang.Object, java.lang.Object)
+     */
+    @Override
+    public V put(Long key, V value) {
+        long k = key;
+        int node = findNode(k);
+        V preValue = node == NIL ? null : valueOf(score(node));
+        update(node, k, scoreOf(value));
+        return preValue;
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.IChart#remove(java.lang.Object)
+     */
+    @Override
+    public V remove(Long key) {
+        int node = findNode(key);
+        if (node == NIL) {
+            return null;
+        }
+        V preValue = valueOf(score(node));
+        removeNode(node);
+        return preValue;
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.IChart#get(java.lang.Object)
+     */
+    @Override
+    public V get(Long key) {
+        int node = findNode(key);
+        return node == NIL ? null : valueOf(score(node));
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.IChart#containsKey(java.lang.Object)
+     */
+    @Override
+    public boolean containsKey(Long key) {
+        return findNode(key) != NIL;
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.IChart#size()
+     */
+    @Override
+    public int size() {
+        return size(root);
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.IChart#clear()
+     */
+    @Override
+    public void clear() {
+        modCount++;
+        root = top = free = NIL;
+        nextSeq = 0;
+        saveState(root, top, free, nextSeq);
+        rebuildIndex(indexCapacity());
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.IChart#getRank(java.lang.Object)
+     */
+    @Override
+    public int getRank(Long key) {
+        return rankOf(key);
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.IChart#getKth(int)
+     */
+    @Override
+    public Tuple<Long, V> getKth(int kth) {
+        if (kth > 0 && kth <= size()) {
+            int node = kthNode(kth);
+            return new Tuple<>(key(node), valueOf(score(node)));
+        }
+        return null;
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.IChart#getRankInfo(java.lang.Object)
+     */
+    @Override
+    public int[] getRankInfo(V value) {
+        long score = scoreOf(value);
+        return new int[]{countBefore(score, false), countBefore(score, true)};
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.IChart#iterator()
+     */
+    @Override
+    public Iterator<Tuple<Long, V>> iterator() {
+        return iterator(0);
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.IChart#iterator(int)
+     */
+    @Override
+    public Iterator<Tuple<Long, V>> iterator(int kth) {
+        return new Itr(kth);
+    }
+
+    /****************** 名次树 ***************************/
+
+    /**
+     * 比较两个分值的先后
+     * @param s1
+     * @param s2
+     * @return
+     * @Date 2026年10月17日 下午11:13:10
+     */
+    private int compareScore(long s1, long s2) {
+        return descending ? Long.compare(s2, s1) : Long.compare(s1, s2);
+    }
+
+    /**
+     * 比较两个节点的先后，分值相等时按序号比较
+     * @param x
+     * @param y
+     * @return
+     * @Date 2026年10月17日 下午11:13:42
+     */
+    private int compare(int x, int y) {
+        int cmp = compareScore(score(x), score(y));
+        return cmp != 0 ? cmp : Integer.compareUnsigned(seq(x), seq(y));
+    }
+
+    /**
+     * 更新关键字的分值
+     * @param node 关键字所在节点，不存在时为NIL
+     * @param key
+     * @param score
+     * @Date 2026年10月17日 下午11:14:30
+     */
+    private void update(int node, long key, long score) {
+        if (node != NIL) {
+            if (score(node) == score) {
+                // 分值未变，结构不变
+                return;
+            }
+            root = delete(root, node);
+        } else {
+            node = allocNode(key);
+            indexPut(node);
+        }
+        modCount++;
+        setScore(node, score);
+        setSeq(node, nextSeq());
+        root = insert(root, node);
+        saveState(root, top, free, nextSeq);
+    }
+
+    /**
+     * 移除节点
+     * @param node
+     * @Date 2026年10月17日 下午11:15:02
+     */
+    private void removeNode(int node) {
+        modCount++;
+        root = delete(root, node);
+        indexRemove(node);
+        setLeft(node, free);
+        free = node;
+        saveState(root, top, free, nextSeq);
+    }
+
+    /**
+     * 返回下一个序号
+     * 序号用尽时按当前次序重新编号，O(n)，但每2^32次更新才会发生一次
+     * @return
+     * @Date 2026年10月17日 下午11:15:47
+     */
+    private int nextSeq() {
+        if (nextSeq == -1) {
+            int seq = 0;
+            int[] stack = new int[stackSize()];
+            int depth = 0;
+            int t = root;
+            while (t != NIL || depth > 0) {
+                while (t != NIL) {
+                    stack[depth++] = t;
+                    t = left(t);
+                }
+                t = stack[--depth];
+                setSeq(t, seq++);
+                t = right(t);
+            }
+            nextSeq = seq;
+        }
+        return nextSeq++;
+    }
+
+    /**
+     * 分配一个节点
+     * @param key
+     * @return
+     * @Date 2026年10月17日 下午11:16:30
+     */
+    private int allocNode(long key) {
+        int node;
+        if (free != NIL) {
+            node = free;
+            free = left(node);
+        } else {
+            node = ++top;
+            ensureNode(node);
+        }
+        setKey(node, key);
+        return node;
+    }
+
+    /**
+     * 插入节点，返回新的子树根
+     * @param t
+     * @param node
+     * @return
+     * @Date 2026年10月17日 下午11:17:12
+     */
+    private int insert(int t, int node) {
+        if (t == NIL) {
+            setLeft(node, NIL);
+            setRight(node, NIL);
+            setSize(node, 1);
+            return node;
+        }
+        if (compare(node, t) < 0) {
+            setLeft(t, insert(left(t), node));
+        } else {
+            setRight(t, insert(right(t), node));
+        }
+        return balance(t);
+    }
+
+    /**
+     * 删除节点，返回新的子树根
+     * @param t
+     * @param node 必须位于子树内
+     * @return
+     * @Date 2026年10月17日 下午11:17:40
+     */
+    private int delete(int t, int node) {
+        if (t == node) {
+            return glue(left(t), right(t));
+        }
+        if (compare(node, t) < 0) {
+            setLeft(t, delete(left(t), node));
+        } else {
+            setRight(t, delete(right(t), node));
+        }
+        return balance(t);
+    }
+
+    /**
+     * 合并被删除节点的左右子树，从较大的一侧摘下相邻节点作为新的根
+     * @param l
+     * @param r
+     * @return
+     * @Date 2026年10月17日 下午11:18:22
+     */
+    private int glue(int l, int r) {
+        if (l == NIL) {
+            return r;
+        } else if (r == NIL) {
+            return l;
+        }
+        int m;
+        if (size(l) > size(r)) {
+            l = deleteMax(l);
+            m = extracted;
+        } else {
+            r = deleteMin(r);
+            m = extracted;
+        }
+        setLeft(m, l);
+        setRight(m, r);
+        return balance(m);
+    }
+
+    /**
+     * 摘下子树中最小的节点(记录于extracted)，返回新的子树根
+     * @param t
+     * @return
+     * @Date 2026年10月17日 下午11:18:50
+     */
+    private int deleteMin(int t) {
+        if (left(t) == NIL) {
+            extracted = t;
+            return right(t);
+        }
+        setLeft(t, deleteMin(left(t)));
+        return balance(t);
+    }
+
+    /**
+     * 摘下子树中最大的节点(记录于extracted)，返回新的子树根
+     * @param t
+     * @return
+     * @Date 2026年10月17日 下午11:19:05
+     */
+    private int deleteMax(int t) {
+        if (right(t) == NIL) {
+            extracted = t;
+            return left(t);
+        }
+        setRight(t, deleteMax(right(t)));
+        return balance(t);
+    }
+
+    /**
+     * 维护加权平衡树的性质并修复size属性，返回新的子树根
+     * 单次插入或删除后，每层至多需要一次单旋或双旋
+     * @param t
+     * @return
+     * @Date 2026年10月17日 下午11:19:41
+     */
+    private int balance(int t) {
+        int l = left(t), r = right(t);
+        int sl = size(l), sr = size(r);
+        if (sl + sr > 1) {
+            if (sr > DELTA * sl) {
+                if (size(left(r)) >= RATIO * size(right(r))) {
+                    setRight(t, rotateRight(r));
+                }
+                return rotateLeft(t);
+            } else if (sl > DELTA * sr) {
+                if (size(right(l)) >= RATIO * size(left(l))) {
+                    setLeft(t, rotateLeft(l));
+                }
+                return rotateRight(t);
+            }
+        }
+        setSize(t, sl + sr + 1);
+        return t;
+    }
+
+    /**
+     * 左旋，返回新的子树根
+     * @param x
+     * @return
+     * @Date 2026年10月17日 下午11:20:15
+     */
+    private int rotateLeft(int x) {
+        int y = right(x);
+        setRight(x, left(y));
+        setLeft(y, x);
+        maintain(x);
+        maintain(y);
+        return y;
+    }
+
+    /**
+     * 右旋，返回新的子树根
+     * @param y
+     * @return
+     * @Date 2026年10月17日 下午11:20:30
+     */
+    private int rotateRight(int y) {
+        int x = left(y);
+        setLeft(y, right(x));
+        setRight(x, y);
+        maintain(y);
+        maintain(x);
+        return x;
+    }
+
+    /**
+     * 修复节点的size属性
+     * @param t
+     * @Date 2026年10月17日 下午11:20:48
+     */
+    private void maintain(int t) {
+        setSize(t, size(left(t)) + size(right(t)) + 1);
+    }
+
+    /**
+     * 返回节点的名次
+     * @param node
+     * @return
+     * @Date 2026年10月17日 下午11:21:20
+     */
+    private int rankOfNode(int node) {
+        int rank = 0;
+        int t = root;
+        while (t != node) {
+            if (compare(node, t) < 0) {
+                t = left(t);
+            } else {
+                rank += size(left(t)) + 1;
+                t = right(t);
+            }
+        }
+        return rank + size(left(t)) + 1;
+    }
+
+    /**
+     * 返回名次为kth的节点
+     * @param kth
+     * @return
+     * @throws IndexOutOfBoundsException 名次越界
+     * @Date 2026年10月17日 下午11:21:52
+     */
+    private int kthNode(int kth) {
+        if (!(kth > 0 && kth <= size())) {
+            throw new IndexOutOfBoundsException("Rank: " + kth + ", Size: " + size());
+        }
+        int t = root;
+        while (true) {
+            int ls = size(left(t));
+            if (kth <= ls) {
+                t = left(t);
+            } else if (kth == ls + 1) {
+                return t;
+            } else {
+                kth -= ls + 1;
+                t = right(t);
+            }
+        }
+    }
+
+    /**
+     * 返回分值排在给定分值之前的数据量
+     * @param score
+     * @param inclusive 是否包含相等的分值
+     * @return
+     * @Date 2026年10月17日 下午11:22:30
+     */
+    protected int countBefore(long score, boolean inclusive) {
+        int count = 0;
+        int t = root;
+        while (t != NIL) {
+            int cmp = compareScore(score, score(t));
+            if (cmp < 0 || (cmp == 0 && !inclusive)) {
+                t = left(t);
+            } else {
+                count += size(left(t)) + 1;
+                t = right(t);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 返回遍历所需的栈深度，即树高的上界
+     * 加权平衡树中子树的大小至多为父树的3/4，因此树高不超过 log(4/3)(n) + 1
+     * @return
+     * @Date 2026年10月17日 下午11:23:12
+     */
+    private int stackSize() {
+        return (int) (Math.log(size() + 1) / Math.log(4.0 / 3)) + 2;
+    }
+
+    /****************** 关键字索引 ***************************/
+
+    /**
+     * 关键字的哈希值
+     * @param key
+     * @return
+     * @Date 2026年10月17日 下午11:24:01
+     */
+    private static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    /**
+     * 查找关键字所在节点
+     * @param key
+     * @return 不存在时返回NIL
+     * @Date 2026年10月17日 下午11:24:25
+     */
+    private int findNode(long key) {
+        int mask = indexCapacity() - 1;
+        for (int i = hash(key) & mask; ; i = (i + 1) & mask) {
+            int node = slot(i);
+            if (node == NIL || key(node) == key) {
+                return node;
+            }
+        }
+    }
+
+    /**
+     * 将新节点加入索引，超过负载时扩容
+     * @param node
+     * @Date 2026年10月17日 下午11:24:50
+     */
+    private void indexPut(int node) {
+        if (size() + 1 > indexCapacity() * LOAD_FACTOR) {
+            rebuildIndex(indexCapacity() << 1);
+        }
+        indexInsert(node);
+    }
+
+    /**
+     * 重建指定容量的索引，按中序遍历将全部节点重新加入
+     * @param capacity 2的幂，须能容纳全部节点
+     * @Date 2026年10月18日 上午10:39:10
+     */
+    final void rebuildIndex(int capacity) {
+        beginIndex(capacity);
+        int[] stack = new int[stackSize()];
+        int depth = 0;
+        int t = root;
+        while (t != NIL || depth > 0) {
+            while (t != NIL) {
+                stack[depth++] = t;
+                t = left(t);
+            }
+            t = stack[--depth];
+            indexInsert(t);
+            t = right(t);
+        }
+        endIndex();
+    }
+
+    /**
+     * 将节点插入索引的空槽
+     * @param node
+     * @Date 2026年10月17日 下午11:25:12
+     */
+    private void indexInsert(int node) {
+        int mask = indexCapacity() - 1;
+        int i = hash(key(node)) & mask;
+        while (slot(i) != NIL) {
+            i = (i + 1) & mask;
+        }
+        setSlot(i, node);
+    }
+
+    /**
+     * 将节点移出索引
+     * 线性探测的删除：将后续槽位中可以前移的节点依次前移，不使用墓碑
+     * @param node
+     * @Date 2026年10月17日 下午11:25:40
+     */
+    private void indexRemove(int node) {
+        int mask = indexCapacity() - 1;
+        int i = hash(key(node)) & mask;
+        while (slot(i) != node) {
+            i = (i + 1) & mask;
+        }
+        for (int j = (i + 1) & mask, n; (n = slot(j)) != NIL; j = (j + 1) & mask) {
+            int k = hash(key(n)) & mask;
+            // 理想槽位k不在(i, j]之间时，才能前移到i
+            if (i <= j ? (k <= i || k > j) : (k <= i && k > j)) {
+                setSlot(i, n);
+                i = j;
+            }
+        }
+        setSlot(i, NIL);
+    }
+
+    /****************** 迭代器 ***************************/
+
+    /**
+     * 内部数据迭代器
+     * 以栈模拟中序遍历，不依赖父节点指针
+     * @author daheizi
+     * @Date 2026年10月17日 下午11:26:30
+     */
+    private class Itr implements Iterator<Tuple<Long, V>> {
+        /** 中序遍历的栈，栈顶为下一个节点 */
+        private int[] stack;
+        /** 栈深度 */
+        private int depth;
+        /** 上一个返回的节点 */
+        private int lastNode = NIL;
+        /** 上一个返回的节点的名次 */
+        private int lastRank;
+        /** 期待的被修改次数 */
+        private int expectedModCount;
+
+        /**
+         * 构造函数
+         * @param kth 起始名次
+         */
+        Itr(int kth) {
+            expectedModCount = modCount;
+            int size = size();
+            lastRank = kth < 0 ? 0 : (kth > size ? size : kth);
+            stack = new int[stackSize()];
+            seek(lastRank + 1);
+        }
+
+        /**
+         * 定位到名次为rank的节点，沿途记录尚未访问的祖先
+         * @param rank
+         * @Date 2026年10月17日 下午11:27:10
+         */
+        private void seek(int rank) {
+            depth = 0;
+            int t = root;
+            while (t != NIL) {
+                int ls = size(left(t));
+                if (rank <= ls) {
+                    stack[depth++] = t;
+                    t = left(t);
+                } else if (rank == ls + 1) {
+                    stack[depth++] = t;
+                    break;
+                } else {
+                    rank -= ls + 1;
+                    t = right(t);
+                }
+            }
+        }
+
+        /**
+         * @see java.util.Iterator#hasNext()
+         */
+        @Override
+        public boolean hasNext() {
+            return depth > 0;
+        }
+
+        /**
+         * @see java.util.Iterator#next()
+         */
+        @Override
+        public Tuple<Long, V> next() {
+            checkForComodification();
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            lastNode = stack[--depth];
+            lastRank++;
+            for (int t = right(lastNode); t != NIL; t = left(t)) {
+                stack[depth++] = t;
+            }
+            return new Tuple<>(key(lastNode), valueOf(score(lastNode)));
+        }
+
+        /**
+         * @see java.util.Iterator#remove()
+         */
+        @Override
+        public void remove() {
+            checkForComodification();
+            if (lastNode == NIL) {
+                throw new IllegalStateException();
+            }
+            removeNode(lastNode);
+            lastNode = NIL;
+            lastRank--;
+            // 树结构已改变，重新定位
+            seek(lastRank + 1);
+            expectedModCount = modCount;
+        }
+
+        /**
+         * 检查排行榜结构是否被修改
+         * @Date 2026年10月17日 下午11:28:02
+         */
+        private void checkForComodification() {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+        }
+    }
+
+
+
+    /****************** 以下为一些非必需的辅助和测试方法 ***************************/
+
+    /**
+     * 直接设定下一个序号，用于测试序号用尽时的重新编号
+     * @param seq
+     * @Date 2026年10月17日 下午11:28:40
+     */
+    void skipSeq(int seq) {
+        nextSeq = seq;
+    }
+
+    /**
+     * 验证名次树结构的正确性
+     * @Date 2026年10月17日 下午11:29:10
+     */
+    void check() {
+        if (checkImpl(root) != size()) {
+            throw new RuntimeException("Not WeightBalancedTree !");
+        }
+        for (int i = 1; i <= size(); i++) {
+            long key = getKthKey(i);
+            if (rankOf(key) != i) {
+                throw new RuntimeException("Index Error ! " + key);
+            }
+        }
+    }
+
+    /**
+     * 验证子树的有序性、size属性以及平衡性，返回子树大小
+     * @param t
+     * @return
+     * @Date 2026年10月17日 下午11:29:40
+     */
+    private int checkImpl(int t) {
+        if (t == NIL) {
+            return 0;
+        }
+        int l = left(t), r = right(t);
+        if (l != NIL && compare(l, t) >= 0 || r != NIL && compare(r, t) <= 0) {
+            throw new RuntimeException("Not SortTree !");
+        }
+        int sl = checkImpl(l), sr = checkImpl(r);
+        if (size(t) != sl + sr + 1) {
+            throw new RuntimeException("Not RankTree !");
+        }
+        if (sl + sr > 1 && (sl > DELTA * sr || sr > DELTA * sl)) {
+            throw new RuntimeException("Not Balanced !");
+        }
+        return size(t);
+    }
+}
@@ -0,0 +1,785 @@
+package top.daheizi.commons.stl;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 分片的线程安全排行榜
+ * 按关键字的hash将数据分散到多个独立的RBTreeChart中，每个分片持有各自的读写锁，
+ * 因此不同分片上的put/remove可以并行执行
+ * 跨分片的查询(getRank, getKth, 连续查询等)会按序获取所有分片的读锁，以保证结果一致
+ * 值相等的数据，先按分片序号排序，同一分片内再按添加的先后排序
+ * @param <K>
+ * @param <V>
+ * @author daheizi
+ * @Date 2026年10月17日 下午9:02:11
+ */
+public class ShardedChart<K, V> implements IChart<K, V> {
+
+    /** 迭代器每次读取的数据数目 */
+    private static final int ITERATOR_PAGE_SIZE = 128;
+
+    /** 分片 */
+    private final RBTreeChart<K, V>[] shards;
+
+    /** 分片的读写锁 */
+    private final ReentrantReadWriteLock[] locks;
+
+    /** 比较器 */
+    private final Comparator<? super V> comparator;
+
+    /**
+     * 构造函数
+     * 使用值的自身排序规则，需要 V implements Comparable<V>
+     * @param shardNum 分片数目
+     */
+    public ShardedChart(int shardNum) {
+        this(shardNum, null);
+    }
+
+    /**
+     * 构造函数
+     * 使用给定比较器的排序规则
+     * @param shardNum 分片数目
+     * @param comparator
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public ShardedChart(int shardNum, Comparator<V> comparator) {
+        if (shardNum <= 0) {
+            throw new IllegalArgumentException("shardNum: " + shardNum);
+        }
+        this.comparator = comparator;
+        this.shards = new RBTreeChart[shardNum];
+        this.locks = new ReentrantReadWriteLock[shardNum];
+        for (int i = 0; i < shardNum; i++) {
+            shards[i] = new RBTreeChart<>(comparator);
+            locks[i] = new ReentrantReadWriteLock();
+        }
+    }
+
+    /**
+     * 比较两个值的大小
+     * @param v1
+     * @param v2
+     * @return
+     * @Date 2026年10月17日 下午9:03:40
+     */
+    @SuppressWarnings("unchecked")
+    final int compare(V v1, V v2) {
+        return comparator == null ? ((Comparable<? super V>)v1).compareTo(v2)
+                : comparator.compare(v1, v2);
+    }
+
+    /**
+     * 返回关键字所在的分片序号
+     * @param key
+     * @return
+     * @Date 2026年10月17日 下午9:04:12
+     */
+    private int shardOf(K key) {
+        int h = key.hashCode();
+        h ^= h >>> 16;
+        return (h & 0x7fffffff) % shards.length;
+    }
+
+    /**
+     * 按序获取所有分片的读锁
+     * @Date 2026年10月17日 下午9:04:55
+     */
+    private void readLockAll() {
+        for (ReentrantReadWriteLock lock : locks) {
+            lock.readLock().lock();
+        }
+    }
+
+    /**
+     * 逆序释放所有分片的读锁
+     * @Date 2026年10月17日 下午9:05:10
+     */
+    private void readUnlockAll() {
+        for (int i = locks.length - 1; i >= 0; i--) {
+            locks[i].readLock().unlock();
+        }
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.IChart#put(java.lang.Object, java.lang.Object)
+     */
+    @Override
+    public V put(K key, V value) {
+        int index = shardOf(key);
+        locks[index].writeLock().lock();
+        try {
+            return shards[index].put(key, value);
+        } finally {
+            locks[index].writeLock().unlock();
+        }
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.IChart#remove(java.lang.Object)
+     */
+    @Override
+    public V remove(K key) {
+        int index = shardOf(key);
+        locks[index].writeLock().lock();
+        try {
+            return shards[index].remove(key);
+        } finally {
+            locks[index].writeLock().unlock();
+        }
+    }
+
+    /**
+     * 按分片拆分批量数据，每个分片只获取一次写锁
+     * @see top.daheizi.commons.stl.IChart#putAll(java.util.Map)
+     */
+    @Override
+    public void putAll(Map<? extends K, ? extends V> map) {
+        List<Map<K, V>> parts = new ArrayList<>(shards.length);
+        for (int i = 0; i < shards.length; i++) {
+            parts.add(new LinkedHashMap<>());
+        }
+        for (Map.Entry<? extends K, ? extends V> e : map.entrySet()) {
+            parts.get(shardOf(e.getKey())).put(e.getKey(), e.getValue());
+        }
+        for (int i = 0; i < shards.length; i++) {
+            if (!parts.get(i).isEmpty()) {
+                locks[i].writeLock().lock();
+                try {
+                    shards[i].putAll(parts.get(i));
+                } finally {
+                    locks[i].writeLock().unlock();
+                }
+            }
+        }
+    }
+
+    /**
+     * 按分片拆分批量数据，每个分片只获取一次写锁
+     * @see top.daheizi.commons.stl.IChart#removeAll(java.util.Collection)
+     */
+    @Override
+    public int removeAll(Collection<? extends K> keys) {
+        List<List<K>> parts = new ArrayList<>(shards.length);
+        for (int i = 0; i < shards.length; i++) {
+            parts.add(new ArrayList<>());
+        }
+        for (K key : keys) {
+            parts.get(shardOf(key)).add(key);
+        }
+        int count = 0;
+        for (int i = 0; i < shards.length; i++) {
+            if (!parts.get(i).isEmpty()) {
+                locks[i].writeLock().lock();
+                try {
+                    count += shards[i].removeAll(parts.get(i));
+                } finally {
+                    locks[i].writeLock().unlock();
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.IChart#get(java.lang.Object)
+     */
+    @Override
+    public V get(K key) {
+        int index = shardOf(key);
+        locks[index].readLock().lock();
+        try {
+            return shards[index].get(key);
+        } finally {
+            locks[index].readLock().unlock();
+        }
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.IChart#containsKey(java.lang.Object)
+     */
+    @Override
+    public boolean containsKey(K key) {
+        int index = shardOf(key);
+        locks[index].readLock().lock();
+        try {
+            return shards[index].containsKey(key);
+        } finally {
+            locks[index].readLock().unlock();
+        }
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.IChart#size()
+     */
+    @Override
+    public int size() {
+        readLockAll();
+        try {
+            return sizeImpl();
+        } finally {
+            readUnlockAll();
+        }
+    }
+
+    /**
+     * 返回所有分片的数据总量，需持有所有分片的读锁
+     * @return
+     * @Date 2026年10月17日 下午9:06:33
+     */
+    private int sizeImpl() {
+        int size = 0;
+        for (RBTreeChart<K, V> shard : shards) {
+            size += shard.size();
+        }
+        return size;
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.IChart#clear()
+     */
+    @Override
+    public void clear() {
+        for (ReentrantReadWriteLock lock : locks) {
+            lock.writeLock().lock();
+        }
+        try {
+            for (RBTreeChart<K, V> shard : shards) {
+                shard.clear();
+            }
+        } finally {
+            for (int i = locks.length - 1; i >= 0; i--) {
+                locks[i].writeLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * 累加其他分片中排在该关键字之前的数据量
+     * @see top.daheizi.commons.stl.IChart#getRank(java.lang.Object)
+     */
+    @Override
+    public int getRank(K key) {
+        readLockAll();
+        try {
+            return getRankImpl(key);
+        } finally {
+            readUnlockAll();
+        }
+    }
+
+    /**
+     * 查询关键字的排名，需持有所有分片的读锁
+     * @param key
+     * @return
+     * @Date 2026年10月17日 下午9:07:48
+     */
+    private int getRankImpl(K key) {
+        int index = shardOf(key);
+        int rank = shards[index].getRank(key);
+        if (rank == -1) {
+            return -1;
+        }
+        V value = shards[index].get(key);
+        for (int i = 0; i < shards.length; i++) {
+            if (i != index) {
+                int[] info = shards[i].getRankInfo(value);
+                // 值相等时，序号较小的分片排在前面
+                rank += i < index ? info[1] : info[0];
+            }
+        }
+        return rank;
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.IChart#search(java.lang.Object)
+     */
+    @Override
+    public Tuple<Integer, V> search(K key) {
+        readLockAll();
+        try {
+            int rank = getRankImpl(key);
+            return rank == -1 ? new Tuple<>(-1, null) : new Tuple<>(rank, shards[shardOf(key)].get(key));
+        } finally {
+            readUnlockAll();
+        }
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.IChart#getRankInfo(java.lang.Object)
+     */
+    @Override
+    public int[] getRankInfo(V value) {
+        readLockAll();
+        try {
+            return getRankInfoImpl(value);
+        } finally {
+            readUnlockAll();
+        }
+    }
+
+    /**
+     * 累加各分片的名次信息，需持有所有分片的读锁
+     * @param value
+     * @return
+     * @Date 2026年10月17日 下午9:08:30
+     */
+    private int[] getRankInfoImpl(V value) {
+        int[] info = new int[]{0, 0};
+        for (RBTreeChart<K, V> shard : shards) {
+            int[] si = shard.getRankInfo(value);
+            info[0] += si[0];
+            info[1] += si[1];
+        }
+        return info;
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.IChart#getKth(int)
+     */
+    @Override
+    public Tuple<K, V> getKth(int kth) {
+        readLockAll();
+        try {
+            if (kth > 0 && kth <= sizeImpl()) {
+                return merge(split(kth - 1), 1).get(0);
+            }
+            return null;
+        } finally {
+            readUnlockAll();
+        }
+    }
+
+    /**
+     * 多路选择，将全局的前k个数据按分片划分，需持有所有分片的读锁
+     * 每轮在候选窗口最大的分片中取中位数，累加其他分片中排在其之前的数据量得到全局名次，
+     * 再据此收缩所有分片的候选窗口
+     * @param k [0, size]
+     * @return 各分片中属于全局前k个的数据量，总和为k
+     * @Date 2026年10月17日 下午9:10:02
+     */
+    private int[] split(int k) {
+        int n = shards.length;
+        int[] lo = new int[n];
+        int[] hi = new int[n];
+        int total = 0;
+        for (int i = 0; i < n; i++) {
+            hi[i] = shards[i].size();
+            total += hi[i];
+        }
+        if (k <= 0) {
+            return lo;
+        } else if (k >= total) {
+            return hi;
+        }
+        int[] cut = new int[n];
+        while (true) {
+            // 选择候选窗口最大的分片
+            int j = 0;
+            for (int i = 1; i < n; i++) {
+                if (hi[i] - lo[i] > hi[j] - lo[j]) {
+                    j = i;
+                }
+            }
+            int mid = (lo[j] + hi[j]) >>> 1;
+            V value = shards[j].getKth(mid + 1).right;
+            // 计算各分片中排在候选数据之前(包括其自身)的数据量
+            int pos = 0;
+            for (int i = 0; i < n; i++) {
+                if (i == j) {
+                    cut[i] = mid + 1;
+                } else {
+                    int[] info = shards[i].getRankInfo(value);
+                    cut[i] = i < j ? info[1] : info[0];
+                }
+                pos += cut[i];
+            }
+            if (pos == k) {
+                return cut;
+            } else if (pos > k) {
+                // 第k个数据位于候选数据之前
+                for (int i = 0; i < n; i++) {
+                    hi[i] = Math.min(hi[i], cut[i]);
+                }
+                hi[j] = mid;
+            } else {
+                // 第k个数据位于候选数据之后
+                for (int i = 0; i < n; i++) {
+                    lo[i] = Math.max(lo[i], cut[i]);
+                }
+            }
+        }
+    }
+
+    /**
+     * 从给定的划分位置开始，多路归并出至多count个数据，需持有所有分片的读锁
+     * @param cut 各分片的起始名次
+     * @param count
+     * @return
+     * @Date 2026年10月17日 下午9:12:27
+     */
+    private List<Tuple<K, V>> merge(int[] cut, int count) {
+        int n = shards.length;
+        List<Tuple<K, V>> list = new ArrayList<>();
+        List<Iterator<Tuple<K, V>>> its = new ArrayList<>(n);
+        List<Tuple<K, V>> heads = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            Iterator<Tuple<K, V>> it = shards[i].iterator(cut[i]);
+            its.add(it);
+            heads.add(it.hasNext() ? it.next() : null);
+        }
+        while (list.size() < count) {
+            int min = -1;
+            for (int i = 0; i < n; i++) {
+                Tuple<K, V> head = heads.get(i);
+                // 值相等时取序号较小的分片
+                if (head != null && (min == -1 || compare(head.right, heads.get(min).right) < 0)) {
+                    min = i;
+                }
+            }
+            if (min == -1) {
+                break;
+            }
+            list.add(heads.get(min));
+            Iterator<Tuple<K, V>> it = its.get(min);
+            heads.set(min, it.hasNext() ? it.next() : null);
+        }
+        return list;
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.IChart#iterator()
+     */
+    @Override
+    public Iterator<Tuple<K, V>> iterator() {
+        return iterator(0);
+    }
+
+    /**
+     * 弱一致性的排行榜数据迭代器
+     * 按名次分批读取，每一批在所有分片的读锁内由split定位各分片的起点后多路归并得到，
+     * 因此每一批内部是一致的，批与批之间若发生写入，则可能重复或遗漏名次发生变化的数据
+     * 不支持remove
+     * @author daheizi
+     * @Date 2026年10月18日 上午10:00:00
+     */
+    private class Itr implements Iterator<Tuple<K, V>> {
+        /** 当前批次的数据 */
+        private List<Tuple<K, V>> page;
+        /** 当前批次内下一个数据的下标 */
+        private int index;
+        /** 前一个元素的名次 */
+        private int lastRank;
+
+        /**
+         * 构造函数
+         * @param kth 起始名次
+         */
+        Itr(int kth) {
+            lastRank = kth;
+        }
+
+        /**
+         * @see java.util.Iterator#hasNext()
+         */
+        @Override
+        public boolean hasNext() {
+            if (page == null || index == page.size()) {
+                page = getSequenceList(lastRank + 1, lastRank + ITERATOR_PAGE_SIZE);
+                index = 0;
+            }
+            return index < page.size();
+        }
+
+        /**
+         * @see java.util.Iterator#next()
+         */
+        @Override
+        public Tuple<K, V> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            lastRank++;
+            return page.get(index++);
+        }
+    }
+
+    /**
+     * 返回弱一致性的迭代器
+     * @see top.daheizi.commons.stl.IChart#iterator(int)
+     */
+    @Override
+    public Iterator<Tuple<K, V>> iterator(int kth) {
+        if (kth < 0) {
+            throw new IndexOutOfBoundsException("Rank: " + kth);
+        }
+        return new Itr(kth);
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.IChart#getSequenceList(int, int)
+     */
+    @Override
+    public List<Tuple<K, V>> getSequenceList(int start, int end) {
+        readLockAll();
+        try {
+            return getSequenceListImpl(start, end);
+        } finally {
+            readUnlockAll();
+        }
+    }
+
+    /**
+     * 返回一段连续的<key，value>数据列表，需持有所有分片的读锁
+     * @param start
+     * @param end
+     * @return
+     * @Date 2026年10月17日 下午9:13:45
+     */
+    private List<Tuple<K, V>> getSequenceListImpl(int start, int end) {
+        if (start <= end) {
+            int size = sizeImpl();
+            start--;
+            start = start < 0 ? 0 : (start > size ? size : start);
+            return merge(split(start), end - start);
+        }
+        return new ArrayList<>();
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.IChart#getListByPage(int, int)
+     */
+    @Override
+    public List<Tuple<K, V>> getListByPage(int pageSize, int page) {
+        int end = pageSize * page;
+        return getSequenceList(end - pageSize + 1, end);
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.IChart#getRangeList(java.lang.Object, java.lang.Object)
+     */
+    @Override
+    public List<Tuple<K, V>> getRangeList(V low, V high) {
+        readLockAll();
+        try {
+            int[] info1 = getRankInfoImpl(low);
+            int[] info2 = getRankInfoImpl(high);
+            return getSequenceListImpl(info1[0] + 1, info2[1]);
+        } finally {
+            readUnlockAll();
+        }
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.IChart#getSurroundedByKey(java.lang.Object, int, int)
+     */
+    @Override
+    public List<Tuple<K, V>> getSurroundedByKey(K key, int left, int right) {
+        readLockAll();
+        try {
+            int rank = getRankImpl(key);
+            if (rank == -1) {
+                return new ArrayList<>();
+            }
+            return getSequenceListImpl(rank - left, rank + right);
+        } finally {
+            readUnlockAll();
+        }
+    }
+
+    /**
+     * 跨分片的数据需要多路归并，无法避免创建对象
+     * @see top.daheizi.commons.stl.IChart#forEachInRange(int, int, top.daheizi.commons.stl.ChartVisitor)
+     */
+    @Override
+    public int forEachInRange(int start, int end, ChartVisitor<? super K, ? super V> visitor) {
+        readLockAll();
+        try {
+            return forEachInRangeImpl(start, end, visitor);
+        } finally {
+            readUnlockAll();
+        }
+    }
+
+    /**
+     * 按名次顺序访问一段连续的数据，需持有所有分片的读锁
+     * @param start
+     * @param end
+     * @param visitor
+     * @return
+     * @Date 2026年10月18日 上午3:16:30
+     */
+    private int forEachInRangeImpl(int start, int end, ChartVisitor<? super K, ? super V> visitor) {
+        int size = sizeImpl();
+        start = start < 1 ? 1 : start;
+        end = end > size ? size : end;
+        if (start > end) {
+            return 0;
+        }
+        int kth = start;
+        for (Tuple<K, V> t : merge(split(start - 1), end - start + 1)) {
+            visitor.visit(kth++, t.left, t.right);
+        }
+        return kth - start;
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.IChart#forEachInValueRange(java.lang.Object, java.lang.Object, top.daheizi.commons.stl.ChartVisitor)
+     */
+    @Override
+    public int forEachInValueRange(V low, V high, ChartVisitor<? super K, ? super V> visitor) {
+        readLockAll();
+        try {
+            return forEachInRangeImpl(getRankInfoImpl(low)[0] + 1, getRankInfoImpl(high)[1], visitor);
+        } finally {
+            readUnlockAll();
+        }
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.IChart#forEachSurrounded(java.lang.Object, int, int, top.daheizi.commons.stl.ChartVisitor)
+     */
+    @Override
+    public int forEachSurrounded(K key, int left, int right, ChartVisitor<? super K, ? super V> visitor) {
+        readLockAll();
+        try {
+            int rank = getRankImpl(key);
+            if (rank == -1) {
+                return 0;
+            }
+            return forEachInRangeImpl(rank - left, rank + right, visitor);
+        } finally {
+            readUnlockAll();
+        }
+    }
+
+
+
+    /****************** 以下为一些非必需的辅助和测试方法 ***************************/
+
+    /**
+     * 多线程put吞吐量测试
+     * @param name
+     * @param chart
+     * @param num 数据量
+     * @param threadNum 线程数目
+     * @param times 每个线程的操作次数
+     * @Date 2026年10月17日 下午9:15:20
+     */
+    private static void testPut(String name, IChart<Integer, Integer> chart, int num,
+            int threadNum, int times) {
+        Random random = new Random();
+        for (int i = 0; i < num; ++i) {
+            chart.put(i, random.nextInt(num));
+        }
+        CountDownLatch startLatch = new CountDownLatch(1);
+        CountDownLatch endLatch = new CountDownLatch(threadNum);
+        for (int t = 0; t < threadNum; t++) {
+            new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    ThreadLocalRandom rnd = ThreadLocalRandom.current();
+                    try {
+                        startLatch.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    for (int i = 0; i < times; i++) {
+                        chart.put(rnd.nextInt(num), rnd.nextInt(num));
+                    }
+                    endLatch.countDown();
+                }
+            }).start();
+        }
+        long ns1 = System.nanoTime();
+        startLatch.countDown();
+        try {
+            endLatch.await();
+        } catch (InterruptedException e) {
+            e.printStackTrace();
+        }
+        long ns2 = System.nanoTime();
+        long total = (long) threadNum * times;
+        System.out.println(name + " 线程数目: " + threadNum
+                + ", put每秒处理请求数: " + (long) (total * Math.pow(10, 9) / (ns2 - ns1)));
+    }
+
+    /**
+     * 单元测试
+     * @param args
+     * @Date 2026年10月17日 下午9:14:36
+     */
+    public static void main(String[] args) {
+        // *****测试正确性
+        IChart<Integer, Integer> expected = new RBTreeChart<>();
+        ShardedChart<Integer, Integer> r = new ShardedChart<>(7);
+        Random random = new Random();
+        for (int i = 0; i < 20000; i++) {
+            int key = random.nextInt(2000);
+            if (random.nextInt(10) == 0) {
+                expected.remove(key);
+                r.remove(key);
+            } else {
+                int value = random.nextInt(300);
+                expected.put(key, value);
+                r.put(key, value);
+            }
+            if (expected.size() != r.size()) {
+                throw new RuntimeException("Size Not Equal ! " + i);
+            }
+            // 值相等时的次序与单一排行榜不同，因此只比较值与名次信息
+            int kth = random.nextInt(expected.size() + 2);
+            Tuple<Integer, Integer> t = r.getKth(kth);
+            Tuple<Integer, Integer> e = expected.getKth(kth);
+            if (t == null ? e != null : (!t.right.equals(e.right) || r.getRank(t.left) != kth)) {
+                throw new RuntimeException("Kth Not Equal ! " + i);
+            }
+            List<Tuple<Integer, Integer>> l1 = expected.getSequenceList(kth, kth + 20);
+            List<Tuple<Integer, Integer>> l2 = r.getSequenceList(kth, kth + 20);
+            for (int j = 0; j < l1.size() || j < l2.size(); j++) {
+                if (!l1.get(j).right.equals(l2.get(j).right)) {
+                    throw new RuntimeException("List Not Equal ! " + i);
+                }
+            }
+            int[] info1 = expected.getRankInfo(key % 300);
+            int[] info2 = r.getRankInfo(key % 300);
+            if (info1[0] != info2[0] || info1[1] != info2[1]) {
+                throw new RuntimeException("RankInfo Not Equal ! " + i);
+            }
+        }
+        // 迭代器与整体的连续查询一致，跨越多个批次
+        for (int kth : new int[]{0, 1, ITERATOR_PAGE_SIZE, r.size() - 1, r.size(), r.size() + 5}) {
+            List<Tuple<Integer, Integer>> all = r.getSequenceList(kth + 1, r.size());
+            List<Tuple<Integer, Integer>> iterated = new ArrayList<>();
+            r.iterator(kth).forEachRemaining(iterated::add);
+            if (!all.equals(iterated)) {
+                throw new RuntimeException("Iterator Not Equal ! " + kth);
+            }
+        }
+        System.out.println(r.getListByPage(10, 1));
+        System.out.println(r.getRangeList(10, 11));
+        System.out.println(r.getSurroundedByKey(r.getKth(50).left, 2, 2));
+
+        // *****put吞吐量对比
+        int num = 1000000;
+        int times = 500000;
+        System.out.println("****put吞吐量测试: 数据量 :" + num + ", 分片数目: 16");
+        for (int threadNum = 1; threadNum <= 8; threadNum <<= 1) {
+            testPut("ConcurrentChart", new ConcurrentChart<>(new RBTreeChart<Integer, Integer>()),
+                    num, threadNum, times);
+            testPut("ShardedChart   ", new ShardedChart<Integer, Integer>(16), num, threadNum, times);
+        }
+        System.exit(0);
+    }
+}
@@ -0,0 +1,952 @@
+package top.daheizi.commons.stl;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Supplier;
+
+/**
+ * 基于跳表SkipListRank的线程安全排行榜
+ * 关键字到数据项的映射使用ConcurrentHashMap，get/containsKey/size完全无锁；
+ * 跳表节点的关键字不可变且不会复用，前进指针只指向更大的关键字，未加锁的遍历必然终止，
+ * 因此getRank/getKth/getRankInfo以及连续查询均采用乐观读，仅在读取期间发生写入时才重试，
+ * 多次失败后退化为悲观读锁
+ * put/remove先在锁外查找跳表中的位置(SkipListRank#locate)，写锁内只检验途经的节点未被修改并完成链接，
+ * 临界区由O(log n)次比较缩短为O(层数)的检验和修改，查找期间与其它写入冲突时才在锁内重新查找；
+ * 链接须修改各层前驱节点的span，写入之间仍由写锁串行化，并非无锁的写入
+ * putAll/removeAll在一次写锁内完成，不做锁外查找
+ * 值相等的数据按存入的先后排序，与RankChart的语义保持一致
+ * @param <K>
+ * @param <V>
+ * @author daheizi
+ * @Date 2026年10月18日 上午2:05:10
+ */
+public class SkipListChart<K, V> implements IChart<K, V> {
+
+    /** 乐观读的最大尝试次数 */
+    private static final int MAX_OPTIMISTIC_TRIES = 2;
+
+    /** 迭代器每次读取的数据数目 */
+    private static final int ITERATOR_PAGE_SIZE = 128;
+
+    /** 查询时使用的最小序号 */
+    private static final long MIN_SEQ = Long.MIN_VALUE;
+
+    /** 查询时使用的最大序号 */
+    private static final long MAX_SEQ = Long.MAX_VALUE;
+
+    /** 按值排序的跳表 */
+    private final SkipListRank<Item> rank = new SkipListRank<>();
+
+    /** 关键字 -> 数据项 */
+    private final ConcurrentHashMap<K, Item> map = new ConcurrentHashMap<>();
+
+    /** 值的比较器 */
+    private final Comparator<? super V> comparator;
+
+    /** 锁 */
+    private final StampedLock lock = new StampedLock();
+
+    /** 每个线程复用的锁外查找结果，删除位置 */
+    private final ThreadLocal<SkipListRank.Path<Item>> removePaths = ThreadLocal.withInitial(SkipListRank.Path::new);
+
+    /** 每个线程复用的锁外查找结果，插入位置 */
+    private final ThreadLocal<SkipListRank.Path<Item>> addPaths = ThreadLocal.withInitial(SkipListRank.Path::new);
+
+    /** 下一个序号，仅在持有写锁时修改 */
+    private long nextSeq = MIN_SEQ + 1;
+
+    /**
+     * 构造函数
+     */
+    public SkipListChart() {
+        this(null);
+    }
+
+    /**
+     * 构造函数
+     * @param comparator
+     */
+    public SkipListChart(Comparator<? super V> comparator) {
+        this.comparator = comparator;
+    }
+
+    /**
+     * 比较两个值的大小
+     * @param v1
+     * @param v2
+     * @return
+     * @Date 2026年10月18日 上午2:05:40
+     */
+    @SuppressWarnings("unchecked")
+    private int compare(V v1, V v2) {
+        return comparator == null ? ((Comparable<? super V>) v1).compareTo(v2)
+                : comparator.compare(v1, v2);
+    }
+
+    /**
+     * 跳表内的数据项
+     * 值改变时创建新的数据项，仅当新值与原值相等时原位替换，
+     * 因此数据项在跳表内的排序在其生命周期内保持不变
+     * @author daheizi
+     * @Date 2026年10月18日 上午2:06:20
+     */
+    private final class Item implements Comparable<Item> {
+        /** 关键字 */
+        final K key;
+        /** 值 */
+        volatile V value;
+        /** 序号，值相等时序号小的在前 */
+        final long seq;
+
+        /**
+         * 构造函数
+         * @param key
+         * @param value
+         * @param seq
+         */
+        Item(K key, V value, long seq) {
+            this.key = key;
+            this.value = value;
+            this.seq = seq;
+        }
+
+        /**
+         * @see java.lang.Comparable#compareTo(java.lang.Object)
+         */
+        @Override
+        public int compareTo(Item o) {
+            int vcmp = compare(value, o.value);
+            if (vcmp == 0) {
+                return seq == o.seq ? 0 : (seq < o.seq ? -1 : 1);
+            }
+            return vcmp;
+        }
+
+        /**
+         * 转换为键值对
+         * @return
+         * @Date 2026年10月18日 上午2:06:50
+         */
+        Tuple<K, V> tuple() {
+            return new Tuple<>(key, value);
+        }
+    }
+
+    /**
+     * 执行读操作
+     * 先尝试乐观读，若读取期间发生写入则重试，多次失败后在读锁下执行
+     * @param reader
+     * @return
+     * @Date 2026年10月18日 上午2:07:30
+     */
+    private <T> T read(Supplier<T> reader) {
+        for (int i = 0; i < MAX_OPTIMISTIC_TRIES; i++) {
+            long stamp = lock.tryOptimisticRead();
+            if (stamp == 0L) {
+                // 写锁已被占用
+                break;
+            }
+            try {
+                T result = reader.get();
+                if (lock.validate(stamp)) {
+                    return result;
+                }
+            } catch (RuntimeException e) {
+                if (lock.validate(stamp)) {
+                    // 未发生写入，是真实的异常
+                    throw e;
+                }
+                // 读取期间结构被修改导致的异常，重试
+            }
+        }
+        long stamp = lock.readLock();
+        try {
+            return reader.get();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.IChart#put(java.lang.Object, java.lang.Object)
+     */
+    @Override
+    public V put(K key, V value) {
+        if (key == null) {
+            throw new NullPointerException();
+        }
+        Item old = map.get(key);
+        SkipListRank.Path<Item> removePath = null;
+        SkipListRank.Path<Item> addPath = null;
+        if (old == null || compare(value, old.value) != 0) {
+            // 新数据的序号大于排行榜内所有数据的序号，插入位置与最大序号的查询项相同
+            addPath = addPaths.get();
+            rank.locate(new Item(null, value, MAX_SEQ), addPath);
+            if (old != null) {
+                removePath = removePaths.get();
+                rank.locate(old, removePath);
+            }
+        }
+        long stamp = lock.writeLock();
+        try {
+            if (map.get(key) != old) {
+                // 查找期间关键字被其它线程写入
+                if (addPath != null) {
+                    addPath.reset();
+                }
+                if (removePath != null) {
+                    removePath.reset();
+                }
+                return doPut(key, value);
+            }
+            return doPut(key, value, old, removePath, addPath);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * 存入数据，调用时须持有写锁
+     * @param key
+     * @param value
+     * @return
+     * @Date 2026年10月18日 上午2:08:10
+     */
+    private V doPut(K key, V value) {
+        return doPut(key, value, map.get(key), null, null);
+    }
+
+    /**
+     * 按锁外查找得到的位置存入数据，调用时须持有写锁
+     * @param key
+     * @param value
+     * @param old 关键字当前对应的数据项
+     * @param removePath old的位置，为null时在锁内查找
+     * @param addPath 新数据的位置，为null时在锁内查找
+     * @return
+     * @Date 2026年10月18日 上午10:46:20
+     */
+    private V doPut(K key, V value, Item old, SkipListRank.Path<Item> removePath, SkipListRank.Path<Item> addPath) {
+        if (old != null) {
+            V preValue = old.value;
+            if (compare(value, preValue) == 0) {
+                // 原记录与新纪录相等，只需要替换value值
+                old.value = value;
+                if (addPath != null) {
+                    addPath.reset();
+                    removePath.reset();
+                }
+                return preValue;
+            }
+        }
+        // 新的序号大于排行榜内所有数据的序号，因此排在与value值相等的数据之后
+        Item item = new Item(key, value, nextSeq++);
+        if (addPath == null) {
+            if (old != null) {
+                rank.remove(old);
+            }
+            rank.add(item);
+        } else if (old == null) {
+            rank.add(item, addPath);
+        } else {
+            rank.replace(old, removePath, item, addPath);
+        }
+        map.put(key, item);
+        return old == null ? null : old.value;
+    }
+
+    /**
+     * 关键字不存在时无锁返回
+     * @see top.daheizi.commons.stl.IChart#remove(java.lang.Object)
+     */
+    @Override
+    public V remove(K key) {
+        Item item = map.get(key);
+        if (item == null) {
+            return null;
+        }
+        SkipListRank.Path<Item> path = removePaths.get();
+        rank.locate(item, path);
+        long stamp = lock.writeLock();
+        try {
+            if (map.get(key) != item) {
+                // 查找期间关键字被其它线程写入
+                path.reset();
+                return doRemove(key);
+            }
+            map.remove(key);
+            rank.remove(item, path);
+            return item.value;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * 移除数据，调用时须持有写锁
+     * @param key
+     * @return
+     * @Date 2026年10月18日 上午2:08:40
+     */
+    private V doRemove(K key) {
+        Item item = map.remove(key);
+        if (item != null) {
+            rank.remove(item);
+            return item.value;
+        }
+        return null;
+    }
+
+    /**
+     * 在一次写锁内批量存入
+     * @see top.daheizi.commons.stl.IChart#putAll(java.util.Map)
+     */
+    @Override
+    public void putAll(Map<? extends K, ? extends V> map) {
+        for (K key : map.keySet()) {
+            if (key == null) {
+                throw new NullPointerException();
+            }
+        }
+        long stamp = lock.writeLock();
+        try {
+            for (Map.Entry<? extends K, ? extends V> e : map.entrySet()) {
+                doPut(e.getKey(), e.getValue());
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * 在一次写锁内批量移除
+     * @see top.daheizi.commons.stl.IChart#removeAll(java.util.Collection)
+     */
+    @Override
+    public int removeAll(Collection<? extends K> keys) {
+        long stamp = lock.writeLock();
+        try {
+            int count = 0;
+            for (K key : keys) {
+                if (map.containsKey(key)) {
+                    doRemove(key);
+                    count++;
+                }
+            }
+            return count;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * 无锁
+     * @see top.daheizi.commons.stl.IChart#get(java.lang.Object)
+     */
+    @Override
+    public V get(K key) {
+        Item item = map.get(key);
+        return item == null ? null : item.value;
+    }
+
+    /**
+     * 无锁
+     * @see top.daheizi.commons.stl.IChart#containsKey(java.lang.Object)
+     */
+    @Override
+    public boolean containsKey(K key) {
+        return map.containsKey(key);
+    }
+
+    /**
+     * 无锁
+     * @see top.daheizi.commons.stl.IChart#size()
+     */
+    @Override
+    public int size() {
+        return map.size();
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.IChart#clear()
+     */
+    @Override
+    public void clear() {
+        long stamp = lock.writeLock();
+        try {
+            map.clear();
+            rank.clear();
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.IChart#getRank(java.lang.Object)
+     */
+    @Override
+    public int getRank(K key) {
+        return read(() -> {
+            Item item = map.get(key);
+            return item == null ? -1 : rank.getRank(item);
+        });
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.IChart#getKth(int)
+     */
+    @Override
+    public Tuple<K, V> getKth(int kth) {
+        return read(() -> kth > 0 && kth <= rank.size() ? rank.getKth(kth).tuple() : null);
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.IChart#getRankInfo(java.lang.Object)
+     */
+    @Override
+    public int[] getRankInfo(V value) {
+        return read(() -> rankInfo(value));
+    }
+
+    /**
+     * 返回给定值在排行榜内应处的排名位置
+     * @param value
+     * @return {值<value的数目，值<=value的数目}
+     * @Date 2026年10月18日 上午2:09:30
+     */
+    private int[] rankInfo(V value) {
+        int[] info = new int[2];
+        int start = rank.getRank(new Item(null, value, MIN_SEQ));
+        info[0] = start > 0 ? start - 1 : -start - 1;
+        int end = rank.getRank(new Item(null, value, MAX_SEQ));
+        info[1] = end > 0 ? end : -end - 1;
+        return info;
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.IChart#search(java.lang.Object)
+     */
+    @Override
+    public Tuple<Integer, V> search(K key) {
+        return read(() -> {
+            Item item = map.get(key);
+            return item == null ? new Tuple<>(-1, null) : new Tuple<>(rank.getRank(item), item.value);
+        });
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.IChart#getSequenceList(int, int)
+     */
+    @Override
+    public List<Tuple<K, V>> getSequenceList(int start, int end) {
+        return read(() -> sequenceList(start, end));
+    }
+
+    /**
+     * 返回一段连续的<key，value>数据列表
+     * 与IChart#getSequenceList的语义保持一致
+     * @param start
+     * @param end
+     * @return
+     * @Date 2026年10月18日 上午2:10:10
+     */
+    private List<Tuple<K, V>> sequenceList(int start, int end) {
+        List<Tuple<K, V>> list = new ArrayList<>();
+        if (start <= end) {
+            int size = rank.size();
+            start--;
+            start = start < 0 ? 0 : (start > size ? size : start);
+            RankIterator<Item> it = rank.rankIterator(start);
+            for (int kth = start; kth < end && it.hasNext(); kth++) {
+                list.add(it.next().tuple());
+            }
+        }
+        return list;
+    }
+
+    /**
+     * 在一次读取内完成定位和遍历
+     * @see top.daheizi.commons.stl.IChart#getRangeList(java.lang.Object, java.lang.Object)
+     */
+    @Override
+    public List<Tuple<K, V>> getRangeList(V low, V high) {
+        return read(() -> {
+            int[] info1 = rankInfo(low);
+            int[] info2 = rankInfo(high);
+            return sequenceList(info1[0] + 1, info2[1]);
+        });
+    }
+
+    /**
+     * 在一次读取内完成定位和遍历
+     * @see top.daheizi.commons.stl.IChart#getSurroundedByKey(java.lang.Object, int, int)
+     */
+    @Override
+    public List<Tuple<K, V>> getSurroundedByKey(K key, int left, int right) {
+        return read(() -> {
+            Item item = map.get(key);
+            if (item == null) {
+                return new ArrayList<>();
+            }
+            int r = rank.getRank(item);
+            return sequenceList(r - left, r + right);
+        });
+    }
+
+    /**
+     * 访问者有副作用，无法在乐观读失败后重试，因此在读锁内访问
+     * @see top.daheizi.commons.stl.IChart#forEachInRange(int, int, top.daheizi.commons.stl.ChartVisitor)
+     */
+    @Override
+    public int forEachInRange(int start, int end, ChartVisitor<? super K, ? super V> visitor) {
+        long stamp = lock.readLock();
+        try {
+            return visitRange(start, end, visitor);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * 在一次读锁内完成定位和访问
+     * @see top.daheizi.commons.stl.IChart#forEachInValueRange(java.lang.Object, java.lang.Object, top.daheizi.commons.stl.ChartVisitor)
+     */
+    @Override
+    public int forEachInValueRange(V low, V high, ChartVisitor<? super K, ? super V> visitor) {
+        long stamp = lock.readLock();
+        try {
+            return visitRange(rankInfo(low)[0] + 1, rankInfo(high)[1], visitor);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * 在一次读锁内完成定位和访问
+     * @see top.daheizi.commons.stl.IChart#forEachSurrounded(java.lang.Object, int, int, top.daheizi.commons.stl.ChartVisitor)
+     */
+    @Override
+    public int forEachSurrounded(K key, int left, int right, ChartVisitor<? super K, ? super V> visitor) {
+        long stamp = lock.readLock();
+        try {
+            Item item = map.get(key);
+            if (item == null) {
+                return 0;
+            }
+            int r = rank.getRank(item);
+            return visitRange(r - left, r + right, visitor);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * 按名次顺序访问一段连续的数据，调用时须持有读锁
+     * @param start
+     * @param end
+     * @param visitor
+     * @return
+     * @Date 2026年10月18日 上午3:14:10
+     */
+    private int visitRange(int start, int end, ChartVisitor<? super K, ? super V> visitor) {
+        int size = rank.size();
+        start = start < 1 ? 1 : start;
+        end = end > size ? size : end;
+        if (start > end) {
+            return 0;
+        }
+        RankIterator<Item> it = rank.rankIterator(start - 1);
+        for (int kth = start; kth <= end; kth++) {
+            Item item = it.next();
+            visitor.visit(kth, item.key, item.value);
+        }
+        return end - start + 1;
+    }
+
+    /**
+     * 按名次从后向前访问一段连续的数据，调用时须持有读锁或处于乐观读中
+     * @param start
+     * @param end
+     * @param visitor
+     * @return
+     * @Date 2026年10月18日 上午3:46:20
+     */
+    private int visitDescending(int start, int end, ChartVisitor<? super K, ? super V> visitor) {
+        int size = rank.size();
+        start = start < 1 ? 1 : start;
+        end = end > size ? size : end;
+        if (start > end) {
+            return 0;
+        }
+        RankIterator<Item> it = rank.rankIterator(end);
+        for (int kth = end; kth >= start; kth--) {
+            Item item = it.previous();
+            visitor.visit(kth, item.key, item.value);
+        }
+        return end - start + 1;
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.IChart#getDescendingList(int, int)
+     */
+    @Override
+    public List<Tuple<K, V>> getDescendingList(int start, int end) {
+        return read(() -> {
+            List<Tuple<K, V>> list = new ArrayList<>();
+            visitDescending(start, end, (r, key, value) -> list.add(new Tuple<>(key, value)));
+            return list;
+        });
+    }
+
+    /**
+     * 在一次读取内完成定位和遍历
+     * @see top.daheizi.commons.stl.IChart#getDescendingRangeList(java.lang.Object, java.lang.Object)
+     */
+    @Override
+    public List<Tuple<K, V>> getDescendingRangeList(V low, V high) {
+        return read(() -> {
+            List<Tuple<K, V>> list = new ArrayList<>();
+            visitDescending(rankInfo(low)[0] + 1, rankInfo(high)[1], (r, key, value) -> list.add(new Tuple<>(key, value)));
+            return list;
+        });
+    }
+
+    /**
+     * 访问者有副作用，无法在乐观读失败后重试，因此在读锁内访问
+     * @see top.daheizi.commons.stl.IChart#forEachDescending(int, int, top.daheizi.commons.stl.ChartVisitor)
+     */
+    @Override
+    public int forEachDescending(int start, int end, ChartVisitor<? super K, ? super V> visitor) {
+        long stamp = lock.readLock();
+        try {
+            return visitDescending(start, end, visitor);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * 弱一致性的排行榜数据迭代器
+     * 按名次分批读取数据，每一批内部是一致的，
+     * 批与批之间若发生写入，则可能重复或遗漏名次发生变化的数据
+     * 不支持remove
+     * @author daheizi
+     * @Date 2026年10月18日 上午2:11:00
+     */
+    private class Itr implements Iterator<Tuple<K, V>> {
+        /** 当前批次的数据 */
+        private List<Tuple<K, V>> page;
+        /** 当前批次内下一个数据的下标 */
+        private int index;
+        /** 前一个元素的名次 */
+        private int lastRank;
+
+        /**
+         * 构造函数
+         * @param kth 起始名次
+         */
+        Itr(int kth) {
+            lastRank = kth;
+        }
+
+        /**
+         * @see java.util.Iterator#hasNext()
+         */
+        @Override
+        public boolean hasNext() {
+            if (page == null || index == page.size()) {
+                page = getSequenceList(lastRank + 1, lastRank + ITERATOR_PAGE_SIZE);
+                index = 0;
+            }
+            return index < page.size();
+        }
+
+        /**
+         * @see java.util.Iterator#next()
+         */
+        @Override
+        public Tuple<K, V> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            lastRank++;
+            return page.get(index++);
+        }
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.IChart#iterator()
+     */
+    @Override
+    public Iterator<Tuple<K, V>> iterator() {
+        return iterator(0);
+    }
+
+    /**
+     * 返回弱一致性的迭代器
+     * @see top.daheizi.commons.stl.IChart#iterator(int)
+     */
+    @Override
+    public Iterator<Tuple<K, V>> iterator(int kth) {
+        if (kth < 0) {
+            throw new IndexOutOfBoundsException("Rank: " + kth);
+        }
+        return new Itr(kth);
+    }
+
+
+
+    /****************** 以下为一些非必需的辅助和测试方法 ***************************/
+
+    /**
+     * 验证内部结构的正确性
+     * @Date 2026年10月18日 上午2:12:00
+     */
+    void check() {
+        long stamp = lock.readLock();
+        try {
+            rank.check();
+            if (rank.size() != map.size()) {
+                throw new RuntimeException("Size Not Equal !");
+            }
+            for (Item item : rank) {
+                if (map.get(item.key) != item) {
+                    throw new RuntimeException("Item Not Equal !");
+                }
+            }
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * 比较两个对象是否相等
+     * @param o1
+     * @param o2
+     * @return
+     * @Date 2026年10月18日 上午2:12:30
+     */
+    private static final boolean objEquals(Object o1, Object o2) {
+        return o1 == null ? o2 == null : o1.equals(o2);
+    }
+
+    /**
+     * 测试并发吞吐量
+     * @param name
+     * @param chart
+     * @param num 数据量
+     * @param readPercent 读操作的百分比
+     * @param threadNum 线程数
+     * @param times 每个线程的操作次数
+     * @Date 2026年10月18日 上午2:13:30
+     */
+    private static void testThroughput(String name, IChart<Integer, Integer> chart, int num,
+            int readPercent, int threadNum, int times) {
+        Random random = new Random();
+        for (int i = 0; i < num; ++i) {
+            chart.put(i, random.nextInt(num));
+        }
+        CountDownLatch startLatch = new CountDownLatch(1);
+        CountDownLatch endLatch = new CountDownLatch(threadNum);
+        for (int t = 0; t < threadNum; t++) {
+            new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    ThreadLocalRandom rnd = ThreadLocalRandom.current();
+                    try {
+                        startLatch.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    for (int i = 0; i < times; i++) {
+                        if (rnd.nextInt(100) >= readPercent) {
+                            chart.put(rnd.nextInt(num), rnd.nextInt(num));
+                            continue;
+                        }
+                        int op = rnd.nextInt(100);
+                        if (op < 40) {
+                            chart.getRank(rnd.nextInt(num));
+                        } else if (op < 70) {
+                            chart.getKth(rnd.nextInt(num) + 1);
+                        } else if (op < 90) {
+                            chart.get(rnd.nextInt(num));
+                        } else {
+                            chart.getListByPage(100, rnd.nextInt(10) + 1);
+                        }
+                    }
+                    endLatch.countDown();
+                }
+            }).start();
+        }
+        long ns1 = System.nanoTime();
+        startLatch.countDown();
+        try {
+            endLatch.await();
+        } catch (InterruptedException e) {
+            e.printStackTrace();
+        }
+        long ns2 = System.nanoTime();
+        long total = (long) threadNum * times;
+        System.out.println(name + " 读:写=" + readPercent + ":" + (100 - readPercent)
+                + ", 平均每秒处理请求数: " + (long) (total * Math.pow(10, 9) / (ns2 - ns1)));
+    }
+
+    /**
+     * 单元测试
+     * @param args
+     * @Date 2026年10月18日 上午2:14:00
+     */
+    public static void main(String[] args) throws InterruptedException {
+        // *****测试正确性，与RankChart对比
+        IChart<Integer, Integer> expected = new RankChart<>();
+        SkipListChart<Integer, Integer> r = new SkipListChart<>();
+        Random random = new Random();
+        for (int i = 0; i < 100000; i++) {
+            int key = random.nextInt(2000);
+            int value = random.nextInt(100);
+            int op = random.nextInt(10);
+            if (op == 0) {
+                if (!objEquals(expected.remove(key), r.remove(key))) {
+                    throw new RuntimeException("remove Not Equal !");
+                }
+            } else if (op == 1) {
+                if (!objEquals(expected.getRangeList(value, value + 3), r.getRangeList(value, value + 3))) {
+                    throw new RuntimeException("getRangeList Not Equal !");
+                }
+            } else if (op == 2) {
+                if (!objEquals(expected.getSurroundedByKey(key, 3, 5), r.getSurroundedByKey(key, 3, 5))) {
+                    throw new RuntimeException("getSurroundedByKey Not Equal !");
+                }
+            } else {
+                if (!objEquals(expected.put(key, value), r.put(key, value))) {
+                    throw new RuntimeException("put Not Equal !");
+                }
+            }
+        }
+        r.check();
+        for (int key = 0; key < 2000; key++) {
+            if (expected.getRank(key) != r.getRank(key)
+                    || !objEquals(expected.search(key).left, r.search(key).left)
+                    || !objEquals(expected.get(key), r.get(key))) {
+                throw new RuntimeException("getRank Not Equal !");
+            }
+        }
+        for (int kth = 0; kth <= r.size() + 1; kth++) {
+            Tuple<Integer, Integer> t1 = expected.getKth(kth);
+            Tuple<Integer, Integer> t2 = r.getKth(kth);
+            if (t1 == null ? t2 != null : !objEquals(t1.left, t2.left)) {
+                throw new RuntimeException("getKth Not Equal !");
+            }
+        }
+        for (int value = -1; value <= 100; value++) {
+            int[] info1 = expected.getRankInfo(value);
+            int[] info2 = r.getRankInfo(value);
+            if (info1[0] != info2[0] || info1[1] != info2[1]) {
+                throw new RuntimeException("getRankInfo Not Equal !");
+            }
+        }
+        List<Tuple<Integer, Integer>> all = new ArrayList<>();
+        r.iterator(3).forEachRemaining(all::add);
+        if (!objEquals(expected.getSequenceList(4, r.size()), all)) {
+            throw new RuntimeException("iterator Not Equal !");
+        }
+        List<Integer> removeKeys = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            removeKeys.add(random.nextInt(3000));
+        }
+        if (expected.removeAll(removeKeys) != r.removeAll(removeKeys)
+                || !objEquals(expected.getSequenceList(1, expected.size()), r.getSequenceList(1, r.size()))) {
+            throw new RuntimeException("removeAll Not Equal !");
+        }
+        r.check();
+
+        // *****测试并发读写，读线程检查每次查询结果的内部一致性
+        SkipListChart<Integer, Integer> c = new SkipListChart<>();
+        int num = 10000;
+        int writerNum = 2;
+        int readerNum = 2;
+        int times = 200000;
+        AtomicReference<String> error = new AtomicReference<>();
+        CountDownLatch endLatch = new CountDownLatch(writerNum + readerNum);
+        for (int t = 0; t < writerNum; t++) {
+            new Thread(() -> {
+                ThreadLocalRandom rnd = ThreadLocalRandom.current();
+                for (int i = 0; i < times; i++) {
+                    int key = rnd.nextInt(num);
+                    if (rnd.nextInt(10) == 0) {
+                        c.remove(key);
+                    } else {
+                        c.put(key, rnd.nextInt(1000));
+                    }
+                }
+                endLatch.countDown();
+            }).start();
+        }
+        for (int t = 0; t < readerNum; t++) {
+            new Thread(() -> {
+                ThreadLocalRandom rnd = ThreadLocalRandom.current();
+                try {
+                    for (int i = 0; i < times; i++) {
+                        int op = rnd.nextInt(3);
+                        if (op == 0) {
+                            List<Tuple<Integer, Integer>> list = c.getListByPage(50, rnd.nextInt(20) + 1);
+                            Set<Integer> keys = new HashSet<>();
+                            for (int j = 0; j < list.size(); j++) {
+                                if (!keys.add(list.get(j).left)
+                                        || j > 0 && list.get(j - 1).right > list.get(j).right) {
+                                    error.set("getListByPage Not Sorted !");
+                                }
+                            }
+                        } else if (op == 1) {
+                            Tuple<Integer, Integer> t1 = c.search(rnd.nextInt(num));
+                            if ((t1.left > 0) != (t1.right != null)) {
+                                error.set("search Not Consistent !");
+                            }
+                        } else {
+                            int value = rnd.nextInt(1000);
+                            for (Tuple<Integer, Integer> t1 : c.getRangeList(value, value + 1)) {
+                                if (t1.right < value || t1.right > value + 1) {
+                                    error.set("getRangeList Out Of Range !");
+                                }
+                            }
+                        }
+                    }
+                } catch (RuntimeException e) {
+                    error.set(e.toString());
+                }
+                endLatch.countDown();
+            }).start();
+        }
+        endLatch.await();
+        if (error.get() != null) {
+            throw new RuntimeException(error.get());
+        }
+        c.check();
+        System.out.println("正确性测试通过");
+
+        // *****测试吞吐量
+        int threadNum = 4;
+        for (int readPercent : new int[] {99, 90, 50}) {
+            testThroughput("ConcurrentChart", new ConcurrentChart<>(new RankChart<Integer, Integer>()),
+                    100000, readPercent, threadNum, 200000);
+            testThroughput("StampedChart   ", new StampedChart<>(new RankChart<Integer, Integer>()),
+                    100000, readPercent, threadNum, 200000);
+            testThroughput("SkipListChart  ", new SkipListChart<Integer, Integer>(),
+                    100000, readPercent, threadNum, 200000);
+        }
+        System.exit(0);
+    }
+}
@@ -0,0 +1,935 @@
+package top.daheizi.commons.stl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 基于跳表的排行榜IRank
+ * 与Redis的zskiplist相同，每层的前进指针记录其跨越的节点数(span)，
+ * 查找路径上累加span即得到名次，getRank/getKth的期望复杂度为O(log n)
+ * 节点的关键字不可变，被移除的节点也不会复用；各层的前进指针和span会被插入和删除修改，
+ * 但前进指针任意时刻都只指向关键字更大的节点，因此未加锁的遍历必然终止，
+ * 可配合乐观读(如SkipListChart)在写入的同时进行查询
+ * 写入同样可以先在锁外通过locate查找位置，再在锁内交给add/remove/replace完成链接，见Path
+ * 排行榜内关键字互不相等
+ * 非线程安全
+ * @author daheizi
+ * @Date 2026年10月18日 上午1:41:20
+ */
+public class SkipListRank<K> implements IRank<K> {
+
+    /** 最大层数 */
+    private static final int MAX_LEVEL = 32;
+
+    /** 节点升高一层的概率为1/4 */
+    private static final int LEVEL_SHIFT = 2;
+
+    /** 头节点，不存储关键字 */
+    private final Node<K> header = new Node<>(null, MAX_LEVEL);
+
+    /** 最后一个节点 */
+    private Node<K> tail;
+
+    /** 当前的最大层数 */
+    private int level = 1;
+
+    /** 关键字数目 */
+    private int size;
+
+    /** 比较器 */
+    private final Comparator<? super K> comparator;
+
+    /** 结构修改的次数 */
+    private transient int modCount = 0;
+
+    /** 串行的插入和删除复用的查找结果 */
+    private final Path<K> path = new Path<>(false);
+
+    /**
+     * 跳表节点
+     * @param <K>
+     * @author daheizi
+     * @Date 2026年10月18日 上午1:42:10
+     */
+    private static final class Node<K> {
+        /** 关键字 */
+        final K key;
+        /** 各层的前进指针 */
+        final Node<K>[] forward;
+        /** 各层前进指针跨越的节点数 */
+        final int[] span;
+        /** 后退指针 */
+        Node<K> backward;
+        /** 版本，前进指针或span被修改后递增 */
+        volatile int version;
+
+        /**
+         * 构造函数
+         * @param key
+         * @param level
+         */
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        Node(K key, int level) {
+            this.key = key;
+            this.forward = new Node[level];
+            this.span = new int[level];
+        }
+    }
+
+    /**
+     * 构造函数
+     */
+    public SkipListRank() {
+        this(null);
+    }
+
+    /**
+     * 一次查找得到的插入或删除位置，即各层的前驱节点及其名次
+     * 可以在锁外由locate填充，使用后即被重置，同一线程可以反复使用，查找途经的每个节点都记录了当时的版本，
+     * 到锁内使用时若这些节点的版本均未改变，则重新查找必然得到相同的结果，直接链接即可，
+     * 否则在锁内重新查找
+     * @param <K>
+     * @author daheizi
+     * @Date 2026年10月18日 上午10:42:00
+     */
+    static final class Path<K> {
+        /** 各层的前驱节点 */
+        final Node<K>[] update;
+        /** 各层前驱节点的名次 */
+        final int[] updateRank = new int[MAX_LEVEL];
+        /** 查找时的层数 */
+        int level;
+        /** 是否记录途经节点的版本 */
+        final boolean recording;
+        /** 途经的节点 */
+        Node<K>[] visited;
+        /** 途经节点当时的版本 */
+        int[] versions;
+        /** 途经的节点数目 */
+        int count;
+
+        /**
+         * 构造函数
+         */
+        Path() {
+            this(true);
+        }
+
+        /**
+         * 构造函数
+         * @param recording 是否记录途经节点的版本
+         */
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        private Path(boolean recording) {
+            this.update = new Node[MAX_LEVEL];
+            this.recording = recording;
+            if (recording) {
+                this.visited = new Node[MAX_LEVEL];
+                this.versions = new int[MAX_LEVEL];
+            }
+        }
+
+        /**
+         * 记录途经的节点，须在读取节点的前进指针和span之前调用
+         * @param x
+         * @Date 2026年10月18日 上午10:42:30
+         */
+        void visit(Node<K> x) {
+            if (!recording) {
+                return;
+            }
+            if (count == visited.length) {
+                visited = Arrays.copyOf(visited, count << 1);
+                versions = Arrays.copyOf(versions, count << 1);
+            }
+            versions[count] = x.version;
+            visited[count++] = x;
+        }
+
+        /**
+         * 途经的节点是否均未被修改，须在锁内调用
+         * @return
+         * @Date 2026年10月18日 上午10:42:50
+         */
+        boolean isValid() {
+            if (!recording) {
+                return false;
+            }
+            for (int i = 0; i < count; i++) {
+                if (visited[i].version != versions[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * 释放对节点的引用
+         * @Date 2026年10月18日 上午10:43:10
+         */
+        void reset() {
+            Arrays.fill(update, null);
+            if (recording) {
+                Arrays.fill(visited, 0, count, null);
+            }
+            count = 0;
+        }
+    }
+
+    /**
+     * @param comparator
+     */
+    public SkipListRank(Comparator<? super K> comparator) {
+        this.comparator = comparator;
+    }
+
+    /**
+     * 比较两个关键字的大小
+     * @param k1
+     * @param k2
+     * @return
+     * @Date 2026年10月18日 上午1:43:00
+     */
+    @SuppressWarnings("unchecked")
+    private int compare(K k1, K k2) {
+        return comparator == null ? ((Comparable<? super K>) k1).compareTo(k2)
+                : comparator.compare(k1, k2);
+    }
+
+    /**
+     * 随机生成新节点的层数
+     * @return
+     * @Date 2026年10月18日 上午1:43:30
+     */
+    private static int randomLevel() {
+        int bits = ThreadLocalRandom.current().nextInt();
+        int lvl = 1;
+        while (lvl < MAX_LEVEL && (bits & ((1 << LEVEL_SHIFT) - 1)) == 0) {
+            lvl++;
+            bits >>>= LEVEL_SHIFT;
+            if (bits == 0) {
+                bits = ThreadLocalRandom.current().nextInt();
+            }
+        }
+        return lvl;
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.IRank#add(java.lang.Object)
+     */
+    @Override
+    public boolean add(K key) {
+        if (key == null) {
+            throw new NullPointerException();
+        }
+        find(key, path);
+        boolean added = insert(key, path);
+        path.reset();
+        return added;
+    }
+
+    /**
+     * 按锁外查找得到的位置插入，path仍然有效时不再查找
+     * @param key
+     * @param path 由locate填充
+     * @return
+     * @Date 2026年10月18日 上午10:43:40
+     */
+    boolean add(K key, Path<K> path) {
+        if (key == null) {
+            throw new NullPointerException();
+        }
+        if (!path.isValid()) {
+            find(key, path);
+        }
+        boolean added = insert(key, path);
+        path.reset();
+        return added;
+    }
+
+    /**
+     * 查找关键字的插入或删除位置，可以在锁外调用，结果在锁内使用前须经过Path#isValid的检验
+     * @param key
+     * @param path 存放查找结果
+     * @Date 2026年10月18日 上午10:44:00
+     */
+    void locate(K key, Path<K> path) {
+        if (key == null) {
+            throw new NullPointerException();
+        }
+        find(key, path);
+    }
+
+    /**
+     * 查找每层小于key的最后一个节点及其名次
+     * 先记录头节点的版本再读取层数，层数改变时头节点的版本随之改变
+     * @param key
+     * @param path
+     * @Date 2026年10月18日 上午10:44:20
+     */
+    private void find(K key, Path<K> path) {
+        path.count = 0;
+        Node<K> x = header;
+        path.visit(x);
+        int lvl = level;
+        int rank = 0;
+        for (int i = lvl - 1; i >= 0; i--) {
+            Node<K> next;
+            while ((next = x.forward[i]) != null && compare(next.key, key) < 0) {
+                rank += x.span[i];
+                x = next;
+                path.visit(x);
+            }
+            path.update[i] = x;
+            path.updateRank[i] = rank;
+        }
+        path.level = lvl;
+    }
+
+    /**
+     * 在有效的位置插入关键字
+     * @param key
+     * @param path
+     * @return 关键字已存在时返回false
+     * @Date 2026年10月18日 上午10:44:40
+     */
+    private boolean insert(K key, Path<K> path) {
+        Node<K>[] update = path.update;
+        int[] updateRank = path.updateRank;
+        Node<K> x = update[0].forward[0];
+        if (x != null && compare(x.key, key) == 0) {
+            return false;
+        }
+        int lvl = randomLevel();
+        if (lvl > level) {
+            for (int i = level; i < lvl; i++) {
+                updateRank[i] = 0;
+                update[i] = header;
+                header.span[i] = size;
+            }
+            level = lvl;
+        }
+        Node<K> node = new Node<>(key, lvl);
+        for (int i = 0; i < lvl; i++) {
+            node.forward[i] = update[i].forward[i];
+            node.span[i] = update[i].span[i] - (updateRank[0] - updateRank[i]);
+            update[i].span[i] = updateRank[0] - updateRank[i] + 1;
+            // 先设置新节点的前进指针，再链接到前驱节点
+            update[i].forward[i] = node;
+        }
+        for (int i = lvl; i < level; i++) {
+            update[i].span[i]++;
+        }
+        node.backward = update[0] == header ? null : update[0];
+        if (node.forward[0] != null) {
+            node.forward[0].backward = node;
+        } else {
+            tail = node;
+        }
+        // 修改完成后再递增版本，锁外的查找若读到了修改的中间状态，其记录的版本必然已过期
+        for (int i = 0; i < level; i++) {
+            update[i].version++;
+        }
+        size++;
+        modCount++;
+        return true;
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.IRank#remove(java.lang.Object)
+     */
+    @Override
+    public boolean remove(K key) {
+        if (key == null) {
+            throw new NullPointerException();
+        }
+        find(key, path);
+        boolean removed = delete(key, path);
+        path.reset();
+        return removed;
+    }
+
+    /**
+     * 按锁外查找得到的位置删除，path仍然有效时不再查找
+     * @param key
+     * @param path 由locate填充
+     * @return
+     * @Date 2026年10月18日 上午10:45:00
+     */
+    boolean remove(K key, Path<K> path) {
+        if (key == null) {
+            throw new NullPointerException();
+        }
+        if (!path.isValid()) {
+            find(key, path);
+        }
+        boolean removed = delete(key, path);
+        path.reset();
+        return removed;
+    }
+
+    /**
+     * 删除oldKey并插入newKey，两者的位置均由锁外查找得到
+     * 两个位置在删除前一并检验，删除后按被删除的节点修正插入位置，
+     * 不会因为删除修改了两者共同途经的节点而重新查找
+     * @param oldKey
+     * @param removePath 由locate(oldKey)填充
+     * @param newKey
+     * @param addPath 由locate(newKey)填充
+     * @return newKey是否插入
+     * @Date 2026年10月18日 上午10:45:30
+     */
+    boolean replace(K oldKey, Path<K> removePath, K newKey, Path<K> addPath) {
+        if (oldKey == null || newKey == null) {
+            throw new NullPointerException();
+        }
+        if (!removePath.isValid()) {
+            find(oldKey, removePath);
+        }
+        if (!addPath.isValid()) {
+            find(newKey, addPath);
+        }
+        Node<K> x = removePath.update[0].forward[0];
+        if (x != null && compare(x.key, oldKey) == 0) {
+            int oldRank = removePath.updateRank[0] + 1;
+            deleteNode(x, removePath);
+            for (int i = 0; i < addPath.level; i++) {
+                if (addPath.update[i] == x) {
+                    // 被删除的节点是该层的前驱，改为它在该层的前驱
+                    addPath.update[i] = removePath.update[i];
+                    addPath.updateRank[i] = removePath.updateRank[i];
+                } else if (addPath.updateRank[i] > oldRank) {
+                    addPath.updateRank[i]--;
+                }
+            }
+        }
+        removePath.reset();
+        boolean added = insert(newKey, addPath);
+        addPath.reset();
+        return added;
+    }
+
+    /**
+     * 在有效的位置删除关键字
+     * @param key
+     * @param path
+     * @return 关键字不存在时返回false
+     * @Date 2026年10月18日 上午10:45:50
+     */
+    private boolean delete(K key, Path<K> path) {
+        Node<K> x = path.update[0].forward[0];
+        if (x == null || compare(x.key, key) != 0) {
+            return false;
+        }
+        deleteNode(x, path);
+        return true;
+    }
+
+    /**
+     * 删除节点，path中需已记录各层的前驱节点
+     * 被删除节点的前进指针保持不变，正在遍历该节点的无锁读取仍可继续前进
+     * @param x
+     * @param path
+     * @Date 2026年10月18日 上午1:45:10
+     */
+    private void deleteNode(Node<K> x, Path<K> path) {
+        Node<K>[] update = path.update;
+        int lvl = level;
+        for (int i = 0; i < lvl; i++) {
+            if (update[i].forward[i] == x) {
+                update[i].span[i] += x.span[i] - 1;
+                update[i].forward[i] = x.forward[i];
+            } else {
+                update[i].span[i]--;
+            }
+        }
+        if (x.forward[0] != null) {
+            x.forward[0].backward = x.backward;
+        } else {
+            tail = x.backward;
+        }
+        while (level > 1 && header.forward[level - 1] == null) {
+            header.span[level - 1] = 0;
+            level--;
+        }
+        // 降低层数时修改的头节点也在update中
+        for (int i = 0; i < lvl; i++) {
+            update[i].version++;
+        }
+        size--;
+        modCount++;
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.IRank#contains(java.lang.Object)
+     */
+    @Override
+    public boolean contains(K key) {
+        return getRank(key) > 0;
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.IRank#getRank(java.lang.Object)
+     */
+    @Override
+    public int getRank(K key) {
+        if (key == null) {
+            throw new NullPointerException();
+        }
+        int rank = 0;
+        Node<K> x = header;
+        for (int i = level - 1; i >= 0; i--) {
+            Node<K> next;
+            while ((next = x.forward[i]) != null) {
+                int cmp = compare(next.key, key);
+                if (cmp > 0) {
+                    break;
+                }
+                rank += x.span[i];
+                if (cmp == 0) {
+                    return rank;
+                }
+                x = next;
+            }
+        }
+        return -(rank + 1);
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.IRank#getKth(int)
+     */
+    @Override
+    public K getKth(int kth) {
+        if (!(kth > 0 && kth <= size)) {
+            throw new IndexOutOfBoundsException(outOfBoundsMsg(kth));
+        }
+        return getKthNode(kth).key;
+    }
+
+    /**
+     * 返回对应名次的节点，名次为0时返回头节点
+     * @param kth
+     * @return
+     * @Date 2026年10月18日 上午1:46:20
+     */
+    private Node<K> getKthNode(int kth) {
+        int traversed = 0;
+        Node<K> x = header;
+        for (int i = level - 1; i >= 0; i--) {
+            while (x.forward[i] != null && traversed + x.span[i] <= kth) {
+                traversed += x.span[i];
+                x = x.forward[i];
+            }
+            if (traversed == kth) {
+                return x;
+            }
+        }
+        throw new ConcurrentModificationException();
+    }
+
+    /**
+     * 生成越界信息
+     * @param rank
+     * @return
+     * @Date 2026年10月18日 上午1:46:50
+     */
+    private String outOfBoundsMsg(int rank) {
+        return "Rank: " + rank + ", Size: " + size;
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.IRank#size()
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 清空
+     * 不修改原有节点，正在进行的无锁遍历不受影响，头节点的版本递增，锁外查找得到的位置随之失效
+     * @see top.daheizi.commons.stl.IRank#clear()
+     */
+    @Override
+    public void clear() {
+        modCount++;
+        Arrays.fill(header.forward, null);
+        Arrays.fill(header.span, 0);
+        tail = null;
+        level = 1;
+        size = 0;
+        header.version++;
+    }
+
+    /**
+     * 内部的排行榜迭代器
+     * 沿最底层的前进指针和后退指针移动
+     * @author daheizi
+     * @Date 2026年10月18日 上午1:47:30
+     */
+    private class RankItr implements RankIterator<K> {
+        /** 前一个返回的节点 */
+        private Node<K> last;
+        /** 后一个节点 */
+        private Node<K> next;
+        /** 前一个元素的名次 */
+        private int lastRank;
+        /** 期待的被修改次数 */
+        private int expectedModCount;
+
+        /**
+         * 构造函数
+         * @param kth 起始名次
+         */
+        RankItr(int kth) {
+            this(getKthNode(kth).forward[0], kth);
+        }
+
+        /**
+         * 构造函数
+         * @param next 后一个节点
+         * @param lastRank 前一个元素的名次
+         */
+        RankItr(Node<K> next, int lastRank) {
+            expectedModCount = modCount;
+            this.next = next;
+            this.lastRank = lastRank;
+        }
+
+        /**
+         * @see java.util.Iterator#hasNext()
+         */
+        @Override
+        public final boolean hasNext() {
+            return lastRank < size;
+        }
+
+        /**
+         * @see java.util.Iterator#next()
+         */
+        @Override
+        public K next() {
+            checkForComodification();
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            last = next;
+            next = next.forward[0];
+            lastRank++;
+            return last.key;
+        }
+
+        /**
+         * @see top.daheizi.commons.stl.RankIterator#hasPrevious()
+         */
+        @Override
+        public boolean hasPrevious() {
+            return lastRank > 0;
+        }
+
+        /**
+         * @see top.daheizi.commons.stl.RankIterator#previous()
+         */
+        @Override
+        public K previous() {
+            checkForComodification();
+            if (!hasPrevious()) {
+                throw new NoSuchElementException();
+            }
+            last = next = (next == null ? tail : next.backward);
+            lastRank--;
+            return last.key;
+        }
+
+        /**
+         * @see java.util.Iterator#remove()
+         */
+        @Override
+        public void remove() {
+            checkForComodification();
+            if (last == null) {
+                throw new IllegalStateException();
+            }
+            Node<K> lastNext = last.forward[0];
+            SkipListRank.this.remove(last.key);
+            if (next == last) {
+                next = lastNext;
+            } else {
+                lastRank--;
+            }
+            last = null;
+            expectedModCount = modCount;
+        }
+
+        /**
+         * @see top.daheizi.commons.stl.RankIterator#nextRank()
+         */
+        @Override
+        public int nextRank() {
+            return lastRank + 1;
+        }
+
+        /**
+         * @see top.daheizi.commons.stl.RankIterator#previousRank()
+         */
+        @Override
+        public int previousRank() {
+            return lastRank;
+        }
+
+        /**
+         * 检查结构是否被修改
+         * @Date 2026年10月18日 上午1:49:00
+         */
+        private final void checkForComodification() {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+        }
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.IRank#iterator()
+     */
+    @Override
+    public Iterator<K> iterator() {
+        return rankIterator();
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.IRank#rankIterator()
+     */
+    @Override
+    public RankIterator<K> rankIterator() {
+        return rankIterator(0);
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.IRank#rankIterator(int)
+     */
+    @Override
+    public RankIterator<K> rankIterator(int kth) {
+        if (!(kth >= 0 && kth <= size)) {
+            throw new IndexOutOfBoundsException(outOfBoundsMsg(kth));
+        }
+        return new RankItr(kth);
+    }
+
+    /**
+     * 在一次查找中定位不小于key的最小关键字
+     * @see top.daheizi.commons.stl.IRank#ceilingIterator(java.lang.Object)
+     */
+    @Override
+    public RankIterator<K> ceilingIterator(K key) {
+        if (key == null) {
+            throw new NullPointerException();
+        }
+        int rank = 0;
+        Node<K> x = header;
+        for (int i = level - 1; i >= 0; i--) {
+            Node<K> next;
+            while ((next = x.forward[i]) != null && compare(next.key, key) < 0) {
+                rank += x.span[i];
+                x = next;
+            }
+        }
+        return new RankItr(x.forward[0], rank);
+    }
+
+
+
+    /****************** 以下为一些非必需的辅助和测试方法 ***************************/
+
+    /**
+     * 验证跳表结构的正确性
+     * @Date 2026年10月18日 上午1:50:00
+     */
+    void check() {
+        for (int i = 0; i < level; i++) {
+            int rank = 0;
+            Node<K> x = header;
+            while (x.forward[i] != null) {
+                Node<K> next = x.forward[i];
+                if (x != header && compare(x.key, next.key) >= 0) {
+                    throw new RuntimeException("Not Sorted !");
+                }
+                rank += x.span[i];
+                if (getKthNode(rank) != next) {
+                    throw new RuntimeException("Span Error ! level " + i);
+                }
+                x = next;
+            }
+            if (i == 0 && (rank != size || x != (tail == null ? header : tail))) {
+                throw new RuntimeException("Size Error !");
+            }
+        }
+        for (Node<K> x = tail; x != null; x = x.backward) {
+            if ((x.backward == null ? header : x.backward).forward[0] != x) {
+                throw new RuntimeException("Backward Error !");
+            }
+        }
+    }
+
+    /**
+     * 单元测试
+     * @param args
+     * @Date 2026年10月18日 上午1:50:40
+     */
+    public static void main(String[] args) {
+        // *****测试正确性，与RBTreeRank对比
+        Random random = new Random();
+        SkipListRank<Integer> r = new SkipListRank<>();
+        IRank<Integer> ref = new RBTreeRank<>();
+        for (int i = 0; i < 200000; i++) {
+            int x = random.nextInt(10000);
+            if (random.nextInt(3) == 0) {
+                if (r.remove(x) != ref.remove(x)) {
+                    throw new RuntimeException("Remove Not Equal !");
+                }
+            } else if (r.add(x) != ref.add(x)) {
+                throw new RuntimeException("Add Not Equal !");
+            }
+            if (r.getRank(x) != ref.getRank(x)) {
+                throw new RuntimeException("Rank Not Equal !");
+            }
+            if (i % 20000 == 0) {
+                r.check();
+            }
+        }
+        r.check();
+        for (int i = 1; i <= ref.size(); i++) {
+            if (!r.getKth(i).equals(ref.getKth(i))) {
+                throw new RuntimeException("Kth Not Equal !");
+            }
+        }
+        for (int i = 0; i < 10000; i++) {
+            int x = random.nextInt(10010) - 5;
+            int rank = ref.getRank(x);
+            int nextRank = rank > 0 ? rank : -rank;
+            RankIterator<Integer> cit = r.ceilingIterator(x);
+            RankIterator<Integer> refCit = ref.ceilingIterator(x);
+            if (cit.nextRank() != nextRank || refCit.nextRank() != nextRank) {
+                throw new RuntimeException("CeilingIterator Rank Not Equal !");
+            }
+            if (cit.hasNext() != refCit.hasNext() || cit.hasNext() && !cit.next().equals(refCit.next())) {
+                throw new RuntimeException("CeilingIterator Next Not Equal !");
+            }
+            cit = r.ceilingIterator(x);
+            refCit = ref.ceilingIterator(x);
+            if (cit.hasPrevious() != refCit.hasPrevious() || cit.hasPrevious() && !cit.previous().equals(refCit.previous())) {
+                throw new RuntimeException("CeilingIterator Previous Not Equal !");
+            }
+        }
+        RankIterator<Integer> it = r.rankIterator(50);
+        RankIterator<Integer> refIt = ref.rankIterator(50);
+        while (it.hasNext()) {
+            Integer x = it.next();
+            if (!x.equals(refIt.next())) {
+                throw new RuntimeException("Iterator Not Equal !");
+            }
+            if (x % 3 == 0) {
+                it.remove();
+                refIt.remove();
+                if (it.hasPrevious() && !it.previous().equals(refIt.previous())) {
+                    throw new RuntimeException("Previous Not Equal !");
+                }
+                if (x % 2 == 0) {
+                    it.remove();
+                    refIt.remove();
+                } else if (it.hasNext()) {
+                    it.next();
+                    refIt.next();
+                }
+            }
+        }
+        r.check();
+        if (!Arrays.equals(r.toArray(), ref.toArray())) {
+            throw new RuntimeException("Iterator Remove Not Equal !");
+        }
+        System.out.println("correctness OK, size: " + r.size());
+
+        // *****测试锁外查找的位置，查找与使用之间穿插其它写入，使部分位置失效
+        for (int i = 0; i < 200000; i++) {
+            int x = random.nextInt(10000);
+            int y = random.nextInt(10000);
+            int op = random.nextInt(3);
+            Path<Integer> p1 = new Path<>();
+            Path<Integer> p2 = new Path<>();
+            r.locate(x, p1);
+            r.locate(y, p2);
+            if (random.nextBoolean()) {
+                int z = random.nextInt(10000);
+                if (r.add(z) != ref.add(z)) {
+                    throw new RuntimeException("Add Not Equal !");
+                }
+            }
+            if (op == 0) {
+                if (r.add(x, p1) != ref.add(x)) {
+                    throw new RuntimeException("Path Add Not Equal !");
+                }
+            } else if (op == 1) {
+                if (r.remove(x, p1) != ref.remove(x)) {
+                    throw new RuntimeException("Path Remove Not Equal !");
+                }
+            } else if (ref.contains(x) && !ref.contains(y)) {
+                ref.remove(x);
+                if (!r.replace(x, p1, y, p2) || !ref.add(y)) {
+                    throw new RuntimeException("Path Replace Not Equal !");
+                }
+            }
+            if (i % 20000 == 0) {
+                r.check();
+            }
+        }
+        r.check();
+        if (!Arrays.equals(r.toArray(), ref.toArray())) {
+            throw new RuntimeException("Path Not Equal !");
+        }
+        System.out.println("path OK, size: " + r.size());
+
+        // *****测试效率
+        int num = 1000000;
+        List<Integer> li = new ArrayList<>(num);
+        for (int i = 0; i < num; ++i) {
+            li.add(i * 2);
+        }
+        Collections.shuffle(li);
+        int times = num / 10;
+        System.out.println("****test speed, num :" + num + " ,time unit: (ns)");
+        for (IRank<Integer> rank : Arrays.<IRank<Integer>>asList(new SkipListRank<>(), new RBTreeRank<>())) {
+            long ns1 = System.nanoTime();
+            for (Integer x : li) {
+                rank.add(x);
+            }
+            long ns2 = System.nanoTime();
+            long sum = 0;
+            for (int i = 0; i < times; i++) {
+                sum += rank.getRank(random.nextInt(num * 2));
+            }
+            long ns3 = System.nanoTime();
+            for (int i = 0; i < times; i++) {
+                sum += rank.getKth(random.nextInt(num) + 1);
+            }
+            long ns4 = System.nanoTime();
+            for (Integer x : rank) {
+                sum += x;
+            }
+            long ns5 = System.nanoTime();
+            for (int i = 0; i < times; i++) {
+                rank.remove(random.nextInt(num * 2));
+            }
+            long ns6 = System.nanoTime();
+            System.out.println(rank.getClass().getSimpleName() + " add: " + (ns2 - ns1) / num
+                    + ", rank: " + (ns3 - ns2) / times + ", kth: " + (ns4 - ns3) / times
+                    + ", scan: " + (ns5 - ns4) / num + ", remove: " + (ns6 - ns5) / times + " " + (sum != 0));
+        }
+    }
+}
@@ -0,0 +1,833 @@
+package top.daheizi.commons.stl;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Supplier;
+
+/**
+ * 基于StampedLock的线程安全排行榜
+ * 单点查询(get, getRank, getKth等)以及小范围的连续查询采用乐观读，
+ * 仅在读取期间发生写入时才重试，多次失败后退化为悲观读锁
+ * 大范围的连续查询基于不可变的快照，快照按周期(epoch)惰性重建，
+ * 因此大范围查询的结果允许存在至多一个周期的延迟，且长时间的遍历不会阻塞写入
+ * 快照分段复制，每段只短暂持有读锁，写入最多等待一段的复制，见build
+ * 注意：乐观读不持有锁，读取期间内部排行榜可能正在被修改，
+ * 一般的非线程安全实现(如RankChart)此时可能陷入死循环，
+ * 因此只有并发读取必然终止时才采用乐观读，即查询循环有步数上限的RBTreeChart，
+ * 以及自身线程安全的ConcurrentChart、SkipListChart和ShardedChart，其余实现的单点查询在读锁内执行
+ * @param <K>
+ * @param <V>
+ * @author daheizi
+ * @Date 2026年10月17日 下午8:12:40
+ */
+public class StampedChart<K, V> implements IChart<K, V> {
+
+    /** 默认采用乐观读的连续查询的最大长度，超过则使用快照 */
+    private static final int DEFAULT_OPTIMISTIC_LIMIT = 256;
+
+    /** 默认的快照周期(毫秒) */
+    private static final long DEFAULT_SNAPSHOT_INTERVAL = 1000L;
+
+    /** 乐观读的最大尝试次数 */
+    private static final int MAX_OPTIMISTIC_TRIES = 2;
+
+    /** 内部排行榜Chart */
+    private final IChart<K, V> chart;
+
+    /** 锁 */
+    private final StampedLock lock = new StampedLock();
+
+    /** 写入版本号，仅在持有写锁时修改 */
+    private volatile long version;
+
+    /** 正在进行的快照复制，不在重建时为null，仅在持有锁时读写 */
+    private ChartCopy<K, V> copying;
+
+    /** 当前快照 */
+    private volatile Snapshot<K, V> snapshot;
+
+    /** 是否正在重建快照 */
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+
+    /** 采用乐观读的连续查询的最大长度 */
+    private final int optimisticLimit;
+
+    /** 快照周期(纳秒) */
+    private final long snapshotInterval;
+
+    /** 内部排行榜能否不加锁地并发读取，即是否采用乐观读 */
+    private final boolean optimistic;
+
+    /**
+     * 不可变的排行榜快照
+     * @param <K>
+     * @param <V>
+     * @author daheizi
+     * @Date 2026年10月17日 下午8:14:03
+     */
+    private static final class Snapshot<K, V> {
+        /** 生成快照时的写入版本号 */
+        final long version;
+        /** 生成时间(纳秒) */
+        final long createTime;
+        /** 按名次排列的关键字 */
+        final Object[] keys;
+        /** 按名次排列的值 */
+        final Object[] values;
+
+        /**
+         * 构造函数
+         * @param version
+         * @param keys
+         * @param values
+         */
+        Snapshot(long version, Object[] keys, Object[] values) {
+            this.version = version;
+            this.createTime = System.nanoTime();
+            this.keys = keys;
+            this.values = values;
+        }
+
+        /**
+         * 返回第index个(从0开始)键值对
+         * @param index
+         * @return
+         * @Date 2026年10月17日 下午8:14:40
+         */
+        @SuppressWarnings("unchecked")
+        Tuple<K, V> tuple(int index) {
+            return new Tuple<>((K) keys[index], (V) values[index]);
+        }
+
+        /**
+         * 返回一段连续的<key，value>数据列表，[start, end]
+         * 与IChart#getSequenceList的语义保持一致
+         * @param start
+         * @param end
+         * @return
+         * @Date 2026年10月17日 下午8:15:12
+         */
+        List<Tuple<K, V>> getSequenceList(int start, int end) {
+            List<Tuple<K, V>> list = new ArrayList<>();
+            if (start <= end) {
+                int size = keys.length;
+                start--;
+                start = start < 0 ? 0 : (start > size ? size : start);
+                end = end > size ? size : end;
+                for (int i = start; i < end; i++) {
+                    list.add(tuple(i));
+                }
+            }
+            return list;
+        }
+
+        /**
+         * 按名次顺序访问一段连续的数据，[start, end]
+         * 与IChart#forEachInRange的语义保持一致
+         * @param start
+         * @param end
+         * @param visitor
+         * @return
+         * @Date 2026年10月18日 上午3:12:20
+         */
+        @SuppressWarnings("unchecked")
+        int forEachInRange(int start, int end, ChartVisitor<? super K, ? super V> visitor) {
+            int size = keys.length;
+            start = start < 1 ? 1 : start;
+            end = end > size ? size : end;
+            for (int kth = start; kth <= end; kth++) {
+                visitor.visit(kth, (K) keys[kth - 1], (V) values[kth - 1]);
+            }
+            return start > end ? 0 : end - start + 1;
+        }
+
+        /**
+         * 按名次从后向前访问一段连续的数据
+         * 与IChart#forEachDescending的语义保持一致
+         * @param start
+         * @param end
+         * @param visitor
+         * @return
+         * @Date 2026年10月18日 上午3:44:10
+         */
+        @SuppressWarnings("unchecked")
+        int forEachDescending(int start, int end, ChartVisitor<? super K, ? super V> visitor) {
+            int size = keys.length;
+            start = start < 1 ? 1 : start;
+            end = end > size ? size : end;
+            for (int kth = end; kth >= start; kth--) {
+                visitor.visit(kth, (K) keys[kth - 1], (V) values[kth - 1]);
+            }
+            return start > end ? 0 : end - start + 1;
+        }
+    }
+
+    /**
+     * 构造函数
+     * @param chart
+     */
+    public StampedChart(IChart<K, V> chart) {
+        this(chart, DEFAULT_OPTIMISTIC_LIMIT, DEFAULT_SNAPSHOT_INTERVAL);
+    }
+
+    /**
+     * 构造函数
+     * @param chart
+     * @param optimisticLimit 采用乐观读的连续查询的最大长度
+     * @param snapshotInterval 快照周期(毫秒)，即大范围查询允许的最大延迟
+     */
+    public StampedChart(IChart<K, V> chart, int optimisticLimit, long snapshotInterval) {
+        this.chart = chart;
+        this.optimisticLimit = optimisticLimit;
+        this.snapshotInterval = TimeUnit.MILLISECONDS.toNanos(snapshotInterval);
+        this.optimistic = isRaceSafe(chart);
+    }
+
+    /**
+     * 判断排行榜能否在被修改的同时不加锁地读取，
+     * 即读操作必然终止，且只会因为读到了修改前后的不同版本而返回不一致的结果
+     * 仅限自身线程安全的实现
+     * @param chart
+     * @return
+     * @Date 2026年10月18日 上午9:40:00
+     */
+    static boolean isRaceSafe(IChart<?, ?> chart) {
+        return chart instanceof RBTreeChart || chart instanceof ConcurrentChart
+                || chart instanceof SkipListChart || chart instanceof ShardedChart;
+    }
+
+    /**
+     * 执行读操作
+     * 先尝试乐观读，若读取期间发生写入则重试，多次失败后在读锁下执行
+     * 内部排行榜不能并发读取时直接在读锁下执行
+     * @param reader
+     * @param tries 乐观读的最大尝试次数
+     * @return
+     * @Date 2026年10月17日 下午8:16:21
+     */
+    private <T> T read(Supplier<T> reader, int tries) {
+        for (int i = 0; optimistic && i < tries; i++) {
+            long stamp = lock.tryOptimisticRead();
+            if (stamp == 0L) {
+                // 写锁已被占用
+                break;
+            }
+            try {
+                T result = reader.get();
+                if (lock.validate(stamp)) {
+                    return result;
+                }
+            } catch (RuntimeException e) {
+                if (lock.validate(stamp)) {
+                    // 未发生写入，是真实的异常
+                    throw e;
+                }
+                // 读取期间结构被修改导致的异常，重试
+            }
+        }
+        long stamp = lock.readLock();
+        try {
+            return reader.get();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * 执行读操作
+     * @param reader
+     * @return
+     * @Date 2026年10月17日 下午8:17:02
+     */
+    private <T> T read(Supplier<T> reader) {
+        return read(reader, MAX_OPTIMISTIC_TRIES);
+    }
+
+    /**
+     * 返回可用的快照
+     * 快照在没有写入或者未超过快照周期时有效，
+     * 过期后由首个发现的线程重建，其他线程在此期间继续使用旧的快照
+     * @return
+     * @Date 2026年10月17日 下午8:18:30
+     */
+    private Snapshot<K, V> snapshot() {
+        Snapshot<K, V> s = snapshot;
+        if (isFresh(s)) {
+            return s;
+        }
+        while (!rebuilding.compareAndSet(false, true)) {
+            // 其他线程正在重建，有旧快照则继续使用，否则等待重建完成
+            if (s != null) {
+                return s;
+            }
+            Thread.yield();
+            s = snapshot;
+        }
+        try {
+            s = snapshot;
+            if (isFresh(s)) {
+                // 等待期间已被其他线程重建
+                return s;
+            }
+            while ((s = build()) == null) {
+                // 复制期间排行榜被清空，重新复制
+            }
+            snapshot = s;
+            return s;
+        } finally {
+            rebuilding.set(false);
+        }
+    }
+
+    /**
+     * 判断快照是否可用，即没有写入或者未超过快照周期
+     * @param s
+     * @return
+     * @Date 2026年10月18日 上午10:21:00
+     */
+    private boolean isFresh(Snapshot<K, V> s) {
+        return s != null && (s.version == version || System.nanoTime() - s.createTime < snapshotInterval);
+    }
+
+    /**
+     * 分段复制内部排行榜，生成快照，见ChartCopy
+     * 每段只短暂持有读锁，最后一段在同一读锁内完成，快照与此时的排行榜完全一致
+     * @return 快照，复制期间排行榜被清空时返回null
+     * @throws ConcurrentModificationException 复制结果与排行榜的数据量不一致
+     * @Date 2026年10月17日 下午8:19:47
+     */
+    private Snapshot<K, V> build() {
+        ChartCopy<K, V> c = new ChartCopy<>(chart);
+        long ver;
+        long stamp = lock.readLock();
+        try {
+            copying = c;
+            while (!c.copyChunk()) {
+                lock.unlockRead(stamp);
+                stamp = lock.readLock();
+                if (c.isCancelled()) {
+                    // 排行榜被清空
+                    return null;
+                }
+            }
+            c.finish();
+            ver = version;
+        } finally {
+            copying = null;
+            lock.unlockRead(stamp);
+        }
+        Object[] keys = new Object[c.size()];
+        Object[] values = new Object[c.size()];
+        c.merge((rank, key, value) -> {
+            keys[rank - 1] = key;
+            values[rank - 1] = value;
+        });
+        return new Snapshot<>(ver, keys, values);
+    }
+
+    /**
+     * 记录被写入的关键字，须在持有写锁时调用
+     * @param key
+     * @Date 2026年10月18日 上午10:22:00
+     */
+    private void written(K key) {
+        if (copying != null) {
+            copying.written(key);
+        }
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.IChart#put(java.lang.Object, java.lang.Object)
+     */
+    @Override
+    public V put(K key, V value) {
+        long stamp = lock.writeLock();
+        try {
+            version++;
+            written(key);
+            return chart.put(key, value);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.IChart#remove(java.lang.Object)
+     */
+    @Override
+    public V remove(K key) {
+        long stamp = lock.writeLock();
+        try {
+            version++;
+            written(key);
+            return chart.remove(key);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * 整个批量操作只获取一次写锁
+     * @see top.daheizi.commons.stl.IChart#putAll(java.util.Map)
+     */
+    @Override
+    public void putAll(Map<? extends K, ? extends V> map) {
+        long stamp = lock.writeLock();
+        try {
+            version++;
+            for (K key : map.keySet()) {
+                written(key);
+            }
+            chart.putAll(map);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * 整个批量操作只获取一次写锁
+     * @see top.daheizi.commons.stl.IChart#removeAll(java.util.Collection)
+     */
+    @Override
+    public int removeAll(Collection<? extends K> keys) {
+        long stamp = lock.writeLock();
+        try {
+            version++;
+            for (K key : keys) {
+                written(key);
+            }
+            return chart.removeAll(keys);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.IChart#clear()
+     */
+    @Override
+    public void clear() {
+        long stamp = lock.writeLock();
+        try {
+            version++;
+            // 正在进行的快照复制作废
+            if (copying != null) {
+                copying.cancel();
+            }
+            chart.clear();
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.IChart#get(java.lang.Object)
+     */
+    @Override
+    public V get(K key) {
+        return read(() -> chart.get(key));
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.IChart#containsKey(java.lang.Object)
+     */
+    @Override
+    public boolean containsKey(K key) {
+        return read(() -> chart.containsKey(key));
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.IChart#size()
+     */
+    @Override
+    public int size() {
+        return read(() -> chart.size());
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.IChart#getRank(java.lang.Object)
+     */
+    @Override
+    public int getRank(K key) {
+        return read(() -> chart.getRank(key));
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.IChart#search(java.lang.Object)
+     */
+    @Override
+    public Tuple<Integer, V> search(K key) {
+        return read(() -> chart.search(key));
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.IChart#getKth(int)
+     */
+    @Override
+    public Tuple<K, V> getKth(int kth) {
+        return read(() -> chart.getKth(kth));
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.IChart#getRankInfo(java.lang.Object)
+     */
+    @Override
+    public int[] getRankInfo(V value) {
+        return read(() -> chart.getRankInfo(value));
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.IChart#iterator()
+     */
+    @Override
+    public Iterator<Tuple<K, V>> iterator() {
+        return iterator(0);
+    }
+
+    /**
+     * 返回基于快照的迭代器，不支持remove()
+     * @see top.daheizi.commons.stl.IChart#iterator(int)
+     */
+    @Override
+    public Iterator<Tuple<K, V>> iterator(int kth) {
+        Snapshot<K, V> s = snapshot();
+        int size = s.keys.length;
+        int start = kth < 0 ? 0 : (kth > size ? size : kth);
+        return new Iterator<Tuple<K, V>>() {
+            /** 下一个元素的索引 */
+            private int cursor = start;
+
+            @Override
+            public boolean hasNext() {
+                return cursor < size;
+            }
+
+            @Override
+            public Tuple<K, V> next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return s.tuple(cursor++);
+            }
+        };
+    }
+
+    /**
+     * 长度不超过optimisticLimit时采用乐观读，否则使用快照
+     * @see top.daheizi.commons.stl.IChart#getSequenceList(int, int)
+     */
+    @Override
+    public List<Tuple<K, V>> getSequenceList(int start, int end) {
+        if (end - start < optimisticLimit) {
+            return read(() -> chart.getSequenceList(start, end));
+        }
+        return snapshot().getSequenceList(start, end);
+    }
+
+    /**
+     * 访问者有副作用，无法在乐观读失败后重试，
+     * 因此长度不超过optimisticLimit时在读锁内访问，否则访问快照
+     * @see top.daheizi.commons.stl.IChart#forEachInRange(int, int, top.daheizi.commons.stl.ChartVisitor)
+     */
+    @Override
+    public int forEachInRange(int start, int end, ChartVisitor<? super K, ? super V> visitor) {
+        if (end - start < optimisticLimit) {
+            long stamp = lock.readLock();
+            try {
+                return chart.forEachInRange(start, end, visitor);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return snapshot().forEachInRange(start, end, visitor);
+    }
+
+    /**
+     * 长度不超过optimisticLimit时采用乐观读，否则使用快照
+     * @see top.daheizi.commons.stl.IChart#getDescendingList(int, int)
+     */
+    @Override
+    public List<Tuple<K, V>> getDescendingList(int start, int end) {
+        if (end - start < optimisticLimit) {
+            return read(() -> chart.getDescendingList(start, end));
+        }
+        List<Tuple<K, V>> list = new ArrayList<>();
+        snapshot().forEachDescending(start, end, (rank, key, value) -> list.add(new Tuple<>(key, value)));
+        return list;
+    }
+
+    /**
+     * 名次区间与数据列表分两次读取，结果可能跨越两个版本
+     * @see top.daheizi.commons.stl.IChart#getDescendingRangeList(java.lang.Object, java.lang.Object)
+     */
+    @Override
+    public List<Tuple<K, V>> getDescendingRangeList(V low, V high) {
+        int[] range = read(() -> {
+            int[] info1 = chart.getRankInfo(low);
+            int[] info2 = chart.getRankInfo(high);
+            return new int[]{info1[0] + 1, info2[1]};
+        });
+        return getDescendingList(range[0], range[1]);
+    }
+
+    /**
+     * 与forEachInRange相同，短区间在读锁内访问，否则访问快照
+     * @see top.daheizi.commons.stl.IChart#forEachDescending(int, int, top.daheizi.commons.stl.ChartVisitor)
+     */
+    @Override
+    public int forEachDescending(int start, int end, ChartVisitor<? super K, ? super V> visitor) {
+        if (end - start < optimisticLimit) {
+            long stamp = lock.readLock();
+            try {
+                return chart.forEachDescending(start, end, visitor);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return snapshot().forEachDescending(start, end, visitor);
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.IChart#getListByPage(int, int)
+     */
+    @Override
+    public List<Tuple<K, V>> getListByPage(int pageSize, int page) {
+        int end = pageSize * page;
+        return getSequenceList(end - pageSize + 1, end);
+    }
+
+    /**
+     * 名次区间与数据列表分两次读取，结果可能跨越两个版本
+     * @see top.daheizi.commons.stl.IChart#getRangeList(java.lang.Object, java.lang.Object)
+     */
+    @Override
+    public List<Tuple<K, V>> getRangeList(V low, V high) {
+        int[] range = read(() -> {
+            int[] info1 = chart.getRankInfo(low);
+            int[] info2 = chart.getRankInfo(high);
+            return new int[]{info1[0] + 1, info2[1]};
+        });
+        return getSequenceList(range[0], range[1]);
+    }
+
+    /**
+     * 名次与数据列表分两次读取，结果可能跨越两个版本
+     * @see top.daheizi.commons.stl.IChart#getSurroundedByKey(java.lang.Object, int, int)
+     */
+    @Override
+    public List<Tuple<K, V>> getSurroundedByKey(K key, int left, int right) {
+        int rank = getRank(key);
+        if (rank == -1) {
+            return new ArrayList<>();
+        }
+        return getSequenceList(rank - left, rank + right);
+    }
+
+
+
+    /****************** 以下为一些非必需的辅助和测试方法 ***************************/
+
+    /**
+     * 多线程吞吐量测试
+     * @param name
+     * @param chart
+     * @param num 数据量
+     * @param readPercent 读操作所占百分比
+     * @param threadNum 线程数目
+     * @param times 每个线程的操作次数
+     * @Date 2026年10月17日 下午8:23:15
+     */
+    private static void testThroughput(String name, IChart<Integer, Integer> chart, int num,
+            int readPercent, int threadNum, int times) {
+        Random random = new Random();
+        for (int i = 0; i < num; ++i) {
+            chart.put(i, random.nextInt(num));
+        }
+        CountDownLatch startLatch = new CountDownLatch(1);
+        CountDownLatch endLatch = new CountDownLatch(threadNum);
+        for (int t = 0; t < threadNum; t++) {
+            new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    ThreadLocalRandom rnd = ThreadLocalRandom.current();
+                    try {
+                        startLatch.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    for (int i = 0; i < times; i++) {
+                        if (rnd.nextInt(100) >= readPercent) {
+                            chart.put(rnd.nextInt(num), rnd.nextInt(num));
+                            continue;
+                        }
+                        int op = rnd.nextInt(100);
+                        if (op < 40) {
+                            chart.getRank(rnd.nextInt(num));
+                        } else if (op < 70) {
+                            chart.getKth(rnd.nextInt(num) + 1);
+                        } else if (op < 90) {
+                            chart.get(rnd.nextInt(num));
+                        } else if (op < 99) {
+                            // 前10页的热门分页
+                            chart.getListByPage(100, rnd.nextInt(10) + 1);
+                        } else {
+                            // 大范围的连续查询
+                            int start = rnd.nextInt(num);
+                            chart.getSequenceList(start, start + 10000);
+                        }
+                    }
+                    endLatch.countDown();
+                }
+            }).start();
+        }
+        long ns1 = System.nanoTime();
+        startLatch.countDown();
+        try {
+            endLatch.await();
+        } catch (InterruptedException e) {
+            e.printStackTrace();
+        }
+        long ns2 = System.nanoTime();
+        long total = (long) threadNum * times;
+        System.out.println(name + " 读:写=" + readPercent + ":" + (100 - readPercent)
+                + ", 平均每秒处理请求数: " + (long) (total * Math.pow(10, 9) / (ns2 - ns1)));
+    }
+
+    /**
+     * 迭代器中的数据转为列表
+     * @param it
+     * @return
+     * @Date 2026年10月18日 上午10:23:00
+     */
+    private static <T> List<T> toList(Iterator<T> it) {
+        List<T> list = new ArrayList<>();
+        while (it.hasNext()) {
+            list.add(it.next());
+        }
+        return list;
+    }
+
+    /**
+     * 一个线程持续写入的同时反复读取全部数据，分段复制的快照中关键字不应重复且按值有序，
+     * 写入停止后快照应与内部排行榜完全一致
+     * @Date 2026年10月18日 上午10:24:00
+     */
+    private static void testSnapshotUnderWrites() {
+        int num = 20000;
+        RBTreeChart<Integer, Long> inner = new RBTreeChart<>();
+        StampedChart<Integer, Long> sc = new StampedChart<>(inner, 16, 0);
+        for (int i = 0; i < num; i++) {
+            sc.put(i, (long) i);
+        }
+        AtomicBoolean stop = new AtomicBoolean();
+        Thread writer = new Thread(() -> {
+            ThreadLocalRandom rnd = ThreadLocalRandom.current();
+            while (!stop.get()) {
+                int key = rnd.nextInt(num);
+                if (rnd.nextInt(10) == 0) {
+                    sc.remove(key);
+                } else {
+                    sc.put(key, (long) rnd.nextInt(num * 4));
+                }
+            }
+        });
+        writer.start();
+        for (int round = 0; round < 200; round++) {
+            List<Tuple<Integer, Long>> list = sc.getSequenceList(1, num);
+            Set<Integer> keys = new HashSet<>();
+            for (int i = 0; i < list.size(); i++) {
+                if (!keys.add(list.get(i).left)
+                        || (i > 0 && list.get(i - 1).right > list.get(i).right)) {
+                    stop.set(true);
+                    throw new RuntimeException("Snapshot Not Equal ! " + round);
+                }
+            }
+        }
+        stop.set(true);
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (!sc.getSequenceList(1, num).equals(inner.getSequenceList(1, num))) {
+            throw new RuntimeException("Snapshot Not Equal !");
+        }
+    }
+
+    /**
+     * 单元测试
+     * @param args
+     * @Date 2026年10月17日 下午8:21:36
+     */
+    public static void main(String[] args) {
+        // *****测试正确性
+        IChart<Integer, Integer> expected = new RBTreeChart<>();
+        IChart<Integer, Integer> r = new StampedChart<>(new RBTreeChart<Integer, Integer>(), 16, 0);
+        Random random = new Random();
+        for (int i = 0; i < 10000; i++) {
+            int key = random.nextInt(1000);
+            int value = random.nextInt(100);
+            if (random.nextInt(10) == 0) {
+                expected.remove(key);
+                r.remove(key);
+            } else {
+                expected.put(key, value);
+                r.put(key, value);
+            }
+            int kth = random.nextInt(expected.size() + 1);
+            if (!expected.getSequenceList(kth, kth + 100).equals(r.getSequenceList(kth, kth + 100))
+                    || !expected.getSequenceList(kth, kth + 8).equals(r.getSequenceList(kth, kth + 8))
+                    || expected.getRank(key) != r.getRank(key)) {
+                throw new RuntimeException("Not Equal ! " + i);
+            }
+        }
+        System.out.println(r.getListByPage(10, 1));
+        System.out.println(r.getRangeList(10, 11));
+        System.out.println(r.getSurroundedByKey(r.getKth(50).left, 2, 2));
+
+        // *****并发读写，乐观读不会死循环或抛出异常，不支持迭代器的内部排行榜也能生成快照
+        List<IChart<Integer, Integer>> inners = new ArrayList<>();
+        inners.add(new RBTreeChart<>());
+        inners.add(new SkipListChart<>());
+        inners.add(new ConcurrentChart<>(new RBTreeChart<Integer, Integer>()));
+        inners.add(new RankChart<>());
+        for (IChart<Integer, Integer> inner : inners) {
+            StampedChart<Integer, Integer> sc = new StampedChart<>(inner, 16, 0);
+            if (sc.optimistic != isRaceSafe(inner) || sc.optimistic == (inner instanceof RankChart)) {
+                throw new RuntimeException("Optimistic Not Equal !");
+            }
+            testThroughput(inner.getClass().getSimpleName(), sc, 10000, 80, 4, 50000);
+            if (!sc.getSequenceList(1, sc.size()).equals(inner.getSequenceList(1, inner.size()))
+                    || !sc.getSequenceList(1, sc.size()).equals(toList(sc.iterator()))) {
+                throw new RuntimeException("Snapshot Not Equal !");
+            }
+        }
+        testSnapshotUnderWrites();
+
+        // *****吞吐量对比
+        int num = 1000000;
+        int threadNum = 8;
+        int times = 200000;
+        System.out.println("****吞吐量测试: 数据量 :" + num + ", 线程数目：" + threadNum);
+        for (int readPercent : new int[]{95, 50}) {
+            testThroughput("ConcurrentChart", new ConcurrentChart<>(new RBTreeChart<Integer, Integer>()),
+                    num, readPercent, threadNum, times);
+            testThroughput("StampedChart   ", new StampedChart<>(new RBTreeChart<Integer, Integer>()),
+                    num, readPercent, threadNum, times);
+        }
+        System.exit(0);
+    }
+}
@@ -0,0 +1,715 @@
+package top.daheizi.commons.stl;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 缓存前N名数据的排行榜
+ * 前N名数据保存在不可变的数组中，写入后原子地发布新的版本，
+ * 读取前N名以内的连续数据时只需读取一次volatile引用，不加锁也不访问内部排行榜
+ * 写入时仅当被修改的数据在修改前或修改后的名次不超过N时才修补缓存，
+ * 修补只需复制数组并至多查询一次第N名，批量操作则整体重建
+ * 注意：内部排行榜须是线程安全的(如ConcurrentChart)，且只能通过本类修改，
+ * 读取到的缓存可能比内部排行榜晚一次写入
+ * @param <K>
+ * @param <V>
+ * @author daheizi
+ * @Date 2026年10月18日 上午4:02:10
+ */
+public class TopNChart<K, V> implements IChart<K, V> {
+
+    /** 内部排行榜Chart */
+    private final IChart<K, V> chart;
+
+    /** 缓存的名次上限N */
+    private final int limit;
+
+    /** 当前缓存的前N名数据 */
+    private volatile View<K, V> view;
+
+    /** 写锁，保证内部排行榜与缓存按相同的顺序修改 */
+    private final ReentrantLock wl = new ReentrantLock();
+
+    /** 缓存中的关键字，仅在持有写锁时访问 */
+    private final Set<K> topKeys = new HashSet<>();
+
+    /** 由缓存完成的查询次数 */
+    private final LongAdder hitCount = new LongAdder();
+
+    /** 超出缓存范围、转发给内部排行榜的查询次数 */
+    private final LongAdder missCount = new LongAdder();
+
+    /** 未触及缓存的写入次数 */
+    private volatile long skipCount;
+
+    /** 修补缓存的次数 */
+    private volatile long patchCount;
+
+    /** 修补缓存的总耗时(纳秒) */
+    private volatile long patchNanos;
+
+    /** 整体重建缓存的次数 */
+    private volatile long rebuildCount;
+
+    /** 整体重建缓存的总耗时(纳秒) */
+    private volatile long rebuildNanos;
+
+    /**
+     * 不可变的前N名数据
+     * @param <K>
+     * @param <V>
+     * @author daheizi
+     * @Date 2026年10月18日 上午4:03:30
+     */
+    private static final class View<K, V> {
+        /** 按名次排列的关键字 */
+        final Object[] keys;
+        /** 按名次排列的值 */
+        final Object[] values;
+
+        /**
+         * 构造函数
+         * @param keys
+         * @param values
+         */
+        View(Object[] keys, Object[] values) {
+            this.keys = keys;
+            this.values = values;
+        }
+
+        /**
+         * 返回第index个(从0开始)键值对
+         * @param index
+         * @return
+         * @Date 2026年10月18日 上午4:04:00
+         */
+        @SuppressWarnings("unchecked")
+        Tuple<K, V> tuple(int index) {
+            return new Tuple<>((K) keys[index], (V) values[index]);
+        }
+    }
+
+    /**
+     * 构造函数
+     * @param chart 线程安全的内部排行榜
+     * @param limit 缓存的名次上限N
+     */
+    public TopNChart(IChart<K, V> chart, int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("limit: " + limit);
+        }
+        this.chart = chart;
+        this.limit = limit;
+        rebuild();
+    }
+
+    /**
+     * 缓存能否完成[start, end]范围内的查询
+     * 缓存未满时说明内部排行榜的全部数据都已被缓存
+     * @param v
+     * @param end
+     * @return
+     * @Date 2026年10月18日 上午4:05:10
+     */
+    private boolean covers(View<K, V> v, int end) {
+        if (end <= limit || v.keys.length < limit) {
+            hitCount.increment();
+            return true;
+        }
+        missCount.increment();
+        return false;
+    }
+
+    /**
+     * 根据内部排行榜整体重建缓存，持有写锁时调用
+     * @Date 2026年10月18日 上午4:06:00
+     */
+    private void rebuild() {
+        long ns = System.nanoTime();
+        List<Object> keys = new ArrayList<>();
+        List<Object> values = new ArrayList<>();
+        chart.forEachInRange(1, limit, (rank, key, value) -> {
+            keys.add(key);
+            values.add(value);
+        });
+        topKeys.clear();
+        for (Object key : keys) {
+            @SuppressWarnings("unchecked")
+            K k = (K) key;
+            topKeys.add(k);
+        }
+        view = new View<>(keys.toArray(), values.toArray());
+        rebuildCount++;
+        rebuildNanos += System.nanoTime() - ns;
+    }
+
+    /**
+     * 关键字被修改后修补缓存，持有写锁时调用
+     * @param key 被修改的关键字
+     * @param value 新值，被移除时为null
+     * @param rank 修改后的名次，被移除时为-1
+     * @Date 2026年10月18日 上午4:07:20
+     */
+    private void patch(K key, V value, int rank) {
+        long ns = System.nanoTime();
+        View<K, V> v = view;
+        int length = v.keys.length;
+        Object[] keys = new Object[length + 1];
+        Object[] values = new Object[length + 1];
+        int size = 0;
+        for (int i = 0; i < length; i++) {
+            if (size == rank - 1) {
+                keys[size] = key;
+                values[size++] = value;
+            }
+            if (!key.equals(v.keys[i])) {
+                keys[size] = v.keys[i];
+                values[size++] = v.values[i];
+            }
+        }
+        if (size == rank - 1) {
+            keys[size] = key;
+            values[size++] = value;
+        }
+        topKeys.remove(key);
+        if (rank > 0) {
+            topKeys.add(key);
+        }
+        if (size > limit) {
+            // 原第N名被挤出
+            @SuppressWarnings("unchecked")
+            K k = (K) keys[--size];
+            topKeys.remove(k);
+        } else if (size < limit && size < chart.size()) {
+            // 原第N+1名进入缓存
+            Tuple<K, V> t = chart.getKth(size + 1);
+            keys[size] = t.left;
+            values[size++] = t.right;
+            topKeys.add(t.left);
+        }
+        if (size != keys.length) {
+            Object[] newKeys = new Object[size];
+            Object[] newValues = new Object[size];
+            System.arraycopy(keys, 0, newKeys, 0, size);
+            System.arraycopy(values, 0, newValues, 0, size);
+            keys = newKeys;
+            values = newValues;
+        }
+        view = new View<>(keys, values);
+        patchCount++;
+        patchNanos += System.nanoTime() - ns;
+    }
+
+    /**
+     * 修改前后的名次都超过N时缓存保持不变
+     * @see top.daheizi.commons.stl.IChart#put(java.lang.Object, java.lang.Object)
+     */
+    @Override
+    public V put(K key, V value) {
+        wl.lock();
+        try {
+            V old = chart.put(key, value);
+            int rank = chart.getRank(key);
+            if (rank <= limit || topKeys.contains(key)) {
+                patch(key, value, rank <= limit ? rank : -1);
+            } else {
+                skipCount++;
+            }
+            return old;
+        } finally {
+            wl.unlock();
+        }
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.IChart#remove(java.lang.Object)
+     */
+    @Override
+    public V remove(K key) {
+        wl.lock();
+        try {
+            V old = chart.remove(key);
+            if (old != null && topKeys.contains(key)) {
+                patch(key, null, -1);
+            } else {
+                skipCount++;
+            }
+            return old;
+        } finally {
+            wl.unlock();
+        }
+    }
+
+    /**
+     * 批量修改后整体重建缓存
+     * @see top.daheizi.commons.stl.IChart#putAll(java.util.Map)
+     */
+    @Override
+    public void putAll(Map<? extends K, ? extends V> map) {
+        wl.lock();
+        try {
+            chart.putAll(map);
+            rebuild();
+        } finally {
+            wl.unlock();
+        }
+    }
+
+    /**
+     * 批量修改后整体重建缓存
+     * @see top.daheizi.commons.stl.IChart#removeAll(java.util.Collection)
+     */
+    @Override
+    public int removeAll(Collection<? extends K> keys) {
+        wl.lock();
+        try {
+            int count = chart.removeAll(keys);
+            rebuild();
+            return count;
+        } finally {
+            wl.unlock();
+        }
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.IChart#clear()
+     */
+    @Override
+    public void clear() {
+        wl.lock();
+        try {
+            chart.clear();
+            rebuild();
+        } finally {
+            wl.unlock();
+        }
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.IChart#get(java.lang.Object)
+     */
+    @Override
+    public V get(K key) {
+        return chart.get(key);
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.IChart#containsKey(java.lang.Object)
+     */
+    @Override
+    public boolean containsKey(K key) {
+        return chart.containsKey(key);
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.IChart#size()
+     */
+    @Override
+    public int size() {
+        return chart.size();
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.IChart#getRank(java.lang.Object)
+     */
+    @Override
+    public int getRank(K key) {
+        return chart.getRank(key);
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.IChart#search(java.lang.Object)
+     */
+    @Override
+    public Tuple<Integer, V> search(K key) {
+        return chart.search(key);
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.IChart#getKth(int)
+     */
+    @Override
+    public Tuple<K, V> getKth(int kth) {
+        View<K, V> v = view;
+        if (covers(v, kth)) {
+            return kth > 0 && kth <= v.keys.length ? v.tuple(kth - 1) : null;
+        }
+        return chart.getKth(kth);
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.IChart#getRankInfo(java.lang.Object)
+     */
+    @Override
+    public int[] getRankInfo(V value) {
+        return chart.getRankInfo(value);
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.IChart#iterator()
+     */
+    @Override
+    public Iterator<Tuple<K, V>> iterator() {
+        return chart.iterator();
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.IChart#iterator(int)
+     */
+    @Override
+    public Iterator<Tuple<K, V>> iterator(int kth) {
+        return chart.iterator(kth);
+    }
+
+    /**
+     * 终止名次不超过N时直接复制缓存
+     * @see top.daheizi.commons.stl.IChart#getSequenceList(int, int)
+     */
+    @Override
+    public List<Tuple<K, V>> getSequenceList(int start, int end) {
+        View<K, V> v = view;
+        if (!covers(v, end)) {
+            return chart.getSequenceList(start, end);
+        }
+        int size = v.keys.length;
+        start = start < 1 ? 1 : start;
+        end = end > size ? size : end;
+        List<Tuple<K, V>> list = new ArrayList<>(start <= end ? end - start + 1 : 0);
+        for (int i = start - 1; i < end; i++) {
+            list.add(v.tuple(i));
+        }
+        return list;
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.IChart#getListByPage(int, int)
+     */
+    @Override
+    public List<Tuple<K, V>> getListByPage(int pageSize, int page) {
+        int end = pageSize * page;
+        return getSequenceList(end - pageSize + 1, end);
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.IChart#getDescendingList(int, int)
+     */
+    @Override
+    public List<Tuple<K, V>> getDescendingList(int start, int end) {
+        View<K, V> v = view;
+        if (!covers(v, end)) {
+            return chart.getDescendingList(start, end);
+        }
+        int size = v.keys.length;
+        start = start < 1 ? 1 : start;
+        end = end > size ? size : end;
+        List<Tuple<K, V>> list = new ArrayList<>(start <= end ? end - start + 1 : 0);
+        for (int i = end - 1; i >= start - 1; i--) {
+            list.add(v.tuple(i));
+        }
+        return list;
+    }
+
+    /**
+     * 终止名次不超过N时直接访问缓存，不加锁
+     * @see top.daheizi.commons.stl.IChart#forEachInRange(int, int, top.daheizi.commons.stl.ChartVisitor)
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public int forEachInRange(int start, int end, ChartVisitor<? super K, ? super V> visitor) {
+        View<K, V> v = view;
+        if (!covers(v, end)) {
+            return chart.forEachInRange(start, end, visitor);
+        }
+        int size = v.keys.length;
+        start = start < 1 ? 1 : start;
+        end = end > size ? size : end;
+        for (int kth = start; kth <= end; kth++) {
+            visitor.visit(kth, (K) v.keys[kth - 1], (V) v.values[kth - 1]);
+        }
+        return start > end ? 0 : end - start + 1;
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.IChart#forEachDescending(int, int, top.daheizi.commons.stl.ChartVisitor)
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public int forEachDescending(int start, int end, ChartVisitor<? super K, ? super V> visitor) {
+        View<K, V> v = view;
+        if (!covers(v, end)) {
+            return chart.forEachDescending(start, end, visitor);
+        }
+        int size = v.keys.length;
+        start = start < 1 ? 1 : start;
+        end = end > size ? size : end;
+        for (int kth = end; kth >= start; kth--) {
+            visitor.visit(kth, (K) v.keys[kth - 1], (V) v.values[kth - 1]);
+        }
+        return start > end ? 0 : end - start + 1;
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.IChart#getRangeList(java.lang.Object, java.lang.Object)
+     */
+    @Override
+    public List<Tuple<K, V>> getRangeList(V low, V high) {
+        return chart.getRangeList(low, high);
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.IChart#getDescendingRangeList(java.lang.Object, java.lang.Object)
+     */
+    @Override
+    public List<Tuple<K, V>> getDescendingRangeList(V low, V high) {
+        return chart.getDescendingRangeList(low, high);
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.IChart#getSurroundedByKey(java.lang.Object, int, int)
+     */
+    @Override
+    public List<Tuple<K, V>> getSurroundedByKey(K key, int left, int right) {
+        return chart.getSurroundedByKey(key, left, right);
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.IChart#forEachInValueRange(java.lang.Object, java.lang.Object, top.daheizi.commons.stl.ChartVisitor)
+     */
+    @Override
+    public int forEachInValueRange(V low, V high, ChartVisitor<? super K, ? super V> visitor) {
+        return chart.forEachInValueRange(low, high, visitor);
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.IChart#forEachSurrounded(java.lang.Object, int, int, top.daheizi.commons.stl.ChartVisitor)
+     */
+    @Override
+    public int forEachSurrounded(K key, int left, int right, ChartVisitor<? super K, ? super V> visitor) {
+        return chart.forEachSurrounded(key, left, right, visitor);
+    }
+
+    /**
+     * 返回缓存的名次上限N
+     * @return
+     * @Date 2026年10月18日 上午4:10:00
+     */
+    public int getLimit() {
+        return limit;
+    }
+
+    /**
+     * 返回由缓存完成的名次查询次数
+     * @return
+     * @Date 2026年10月18日 上午4:10:10
+     */
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    /**
+     * 返回超出缓存范围的名次查询次数
+     * @return
+     * @Date 2026年10月18日 上午4:10:20
+     */
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    /**
+     * 返回未触及缓存的写入次数
+     * @return
+     * @Date 2026年10月18日 上午4:10:30
+     */
+    public long getSkipCount() {
+        return skipCount;
+    }
+
+    /**
+     * 返回修补缓存的次数
+     * @return
+     * @Date 2026年10月18日 上午4:10:40
+     */
+    public long getPatchCount() {
+        return patchCount;
+    }
+
+    /**
+     * 返回修补缓存的总耗时(纳秒)
+     * @return
+     * @Date 2026年10月18日 上午4:10:50
+     */
+    public long getPatchNanos() {
+        return patchNanos;
+    }
+
+    /**
+     * 返回整体重建缓存的次数
+     * @return
+     * @Date 2026年10月18日 上午4:11:00
+     */
+    public long getRebuildCount() {
+        return rebuildCount;
+    }
+
+    /**
+     * 返回整体重建缓存的总耗时(纳秒)
+     * @return
+     * @Date 2026年10月18日 上午4:11:10
+     */
+    public long getRebuildNanos() {
+        return rebuildNanos;
+    }
+
+    /**
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString() {
+        return "TopNChart [limit=" + limit + ", hit=" + getHitCount() + ", miss=" + getMissCount()
+                + ", skip=" + skipCount + ", patch=" + patchCount + ", patchNanos=" + patchNanos
+                + ", rebuild=" + rebuildCount + ", rebuildNanos=" + rebuildNanos + "]";
+    }
+
+
+
+    /****************** 以下为一些非必需的辅助和测试方法 ***************************/
+
+    /**
+     * 测试热门分页读取的吞吐量
+     * @param name
+     * @param chart
+     * @param num 数据量
+     * @param readPercent 读请求的百分比
+     * @param threadNum 线程数目
+     * @param times 每个线程的请求数
+     * @Date 2026年10月18日 上午4:12:00
+     */
+    private static void testThroughput(String name, IChart<Integer, Integer> chart, int num,
+            int readPercent, int threadNum, int times) {
+        for (int i = 0; i < num; i++) {
+            chart.put(i, ThreadLocalRandom.current().nextInt(num));
+        }
+        CountDownLatch startLatch = new CountDownLatch(1);
+        CountDownLatch endLatch = new CountDownLatch(threadNum);
+        for (int t = 0; t < threadNum; t++) {
+            new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    ThreadLocalRandom rnd = ThreadLocalRandom.current();
+                    try {
+                        startLatch.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    for (int i = 0; i < times; i++) {
+                        if (rnd.nextInt(100) >= readPercent) {
+                            chart.put(rnd.nextInt(num), rnd.nextInt(num));
+                        } else {
+                            // 前10页的热门分页
+                            chart.getListByPage(100, rnd.nextInt(10) + 1);
+                        }
+                    }
+                    endLatch.countDown();
+                }
+            }).start();
+        }
+        long ns1 = System.nanoTime();
+        startLatch.countDown();
+        try {
+            endLatch.await();
+        } catch (InterruptedException e) {
+            e.printStackTrace();
+        }
+        long ns2 = System.nanoTime();
+        long total = (long) threadNum * times;
+        System.out.println(name + " 读:写=" + readPercent + ":" + (100 - readPercent)
+                + ", 平均每秒处理请求数: " + (long) (total * Math.pow(10, 9) / (ns2 - ns1)));
+    }
+
+    /**
+     * 单元测试
+     * @param args
+     * @Date 2026年10月18日 上午4:13:00
+     */
+    public static void main(String[] args) {
+        // *****测试正确性
+        IChart<Integer, Integer> expected = new RBTreeChart<>();
+        TopNChart<Integer, Integer> r = new TopNChart<>(new ConcurrentChart<>(new RBTreeChart<Integer, Integer>()), 50);
+        Random random = new Random();
+        for (int i = 0; i < 100000; i++) {
+            int key = random.nextInt(300);
+            int value = random.nextInt(100);
+            int op = random.nextInt(100);
+            if (op < 20) {
+                if (expected.remove(key) != r.remove(key)) {
+                    throw new RuntimeException("Remove Not Equal !");
+                }
+            } else if (op < 21) {
+                Map<Integer, Integer> map = new HashMap<>();
+                for (int j = 0; j < 20; j++) {
+                    map.put(random.nextInt(300), random.nextInt(100));
+                }
+                expected.putAll(map);
+                r.putAll(map);
+            } else if (op < 22) {
+                List<Integer> keys = new ArrayList<>();
+                for (int j = 0; j < 20; j++) {
+                    keys.add(random.nextInt(300));
+                }
+                if (expected.removeAll(keys) != r.removeAll(keys)) {
+                    throw new RuntimeException("RemoveAll Not Equal !");
+                }
+            } else if (op < 23 && random.nextInt(10) == 0) {
+                expected.clear();
+                r.clear();
+            } else if (expected.put(key, value) != r.put(key, value)) {
+                throw new RuntimeException("Put Not Equal !");
+            }
+            int start = random.nextInt(60) - 5;
+            int end = start + random.nextInt(20);
+            if (!expected.getSequenceList(start, end).equals(r.getSequenceList(start, end))) {
+                throw new RuntimeException("getSequenceList Not Equal ! " + i);
+            }
+            if (!expected.getDescendingList(start, end).equals(r.getDescendingList(start, end))) {
+                throw new RuntimeException("getDescendingList Not Equal ! " + i);
+            }
+            if (!Objects.equals(expected.getKth(end), r.getKth(end))) {
+                throw new RuntimeException("getKth Not Equal ! " + i);
+            }
+            List<Tuple<Integer, Integer>> visited = new ArrayList<>();
+            r.forEachInRange(start, end, (rank, k, v) -> visited.add(new Tuple<>(k, v)));
+            if (!expected.getSequenceList(start, end).equals(visited)) {
+                throw new RuntimeException("forEachInRange Not Equal ! " + i);
+            }
+        }
+        System.out.println(r);
+        System.out.println(r.getListByPage(10, 1));
+
+        // *****吞吐量对比
+        int num = 1000000;
+        int threadNum = 8;
+        int times = 200000;
+        System.out.println("****吞吐量测试: 数据量 :" + num + ", 线程数目：" + threadNum);
+        for (int readPercent : new int[]{99, 90}) {
+            testThroughput("ConcurrentChart", new ConcurrentChart<>(new RBTreeChart<Integer, Integer>()),
+                    num, readPercent, threadNum, times);
+            TopNChart<Integer, Integer> topN = new TopNChart<>(
+                    new ConcurrentChart<>(new RBTreeChart<Integer, Integer>()), 1000);
+            testThroughput("TopNChart      ", topN, num, readPercent, threadNum, times);
+            System.out.println(topN);
+        }
+        System.exit(0);
+    }
+}
@@ -0,0 +1,565 @@
+package top.daheizi.commons.stl;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Supplier;
+
+/**
+ * 按时间窗口累计分数的排行榜，如日榜、周榜以及最近7天的滚动榜
+ * 时间按固定长度划分为桶(如每天一个桶)，窗口由最近的若干个桶组成，
+ * 每个桶有独立的排行榜，记录本桶内各关键字累计的分数，同时维护整个窗口的汇总排行榜
+ * 时间进入新的桶时，最旧的桶只是被移出窗口并放入待扣除队列，切换本身为O(1)，
+ * 之后每次写入顺带从汇总排行榜中扣除少量旧桶中的数据，因此不会在切换时集中重算所有玩家的分数；
+ * 每次查询前先扣除剩余的旧桶数据，查询结果总是精确的，切换后写入较少时，首次查询承担剩余的扣除
+ * 也可以在空闲时调用drain或drainAll提前扣除，
+ * 所有桶都移出窗口(如窗口只有一个桶的日榜)时，直接替换为空的汇总排行榜，不需要扣除
+ * 查询只反映最近一次写入或advance时的窗口，时间倒退时写入当前桶
+ * 分数通常通过addScore累加；IChart的put/putAll以当前时间设置关键字在当前桶内的分数，
+ * 窗口内的总分数随之调整，其余桶内的分数不变
+ * 非线程安全
+ * @param <K>
+ * @author daheizi
+ * @Date 2026年10月18日 上午4:58:10
+ */
+public class WindowedChart<K> implements IChart<K, Long> {
+
+    /** 每次写入顺带扣除的旧桶数据量，写入不足以扣除完时由之后的查询扣除剩余部分 */
+    private static final int DRAIN_BATCH = 4;
+
+    /** 尚未开始计时的桶序号 */
+    private static final long NO_BUCKET = Long.MIN_VALUE;
+
+    /** 桶的时长(毫秒) */
+    private final long bucketMillis;
+
+    /** 桶边界的偏移(毫秒)，如以东八区零点划分日榜时为 -8小时 */
+    private final long offsetMillis;
+
+    /** 创建排行榜的工厂，决定排序方向和实现 */
+    private final Supplier<IChart<K, Long>> factory;
+
+    /** 窗口内的桶，按桶序号循环存放 */
+    private final IChart<K, Long>[] buckets;
+
+    /** 最新的桶序号 */
+    private long current = NO_BUCKET;
+
+    /** 整个窗口的汇总排行榜 */
+    private IChart<K, Long> total;
+
+    /** 已移出窗口、尚未从汇总排行榜中扣除完的桶 */
+    private final ArrayDeque<Iterator<Tuple<K, Long>>> retiring = new ArrayDeque<>();
+
+    /**
+     * 构造函数，按分数降序排列
+     * @param bucketMillis 桶的时长(毫秒)
+     * @param windowBuckets 窗口包含的桶数目
+     */
+    public WindowedChart(long bucketMillis, int windowBuckets) {
+        this(bucketMillis, windowBuckets, 0L, () -> new RBTreeChart<>(Collections.reverseOrder()));
+    }
+
+    /**
+     * 构造函数
+     * @param bucketMillis 桶的时长(毫秒)
+     * @param windowBuckets 窗口包含的桶数目
+     * @param offsetMillis 桶边界的偏移(毫秒)
+     * @param factory 创建排行榜的工厂，创建的排行榜须支持iterator()
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public WindowedChart(long bucketMillis, int windowBuckets, long offsetMillis, Supplier<IChart<K, Long>> factory) {
+        if (bucketMillis <= 0 || windowBuckets <= 0) {
+            throw new IllegalArgumentException("bucketMillis: " + bucketMillis + ", windowBuckets: " + windowBuckets);
+        }
+        this.bucketMillis = bucketMillis;
+        this.offsetMillis = offsetMillis;
+        this.factory = factory;
+        this.buckets = new IChart[windowBuckets];
+        for (int i = 0; i < windowBuckets; i++) {
+            buckets[i] = factory.get();
+        }
+        this.total = factory.get();
+    }
+
+    /**
+     * 返回时间所在的桶序号
+     * @param timeMillis
+     * @return
+     * @Date 2026年10月18日 上午5:00:20
+     */
+    private long bucketOf(long timeMillis) {
+        return Math.floorDiv(timeMillis + offsetMillis, bucketMillis);
+    }
+
+    /**
+     * 返回桶序号对应的桶
+     * @param bucket
+     * @return
+     * @Date 2026年10月18日 上午5:00:40
+     */
+    private IChart<K, Long> bucket(long bucket) {
+        return buckets[(int) Math.floorMod(bucket, (long) buckets.length)];
+    }
+
+    /**
+     * 推进时间，移出过期的桶
+     * 每个过期的桶只做O(1)的移出，其数据在之后的写入中逐步扣除
+     * @param timeMillis
+     * @Date 2026年10月18日 上午5:01:30
+     */
+    public void advance(long timeMillis) {
+        long bucket = bucketOf(timeMillis);
+        if (current != NO_BUCKET && bucket <= current) {
+            return;
+        }
+        if (current == NO_BUCKET || bucket - current >= buckets.length) {
+            // 整个窗口都已过期
+            reset();
+        } else {
+            while (current < bucket) {
+                current++;
+                IChart<K, Long> expired = bucket(current);
+                if (!expired.isEmpty()) {
+                    retiring.add(expired.iterator());
+                }
+                buckets[(int) Math.floorMod(current, (long) buckets.length)] = factory.get();
+            }
+        }
+        current = bucket;
+    }
+
+    /**
+     * 清空所有的桶和汇总排行榜
+     * @Date 2026年10月18日 上午5:02:10
+     */
+    private void reset() {
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = factory.get();
+        }
+        total = factory.get();
+        retiring.clear();
+    }
+
+    /**
+     * 从汇总排行榜中扣除至多maxEntries条旧桶数据
+     * @param maxEntries
+     * @return 实际扣除的数据量
+     * @Date 2026年10月18日 上午5:02:50
+     */
+    public int drain(int maxEntries) {
+        int count = 0;
+        while (count < maxEntries && !retiring.isEmpty()) {
+            Iterator<Tuple<K, Long>> it = retiring.peek();
+            if (!it.hasNext()) {
+                retiring.poll();
+                continue;
+            }
+            Tuple<K, Long> t = it.next();
+            Long sum = total.get(t.left);
+            if (sum != null) {
+                long left = sum - t.right;
+                if (left == 0 && !inWindow(t.left)) {
+                    total.remove(t.left);
+                } else {
+                    total.put(t.left, left);
+                }
+            }
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * 扣除所有旧桶数据
+     * @Date 2026年10月18日 上午5:03:20
+     */
+    public void drainAll() {
+        drain(Integer.MAX_VALUE);
+    }
+
+    /**
+     * 旧桶数据是否已全部扣除，即汇总排行榜是否精确
+     * @return
+     * @Date 2026年10月18日 上午5:03:40
+     */
+    public boolean isSettled() {
+        while (!retiring.isEmpty() && !retiring.peek().hasNext()) {
+            retiring.poll();
+        }
+        return retiring.isEmpty();
+    }
+
+    /**
+     * 关键字是否出现在窗口内的某个桶中
+     * @param key
+     * @return
+     * @Date 2026年10月18日 上午5:04:00
+     */
+    private boolean inWindow(K key) {
+        for (IChart<K, Long> b : buckets) {
+            if (b.containsKey(key)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 为关键字累加分数
+     * @param key
+     * @param delta 增加的分数
+     * @param timeMillis 发生时间
+     * @return 累加后窗口内的总分数
+     * @Date 2026年10月18日 上午5:04:40
+     */
+    public long addScore(K key, long delta, long timeMillis) {
+        advance(timeMillis);
+        drain(DRAIN_BATCH);
+        IChart<K, Long> b = bucket(current);
+        Long value = b.get(key);
+        b.put(key, value == null ? delta : value + delta);
+        Long sum = total.get(key);
+        long newSum = sum == null ? delta : sum + delta;
+        total.put(key, newSum);
+        return newSum;
+    }
+
+    /**
+     * 以当前时间为关键字累加分数
+     * @param key
+     * @param delta
+     * @return 累加后窗口内的总分数
+     * @Date 2026年10月18日 上午5:05:00
+     */
+    public long addScore(K key, long delta) {
+        return addScore(key, delta, System.currentTimeMillis());
+    }
+
+    /**
+     * 设置关键字在时间所在的桶内的分数，窗口内的总分数相应地调整
+     * @param key
+     * @param score 桶内的分数
+     * @param timeMillis 发生时间
+     * @return 设置前窗口内的总分数，不存在时返回null
+     * @Date 2026年10月18日 上午9:55:00
+     */
+    public Long setScore(K key, long score, long timeMillis) {
+        advance(timeMillis);
+        drain(DRAIN_BATCH);
+        IChart<K, Long> b = bucket(current);
+        Long old = b.put(key, score);
+        Long sum = total.get(key);
+        total.put(key, (sum == null ? 0 : sum) + score - (old == null ? 0 : old));
+        return sum;
+    }
+
+    /**
+     * 返回窗口内的某个桶的排行榜，如日榜、周榜中的当期榜单
+     * 返回的排行榜只能读取，不能修改
+     * @param ago 0表示最新的桶，1表示前一个桶，以此类推
+     * @return
+     * @Date 2026年10月18日 上午5:05:30
+     */
+    public IChart<K, Long> getBucket(int ago) {
+        if (ago < 0 || ago >= buckets.length) {
+            throw new IndexOutOfBoundsException("ago: " + ago + ", windowBuckets: " + buckets.length);
+        }
+        if (current == NO_BUCKET) {
+            return buckets[0];
+        }
+        return bucket(current - ago);
+    }
+
+    /**
+     * 以当前时间设置关键字在当前桶内的分数，返回设置前窗口内的总分数
+     * @see #setScore(Object, long, long)
+     * @see top.daheizi.commons.stl.IChart#put(java.lang.Object, java.lang.Object)
+     */
+    @Override
+    public Long put(K key, Long value) {
+        return setScore(key, value, System.currentTimeMillis());
+    }
+
+    /**
+     * 从所有的桶中移除关键字，会先扣除完所有旧桶数据
+     * @see top.daheizi.commons.stl.IChart#remove(java.lang.Object)
+     */
+    @Override
+    public Long remove(K key) {
+        drainAll();
+        for (IChart<K, Long> b : buckets) {
+            b.remove(key);
+        }
+        return total.remove(key);
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.IChart#get(java.lang.Object)
+     */
+    @Override
+    public Long get(K key) {
+        drainAll();
+        return total.get(key);
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.IChart#containsKey(java.lang.Object)
+     */
+    @Override
+    public boolean containsKey(K key) {
+        drainAll();
+        return total.containsKey(key);
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.IChart#size()
+     */
+    @Override
+    public int size() {
+        drainAll();
+        return total.size();
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.IChart#clear()
+     */
+    @Override
+    public void clear() {
+        reset();
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.IChart#getRank(java.lang.Object)
+     */
+    @Override
+    public int getRank(K key) {
+        drainAll();
+        return total.getRank(key);
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.IChart#getKth(int)
+     */
+    @Override
+    public Tuple<K, Long> getKth(int kth) {
+        drainAll();
+        return total.getKth(kth);
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.IChart#getRankInfo(java.lang.Object)
+     */
+    @Override
+    public int[] getRankInfo(Long value) {
+        drainAll();
+        return total.getRankInfo(value);
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.IChart#iterator()
+     */
+    @Override
+    public Iterator<Tuple<K, Long>> iterator() {
+        drainAll();
+        return total.iterator();
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.IChart#iterator(int)
+     */
+    @Override
+    public Iterator<Tuple<K, Long>> iterator(int kth) {
+        drainAll();
+        return total.iterator(kth);
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.IChart#getSequenceList(int, int)
+     */
+    @Override
+    public List<Tuple<K, Long>> getSequenceList(int start, int end) {
+        drainAll();
+        return total.getSequenceList(start, end);
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.IChart#getRangeList(java.lang.Object, java.lang.Object)
+     */
+    @Override
+    public List<Tuple<K, Long>> getRangeList(Long low, Long high) {
+        drainAll();
+        return total.getRangeList(low, high);
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.IChart#getSurroundedByKey(java.lang.Object, int, int)
+     */
+    @Override
+    public List<Tuple<K, Long>> getSurroundedByKey(K key, int left, int right) {
+        drainAll();
+        return total.getSurroundedByKey(key, left, right);
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.IChart#getDescendingList(int, int)
+     */
+    @Override
+    public List<Tuple<K, Long>> getDescendingList(int start, int end) {
+        drainAll();
+        return total.getDescendingList(start, end);
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.IChart#forEachInRange(int, int, top.daheizi.commons.stl.ChartVisitor)
+     */
+    @Override
+    public int forEachInRange(int start, int end, ChartVisitor<? super K, ? super Long> visitor) {
+        drainAll();
+        return total.forEachInRange(start, end, visitor);
+    }
+
+    /**
+     * @see top.daheizi.commons.stl.IChart#forEachDescending(int, int, top.daheizi.commons.stl.ChartVisitor)
+     */
+    @Override
+    public int forEachDescending(int start, int end, ChartVisitor<? super K, ? super Long> visitor) {
+        drainAll();
+        return total.forEachDescending(start, end, visitor);
+    }
+
+
+
+    /****************** 以下为一些非必需的辅助和测试方法 ***************************/
+
+    /**
+     * 单元测试
+     * @param args
+     * @Date 2026年10月18日 上午5:07:10
+     */
+    public static void main(String[] args) {
+        // *****与按事件重新计算的结果对比
+        long day = 24 * 3600 * 1000L;
+        int windowDays = 7;
+        WindowedChart<Integer> chart = new WindowedChart<>(day, windowDays);
+        Random rnd = new Random();
+        List<long[]> events = new ArrayList<>();
+        // 各天各关键字的分数，用于将setScore换算为增量
+        Map<Long, Map<Integer, Long>> daily = new HashMap<>();
+        long now = 1000L * day + rnd.nextInt((int) day);
+        for (int i = 0; i < 300000; i++) {
+            now += rnd.nextInt(20000);
+            if (rnd.nextInt(100000) == 0) {
+                // 长时间无写入，整个窗口过期
+                now += windowDays * day;
+            }
+            int key = rnd.nextInt(2000);
+            Map<Integer, Long> scores = daily.computeIfAbsent(Math.floorDiv(now, day), d -> new HashMap<>());
+            long old = scores.getOrDefault(key, 0L);
+            long delta;
+            if (rnd.nextInt(10) == 0) {
+                long score = rnd.nextInt(1000);
+                chart.setScore(key, score, now);
+                delta = score - old;
+            } else {
+                delta = rnd.nextInt(100) - 10;
+                chart.addScore(key, delta, now);
+            }
+            scores.put(key, old + delta);
+            events.add(new long[]{now, key, delta});
+            if (i % 30000 == 0 || i == 299999) {
+                // 不调用drainAll，查询自身须扣除剩余的旧桶数据
+                long first = Math.floorDiv(now, day) - windowDays + 1;
+                Map<Integer, Long> expected = new HashMap<>();
+                for (long[] e : events) {
+                    if (Math.floorDiv(e[0], day) >= first) {
+                        expected.merge((int) e[1], e[2], Long::sum);
+                    }
+                }
+                if (expected.size() != chart.size()) {
+                    throw new RuntimeException("Size Not Equal ! " + expected.size() + " " + chart.size());
+                }
+                for (Map.Entry<Integer, Long> e : expected.entrySet()) {
+                    if (!e.getValue().equals(chart.get(e.getKey()))) {
+                        throw new RuntimeException("Score Not Equal !");
+                    }
+                }
+                long last = Long.MAX_VALUE;
+                for (Tuple<Integer, Long> t : chart) {
+                    if (t.right > last) {
+                        throw new RuntimeException("Order Error !");
+                    }
+                    last = t.right;
+                }
+                Map<Integer, Long> today = new HashMap<>();
+                for (long[] e : events) {
+                    if (Math.floorDiv(e[0], day) == first + windowDays - 1) {
+                        today.merge((int) e[1], e[2], Long::sum);
+                    }
+                }
+                if (today.size() != chart.getBucket(0).size()) {
+                    throw new RuntimeException("Bucket Size Not Equal !");
+                }
+            }
+        }
+        System.out.println("size=" + chart.size() + ", top3=" + chart.getSequenceList(1, 3) + " OK");
+
+        // *****put/putAll设置当前桶内的分数，不影响之前的桶
+        WindowedChart<Integer> pc = new WindowedChart<>(day, windowDays);
+        long today = System.currentTimeMillis();
+        pc.addScore(1, 100, today - day);
+        pc.addScore(1, 3, today);
+        Long prev = pc.put(1, 10L);
+        Map<Integer, Long> batch = new HashMap<>();
+        batch.put(2, 7L);
+        batch.put(1, 20L);
+        pc.putAll(batch);
+        if (prev != 103 || pc.get(1) != 120 || pc.get(2) != 7 || pc.getBucket(0).get(1) != 20
+                || pc.getBucket(1).get(1) != 100 || pc.getRank(1) != 1) {
+            throw new RuntimeException("Put Not Equal !");
+        }
+
+        // *****切换后立即查询，旧桶数据尚未被写入扣除
+        WindowedChart<Integer> rc = new WindowedChart<>(day, 2);
+        rc.addScore(1, 50, 0);
+        rc.addScore(2, 40, 0);
+        rc.addScore(3, 30, 0);
+        rc.addScore(2, 5, day);
+        rc.addScore(3, 1, day);
+        rc.advance(2 * day);
+        if (rc.isSettled() || rc.size() != 2 || rc.get(1) != null || rc.get(2) != 5 || rc.getRank(3) != 2
+                || !rc.getSequenceList(1, 2).equals(Arrays.asList(new Tuple<>(2, 5L), new Tuple<>(3, 1L)))
+                || !rc.isSettled()) {
+            throw new RuntimeException("Rollover Query Not Equal !");
+        }
+
+        // *****切换耗时与玩家总数无关
+        for (int num : new int[]{10000, 100000}) {
+            WindowedChart<Integer> c = new WindowedChart<>(day, windowDays);
+            long time = 0;
+            for (int d = 0; d < windowDays; d++) {
+                for (int i = 0; i < num; i++) {
+                    c.addScore(i, i % 1000, time);
+                }
+                time += day;
+            }
+            long ns1 = System.nanoTime();
+            c.advance(time);
+            long ns2 = System.nanoTime();
+            int writes = 0;
+            while (!c.isSettled()) {
+                c.addScore(writes % num, 1, time);
+                writes++;
+            }
+            long ns3 = System.nanoTime();
+            System.out.println("players=" + num + ", rollover: " + (ns2 - ns1) / 1000 + " us, drained by "
+                    + writes + " writes, avg write: " + (ns3 - ns2) / Math.max(writes, 1) + " ns");
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package top.daheizi.commons.test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Supplier;
+
+import top.daheizi.commons.stl.IChart;
+import top.daheizi.commons.stl.RBTreeChart;
+import top.daheizi.commons.stl.RankChart;
+
+/**
+ * RBTreeChart和RankChart批量操作的基准测试
+ * 对比putAll/removeAll与逐个put/remove的耗时，用于确定批量操作整体重建的阈值
+ * 批量数据中一半为已有关键字(新值随机)，一半为新关键字
+ * 每个组合重复若干轮，每轮重新构建排行榜(不计时)，取最短耗时
+ * 参数：
+ *   -s 排行榜数据量，逗号分隔，默认 10000,100000,1000000
+ *   -r 批量数据量与排行榜数据量之比，逗号分隔，默认 0.05,0.1,0.25,0.5,1,2
+ *   -i 每个组合的轮数，默认 5
+ * @author daheizi
+ * @Date 2026年10月18日 上午9:30:00
+ */
+public class TestBulkBench {
+
+    /** 随机种子，保证每次运行的数据相同 */
+    private static final long SEED = 20261018L;
+
+    public static void main(String[] args) {
+        String sizes = "10000,100000,1000000";
+        String ratios = "0.05,0.1,0.25,0.5,1,2";
+        int iterations = 5;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+            case "-s":
+                sizes = args[i + 1];
+                break;
+            case "-r":
+                ratios = args[i + 1];
+                break;
+            case "-i":
+                iterations = Integer.parseInt(args[i + 1]);
+                break;
+            default:
+                throw new IllegalArgumentException(args[i]);
+            }
+        }
+        List<Supplier<IChart<Integer, Integer>>> factories = Arrays.asList(RBTreeChart::new, RankChart::new);
+        List<String> names = Arrays.asList("RBTreeChart", "RankChart");
+        System.out.println(String.format("%-12s %8s %6s %12s %12s %12s %12s", "chart", "size", "ratio",
+                "putAll(ms)", "put(ms)", "removeAll(ms)", "remove(ms)"));
+        for (int c = 0; c < factories.size(); c++) {
+            for (String size : sizes.split(",")) {
+                for (String ratio : ratios.split(",")) {
+                    int n = Integer.parseInt(size.trim());
+                    int m = Math.max(1, (int) (n * Double.parseDouble(ratio.trim())));
+                    long[] times = run(factories.get(c), n, m, iterations);
+                    System.out.println(String.format("%-12s %8d %6s %12.2f %12.2f %12.2f %12.2f", names.get(c), n,
+                            ratio.trim(), times[0] / 1e6, times[1] / 1e6, times[2] / 1e6, times[3] / 1e6));
+                }
+            }
+        }
+    }
+
+    /**
+     * 测试一个组合，返回{putAll, put, removeAll, remove}各自的最短耗时(纳秒)
+     * @param factory
+     * @param n 排行榜数据量
+     * @param m 批量数据量
+     * @param iterations
+     * @return
+     * @Date 2026年10月18日 上午9:31:00
+     */
+    private static long[] run(Supplier<IChart<Integer, Integer>> factory, int n, int m, int iterations) {
+        Random rnd = new Random(SEED);
+        Map<Integer, Integer> base = new HashMap<>();
+        for (int i = 0; i < n; i++) {
+            base.put(i, rnd.nextInt(n));
+        }
+        Map<Integer, Integer> batch = new HashMap<>();
+        for (int i = 0; i < m; i++) {
+            int key = i % 2 == 0 ? rnd.nextInt(n) : n + i;
+            batch.put(key, rnd.nextInt(n));
+        }
+        List<Integer> keys = new ArrayList<>(m);
+        for (int i = 0; i < m; i++) {
+            keys.add(rnd.nextInt(n));
+        }
+        long[] times = new long[4];
+        Arrays.fill(times, Long.MAX_VALUE);
+        for (int it = 0; it < iterations; it++) {
+            for (int op = 0; op < 4; op++) {
+                IChart<Integer, Integer> chart = factory.get();
+                for (Map.Entry<Integer, Integer> e : base.entrySet()) {
+                    chart.put(e.getKey(), e.getValue());
+                }
+                System.gc();
+                long t = System.nanoTime();
+                switch (op) {
+                case 0:
+                    chart.putAll(batch);
+                    break;
+                case 1:
+                    for (Map.Entry<Integer, Integer> e : batch.entrySet()) {
+                        chart.put(e.getKey(), e.getValue());
+                    }
+                    break;
+                case 2:
+                    chart.removeAll(keys);
+                    break;
+                default:
+                    for (Integer key : keys) {
+                        chart.remove(key);
+                    }
+                }
+                times[op] = Math.min(times[op], System.nanoTime() - t);
+                if (chart.size() < 0) {
+                    throw new IllegalStateException();
+                }
+            }
+        }
+        return times;
+    }
+}
@@ -0,0 +1,51 @@
+package top.daheizi.commons.test;
+
+import java.util.Random;
+
+import top.daheizi.commons.stl.IntScoreChart;
+import top.daheizi.commons.stl.RBTreeChart;
+import top.daheizi.commons.stl.RankChart;
+import top.daheizi.commons.test.util.SizeOfObject;
+
+/**
+ * 比较各排行榜每条数据的内存占用
+ * 需以 -javaagent 加载SizeOfObject，否则只输出提示；
+ * SizeOfObject通过反射遍历对象图，JDK 9以上需以 --add-opens 开放java.base中的java.util等包
+ * 参数：
+ *   -n 数据量，默认 1000000
+ * 例：java -javaagent:sizeof.jar top.daheizi.commons.test.TestChartFootprint -n 100000
+ * @author daheizi
+ * @Date 2026年10月18日 上午9:45:00
+ */
+public class TestChartFootprint {
+
+    public static void main(String[] args) throws IllegalAccessException {
+        if (!SizeOfObject.isLoaded()) {
+            System.out.println("footprint: run with -javaagent to measure");
+            return;
+        }
+        int num = 1000000;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+            case "-n":
+                num = Integer.parseInt(args[i + 1]);
+                break;
+            default:
+                throw new IllegalArgumentException(args[i]);
+            }
+        }
+        IntScoreChart chart = new IntScoreChart();
+        RBTreeChart<Long, Integer> tree = new RBTreeChart<>();
+        RankChart<Long, Integer> rank = new RankChart<>();
+        Random rnd = new Random();
+        for (int i = 0; i < num; i++) {
+            int score = rnd.nextInt(num);
+            chart.putScore(i, score);
+            tree.put((long) i, score);
+            rank.put((long) i, score);
+        }
+        System.out.println("footprint IntScoreChart: " + SizeOfObject.fullSizeOf(chart) / num
+                + " B/entry, RBTreeChart: " + SizeOfObject.fullSizeOf(tree) / num
+                + " B/entry, RankChart: " + SizeOfObject.fullSizeOf(rank) / num + " B/entry");
+    }
+}
@@ -0,0 +1,164 @@
+package top.daheizi.commons.test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import top.daheizi.commons.stl.ChartVisitor;
+import top.daheizi.commons.stl.ConcurrentChart;
+import top.daheizi.commons.stl.IChart;
+import top.daheizi.commons.stl.RBTreeChart;
+import top.daheizi.commons.stl.RankChart;
+import top.daheizi.commons.stl.ShardedChart;
+import top.daheizi.commons.stl.SkipListChart;
+import top.daheizi.commons.stl.StampedChart;
+import top.daheizi.commons.stl.Tuple;
+
+/**
+ * IChart各实现的访问者查询、直接定位的区间查询与反向遍历的一致性测试
+ * 访问者查询的结果需与getSequenceList一致，区间查询和反向遍历的结果需与整体的连续查询一致，
+ * 并对比RBTreeChart的getSequenceList与forEachInRange每次查询在堆上分配的字节数
+ * (需要HotSpot的com.sun.management.ThreadMXBean，不支持时跳过)
+ * @author daheizi
+ * @Date 2026年10月18日 上午10:05:00
+ */
+public class TestChartVisitor {
+
+    public static void main(String[] args) {
+        Random rnd = new Random();
+        RBTreeChart<Integer, Integer> source = new RBTreeChart<>();
+        for (int i = 0; i < 3000; i++) {
+            source.put(rnd.nextInt(3000), rnd.nextInt(100));
+        }
+        List<Tuple<Integer, Integer>> sorted = new ArrayList<>();
+        for (int i = 0; i < 1000000; i++) {
+            sorted.add(new Tuple<>(i, i / 4));
+        }
+        RBTreeChart<Integer, Integer> big = RBTreeChart.fromSorted(sorted.iterator(), sorted.size());
+
+        List<IChart<Integer, Integer>> visitCharts = Arrays.asList(source, new RankChart<>(),
+                new ConcurrentChart<>(new RBTreeChart<>()), new StampedChart<>(new RBTreeChart<>(), 16, 0),
+                new ShardedChart<>(4), new SkipListChart<>());
+        for (IChart<Integer, Integer> chart : visitCharts) {
+            if (chart != source) {
+                for (Tuple<Integer, Integer> t : source) {
+                    chart.put(t.left, t.right);
+                }
+            }
+            List<Tuple<Integer, Integer>> visited = new ArrayList<>();
+            int[] lastRank = {0};
+            ChartVisitor<Integer, Integer> collector = (rank, key, value) -> {
+                if (visited.isEmpty() ? rank < 1 : rank != lastRank[0] + 1) {
+                    throw new RuntimeException("forEach Rank Error !");
+                }
+                lastRank[0] = rank;
+                visited.add(new Tuple<>(key, value));
+            };
+            for (int i = 0; i < 1000; i++) {
+                int start = rnd.nextInt(chart.size() + 20) - 10;
+                int end = start + rnd.nextInt(50);
+                visited.clear();
+                int count = chart.forEachInRange(start, end, collector);
+                List<Tuple<Integer, Integer>> expected = chart.getSequenceList(start, end);
+                if (count != visited.size() || !visited.equals(expected)) {
+                    throw new RuntimeException("forEachInRange Not Equal !");
+                }
+                int low = rnd.nextInt(100);
+                int high = low + rnd.nextInt(3);
+                visited.clear();
+                chart.forEachInValueRange(low, high, collector);
+                for (Tuple<Integer, Integer> t : visited) {
+                    if (t.right < low || t.right > high) {
+                        throw new RuntimeException("forEachInValueRange Out Of Range !");
+                    }
+                }
+                if (visited.size() != chart.getRankInfo(high)[1] - chart.getRankInfo(low)[0]) {
+                    throw new RuntimeException("forEachInValueRange Not Equal !");
+                }
+                int key = rnd.nextInt(3000);
+                visited.clear();
+                chart.forEachSurrounded(key, 3, 4, collector);
+                if (!visited.equals(chart.containsKey(key) ? chart.getSurroundedByKey(key, 3, 4)
+                        : new ArrayList<>())) {
+                    throw new RuntimeException("forEachSurrounded Not Equal !");
+                }
+            }
+        }
+        // 测试直接定位的区间查询与反向遍历
+        for (IChart<Integer, Integer> chart : visitCharts) {
+            List<Tuple<Integer, Integer>> all = chart.getSequenceList(1, chart.size() + 1);
+            int size = all.size();
+            for (int i = 0; i < 1000; i++) {
+                int start = rnd.nextInt(size + 20) - 10;
+                int end = start + rnd.nextInt(50);
+                List<Tuple<Integer, Integer>> expected = new ArrayList<>();
+                for (int kth = Math.min(end, size); kth >= Math.max(start, 1); kth--) {
+                    expected.add(all.get(kth - 1));
+                }
+                if (!chart.getDescendingList(start, end).equals(expected)) {
+                    throw new RuntimeException("getDescendingList Not Equal !");
+                }
+                List<Tuple<Integer, Integer>> visited = new ArrayList<>();
+                int[] lastRank = {Integer.MAX_VALUE};
+                int count = chart.forEachDescending(start, end, (rank, key, value) -> {
+                    if (visited.isEmpty() ? rank > size : rank != lastRank[0] - 1) {
+                        throw new RuntimeException("forEachDescending Rank Error !");
+                    }
+                    lastRank[0] = rank;
+                    visited.add(new Tuple<>(key, value));
+                });
+                if (count != visited.size() || !visited.equals(expected)) {
+                    throw new RuntimeException("forEachDescending Not Equal !");
+                }
+                int low = rnd.nextInt(110) - 5;
+                int high = low + rnd.nextInt(4) - 1;
+                expected.clear();
+                for (Tuple<Integer, Integer> t : all) {
+                    if (t.right >= low && t.right <= high) {
+                        expected.add(t);
+                    }
+                }
+                if (!chart.getRangeList(low, high).equals(expected)) {
+                    throw new RuntimeException("getRangeList Not Equal !");
+                }
+                Collections.reverse(expected);
+                if (!chart.getDescendingRangeList(low, high).equals(expected)) {
+                    throw new RuntimeException("getDescendingRangeList Not Equal !");
+                }
+                int index = rnd.nextInt(size);
+                int left = rnd.nextInt(5);
+                int right = rnd.nextInt(4) + 1;
+                expected = all.subList(Math.max(index - left, 0), Math.min(index + right + 1, size));
+                if (!chart.getSurroundedByKey(all.get(index).left, left, right).equals(expected)) {
+                    throw new RuntimeException("getSurroundedByKey Not Equal !");
+                }
+            }
+        }
+        // 对比每次查询在堆上分配的字节数
+        java.lang.management.ThreadMXBean mxBean = java.lang.management.ManagementFactory.getThreadMXBean();
+        if (mxBean instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) mxBean;
+            long tid = Thread.currentThread().getId();
+            long[] sum = new long[1];
+            ChartVisitor<Integer, Integer> adder = (rank, key, value) -> sum[0] += value;
+            for (int round = 0; round < 3; round++) {
+                long b1 = bean.getThreadAllocatedBytes(tid);
+                for (int i = 0; i < 10000; i++) {
+                    for (Tuple<Integer, Integer> t : big.getSequenceList(i + 1, i + 100)) {
+                        sum[0] += t.right;
+                    }
+                }
+                long b2 = bean.getThreadAllocatedBytes(tid);
+                for (int i = 0; i < 10000; i++) {
+                    big.forEachInRange(i + 1, i + 100, adder);
+                }
+                long b3 = bean.getThreadAllocatedBytes(tid);
+                System.out.println("top 100, bytes/query getSequenceList: " + (b2 - b1) / 10000
+                        + ", forEachInRange: " + (b3 - b2) / 10000);
+            }
+        }
+        System.out.println("visitor, range and descending queries OK");
+    }
+}
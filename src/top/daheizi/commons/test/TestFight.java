@@ -23,6 +23,19 @@ public class TestFight {
     
     public static void main(String[] args){
         
+        FightRoom room = createRoom();
+        
+        room.startFight();
+        
+    }
+    
+    /**
+     * 创建测试用的战场，每次调用都创建新的战斗单元
+     * @return
+     * @Date 2026年10月18日 上午8:45:00
+     */
+    public static FightRoom createRoom(){
+        
         DefaultAIUnit att1 = new HeroUnit();
         att1.memberId = 1001;
         att1.attLen = 4;
@@ -167,8 +180,7 @@ public class TestFight {
         FightRoom room = new FightRoom(attList, defList);
         room.addEvent(event);
         
-        room.startFight();
-        
+        return room;
     }
     
 }
@@ -0,0 +1,144 @@
+package top.daheizi.commons.test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import top.daheizi.commons.fight.common.FightConstants;
+import top.daheizi.commons.fight.common.FightSchedule;
+import top.daheizi.commons.fight.common.FightSchedule.Mode;
+import top.daheizi.commons.fight.room.FightRoom;
+import top.daheizi.commons.fight.unit.DefaultAIUnit;
+
+/**
+ * 战斗调度器各模式的基准测试
+ * 用固定耗时的战场模拟帧运算，比较各模式在不同战场数下实际达到的帧率
+ * 以及能维持95%帧率的每核战场数
+ * 参数：
+ *   -n 战场数，逗号分隔，默认 1000,4000,16000
+ *   -w 每帧运算耗时(纳秒)，默认 2000
+ *   -m 调度模式，逗号分隔，默认全部
+ * @author daheizi
+ * @Date 2026年10月18日 上午7:46:00
+ */
+public class TestFightSchedule {
+
+    /** 预热时长(毫秒) */
+    private static final long WARMUP_MILLIS = 1000;
+
+    /** 测量时长(毫秒) */
+    private static final long MEASURE_MILLIS = 3000;
+
+    public static void main(String[] args) throws InterruptedException {
+        String counts = "1000,4000,16000";
+        long work = 2000;
+        String modes = null;
+        for(int i = 0; i + 1 < args.length; i += 2){
+            switch(args[i]){
+            case "-n":
+                counts = args[i + 1];
+                break;
+            case "-w":
+                work = Long.parseLong(args[i + 1]);
+                break;
+            case "-m":
+                modes = args[i + 1].toUpperCase();
+                break;
+            default:
+                throw new IllegalArgumentException(args[i]);
+            }
+        }
+        int cores = Runtime.getRuntime().availableProcessors();
+        System.out.println("cores=" + cores + ", work=" + work + "ns, target fps=" + FightConstants.FRAME_RATE);
+        for(Mode mode : Mode.values()){
+            if(modes != null && !modes.contains(mode.name())){
+                continue;
+            }
+            int sustained = 0;
+            for(String count : counts.split(",")){
+                int n = Integer.parseInt(count.trim());
+                double fps = run(mode, cores, n, work);
+                if(fps >= FightConstants.FRAME_RATE * 0.95){
+                    sustained = Math.max(sustained, n);
+                }
+            }
+            System.out.println(mode + ": rooms per core=" + sustained / cores);
+        }
+    }
+
+    /**
+     * 以指定模式运行n个战场，返回每个战场的平均帧率
+     * @param mode
+     * @param cores
+     * @param n
+     * @param work
+     * @return
+     * @throws InterruptedException
+     * @Date 2026年10月18日 上午7:47:00
+     */
+    private static double run(Mode mode, int cores, int n, long work) throws InterruptedException {
+        FightSchedule schedule = FightSchedule.newSchedule(mode, cores);
+        List<BenchRoom> rooms = new ArrayList<>(n);
+        for(int i = 0; i < n; i++){
+            BenchRoom room = new BenchRoom(work);
+            rooms.add(room);
+            schedule.schedule(room);
+        }
+        Thread.sleep(WARMUP_MILLIS);
+        long before = frames(rooms);
+        long start = System.nanoTime();
+        Thread.sleep(MEASURE_MILLIS);
+        long after = frames(rooms);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        double fps = (after - before) / seconds / n;
+        System.out.printf("%-6s rooms=%-6d fps=%.2f %s%n", mode, n, fps, schedule.getWorkerStats());
+        for(BenchRoom room : rooms){
+            schedule.unschedule(room);
+        }
+        schedule.shutdown();
+        Thread.sleep(200);
+        System.gc();
+        return fps;
+    }
+
+    /**
+     * 返回所有战场已执行的帧数
+     * @param rooms
+     * @return
+     * @Date 2026年10月18日 上午7:47:30
+     */
+    private static long frames(List<BenchRoom> rooms) {
+        long sum = 0;
+        for(BenchRoom room : rooms){
+            sum += room.frames;
+        }
+        return sum;
+    }
+
+    /**
+     * 每帧运算耗时固定的战场
+     * @author daheizi
+     * @Date 2026年10月18日 上午7:48:00
+     */
+    private static class BenchRoom extends FightRoom {
+
+        /** 每帧运算耗时(纳秒) */
+        final long work;
+
+        /** 已执行的帧数 */
+        volatile long frames;
+
+        BenchRoom(long work) {
+            super(new ArrayList<DefaultAIUnit>(), new ArrayList<DefaultAIUnit>());
+            this.work = work;
+        }
+
+        @Override
+        public void update(long dt) {
+            long end = System.nanoTime() + work;
+            while(System.nanoTime() < end){
+                // 模拟帧运算
+            }
+            frames++;
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package top.daheizi.commons.test;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+
+import top.daheizi.commons.fight.room.FightRoom;
+import top.daheizi.commons.fight.room.FightSimulator;
+import top.daheizi.commons.fight.room.FightSimulator.Result;
+
+/**
+ * 战斗模拟器测试
+ * 以TestFight的战场批量模拟，输出胜率、伤害统计和每场耗时
+ * 并检查相同种子的战斗过程和批量结果完全相同
+ * 参数：
+ *   -n 模拟场数，默认 100000
+ *   -p 并行度，默认 cpu核数
+ *   -s 总种子，默认 20161018
+ * @author daheizi
+ * @Date 2026年10月18日 上午8:46:00
+ */
+public class TestFightSim {
+
+    public static void main(String[] args) {
+        int times = 100000;
+        int parallelism = Runtime.getRuntime().availableProcessors();
+        long seed = 20161018;
+        for(int i = 0; i + 1 < args.length; i += 2){
+            switch(args[i]){
+            case "-n":
+                times = Integer.parseInt(args[i + 1]);
+                break;
+            case "-p":
+                parallelism = Integer.parseInt(args[i + 1]);
+                break;
+            case "-s":
+                seed = Long.parseLong(args[i + 1]);
+                break;
+            default:
+                throw new IllegalArgumentException(args[i]);
+            }
+        }
+
+        // 单场模拟
+        FightRoom room = TestFight.createRoom();
+        int winSide = FightSimulator.simulate(room, FightSimulator.DEFAULT_DT, FightSimulator.DEFAULT_MAX_TIME);
+        System.out.println("winSide=" + winSide + ", roomTime=" + room.getRoomTime());
+        if(winSide != room.getWinSide() || (winSide == 0 && room.getRoomTime() < FightSimulator.DEFAULT_MAX_TIME)){
+            throw new RuntimeException("WinSide Not Equal !");
+        }
+
+        // 相同种子的战斗消息完全相同
+        String log1 = replay(seed);
+        String log2 = replay(seed);
+        if(!log1.equals(log2) || log1.equals(replay(seed + 1))){
+            throw new RuntimeException("Replay Not Equal !");
+        }
+
+        // 场次种子互不相同，且不随调用而变化
+        Set<Long> seeds = new HashSet<>();
+        for(int i = 0; i < 10000; i++){
+            if(!seeds.add(FightSimulator.seedOf(seed, i)) || FightSimulator.seedOf(seed, i) != FightSimulator.seedOf(seed, i)){
+                throw new RuntimeException("Seed Not Equal !");
+            }
+        }
+
+        // 批量结果与并行度无关
+        ForkJoinPool single = new ForkJoinPool(1);
+        String expected = FightSimulator.simulate(TestFight::createRoom, 1000, FightSimulator.DEFAULT_DT,
+                FightSimulator.DEFAULT_MAX_TIME, seed, single).toString();
+        single.shutdown();
+
+        // 批量模拟
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try{
+            String actual = FightSimulator.simulate(TestFight::createRoom, 1000, FightSimulator.DEFAULT_DT,
+                    FightSimulator.DEFAULT_MAX_TIME, seed, pool).toString();
+            if(!expected.equals(actual)){
+                throw new RuntimeException("Result Not Equal !");
+            }
+            for(int round = 0; round < 3; round++){
+                long start = System.nanoTime();
+                Result result = FightSimulator.simulate(TestFight::createRoom, times, FightSimulator.DEFAULT_DT,
+                        FightSimulator.DEFAULT_MAX_TIME, seed + round, pool);
+                long cost = System.nanoTime() - start;
+                System.out.println(result);
+                System.out.printf("round %d: %d fights in %dms, %.1fus per fight, %.1fus per simulated minute%n",
+                        round, times, cost / 1000000, cost / 1000.0 / times,
+                        cost / 1000.0 / times * 60000 / result.getAvgTime());
+                if(result.getTimes() != times){
+                    throw new RuntimeException("Times Not Equal !");
+                }
+            }
+        }finally{
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * 以指定种子模拟一场战斗，返回全部战斗消息
+     * @param seed
+     * @return
+     * @Date 2026年10月18日 上午9:10:00
+     */
+    private static String replay(long seed){
+        StringBuilder log = new StringBuilder();
+        FightRoom room = TestFight.createRoom();
+        room.setSeed(seed);
+        room.setMsgConsumer(msgs -> log.append(msgs).append('\n'));
+        room.simulate(FightSimulator.DEFAULT_DT, FightSimulator.DEFAULT_MAX_TIME);
+        return log.toString();
+    }
+}
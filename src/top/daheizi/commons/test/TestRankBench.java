@@ -0,0 +1,502 @@
+package top.daheizi.commons.test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+import top.daheizi.commons.stl.ArrayListRank;
+import top.daheizi.commons.stl.BTreeRank;
+import top.daheizi.commons.stl.ConcurrentChart;
+import top.daheizi.commons.stl.IChart;
+import top.daheizi.commons.stl.IRank;
+import top.daheizi.commons.stl.LinkedListRank;
+import top.daheizi.commons.stl.RBTreeChart;
+import top.daheizi.commons.stl.RBTreeRank;
+import top.daheizi.commons.stl.RankChart;
+import top.daheizi.commons.stl.RankIterator;
+import top.daheizi.commons.stl.ShardedChart;
+import top.daheizi.commons.stl.SkipListChart;
+import top.daheizi.commons.stl.SkipListRank;
+import top.daheizi.commons.stl.StampedChart;
+import top.daheizi.commons.test.util.MicroBench;
+import top.daheizi.commons.test.util.MicroBench.Result;
+
+/**
+ * IRank和IChart各实现的基准测试
+ * IRank: add/remove/getRank/getKth/连续遍历
+ * IChart: put/getRank/getSequenceList/getRangeList
+ * 按数据量、数据分布和线程数组合参数，非线程安全的实现只在单线程下测试
+ * 数据分布决定IChart内值的分布以及查询的名次分布：
+ *   UNIFORM 均匀分布
+ *   ZIPF    近似zipf(s=1)分布，值和被查询的名次集中在靠前的位置
+ *   TIES    大量相等的值，每个值约有1000个数据(至少8个不同的值)
+ * 参数：
+ *   -s 数据量，逗号分隔，默认 1000,100000
+ *   -t 线程数，逗号分隔，默认 1,4
+ *   -d 数据分布，逗号分隔，默认全部
+ *   -f 过滤测试名称的正则表达式，测试名称形如 RBTreeRank.add
+ *   -w 预热轮数，默认 3
+ *   -i 测量轮数，默认 5
+ *   -o 每轮每个线程的操作次数，默认 10000(不超过数据量)
+ * 例：java top.daheizi.commons.test.TestRankBench -s 1000000,10000000 -t 1,2,4,8 -f "Chart\.put"
+ * @author daheizi
+ * @Date 2026年10月18日 上午2:40:10
+ */
+public class TestRankBench {
+
+    /** 连续遍历和分页查询的长度 */
+    private static final int SCAN_LENGTH = 100;
+
+    /** ArrayListRank参与测试的最大数据量，插入和删除的复杂度为O(n) */
+    private static final int ARRAY_RANK_MAX_SIZE = 100000;
+
+    /** LinkedListRank参与测试的最大数据量，所有操作的复杂度均为O(n) */
+    private static final int LINKED_RANK_MAX_SIZE = 10000;
+
+    /** 随机种子，保证每次运行的数据相同 */
+    private static final long SEED = 20261018L;
+
+    /**
+     * 数据分布
+     * @author daheizi
+     * @Date 2026年10月18日 上午2:41:00
+     */
+    enum Distribution {
+        UNIFORM, ZIPF, TIES;
+
+        /**
+         * 生成[0, n)范围内的值
+         * @param rnd
+         * @param n
+         * @return
+         * @Date 2026年10月18日 上午2:41:20
+         */
+        int value(Random rnd, int n) {
+            switch (this) {
+            case ZIPF:
+                return zipf(rnd, n);
+            case TIES:
+                return rnd.nextInt(Math.max(8, n / 1000));
+            default:
+                return rnd.nextInt(n);
+            }
+        }
+
+        /**
+         * 生成[0, n)范围内被查询的位置
+         * @param rnd
+         * @param n
+         * @return
+         * @Date 2026年10月18日 上午2:41:40
+         */
+        int position(Random rnd, int n) {
+            return this == ZIPF ? zipf(rnd, n) : rnd.nextInt(n);
+        }
+
+        /**
+         * getRangeList查询的值范围宽度
+         * @return
+         * @Date 2026年10月18日 上午2:42:00
+         */
+        int rangeWidth() {
+            return this == TIES ? 0 : SCAN_LENGTH;
+        }
+
+        /**
+         * 近似zipf(s=1)分布：取 n^u - 1，u在[0, 1)上均匀分布，
+         * 则 x 附近的概率密度约与 1/(x+1) 成正比
+         * @param rnd
+         * @param n
+         * @return
+         * @Date 2026年10月18日 上午2:42:30
+         */
+        private static int zipf(Random rnd, int n) {
+            int x = (int) Math.pow(n, rnd.nextDouble()) - 1;
+            return x < 0 ? 0 : (x >= n ? n - 1 : x);
+        }
+    }
+
+    /**
+     * 被测试的实现
+     * @param <T>
+     * @author daheizi
+     * @Date 2026年10月18日 上午2:43:00
+     */
+    private static final class Impl<T> {
+        /** 名称 */
+        final String name;
+        /** 构造实例 */
+        final Supplier<T> factory;
+        /** 是否线程安全 */
+        final boolean threadSafe;
+        /** 参与测试的最大数据量 */
+        final int maxSize;
+
+        /**
+         * 构造函数
+         * @param name
+         * @param factory
+         * @param threadSafe
+         * @param maxSize
+         */
+        Impl(String name, Supplier<T> factory, boolean threadSafe, int maxSize) {
+            this.name = name;
+            this.factory = factory;
+            this.threadSafe = threadSafe;
+            this.maxSize = maxSize;
+        }
+    }
+
+    /**
+     * 测试状态：被测试的实例以及预先生成的操作参数
+     * @param <T>
+     * @author daheizi
+     * @Date 2026年10月18日 上午2:43:30
+     */
+    private static final class State<T> {
+        /** 被测试的实例 */
+        final T target;
+        /** 操作参数 */
+        final int[] args;
+        /** 第二组操作参数 */
+        final int[] args2;
+
+        /**
+         * 构造函数
+         * @param target
+         * @param args
+         * @param args2
+         */
+        State(T target, int[] args, int[] args2) {
+            this.target = target;
+            this.args = args;
+            this.args2 = args2;
+        }
+    }
+
+    /** 数据量 */
+    private int[] sizes = {1000, 100000};
+
+    /** 线程数 */
+    private int[] threads = {1, 4};
+
+    /** 数据分布 */
+    private Distribution[] distributions = Distribution.values();
+
+    /** 测试名称过滤 */
+    private Pattern filter = Pattern.compile(".*");
+
+    /** 预热轮数 */
+    private int warmup = 3;
+
+    /** 测量轮数 */
+    private int iterations = 5;
+
+    /** 每轮每个线程的操作次数 */
+    private int ops = 10000;
+
+    /**
+     * 解析参数
+     * @param args
+     * @Date 2026年10月18日 上午2:44:10
+     */
+    private void parse(String[] args) {
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            String value = args[i + 1];
+            switch (args[i]) {
+            case "-s":
+                sizes = Arrays.stream(value.split(",")).mapToInt(s -> (int) Double.parseDouble(s)).toArray();
+                break;
+            case "-t":
+                threads = Arrays.stream(value.split(",")).mapToInt(Integer::parseInt).toArray();
+                break;
+            case "-d":
+                distributions = Arrays.stream(value.split(",")).map(Distribution::valueOf)
+                        .toArray(Distribution[]::new);
+                break;
+            case "-f":
+                filter = Pattern.compile(value);
+                break;
+            case "-w":
+                warmup = Integer.parseInt(value);
+                break;
+            case "-i":
+                iterations = Integer.parseInt(value);
+                break;
+            case "-o":
+                ops = Integer.parseInt(value);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+    }
+
+    /**
+     * 返回参与测试的IRank实现
+     * @return
+     * @Date 2026年10月18日 上午2:44:40
+     */
+    private static List<Impl<IRank<Integer>>> ranks() {
+        List<Impl<IRank<Integer>>> list = new ArrayList<>();
+        list.add(new Impl<>("ArrayListRank", ArrayListRank::new, false, ARRAY_RANK_MAX_SIZE));
+        list.add(new Impl<>("LinkedListRank", LinkedListRank::new, false, LINKED_RANK_MAX_SIZE));
+        list.add(new Impl<>("RBTreeRank", RBTreeRank::new, false, Integer.MAX_VALUE));
+        list.add(new Impl<>("BTreeRank", BTreeRank::new, false, Integer.MAX_VALUE));
+        list.add(new Impl<>("SkipListRank", SkipListRank::new, false, Integer.MAX_VALUE));
+        return list;
+    }
+
+    /**
+     * 返回参与测试的IChart实现
+     * @return
+     * @Date 2026年10月18日 上午2:45:00
+     */
+    private static List<Impl<IChart<Integer, Integer>>> charts() {
+        List<Impl<IChart<Integer, Integer>>> list = new ArrayList<>();
+        list.add(new Impl<>("RBTreeChart", RBTreeChart::new, false, Integer.MAX_VALUE));
+        list.add(new Impl<>("RankChart", RankChart::new, false, Integer.MAX_VALUE));
+        list.add(new Impl<>("ConcurrentChart", () -> new ConcurrentChart<>(new RBTreeChart<>()),
+                true, Integer.MAX_VALUE));
+        list.add(new Impl<>("StampedChart", () -> new StampedChart<>(new RBTreeChart<>()),
+                true, Integer.MAX_VALUE));
+        list.add(new Impl<>("ShardedChart", () -> new ShardedChart<>(8), true, Integer.MAX_VALUE));
+        list.add(new Impl<>("SkipListChart", SkipListChart::new, true, Integer.MAX_VALUE));
+        return list;
+    }
+
+    /**
+     * 返回[0, n)的一个随机排列
+     * @param rnd
+     * @param n
+     * @return
+     * @Date 2026年10月18日 上午2:45:30
+     */
+    private static int[] permutation(Random rnd, int n) {
+        int[] a = new int[n];
+        for (int i = 0; i < n; i++) {
+            a[i] = i;
+        }
+        for (int i = n - 1; i > 0; i--) {
+            int j = rnd.nextInt(i + 1);
+            int t = a[i];
+            a[i] = a[j];
+            a[j] = t;
+        }
+        return a;
+    }
+
+    /**
+     * 构建包含size个偶数关键字的IRank，按随机顺序插入
+     * @param impl
+     * @param size
+     * @return
+     * @Date 2026年10月18日 上午2:46:00
+     */
+    private static IRank<Integer> buildRank(Impl<IRank<Integer>> impl, int size) {
+        IRank<Integer> rank = impl.factory.get();
+        for (int x : permutation(new Random(SEED), size)) {
+            rank.add(x << 1);
+        }
+        return rank;
+    }
+
+    /**
+     * 构建包含size个关键字的IChart，值按给定分布生成
+     * @param impl
+     * @param size
+     * @param dist
+     * @return
+     * @Date 2026年10月18日 上午2:46:30
+     */
+    private static IChart<Integer, Integer> buildChart(Impl<IChart<Integer, Integer>> impl, int size,
+            Distribution dist) {
+        IChart<Integer, Integer> chart = impl.factory.get();
+        Random rnd = new Random(SEED);
+        for (int key : permutation(rnd, size)) {
+            chart.put(key, dist.value(rnd, size));
+        }
+        return chart;
+    }
+
+    /**
+     * 运行并输出一项测试
+     * @param bench
+     * @param name 测试名称
+     * @param param 参数描述
+     * @param setup
+     * @param setupPerIteration
+     * @param threadNum
+     * @param benchmark
+     * @Date 2026年10月18日 上午2:47:00
+     */
+    private static <S> void run(MicroBench bench, String name, String param, Supplier<S> setup,
+            boolean setupPerIteration, int threadNum, MicroBench.Benchmark<S> benchmark) {
+        Result result = bench.run(setup, setupPerIteration, threadNum, benchmark);
+        System.out.println(String.format("%-32s %-24s %2d  %s", name, param, threadNum, result));
+    }
+
+    /**
+     * 测试IRank的实现
+     * IRank内的关键字互不相等，数据分布只影响被查询的名次
+     * @Date 2026年10月18日 上午2:47:40
+     */
+    private void benchRanks() {
+        for (Impl<IRank<Integer>> impl : ranks()) {
+            for (int size : sizes) {
+                if (size > impl.maxSize) {
+                    continue;
+                }
+                MicroBench bench = new MicroBench(warmup, iterations, Math.min(ops, size));
+                int n = bench.getOpsPerIteration();
+                Random rnd = new Random(SEED + size);
+                String name = impl.name + ".";
+                String sizeParam = "size=" + size;
+                // 插入不存在的奇数关键字，每轮之前重建
+                if (filter.matcher(name + "add").find()) {
+                    int[] perm = permutation(rnd, size);
+                    int[] args = new int[n];
+                    for (int i = 0; i < n; i++) {
+                        args[i] = perm[i] << 1 | 1;
+                    }
+                    run(bench, name + "add", sizeParam, () -> new State<>(buildRank(impl, size), args, null),
+                            true, 1, (s, i, bh) -> bh.consume(s.target.add(s.args[i % s.args.length])));
+                }
+                // 移除存在的关键字，每轮之前重建
+                if (filter.matcher(name + "remove").find()) {
+                    int[] perm = permutation(rnd, size);
+                    int[] args = new int[n];
+                    for (int i = 0; i < n; i++) {
+                        args[i] = perm[i] << 1;
+                    }
+                    run(bench, name + "remove", sizeParam, () -> new State<>(buildRank(impl, size), args, null),
+                            true, 1, (s, i, bh) -> bh.consume(s.target.remove(s.args[i % s.args.length])));
+                }
+                if (!filter.matcher(name + "getRank").find() && !filter.matcher(name + "getKth").find()
+                        && !filter.matcher(name + "iterate").find()) {
+                    continue;
+                }
+                IRank<Integer> rank = buildRank(impl, size);
+                for (Distribution dist : distributions) {
+                    if (dist == Distribution.TIES) {
+                        continue;
+                    }
+                    String param = sizeParam + " " + dist;
+                    int[] args = new int[n];
+                    for (int i = 0; i < n; i++) {
+                        args[i] = dist.position(rnd, size);
+                    }
+                    State<IRank<Integer>> state = new State<>(rank, args, null);
+                    if (filter.matcher(name + "getRank").find()) {
+                        run(bench, name + "getRank", param, () -> state, false, 1,
+                                (s, i, bh) -> bh.consume(s.target.getRank(s.args[i % s.args.length] << 1)));
+                    }
+                    if (filter.matcher(name + "getKth").find()) {
+                        run(bench, name + "getKth", param, () -> state, false, 1,
+                                (s, i, bh) -> bh.consume(s.target.getKth(s.args[i % s.args.length] + 1)));
+                    }
+                    if (filter.matcher(name + "iterate").find()) {
+                        int limit = Math.max(0, size - SCAN_LENGTH);
+                        run(bench, name + "iterate", param, () -> state, false, 1, (s, i, bh) -> {
+                            int kth = Math.min(s.args[i % s.args.length], limit);
+                            RankIterator<Integer> it = s.target.rankIterator(kth);
+                            for (int k = 0; k < SCAN_LENGTH && it.hasNext(); k++) {
+                                bh.consume(it.next());
+                            }
+                        });
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * 测试IChart的实现
+     * @Date 2026年10月18日 上午2:48:30
+     */
+    private void benchCharts() {
+        int maxThreads = Arrays.stream(threads).max().orElse(1);
+        for (Impl<IChart<Integer, Integer>> impl : charts()) {
+            String name = impl.name + ".";
+            if (!filter.matcher(name + "put").find() && !filter.matcher(name + "getRank").find()
+                    && !filter.matcher(name + "getSequenceList").find()
+                    && !filter.matcher(name + "getRangeList").find()) {
+                continue;
+            }
+            for (int size : sizes) {
+                if (size > impl.maxSize) {
+                    continue;
+                }
+                MicroBench bench = new MicroBench(warmup, iterations, Math.min(ops, size));
+                int n = bench.getOpsPerIteration() * (impl.threadSafe ? maxThreads : 1);
+                for (Distribution dist : distributions) {
+                    String param = "size=" + size + " " + dist;
+                    Random rnd = new Random(SEED + size);
+                    IChart<Integer, Integer> chart = buildChart(impl, size, dist);
+                    int[] keys = new int[n];
+                    // 与keys的长度不同，使put在各轮之间写入不同的值，而不是重复写入相等的值
+                    int[] values = new int[n + 1];
+                    int[] positions = new int[n];
+                    for (int i = 0; i < n; i++) {
+                        keys[i] = rnd.nextInt(size);
+                        positions[i] = dist.position(rnd, size) + 1;
+                    }
+                    for (int i = 0; i < values.length; i++) {
+                        values[i] = dist.value(rnd, size);
+                    }
+                    for (int threadNum : threads) {
+                        if (threadNum > 1 && !impl.threadSafe) {
+                            continue;
+                        }
+                        if (filter.matcher(name + "getRank").find()) {
+                            State<IChart<Integer, Integer>> state = new State<>(chart, keys, null);
+                            run(bench, name + "getRank", param, () -> state, false, threadNum,
+                                    (s, i, bh) -> bh.consume(s.target.getRank(s.args[i % s.args.length])));
+                        }
+                        if (filter.matcher(name + "getSequenceList").find()) {
+                            State<IChart<Integer, Integer>> state = new State<>(chart, positions, null);
+                            run(bench, name + "getSequenceList", param, () -> state, false, threadNum,
+                                    (s, i, bh) -> {
+                                        int start = s.args[i % s.args.length];
+                                        bh.consume(s.target.getSequenceList(start, start + SCAN_LENGTH - 1));
+                                    });
+                        }
+                        if (filter.matcher(name + "getRangeList").find()) {
+                            int width = dist.rangeWidth();
+                            State<IChart<Integer, Integer>> state = new State<>(chart, values, null);
+                            run(bench, name + "getRangeList", param, () -> state, false, threadNum,
+                                    (s, i, bh) -> {
+                                        int low = s.args[i % s.args.length];
+                                        bh.consume(s.target.getRangeList(low, low + width));
+                                    });
+                        }
+                        // 更新已存在的关键字，数据量保持不变，最后执行
+                        if (filter.matcher(name + "put").find()) {
+                            State<IChart<Integer, Integer>> state = new State<>(chart, keys, values);
+                            run(bench, name + "put", param, () -> state, false, threadNum,
+                                    (s, i, bh) -> bh.consume(s.target.put(s.args[i % s.args.length],
+                                            s.args2[i % s.args2.length])));
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * 运行基准测试
+     * @param args 见类注释
+     * @Date 2026年10月18日 上午2:49:30
+     */
+    public static void main(String[] args) {
+        TestRankBench test = new TestRankBench();
+        test.parse(args);
+        System.out.println(String.format("%-32s %-24s %2s  %s", "Benchmark", "Param", "Th",
+                "Mean ± Error(99.9%)  [Min, Max]  Throughput"));
+        test.benchRanks();
+        test.benchCharts();
+    }
+}
@@ -0,0 +1,273 @@
+package top.daheizi.commons.test.util;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.function.Supplier;
+
+/**
+ * 简易的微基准测试工具
+ * 参照JMH的做法：先预热若干轮再测量若干轮，每轮在给定数目的线程上执行固定次数的操作，
+ * 操作的结果交给Blackhole消费以防止被JIT当作死代码消除，
+ * 最后给出每次操作的平均耗时、误差(99.9%置信区间，按正态分布近似)以及最小/最大值
+ * 测试状态可以在整个测试开始前构建一次，也可以在每一轮之前重新构建(用于add/remove等会改变状态的操作)，
+ * 构建状态的耗时不计入结果
+ * 仅在同一个JVM内运行，不做fork，对比不同实现时建议每次只运行一组测试
+ * @author daheizi
+ * @Date 2026年10月18日 上午2:30:10
+ */
+public class MicroBench {
+
+    /** 99.9%置信区间对应的正态分布分位数 */
+    private static final double Z_999 = 3.29;
+
+    /** 预热轮数 */
+    private final int warmupIterations;
+
+    /** 测量轮数 */
+    private final int measureIterations;
+
+    /** 每轮每个线程的操作次数 */
+    private final int opsPerIteration;
+
+    /**
+     * 消费测试结果，防止死代码消除
+     * 每个线程持有各自的实例
+     * @author daheizi
+     * @Date 2026年10月18日 上午2:31:00
+     */
+    public static final class Blackhole {
+        /** 永远不会与任何结果相等的诱饵，volatile读使JIT无法省略比较 */
+        private volatile Object bait = new Object();
+        /** 永远不会与任何结果相等的诱饵 */
+        private volatile int intBait = Integer.MIN_VALUE;
+        /** 累计值 */
+        private int sink;
+
+        /**
+         * 消费对象
+         * @param obj
+         * @Date 2026年10月18日 上午2:31:20
+         */
+        public void consume(Object obj) {
+            if (obj == bait) {
+                sink++;
+            }
+        }
+
+        /**
+         * 消费整数
+         * @param value
+         * @Date 2026年10月18日 上午2:31:30
+         */
+        public void consume(int value) {
+            if (value == intBait) {
+                sink++;
+            }
+        }
+
+        /**
+         * 消费布尔值
+         * @param value
+         * @Date 2026年10月18日 上午2:31:40
+         */
+        public void consume(boolean value) {
+            consume(value ? 1 : 0);
+        }
+    }
+
+    /**
+     * 被测试的操作
+     * @param <S> 测试状态
+     * @author daheizi
+     * @Date 2026年10月18日 上午2:32:00
+     */
+    @FunctionalInterface
+    public interface Benchmark<S> {
+        /**
+         * 执行一次操作
+         * @param state 测试状态
+         * @param index 操作序号，在各轮之间持续递增(含预热)，每个线程每轮占用连续的opsPerIteration个序号，
+         *              预先生成的操作参数可按 index % length 取用
+         * @param bh
+         * @Date 2026年10月18日 上午2:32:20
+         */
+        void run(S state, int index, Blackhole bh);
+    }
+
+    /**
+     * 测试结果
+     * @author daheizi
+     * @Date 2026年10月18日 上午2:33:00
+     */
+    public static final class Result {
+        /** 每次操作的平均耗时(纳秒) */
+        public final double mean;
+        /** 误差(纳秒) */
+        public final double error;
+        /** 最快一轮的每次操作耗时(纳秒) */
+        public final double min;
+        /** 最慢一轮的每次操作耗时(纳秒) */
+        public final double max;
+        /** 所有线程合计的每秒操作数 */
+        public final double throughput;
+
+        /**
+         * 构造函数
+         * @param mean
+         * @param error
+         * @param min
+         * @param max
+         * @param throughput
+         */
+        Result(double mean, double error, double min, double max, double throughput) {
+            this.mean = mean;
+            this.error = error;
+            this.min = min;
+            this.max = max;
+            this.throughput = throughput;
+        }
+
+        /**
+         * @see java.lang.Object#toString()
+         */
+        @Override
+        public String toString() {
+            return String.format("%12.1f ± %9.1f ns/op  [%.1f, %.1f]  %14.0f ops/s",
+                    mean, error, min, max, throughput);
+        }
+    }
+
+    /**
+     * 构造函数
+     * @param warmupIterations 预热轮数
+     * @param measureIterations 测量轮数
+     * @param opsPerIteration 每轮每个线程的操作次数
+     */
+    public MicroBench(int warmupIterations, int measureIterations, int opsPerIteration) {
+        if (warmupIterations < 0 || measureIterations <= 0 || opsPerIteration <= 0) {
+            throw new IllegalArgumentException();
+        }
+        this.warmupIterations = warmupIterations;
+        this.measureIterations = measureIterations;
+        this.opsPerIteration = opsPerIteration;
+    }
+
+    /**
+     * 返回每轮每个线程的操作次数
+     * @return
+     * @Date 2026年10月18日 上午2:33:40
+     */
+    public int getOpsPerIteration() {
+        return opsPerIteration;
+    }
+
+    /**
+     * 运行测试
+     * @param setup 构建测试状态
+     * @param setupPerIteration 是否在每一轮之前重新构建测试状态
+     * @param threads 线程数
+     * @param benchmark 被测试的操作
+     * @return
+     * @Date 2026年10月18日 上午2:34:10
+     */
+    public <S> Result run(Supplier<S> setup, boolean setupPerIteration, int threads, Benchmark<S> benchmark) {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("threads: " + threads);
+        }
+        S state = setupPerIteration ? null : setup.get();
+        double[] samples = new double[measureIterations];
+        long totalNanos = 0L;
+        for (int i = -warmupIterations; i < measureIterations; i++) {
+            if (setupPerIteration) {
+                state = null;
+                System.gc();
+                state = setup.get();
+            }
+            int base = (i + warmupIterations) * threads * opsPerIteration;
+            long nanos = runIteration(state, base, threads, benchmark);
+            if (i >= 0) {
+                // 每个线程的平均每次操作耗时
+                samples[i] = (double) nanos / opsPerIteration;
+                totalNanos += nanos;
+            }
+        }
+        double sum = 0;
+        double min = Double.MAX_VALUE;
+        double max = 0;
+        for (double s : samples) {
+            sum += s;
+            min = Math.min(min, s);
+            max = Math.max(max, s);
+        }
+        double mean = sum / measureIterations;
+        double error = 0;
+        if (measureIterations > 1) {
+            double var = 0;
+            for (double s : samples) {
+                var += (s - mean) * (s - mean);
+            }
+            error = Z_999 * Math.sqrt(var / (measureIterations - 1) / measureIterations);
+        }
+        double throughput = (double) threads * opsPerIteration * measureIterations * 1e9 / totalNanos;
+        return new Result(mean, error, min, max, throughput);
+    }
+
+    /**
+     * 执行一轮测试
+     * @param state
+     * @param base 本轮的起始操作序号
+     * @param threads
+     * @param benchmark
+     * @return 本轮的耗时(纳秒)
+     * @Date 2026年10月18日 上午2:35:00
+     */
+    private <S> long runIteration(S state, int base, int threads, Benchmark<S> benchmark) {
+        if (threads == 1) {
+            Blackhole bh = new Blackhole();
+            long ns1 = System.nanoTime();
+            for (int i = base, to = base + opsPerIteration; i < to; i++) {
+                benchmark.run(state, i, bh);
+            }
+            return System.nanoTime() - ns1;
+        }
+        CountDownLatch readyLatch = new CountDownLatch(threads);
+        CountDownLatch startLatch = new CountDownLatch(1);
+        CountDownLatch endLatch = new CountDownLatch(threads);
+        RuntimeException[] error = new RuntimeException[1];
+        for (int t = 0; t < threads; t++) {
+            int from = base + t * opsPerIteration;
+            new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    Blackhole bh = new Blackhole();
+                    readyLatch.countDown();
+                    try {
+                        startLatch.await();
+                        for (int i = from, to = from + opsPerIteration; i < to; i++) {
+                            benchmark.run(state, i, bh);
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    } catch (RuntimeException e) {
+                        error[0] = e;
+                    } finally {
+                        endLatch.countDown();
+                    }
+                }
+            }).start();
+        }
+        try {
+            readyLatch.await();
+            long ns1 = System.nanoTime();
+            startLatch.countDown();
+            endLatch.await();
+            long ns2 = System.nanoTime();
+            if (error[0] != null) {
+                throw error[0];
+            }
+            return ns2 - ns1;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -5,8 +5,9 @@ import java.lang.reflect.Array;
 import java.lang.reflect.Field;  
 import java.lang.reflect.Modifier;  
 import java.util.ArrayDeque;  
+import java.util.Collections;  
 import java.util.Deque;  
-import java.util.HashSet;  
+import java.util.IdentityHashMap;  
 import java.util.Set;  
   
 /** 
@@ -24,6 +25,15 @@ public class SizeOfObject {
         inst = instP;  
     }  
   
+    /** 
+     * 是否已通过 -javaagent 加载，未加载时sizeOf和fullSizeOf不可用 
+     * 
+     * @return 
+     */  
+    public static boolean isLoaded() {  
+        return inst != null;  
+    }  
+  
     /** 
      * 直接计算当前对象占用空间大小，包括当前类及超类的基本类型实例字段大小、<br></br> 
      * 引用类型实例字段引用大小、实例基本类型数组总占用空间、实例引用类型数组引用本身占用空间大小;<br></br> 
@@ -44,14 +54,20 @@ public class SizeOfObject {
      * @throws IllegalAccessException 
      */  
     public static long fullSizeOf(Object objP) throws IllegalAccessException {  
-        Set<Object> visited = new HashSet<Object>();  
+        // 按引用判重，避免equals相等的不同对象被漏计  
+        Set<Object> visited = Collections.newSetFromMap(new IdentityHashMap<Object, Boolean>());  
         Deque<Object> toBeQueue = new ArrayDeque<Object>();  
         toBeQueue.add(objP);  
         long size = 0L;  
         while (toBeQueue.size() > 0) {  
             Object obj = toBeQueue.poll();  
+            //计算过的对象不再遍历，否则含环的结构(如带父节点指针的树)会死循环  
+            if (skipObject(visited, obj)) {  
+                continue;  
+            }  
+            visited.add(obj);  
             //sizeOf的时候已经计基本类型和引用的长度，包括数组  
-            size += skipObject(visited, obj) ? 0L : sizeOf(obj);  
+            size += sizeOf(obj);  
             Class<?> tmpObjClass = obj.getClass();  
             if (tmpObjClass.isArray()) {  
                 //[I , [F 基本类型名字长度是2  